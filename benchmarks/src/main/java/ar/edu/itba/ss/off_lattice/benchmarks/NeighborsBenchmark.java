@@ -0,0 +1,71 @@
+package ar.edu.itba.ss.off_lattice.benchmarks;
+
+import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.simulation.NeighborsMethod;
+import ar.edu.itba.ss.off_lattice.utils.CellListNeighborsCalculator;
+import ar.edu.itba.ss.off_lattice.utils.Neighborhoods;
+import ar.edu.itba.ss.off_lattice.utils.NeighborhoodsCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks the neighbors computation (i.e the Cell Index Method).
+ */
+public class NeighborsBenchmark extends SpaceBenchmark {
+
+    /**
+     * The neighbors method (i.e 'custom.simulation.neighbors-method').
+     */
+    @Param({"map", "cell-list"})
+    private String method;
+
+    /**
+     * The {@link NeighborhoodsCalculator} (for the map method).
+     */
+    private NeighborhoodsCalculator neighborhoodsCalculator;
+
+    /**
+     * The {@link CellListNeighborsCalculator} (for the cell list method).
+     */
+    private CellListNeighborsCalculator cellListNeighborsCalculator;
+
+    /**
+     * Creates the space and the calculator.
+     */
+    @Setup
+    public void setup() {
+        final Space space = createSpace();
+        switch (NeighborsMethod.fromPropertyName(method)) {
+            case MAP:
+                neighborhoodsCalculator = new NeighborhoodsCalculator(space, interactionRadius, mx(), my());
+                break;
+            case CELL_LIST:
+                cellListNeighborsCalculator = new CellListNeighborsCalculator(space, interactionRadius, mx(), my(), 1);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported neighbors method: " + method);
+        }
+    }
+
+    /**
+     * Computes the neighborhoods.
+     *
+     * @param blackhole Consumes the result.
+     */
+    @Benchmark
+    public void computeNeighborhoods(Blackhole blackhole) {
+        if (neighborhoodsCalculator != null) {
+            final Map<Particle, List<Particle>> neighborhoods = neighborhoodsCalculator.computeNeighborhoods();
+            blackhole.consume(neighborhoods);
+        } else {
+            final Neighborhoods neighborhoods = cellListNeighborsCalculator.computeNeighborhoods();
+            blackhole.consume(neighborhoods);
+        }
+    }
+}
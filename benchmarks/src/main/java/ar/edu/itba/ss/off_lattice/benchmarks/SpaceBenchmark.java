@@ -0,0 +1,127 @@
+package ar.edu.itba.ss.off_lattice.benchmarks;
+
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+import ar.edu.itba.ss.off_lattice.simulation.Initializer;
+import ar.edu.itba.ss.off_lattice.utils.CounterBasedRandomSource;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for benchmarks performed over a {@link Space},
+ * holding the parameters of the system (named as the properties of the simulator).
+ *
+ * @implNote Combinations in which the interaction radius is not lower than the cells' sides are rejected
+ * by the simulator (i.e the benchmark fails for them), so parameters must be chosen accordingly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class SpaceBenchmark {
+
+    /**
+     * The seed used to generate the initial space (i.e all benchmarks run over the same spaces).
+     */
+    protected static final long SEED = 42;
+
+    /**
+     * The amount of particles (i.e 'custom.system.particles').
+     */
+    @Param({"1000", "10000", "100000"})
+    protected int particles;
+
+    /**
+     * The space side length (i.e 'custom.system.length').
+     */
+    @Param({"100"})
+    protected double length;
+
+    /**
+     * The ratio between the width and the height of the space, which keeps the area of a squared space
+     * of side {@code length} (i.e the density does not change, and 1 means a squared space).
+     */
+    @Param({"1"})
+    protected double aspectRatio;
+
+    /**
+     * The interaction radius (i.e 'custom.system.interaction-radius').
+     */
+    @Param({"2.5"})
+    protected double interactionRadius;
+
+    /**
+     * The amount of cells per side of a squared space (i.e 'custom.simulation.M').
+     * Rectangular spaces keep the amount of cells, scaling each axis according to the aspect ratio.
+     */
+    @Param({"10", "39"})
+    protected int m;
+
+    /**
+     * The speed module (i.e 'custom.simulation.speed-module').
+     */
+    @Param({"0.03"})
+    protected double speedModule;
+
+    /**
+     * The representation of the particles' velocities (i.e 'custom.simulation.velocity-representation').
+     */
+    @Param({"angle", "cartesian"})
+    protected String velocityRepresentation;
+
+    /**
+     * @return The {@link RandomSource} used to generate the spaces.
+     */
+    protected RandomSource randomSource() {
+        return new CounterBasedRandomSource(SEED);
+    }
+
+    /**
+     * @return The width of the space.
+     */
+    protected double width() {
+        return length * Math.sqrt(aspectRatio);
+    }
+
+    /**
+     * @return The height of the space.
+     */
+    protected double height() {
+        return length / Math.sqrt(aspectRatio);
+    }
+
+    /**
+     * @return The amount of cells in the 'x' axis.
+     */
+    protected int mx() {
+        return (int) Math.max(1, Math.round(m * Math.sqrt(aspectRatio)));
+    }
+
+    /**
+     * @return The amount of cells in the 'y' axis.
+     */
+    protected int my() {
+        return (int) Math.max(1, Math.round(m / Math.sqrt(aspectRatio)));
+    }
+
+    /**
+     * @return A new {@link Space} with the benchmark parameters.
+     */
+    protected Space createSpace() {
+        return Initializer.generateInitialSpace(width(), height(), particles, speedModule, randomSource(),
+                VelocityRepresentation.fromPropertyName(velocityRepresentation), Precision.DOUBLE);
+    }
+}
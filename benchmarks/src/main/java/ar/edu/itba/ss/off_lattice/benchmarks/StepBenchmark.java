@@ -0,0 +1,124 @@
+package ar.edu.itba.ss.off_lattice.benchmarks;
+
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+import ar.edu.itba.ss.off_lattice.simulation.ConvergenceCriteria;
+import ar.edu.itba.ss.off_lattice.simulation.GridSize;
+import ar.edu.itba.ss.off_lattice.simulation.NeighborsMethod;
+import ar.edu.itba.ss.off_lattice.simulation.ParticleOrdering;
+import ar.edu.itba.ss.off_lattice.simulation.SimulationParameters;
+import ar.edu.itba.ss.off_lattice.simulation.StepMode;
+import ar.edu.itba.ss.off_lattice.simulation.Updater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmarks a full simulation step (i.e {@link Updater#update()}).
+ * Scaling across thread counts is measured with the {@code parallelism} parameter
+ * (only the cell list and half-shell methods support values greater than 1, so other combinations are skipped).
+ * Note that the Verlet lists method needs an 'M' value valid for the interaction radius plus the skin.
+ * The effect of sorting particles along a space-filling curve is measured with the {@code ordering} parameter
+ * (the time spent sorting them is included, amortized over the reorder interval).
+ * The {@code stepMode} parameter compares the reference and fused steps (only the cell list method supports the
+ * latter, so other combinations are skipped).
+ */
+public class StepBenchmark extends SpaceBenchmark {
+
+    /**
+     * The neighbors method (i.e 'custom.simulation.neighbors-method').
+     */
+    @Param({"map", "cell-list", "verlet", "half-shell"})
+    private String method;
+
+    /**
+     * The skin radius used to build Verlet lists (i.e 'custom.simulation.verlet-skin').
+     */
+    @Param({"0.5"})
+    private double verletSkin;
+
+    /**
+     * The 'eta' value (i.e 'custom.simulation.eta').
+     */
+    @Param({"1.5"})
+    private double eta;
+
+    /**
+     * The amount of threads (i.e 'custom.simulation.parallelism').
+     */
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    /**
+     * The curve along which particles are periodically sorted (i.e 'custom.simulation.reorder.curve').
+     */
+    @Param({"none", "hilbert"})
+    private String ordering;
+
+    /**
+     * Every how many steps particles are sorted (i.e 'custom.simulation.reorder.interval').
+     */
+    @Param({"100"})
+    private int reorderInterval;
+
+    /**
+     * How each step is performed (i.e 'custom.simulation.step-mode').
+     */
+    @Param({"reference", "fused"})
+    private String stepMode;
+
+    /**
+     * The {@link ForkJoinPool} used for parallel updates.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The benchmarked {@link Updater}.
+     */
+    private Updater updater;
+
+    /**
+     * Creates the space and the updater.
+     */
+    @Setup
+    public void setup() {
+        final NeighborsMethod neighborsMethod = NeighborsMethod.fromPropertyName(method);
+        if (parallelism > 1 && neighborsMethod != NeighborsMethod.CELL_LIST
+                && neighborsMethod != NeighborsMethod.HALF_SHELL) {
+            throw new IllegalArgumentException("Skipping unsupported combination: " + method + " in parallel");
+        }
+        final StepMode mode = StepMode.fromPropertyName(stepMode);
+        if (mode == StepMode.FUSED && neighborsMethod != NeighborsMethod.CELL_LIST) {
+            throw new IllegalArgumentException("Skipping unsupported combination: " + method + " fused");
+        }
+        // Only the parameters describing how each step is performed are used by the updater
+        final SimulationParameters parameters = new SimulationParameters(0, eta, new GridSize(mx(), my()), 1,
+                false, speedModule, neighborsMethod, verletSkin, parallelism, SEED,
+                VelocityRepresentation.fromPropertyName(velocityRepresentation), ConvergenceCriteria.DEFAULT,
+                ParticleOrdering.fromPropertyName(ordering), reorderInterval, mode, Precision.DOUBLE);
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        updater = new Updater(createSpace(), interactionRadius, parameters, parameters.getGrid(), randomSource(),
+                pool);
+    }
+
+    /**
+     * Shuts down the pool.
+     */
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Performs a simulation step.
+     */
+    @Benchmark
+    public void update() {
+        updater.update();
+    }
+}
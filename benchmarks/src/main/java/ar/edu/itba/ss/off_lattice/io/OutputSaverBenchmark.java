@@ -0,0 +1,92 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.benchmarks.SpaceBenchmark;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.simulation.StateSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Benchmarks each {@link OutputSaver} of {@link Space.SpaceState}s, writing one state per operation
+ * into a temporary file (savers of observables only write a few values per state, so they are not benchmarked).
+ */
+public class OutputSaverBenchmark extends SpaceBenchmark {
+
+    /**
+     * The amount of decimals used by the fixed precision Ovito saver.
+     */
+    private static final int FIXED_DECIMALS = 6;
+
+    /**
+     * The benchmarked saver.
+     */
+    @Param({"ovito", "ovito-fixed", "trajectory"})
+    private String saver;
+
+    /**
+     * The state written in each operation.
+     */
+    private Space.SpaceState state;
+
+    /**
+     * The temporary file.
+     */
+    private File file;
+
+    /**
+     * The {@link StateSink} into which states are written.
+     */
+    private StateSink<Space.SpaceState> sink;
+
+    /**
+     * Creates the state, and opens the output.
+     *
+     * @throws IOException If the temporary file can not be created.
+     */
+    @Setup
+    public void setup() throws IOException {
+        state = createSpace().saveState();
+        file = File.createTempFile("off-lattice-" + saver, ".out");
+        sink = createSaver().open(file.getAbsolutePath());
+    }
+
+    /**
+     * Closes the output, and deletes the temporary file.
+     */
+    @TearDown
+    public void tearDown() {
+        sink.close();
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Writes a state.
+     */
+    @Benchmark
+    public void save() {
+        sink.accept(state);
+    }
+
+    /**
+     * @return The benchmarked {@link OutputSaver}.
+     */
+    private OutputSaver<Space.SpaceState> createSaver() {
+        switch (saver) {
+            case "ovito":
+                return new SpaceOvitoFileSaver();
+            case "ovito-fixed":
+                return new SpaceOvitoFileSaver(Integer.toString(FIXED_DECIMALS));
+            case "trajectory":
+                return new TrajectoryFileSaver();
+            default:
+                throw new IllegalArgumentException("Unknown saver: " + saver);
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package ar.edu.itba.ss.off_lattice;
 
-import ar.edu.itba.ss.off_lattice.io.OtherSimulationDataFileSaver;
+import ar.edu.itba.ss.off_lattice.io.AsyncStateSink;
+import ar.edu.itba.ss.off_lattice.io.BackpressurePolicy;
+import ar.edu.itba.ss.off_lattice.io.CheckpointArguments;
+import ar.edu.itba.ss.off_lattice.io.CheckpointReader;
+import ar.edu.itba.ss.off_lattice.io.OutputArguments;
 import ar.edu.itba.ss.off_lattice.io.OutputSaver;
+import ar.edu.itba.ss.off_lattice.io.PrecisionValidationArguments;
 import ar.edu.itba.ss.off_lattice.io.SimulationArguments;
+import ar.edu.itba.ss.off_lattice.io.SweepArguments;
 import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.simulation.Checkpoint;
+import ar.edu.itba.ss.off_lattice.simulation.Observables;
+import ar.edu.itba.ss.off_lattice.simulation.PrecisionValidator;
 import ar.edu.itba.ss.off_lattice.simulation.SimulationEngine;
+import ar.edu.itba.ss.off_lattice.simulation.SimulationParameters;
 import ar.edu.itba.ss.off_lattice.simulation.State;
+import ar.edu.itba.ss.off_lattice.simulation.StateSink;
+import ar.edu.itba.ss.off_lattice.simulation.SweepRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +29,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.function.BinaryOperator;
 
 /**
  * Main class.
@@ -42,69 +55,304 @@ public class SelfPropelledFlockSimulator implements CommandLineRunner {
     private final SimulationArguments arguments;
 
     /**
-     * {@link Map} holding {@link OutputSaver}s, together with the path in which each saver must save.
+     * The {@link OutputArguments} to be used.
+     */
+    private final OutputArguments outputArguments;
+
+    /**
+     * The {@link SweepArguments} to be used.
+     */
+    private final SweepArguments sweepArguments;
+
+    /**
+     * The {@link CheckpointArguments} to be used.
+     */
+    private final CheckpointArguments checkpointArguments;
+
+    /**
+     * The {@link PrecisionValidationArguments} to be used.
+     */
+    private final PrecisionValidationArguments validationArguments;
+
+    /**
+     * The {@link OutputSaver} used to save checkpoints.
+     */
+    private final OutputSaver<Checkpoint> checkpointFileSaver;
+
+    /**
+     * The {@link OutputSaver} used to save the results of a sweep.
+     */
+    private final OutputSaver<SweepRunner.SweepResult> sweepResultsFileSaver;
+
+    /**
+     * The interaction radius (i.e used to create an engine for each run of a sweep).
+     */
+    private final double interactionRadius;
+
+    /**
+     * {@link Map} holding {@link OutputSaver}s of {@link Space.SpaceState}s,
+     * together with the path in which each saver must save.
      */
     private final Map<OutputSaver<Space.SpaceState>, String> outputSavers;
 
+    /**
+     * {@link Map} holding {@link OutputSaver}s of {@link Observables.ObservablesState}s
+     * (i.e those that do not need the particles' states), together with the path in which each saver must save.
+     */
+    private final Map<OutputSaver<Observables.ObservablesState>, String> observablesOutputSavers;
+
     /**
      * Constructor.
      *
-     * @param engine    The {@link SimulationEngine} to be used.
-     * @param arguments The {@link SimulationArguments} to be used.
+     * @param engine              The {@link SimulationEngine} to be used.
+     * @param arguments           The {@link SimulationArguments} to be used.
+     * @param outputArguments     The {@link OutputArguments} to be used.
+     * @param sweepArguments      The {@link SweepArguments} to be used.
+     * @param checkpointArguments The {@link CheckpointArguments} to be used.
+     * @param validationArguments The {@link PrecisionValidationArguments} to be used.
+     * @param interactionRadius   The interaction radius.
+     * @param allocationReport    Indicates whether the bytes allocated by each step must be counted and reported.
+     * @implNote Outputs whose path is empty are not saved.
      */
     @Autowired
     public SelfPropelledFlockSimulator(SimulationEngine engine, SimulationArguments arguments,
-                                       OutputSaver<Space.SpaceState> rawFileSaver,
-                                       @Value("${custom.output.raw}") String rawFilePath,
+                                       OutputArguments outputArguments, SweepArguments sweepArguments,
+                                       CheckpointArguments checkpointArguments,
+                                       PrecisionValidationArguments validationArguments,
+                                       @Value("${custom.system.interaction-radius}") double interactionRadius,
+                                       @Value("${custom.simulation.allocation-report:false}")
+                                               boolean allocationReport,
+                                       OutputSaver<Space.SpaceState> trajectoryFileSaver,
+                                       @Value("${custom.output.raw:}") String rawFilePath,
                                        OutputSaver<Space.SpaceState> spaceOvitoFileSaver,
-                                       @Value("${custom.output.ovito}") String ovitoFilePath,
-                                       OutputSaver<Space.SpaceState> orderAgainstIterationsFileSaver,
-                                       @Value("${custom.output.order}") String orderFilePath,
-                                       OtherSimulationDataFileSaver otherSimulationDataFileSaver,
-                                       @Value("${custom.output.other}") String otherDataFilePath) {
+                                       @Value("${custom.output.ovito:}") String ovitoFilePath,
+                                       OutputSaver<Observables.ObservablesState> orderAgainstIterationsFileSaver,
+                                       @Value("${custom.output.order:}") String orderFilePath,
+                                       OutputSaver<Observables.ObservablesState> otherSimulationDataFileSaver,
+                                       @Value("${custom.output.other:}") String otherDataFilePath,
+                                       OutputSaver<SweepRunner.SweepResult> sweepResultsFileSaver,
+                                       OutputSaver<Checkpoint> checkpointFileSaver) {
         this.engine = engine;
         this.arguments = arguments;
+        this.outputArguments = outputArguments;
+        this.sweepArguments = sweepArguments;
+        this.checkpointArguments = checkpointArguments;
+        this.validationArguments = validationArguments;
+        this.checkpointFileSaver = checkpointFileSaver;
+        this.sweepResultsFileSaver = sweepResultsFileSaver;
+        this.interactionRadius = interactionRadius;
+        this.engine.setAllocationReport(allocationReport);
+        this.engine.setOutputFilter(outputArguments.getOutputFilter());
+        if (outputArguments.getOutputFilter().hasVariableAmountOfParticles() && !rawFilePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("The output window can not be used with the raw file,"
+                    + " as all its frames must have the same amount of particles");
+        }
         this.outputSavers = new HashMap<>();
-        this.outputSavers.put(rawFileSaver, rawFilePath);
-        this.outputSavers.put(spaceOvitoFileSaver, ovitoFilePath);
-        this.outputSavers.put(orderAgainstIterationsFileSaver, orderFilePath);
-        this.outputSavers.put(otherSimulationDataFileSaver, otherDataFilePath);
+        putIfPathIsSet(outputSavers, trajectoryFileSaver, rawFilePath);
+        putIfPathIsSet(outputSavers, spaceOvitoFileSaver, ovitoFilePath);
+        this.observablesOutputSavers = new HashMap<>();
+        putIfPathIsSet(observablesOutputSavers, orderAgainstIterationsFileSaver, orderFilePath);
+        putIfPathIsSet(observablesOutputSavers, otherSimulationDataFileSaver, otherDataFilePath);
+        if (checkpointArguments.isEnabled() && !outputSavers.isEmpty() && outputArguments.isAsync()
+                && outputArguments.getBackpressurePolicy() != BackpressurePolicy.BLOCK) {
+            throw new IllegalArgumentException("Checkpoints can not be taken with the "
+                    + outputArguments.getBackpressurePolicy().getPropertyName() + " backpressure policy,"
+                    + " as the amount of states saved up to each of them would be unknown");
+        }
     }
 
 
     @Override
     public void run(String... args) throws Exception {
-        // First, perform simulation
-        simulate();
-        // Then, save the simulation results
-        saveSimulation();
+        if (sweepArguments.isEnabled()) {
+            sweep();
+            System.exit(0);
+        }
+        if (validationArguments.isEnabled()) {
+            validatePrecision();
+            System.exit(0);
+        }
+        // First, look for the checkpoint to resume from, as outputs must be cut right after its states
+        final Checkpoint checkpoint = checkpointArguments.isResume() ? newestCheckpoint() : null;
+        // Next, open outputs, in order to save states while simulating
+        final List<StateSink<?>> sinks = openOutputs(checkpoint);
+        try {
+            // Then, perform simulation
+            simulate(checkpoint);
+        } finally {
+            // Finally, complete the outputs
+            closeOutputs(sinks);
+        }
         System.exit(0);
     }
 
     /**
      * Performs the simulation phase of the program.
+     *
+     * @param checkpoint The {@link Checkpoint} from which the simulation is resumed
+     *                   (or {@code null} to start from scratch).
      */
-    private void simulate() {
-        LOGGER.info("Starting simulation...");
-        engine.simulate(arguments.getIterations(), arguments.getEta(), arguments.getM(), arguments.getSpeedModule());
+    private void simulate(Checkpoint checkpoint) {
+        if (checkpoint != null) {
+            LOGGER.info("Resuming simulation from iteration {} (seed: {})...",
+                    checkpoint.getIteration(), checkpoint.getSeed());
+            engine.resume(arguments.getSimulationParameters(), checkpoint);
+        } else {
+            LOGGER.info("Starting simulation (seed: {})...", arguments.getSimulationParameters().getSeed());
+            engine.simulate(arguments.getSimulationParameters());
+        }
         LOGGER.info("Finished simulation");
     }
 
     /**
-     * Performs the save phase of the program.
+     * Reads the newest checkpoint saved in the checkpoints directory from which the simulation can be resumed
+     * (i.e those taken in simulations with other parameters are skipped).
+     *
+     * @return The newest {@link Checkpoint}, or {@code null} if there is none (i.e the simulation must start over).
+     * @throws IOException If any I/O error occurs while looking for the checkpoint.
      */
-    private <S extends State> void saveSimulation() throws IOException {
-        LOGGER.info("Saving output in all formats...");
+    private Checkpoint newestCheckpoint() throws IOException {
+        if (!checkpointArguments.isEnabled()) {
+            LOGGER.warn("Can not resume, as the checkpoints directory is not set. Starting over...");
+            return null;
+        }
+        final SimulationParameters parameters = arguments.getSimulationParameters();
+        final Checkpoint checkpoint = CheckpointReader.readNewest(checkpointArguments.getPath(),
+                taken -> engine.canResume(parameters, taken));
+        if (checkpoint == null) {
+            LOGGER.warn("There are no checkpoints of this simulation in {}. Starting over...",
+                    checkpointArguments.getPath());
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Performs a sweep of simulations, saving the result of each run as it finishes
+     * (i.e the outputs of a single simulation are not saved).
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting for the runs.
+     */
+    private void sweep() throws InterruptedException {
+        final SimulationParameters parameters = arguments.getSimulationParameters();
+        LOGGER.info("Starting sweep (seed: {})...", parameters.getSeed());
+        final StateSink<SweepRunner.SweepResult> sink = sweepResultsFileSaver.open(sweepArguments.getOutputPath());
+        final long start = System.nanoTime();
         try {
-            final Queue<Space.SpaceState> simulationOutput = engine.getStates();
-            outputSavers.forEach((saver, path) -> saver.save(path, new LinkedList<>(simulationOutput)));
-        } catch (IllegalStateException e) {
-            LOGGER.error("Tried to get simulation results while still simulating");
-            System.exit(1);
+            new SweepRunner(interactionRadius, parameters, sweepArguments.getThreads())
+                    .run(sweepArguments.getPoints(), sweepArguments.getReplicas(), sink);
+        } finally {
+            sink.close();
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        final int runs = sweepArguments.getPoints().size() * sweepArguments.getReplicas();
+        LOGGER.info("Finished sweep: {} runs in {} seconds ({} runs per second)", runs, seconds, runs / seconds);
+    }
+
+    /**
+     * Validates the single precision, simulating each replica with both precisions and comparing the results
+     * (i.e the outputs of a single simulation are not saved).
+     */
+    private void validatePrecision() {
+        final SimulationParameters parameters = arguments.getSimulationParameters();
+        LOGGER.info("Starting precision validation (seed: {})...", parameters.getSeed());
+        new PrecisionValidator(validationArguments.getSpaceWidth(), validationArguments.getSpaceHeight(),
+                validationArguments.getAmountOfParticles(), interactionRadius, parameters)
+                .validate(validationArguments.getReplicas());
+        LOGGER.info("Finished precision validation");
+    }
+
+    /**
+     * Opens a {@link StateSink} for each {@link OutputSaver}, registering them in the engine.
+     * If asynchronous output is enabled, each of them is wrapped with an {@link AsyncStateSink}.
+     * When resuming, the states saved after the checkpoint are discarded,
+     * and the following ones are appended to those saved before it.
+     *
+     * @param checkpoint The {@link Checkpoint} from which the simulation is resumed
+     *                   (or {@code null} to start from scratch).
+     * @return The opened {@link StateSink}s.
+     */
+    private List<StateSink<?>> openOutputs(Checkpoint checkpoint) {
+        LOGGER.info("Opening output in all formats...");
+        final List<StateSink<?>> sinks = new LinkedList<>();
+        outputSavers.forEach((saver, path) -> {
+            final StateSink<Space.SpaceState> sink = openOutput(checkpoint == null ? saver.open(path)
+                    : saver.resume(path, checkpoint.getFrames()), path, Space.SpaceState::copy);
+            engine.registerSink(sink);
+            sinks.add(sink);
+        });
+        observablesOutputSavers.forEach((saver, path) -> {
+            // Observables are all pushed again when resuming, so their outputs are saved from scratch
+            final StateSink<Observables.ObservablesState> sink =
+                    openOutput(saver.open(path), path, Observables.ObservablesState::copy);
+            engine.registerObservablesSink(sink);
+            sinks.add(sink);
+        });
+        if (checkpointArguments.isEnabled()) {
+            // Checkpoints are written in background, so the simulation only waits if the previous one is not done.
+            // They are never modified once taken, so there is no need to copy them.
+            final StateSink<Checkpoint> sink = new AsyncStateSink<>("checkpoint-writer",
+                    checkpointFileSaver.open(checkpointArguments.getPath()), (taken, ignored) -> taken,
+                    1, BackpressurePolicy.BLOCK, 1);
+            engine.registerCheckpointSink(sink);
+            engine.setCheckpointInterval(checkpointArguments.getInterval());
+            sinks.add(sink);
+        }
+        return sinks;
+    }
+
+    /**
+     * Wraps the given {@code sink} with an {@link AsyncStateSink}, if asynchronous output is enabled.
+     *
+     * @param sink   The {@link StateSink} opened by an {@link OutputSaver}.
+     * @param path   The path in which the file is saved.
+     * @param copier Copies a state into a reusable snapshot (used when output is asynchronous).
+     * @param <S>    The concrete subtype of {@link State} received by the {@code sink}.
+     * @return The {@link StateSink} into which states must be pushed.
+     */
+    private <S extends State> StateSink<S> openOutput(StateSink<S> sink, String path, BinaryOperator<S> copier) {
+        if (!outputArguments.isAsync()) {
+            return sink;
+        }
+        return new AsyncStateSink<>("writer-" + path, sink, copier,
+                outputArguments.getBufferSize(), outputArguments.getBackpressurePolicy(),
+                outputArguments.getDecimation());
+    }
+
+    /**
+     * Closes the given {@link StateSink}s (i.e completes the output files), removing them from the engine.
+     *
+     * @param sinks The {@link StateSink}s to be closed.
+     */
+    private void closeOutputs(List<StateSink<?>> sinks) {
+        LOGGER.info("Saving output in all formats...");
+        engine.clearSinks();
+        for (StateSink<?> sink : sinks) {
+            // All sinks must be closed (i.e their writer threads must finish), even if any of them fails
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not complete an output", e);
+            }
         }
         LOGGER.info("Finished saving output in all formats.");
     }
 
+    /**
+     * Puts the given {@code saver} into the given {@code savers} {@link Map}, only if the given {@code path} is set.
+     *
+     * @param savers The {@link Map} of {@link OutputSaver}s.
+     * @param saver  The {@link OutputSaver}.
+     * @param path   The path in which the saver must save.
+     * @param <S>    The concrete subtype of {@link State} saved by the {@code saver}.
+     */
+    private static <S extends State> void putIfPathIsSet(Map<OutputSaver<S>, String> savers, OutputSaver<S> saver,
+                                                         String path) {
+        if (path.trim().isEmpty()) {
+            return;
+        }
+        savers.put(saver, path.trim());
+    }
+
     /**
      * Entry point.
      *
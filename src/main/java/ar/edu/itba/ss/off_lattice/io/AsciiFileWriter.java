@@ -0,0 +1,136 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Object in charge of writing ASCII text into a {@link FileChannel} through a reusable byte buffer
+ * (i.e numbers are encoded straight into the buffer, without creating strings or going through a charset encoder).
+ * The buffer is written into the channel when it is almost full, and when this writer is flushed or closed.
+ */
+/* package */ final class AsciiFileWriter implements Closeable {
+
+    /**
+     * The size of the buffer, in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The {@link FileChannel} into which the text is written.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The amount of decimals with which {@code double} values are written
+     * (or {@link DecimalEncoder#SHORTEST} to write their shortest representation).
+     */
+    private final int decimals;
+
+    /**
+     * The buffer holding the text not written yet.
+     */
+    private final byte[] buffer;
+
+    /**
+     * A {@link ByteBuffer} wrapping the {@link #buffer}, used to write it into the {@link #channel}.
+     */
+    private final ByteBuffer byteBuffer;
+
+    /**
+     * The position of the {@link #buffer} in which the next character is put.
+     */
+    private int position;
+
+
+    /**
+     * Constructor.
+     *
+     * @param channel  The {@link FileChannel} into which the text is written (closed with this writer).
+     * @param decimals The amount of decimals with which {@code double} values are written
+     *                 (or {@link DecimalEncoder#SHORTEST} to write their shortest representation).
+     */
+    /* package */ AsciiFileWriter(FileChannel channel, int decimals) {
+        this.channel = channel;
+        this.decimals = decimals;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.byteBuffer = ByteBuffer.wrap(buffer);
+        this.position = 0;
+    }
+
+    /**
+     * Appends the given {@code value} in decimal notation.
+     *
+     * @param value The value to be appended.
+     * @return This writer.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    /* package */ AsciiFileWriter append(long value) throws IOException {
+        ensureCapacity();
+        if (value < 0) {
+            buffer[position++] = '-';
+        }
+        position = DecimalEncoder.putLong(Math.abs(value), buffer, position);
+        return this;
+    }
+
+    /**
+     * Appends the given {@code value}, with the amount of decimals of this writer.
+     *
+     * @param value The value to be appended.
+     * @return This writer.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    /* package */ AsciiFileWriter append(double value) throws IOException {
+        ensureCapacity();
+        position = DecimalEncoder.encode(value, decimals, buffer, position);
+        return this;
+    }
+
+    /**
+     * Appends the given ASCII {@code character}.
+     *
+     * @param character The character to be appended.
+     * @return This writer.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    /* package */ AsciiFileWriter append(char character) throws IOException {
+        ensureCapacity();
+        buffer[position++] = (byte) character;
+        return this;
+    }
+
+    /**
+     * Writes the buffered text into the channel.
+     *
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    /* package */ void flush() throws IOException {
+        byteBuffer.clear().limit(position);
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer);
+        }
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the buffered text into the channel if there might not be enough space for another value.
+     *
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    private void ensureCapacity() throws IOException {
+        if (position > BUFFER_SIZE - DecimalEncoder.MAX_LENGTH) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.simulation.State;
+import ar.edu.itba.ss.off_lattice.simulation.StateSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+
+/**
+ * A {@link StateSink} that hands states to another {@link StateSink} in a background writer thread.
+ * Received states are copied into a bounded ring buffer of reusable snapshots, so the simulation thread
+ * only pays for the copy, while the writer thread drains the buffer into the wrapped sink
+ * (i.e formatting and I/O are performed concurrently with the simulation).
+ * What happens when the buffer is full is defined by a {@link BackpressurePolicy}.
+ *
+ * @param <S> A concrete subtype of {@link State}.
+ */
+public class AsyncStateSink<S extends State> implements StateSink<S> {
+
+    /**
+     * The {@link Logger} object.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncStateSink.class);
+
+    /**
+     * The {@link StateSink} to which states are handed in the writer thread.
+     */
+    private final StateSink<S> delegate;
+
+    /**
+     * Copies a state (first argument) into a snapshot (second argument, which might be {@code null}),
+     * returning the snapshot (or a new one if the given one could not be reused).
+     */
+    private final BinaryOperator<S> copier;
+
+    /**
+     * The {@link BackpressurePolicy} applied when the buffer is full.
+     */
+    private final BackpressurePolicy policy;
+
+    /**
+     * When using {@link BackpressurePolicy#DECIMATE}, one of how many states is kept while decimating.
+     */
+    private final int decimation;
+
+    /**
+     * The ring buffer of snapshots (they are created the first time each slot is used, and reused afterwards).
+     */
+    private final S[] buffer;
+
+    /**
+     * Lock guarding the buffer indexes.
+     */
+    private final Lock lock;
+
+    /**
+     * Signaled when a slot is released by the writer.
+     */
+    private final Condition notFull;
+
+    /**
+     * Signaled when a slot is filled by the producer, or when this sink is closed.
+     */
+    private final Condition notEmpty;
+
+    /**
+     * The writer thread.
+     */
+    private final Thread writer;
+
+    /**
+     * The next slot to be filled by the producer.
+     */
+    private int head;
+
+    /**
+     * The next slot to be drained by the writer.
+     */
+    private int tail;
+
+    /**
+     * The amount of filled slots.
+     */
+    private int count;
+
+    /**
+     * Indicates whether the producer will not send more states.
+     */
+    private boolean closed;
+
+    /**
+     * Indicates whether states are being decimated (i.e the buffer got full, and has not been drained yet).
+     */
+    private boolean decimating;
+
+    /**
+     * The amount of states received while decimating.
+     */
+    private long decimationCounter;
+
+    /**
+     * The amount of discarded states.
+     */
+    private long discarded;
+
+
+    /**
+     * Constructor.
+     *
+     * @param name       A name for the writer thread.
+     * @param delegate   The {@link StateSink} to which states are handed in the writer thread.
+     * @param copier     Copies a state (first argument) into a snapshot (second argument, which might be
+     *                   {@code null}), returning the snapshot (or a new one if the given one could not be reused).
+     * @param capacity   The amount of snapshots in the ring buffer (two for double buffering).
+     * @param policy     The {@link BackpressurePolicy} applied when the buffer is full.
+     * @param decimation When using {@link BackpressurePolicy#DECIMATE}, one of how many states is kept
+     *                   while decimating.
+     * @throws IllegalArgumentException If the capacity or the decimation are not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public AsyncStateSink(String name, StateSink<S> delegate, BinaryOperator<S> copier,
+                          int capacity, BackpressurePolicy policy, int decimation) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The buffer capacity must be positive");
+        }
+        if (decimation <= 0) {
+            throw new IllegalArgumentException("The decimation must be positive");
+        }
+        this.delegate = delegate;
+        this.copier = copier;
+        this.policy = policy;
+        this.decimation = decimation;
+        this.buffer = (S[]) new State[capacity];
+        this.lock = new ReentrantLock();
+        this.notFull = lock.newCondition();
+        this.notEmpty = lock.newCondition();
+        this.head = 0;
+        this.tail = 0;
+        this.count = 0;
+        this.closed = false;
+        this.decimating = false;
+        this.decimationCounter = 0;
+        this.discarded = 0;
+        this.writer = new Thread(this::drain, name);
+        this.writer.start();
+    }
+
+    @Override
+    public void accept(S state) {
+        if (!reserveSlot()) {
+            return;
+        }
+        // The reserved slot is not touched by the writer until it is published.
+        buffer[head] = copier.apply(state, buffer[head]);
+        lock.lock();
+        try {
+            head = (head + 1) % buffer.length;
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        // The producer waits until all buffered states are handed to the wrapped sink, and then flushes it
+        // (the writer thread does not touch the wrapped sink while the buffer is empty).
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The sink is closed.");
+            }
+            while (count > 0) {
+                notFull.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for {} to finish writing", writer.getName());
+        }
+        if (discarded > 0) {
+            LOGGER.info("{} discarded {} states because of backpressure", writer.getName(), discarded);
+        }
+        delegate.close();
+    }
+
+    /**
+     * Waits until there is room for a new state in the buffer, according to the {@link BackpressurePolicy}.
+     *
+     * @return {@code true} if there is room for the state in the {@code head} slot,
+     * or {@code false} if the state must be discarded.
+     */
+    private boolean reserveSlot() {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The sink is closed.");
+            }
+            if (policy == BackpressurePolicy.DECIMATE) {
+                if (count == 0) {
+                    decimating = false;
+                } else if (count == buffer.length && !decimating) {
+                    decimating = true;
+                    decimationCounter = 0;
+                }
+                if (decimating && decimationCounter++ % decimation != 0) {
+                    discarded++;
+                    return false;
+                }
+            }
+            if (policy == BackpressurePolicy.DROP && count == buffer.length) {
+                discarded++;
+                return false;
+            }
+            while (count == buffer.length) {
+                notFull.awaitUninterruptibly();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writer thread's main loop: hands each buffered state to the wrapped sink, until this sink is closed
+     * and the buffer is empty.
+     */
+    private void drain() {
+        boolean failed = false;
+        while (true) {
+            lock.lock();
+            try {
+                while (count == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (count == 0) {
+                    return; // Closed and drained
+                }
+            } finally {
+                lock.unlock();
+            }
+            // The tail slot is not touched by the producer until it is released.
+            if (!failed) {
+                try {
+                    delegate.accept(buffer[tail]);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error while writing states in {}. Following states will be discarded.",
+                            writer.getName(), e);
+                    failed = true;
+                }
+            }
+            lock.lock();
+            try {
+                tail = (tail + 1) % buffer.length;
+                count--;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different behaviours an {@link AsyncStateSink} can have when its buffer is full
+ * (i.e when the simulation produces states faster than they can be written).
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * The simulation waits until there is room in the buffer (i.e no state is lost).
+     */
+    BLOCK("block"),
+
+    /**
+     * States that do not fit in the buffer are discarded.
+     */
+    DROP("drop"),
+
+    /**
+     * Once the buffer gets full, only one of every {@code decimation} states is kept until the buffer is drained
+     * (i.e the output keeps a regular, but coarser, sampling). Kept states wait for room in the buffer.
+     */
+    DECIMATE("decimate");
+
+    /**
+     * The name used to select this policy from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this policy from properties.
+     */
+    BackpressurePolicy(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return The name used to select this policy from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the {@link BackpressurePolicy} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the policy.
+     * @return The corresponding {@link BackpressurePolicy}.
+     * @throws IllegalArgumentException In case there is no policy with the given {@code name}.
+     */
+    public static BackpressurePolicy fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(policy -> policy.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown backpressure policy: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(BackpressurePolicy::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+}
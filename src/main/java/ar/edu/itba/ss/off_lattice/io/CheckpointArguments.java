@@ -0,0 +1,75 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bean class used for getting checkpoint related values from properties by injection.
+ */
+@Component
+public final class CheckpointArguments {
+
+    /**
+     * The directory in which checkpoints are saved (empty if checkpoints are not taken).
+     */
+    private final String path;
+
+    /**
+     * Every how many iterations a checkpoint is taken.
+     */
+    private final int interval;
+
+    /**
+     * Indicates whether the simulation must be resumed from the newest checkpoint.
+     */
+    private final boolean resume;
+
+
+    /**
+     * @param path     The directory in which checkpoints are saved (empty if checkpoints are not taken).
+     * @param interval Every how many iterations a checkpoint is taken.
+     * @param resume   Indicates whether the simulation must be resumed from the newest checkpoint.
+     * @throws IllegalArgumentException If the interval is not positive.
+     */
+    @Autowired
+    private CheckpointArguments(@Value("${custom.checkpoint.path:}") String path,
+                                @Value("${custom.checkpoint.interval:1000}") int interval,
+                                @Value("${custom.checkpoint.resume:false}") boolean resume)
+            throws IllegalArgumentException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The checkpoint interval must be positive");
+        }
+        this.path = path.trim();
+        this.interval = interval;
+        this.resume = resume;
+    }
+
+    /**
+     * @return {@code true} if checkpoints must be taken, or {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return !path.isEmpty();
+    }
+
+    /**
+     * @return The directory in which checkpoints are saved.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return Every how many iterations a checkpoint is taken.
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return {@code true} if the simulation must be resumed from the newest checkpoint, or {@code false} otherwise.
+     */
+    public boolean isResume() {
+        return resume;
+    }
+}
@@ -0,0 +1,335 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+import ar.edu.itba.ss.off_lattice.simulation.Checkpoint;
+import ar.edu.itba.ss.off_lattice.simulation.StateSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * An {@link OutputSaver} that saves {@link Checkpoint}s as compact binary files in a directory
+ * (i.e the path given to {@link #open(String)} is a directory, and each checkpoint is saved in its own file,
+ * named after the seed of its simulation and its iteration, keeping only the newest ones of each simulation).
+ * Each file starts with a header of {@link #HEADER_SIZE} bytes holding (in this order):
+ * a magic number (int), the format version (int), the amount of particles (int), the iteration (int),
+ * the seed (long), the amount of cells in the 'x' axis (int), the amount of sub-cells (int),
+ * the velocity representation (int), the neighbors method (int),
+ * a flag indicating whether Verlet reference positions are stored (int), the space width (double),
+ * the interaction radius (double), the 'eta' value (double), the Verlet skin radius (double),
+ * the amount of cells in the 'y' axis (int), the space height (double), the particle ordering (int),
+ * the reorder interval (int), the precision (int), the amount of saved states (long)
+ * and the amount of times the Verlet lists were built (long).
+ * Then, the particles' arrays follow ('x', 'y', speed module, speed angle or direction components,
+ * and identifiers, as ints),
+ * the Verlet reference positions (if stored), and the order value and mean velocity components
+ * of each recorded state. The file ends with the CRC32 of all the previous bytes (long).
+ * All values are little-endian.
+ *
+ * @implNote Each checkpoint is written into a temporary file that is atomically moved into its final name
+ * once it is completely written and flushed to disk, so a checkpoint file is either complete, or it does not exist
+ * (i.e an interrupted simulation never leaves a half written checkpoint behind).
+ * See {@link CheckpointReader} to read these files.
+ */
+@Component
+public class CheckpointFileSaver implements OutputSaver<Checkpoint> {
+
+    /**
+     * The {@link Logger} object.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointFileSaver.class);
+
+    /**
+     * The magic number with which checkpoint files start (i.e 'SPFC').
+     */
+    /* package */ static final int MAGIC_NUMBER = 0x53504643;
+
+    /**
+     * The version of the format.
+     */
+    /* package */ static final int VERSION = 6;
+
+    /**
+     * The size of the header, in bytes.
+     */
+    /* package */ static final int HEADER_SIZE = 120;
+
+    /**
+     * The prefix of the checkpoint files' names.
+     */
+    /* package */ static final String FILE_PREFIX = "checkpoint-";
+
+    /**
+     * The suffix (i.e extension) of the checkpoint files' names.
+     */
+    /* package */ static final String FILE_SUFFIX = ".bin";
+
+    /**
+     * The size in bytes of the buffer used to write the arrays.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The amount of checkpoint files of each simulation kept in the directory (older ones are removed).
+     */
+    private final int keep;
+
+
+    /**
+     * Constructor.
+     *
+     * @param keep The amount of checkpoint files of each simulation kept in the directory
+     *             (older ones are removed).
+     * @throws IllegalArgumentException If the amount is not positive.
+     */
+    @Autowired
+    public CheckpointFileSaver(@Value("${custom.checkpoint.keep:2}") int keep) throws IllegalArgumentException {
+        if (keep <= 0) {
+            throw new IllegalArgumentException("At least one checkpoint must be kept");
+        }
+        this.keep = keep;
+    }
+
+    @Override
+    public StateSink<Checkpoint> open(String path) {
+        final Path directory = Paths.get(path);
+        return new StateSink<Checkpoint>() {
+
+            /**
+             * Buffer reused to write each checkpoint.
+             */
+            private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            @Override
+            public void accept(Checkpoint checkpoint) {
+                final String name = fileName(checkpoint.getSeed(), checkpoint.getIteration());
+                final Path file = directory.resolve(name);
+                final Path temporary = directory.resolve(name + ".tmp");
+                try {
+                    Files.createDirectories(directory);
+                    write(checkpoint, temporary, buffer);
+                    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    LOGGER.info("Checkpoint of iteration {} saved in {}", checkpoint.getIteration(), file);
+                } catch (IOException e) {
+                    // A failed checkpoint must not stop the simulation (the previous ones are still valid)
+                    LOGGER.warn("Could not save checkpoint of iteration {} in {}", checkpoint.getIteration(), file);
+                    deleteQuietly(temporary);
+                    return;
+                }
+                prune(directory, checkpoint.getSeed());
+            }
+
+            @Override
+            public void close() {
+                // Nothing to release (each checkpoint file is closed once written)
+            }
+        };
+    }
+
+    /**
+     * Removes the oldest checkpoint files of the simulation with the given {@code seed} from the given
+     * {@code directory}, keeping only the newest {@link #keep} ones (i.e including those written before the
+     * simulation was resumed). Checkpoints of other simulations are left untouched.
+     *
+     * @param directory The directory in which checkpoints are saved.
+     * @param seed      The seed of the simulation.
+     */
+    private void prune(Path directory, long seed) {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, filePrefix(seed) + "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            LOGGER.warn("Could not list the checkpoints in {}", directory);
+            return;
+        }
+        // Names hold the iteration padded with zeros, so the oldest are the first ones in lexicographic order
+        files.sort(Comparator.comparing((Path file) -> file.getFileName().toString()));
+        for (int i = 0; i < files.size() - keep; i++) {
+            deleteQuietly(files.get(i));
+        }
+    }
+
+    /**
+     * Builds the name of the file in which the checkpoint of the given {@code iteration} is saved.
+     *
+     * @param seed      The seed of the simulation in which the checkpoint is taken.
+     * @param iteration The iteration of the checkpoint.
+     * @return The file name.
+     */
+    /* package */ static String fileName(long seed, int iteration) {
+        return filePrefix(seed) + String.format(Locale.ROOT, "%010d", iteration) + FILE_SUFFIX;
+    }
+
+    /**
+     * Builds the prefix of the names of the files in which the checkpoints of a simulation are saved.
+     *
+     * @param seed The seed of the simulation (i.e resumed simulations keep saving checkpoints with the same prefix).
+     * @return The prefix.
+     */
+    private static String filePrefix(long seed) {
+        return FILE_PREFIX + String.format(Locale.ROOT, "%016x", seed) + "-";
+    }
+
+    /**
+     * Gets the iteration of the checkpoint saved in the file with the given {@code name}.
+     *
+     * @param name The name of the file.
+     * @return The iteration.
+     * @throws NumberFormatException If the name does not end with an iteration.
+     */
+    /* package */ static int iteration(String name) throws NumberFormatException {
+        return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.length() - FILE_SUFFIX.length()));
+    }
+
+    /**
+     * Writes the given {@code checkpoint} into the given {@code file}, flushing it to disk.
+     *
+     * @param checkpoint The {@link Checkpoint} to be written.
+     * @param file       The {@link Path} of the file (it is created, or truncated if it exists).
+     * @param buffer     The {@link ByteBuffer} used to write values (it is flushed each time it gets full).
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    private static void write(Checkpoint checkpoint, Path file, ByteBuffer buffer) throws IOException {
+        final ParticleStore particles = checkpoint.getParticles();
+        final CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            buffer.putInt(MAGIC_NUMBER)
+                    .putInt(VERSION)
+                    .putInt(particles.getAmountOfParticles())
+                    .putInt(checkpoint.getIteration())
+                    .putLong(checkpoint.getSeed())
+                    .putInt(checkpoint.getGrid().getMx())
+                    .putInt(checkpoint.getSubCells())
+                    .putInt(particles.getRepresentation().ordinal())
+                    .putInt(checkpoint.getNeighborsMethod().ordinal())
+                    .putInt(checkpoint.hasVerletReferences() ? 1 : 0)
+                    .putDouble(checkpoint.getSpaceWidth())
+                    .putDouble(checkpoint.getInteractionRadius())
+                    .putDouble(checkpoint.getEta())
+                    .putDouble(checkpoint.getVerletSkin())
+                    .putInt(checkpoint.getGrid().getMy())
+                    .putDouble(checkpoint.getSpaceHeight())
+                    .putInt(checkpoint.getOrdering().ordinal())
+                    .putInt(checkpoint.getReorderInterval())
+                    .putInt(particles.getPrecision().ordinal())
+                    .putLong(checkpoint.getFrames())
+                    .putLong(checkpoint.getVerletBuilds());
+            while (buffer.position() < HEADER_SIZE) {
+                buffer.put((byte) 0); // Reserved bytes (the buffer is reused, so they are cleared)
+            }
+            putAll(channel, buffer, crc, particles.getXValues());
+            putAll(channel, buffer, crc, particles.getYValues());
+            putAll(channel, buffer, crc, particles.getSpeedModules());
+            if (particles.getRepresentation() == VelocityRepresentation.CARTESIAN) {
+                putAll(channel, buffer, crc, particles.getDirectionXValues());
+                putAll(channel, buffer, crc, particles.getDirectionYValues());
+            } else {
+                putAll(channel, buffer, crc, particles.getSpeedAngles());
+            }
+            putAll(channel, buffer, crc, particles.getIds());
+            if (checkpoint.hasVerletReferences()) {
+                putAll(channel, buffer, crc, checkpoint.getVerletReferenceX());
+                putAll(channel, buffer, crc, checkpoint.getVerletReferenceY());
+            }
+            putAll(channel, buffer, crc, checkpoint.getOrderValues());
+            putAll(channel, buffer, crc, checkpoint.getMeanVelocityX());
+            putAll(channel, buffer, crc, checkpoint.getMeanVelocityY());
+            flush(channel, buffer, crc);
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Puts all the given {@code values} into the given {@code buffer}, flushing it each time it gets full.
+     *
+     * @param channel The {@link FileChannel} into which the buffer is flushed.
+     * @param buffer  The {@link ByteBuffer} into which values are put.
+     * @param crc     The {@link CRC32} updated with the flushed bytes.
+     * @param values  The values to be put.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    private static void putAll(FileChannel channel, ByteBuffer buffer, CRC32 crc, double[] values)
+            throws IOException {
+        for (double value : values) {
+            if (buffer.remaining() < Double.BYTES) {
+                flush(channel, buffer, crc);
+            }
+            buffer.putDouble(value);
+        }
+    }
+
+    /**
+     * Puts all the given {@code values} into the given {@code buffer}, flushing it each time it gets full.
+     *
+     * @param channel The {@link FileChannel} into which the buffer is flushed.
+     * @param buffer  The {@link ByteBuffer} into which values are put.
+     * @param crc     The {@link CRC32} updated with the flushed bytes.
+     * @param values  The values to be put.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    private static void putAll(FileChannel channel, ByteBuffer buffer, CRC32 crc, int[] values)
+            throws IOException {
+        for (int value : values) {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush(channel, buffer, crc);
+            }
+            buffer.putInt(value);
+        }
+    }
+
+    /**
+     * Writes the content of the given {@code buffer} into the given {@code channel}, leaving it empty.
+     *
+     * @param channel The {@link FileChannel} to write into.
+     * @param buffer  The {@link ByteBuffer} to be written.
+     * @param crc     The {@link CRC32} updated with the written bytes.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Deletes the given {@code file}, ignoring any error (i.e a file that can not be deleted is just left there).
+     *
+     * @param file The {@link Path} of the file to be deleted.
+     */
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete {}", file);
+        }
+    }
+}
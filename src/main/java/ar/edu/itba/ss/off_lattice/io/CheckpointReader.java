@@ -0,0 +1,203 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+import ar.edu.itba.ss.off_lattice.simulation.Checkpoint;
+import ar.edu.itba.ss.off_lattice.simulation.GridSize;
+import ar.edu.itba.ss.off_lattice.simulation.NeighborsMethod;
+import ar.edu.itba.ss.off_lattice.simulation.ParticleOrdering;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Reads checkpoint files written by a {@link CheckpointFileSaver}.
+ */
+public final class CheckpointReader {
+
+    /**
+     * The {@link Logger} object.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointReader.class);
+
+    /**
+     * Private constructor (i.e this class only has static methods).
+     */
+    private CheckpointReader() {
+    }
+
+    /**
+     * Reads the newest valid checkpoint saved in the given {@code directory} that is accepted by the given
+     * {@code filter} (i.e the one with the highest iteration; those that can not be read are logged and skipped,
+     * as well as those taken in other simulations, which are rejected by the filter).
+     *
+     * @param directory The directory in which checkpoints were saved.
+     * @param filter    A {@link Predicate} accepting the checkpoints from which the simulation can be resumed.
+     * @return The newest accepted {@link Checkpoint},
+     * or {@code null} if there is no valid and accepted checkpoint in the directory.
+     * @throws IOException In case any I/O error occurs while listing the directory.
+     */
+    public static Checkpoint readNewest(String directory, Predicate<Checkpoint> filter) throws IOException {
+        final Path path = Paths.get(directory);
+        if (!Files.isDirectory(path)) {
+            return null;
+        }
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path,
+                CheckpointFileSaver.FILE_PREFIX + "*" + CheckpointFileSaver.FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // Checkpoints of several simulations (i.e seeds) might be saved, so they are sorted by iteration
+        final Map<Path, Integer> iterations = new HashMap<>();
+        for (Path file : files) {
+            try {
+                iterations.put(file, CheckpointFileSaver.iteration(file.getFileName().toString()));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Skipping {}, as it is not named as a checkpoint file", file);
+            }
+        }
+        files.retainAll(iterations.keySet());
+        files.sort(Comparator.comparing(iterations::get, Comparator.reverseOrder()));
+        for (Path file : files) {
+            final Checkpoint checkpoint;
+            try {
+                checkpoint = read(file.toString());
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Skipping checkpoint {}, as it can not be read: {}", file, e.getMessage());
+                continue;
+            }
+            if (filter.test(checkpoint)) {
+                return checkpoint;
+            }
+            LOGGER.info("Skipping checkpoint {}, as the simulation can not be resumed from it", file);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the checkpoint file in the given {@code path}.
+     *
+     * @param path The path of the file.
+     * @return The read {@link Checkpoint}.
+     * @throws IOException In case any I/O error occurs, or if the file is not a valid checkpoint file.
+     */
+    public static Checkpoint read(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The checkpoint file is too big to be read");
+            }
+            if (channel.size() < CheckpointFileSaver.HEADER_SIZE + Long.BYTES) {
+                throw new IOException("The checkpoint file is truncated");
+            }
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            final int contentSize = buffer.limit() - Long.BYTES;
+            final CRC32 crc = new CRC32();
+            final ByteBuffer content = buffer.duplicate();
+            content.limit(contentSize);
+            crc.update(content);
+            if (buffer.getLong(contentSize) != crc.getValue()) {
+                throw new IOException("The checkpoint file is corrupted");
+            }
+            if (buffer.getInt() != CheckpointFileSaver.MAGIC_NUMBER) {
+                throw new IOException("Not a checkpoint file");
+            }
+            final int version = buffer.getInt();
+            if (version != CheckpointFileSaver.VERSION) {
+                throw new IOException("Unsupported checkpoint file version: " + version);
+            }
+            final int amountOfParticles = buffer.getInt();
+            final int iteration = buffer.getInt();
+            final long seed = buffer.getLong();
+            final int mx = buffer.getInt();
+            final int subCells = buffer.getInt();
+            final VelocityRepresentation representation = VelocityRepresentation.values()[buffer.getInt()];
+            final NeighborsMethod neighborsMethod = NeighborsMethod.values()[buffer.getInt()];
+            final boolean hasVerletReferences = buffer.getInt() != 0;
+            final double spaceWidth = buffer.getDouble();
+            final double interactionRadius = buffer.getDouble();
+            final double eta = buffer.getDouble();
+            final double verletSkin = buffer.getDouble();
+            final int my = buffer.getInt();
+            final double spaceHeight = buffer.getDouble();
+            final ParticleOrdering ordering = ParticleOrdering.values()[buffer.getInt()];
+            final int reorderInterval = buffer.getInt();
+            final Precision precision = Precision.values()[buffer.getInt()];
+            final long frames = buffer.getLong();
+            final long verletBuilds = buffer.getLong();
+            final long expectedSize = CheckpointFileSaver.HEADER_SIZE + Long.BYTES + (long) Double.BYTES
+                    * ((long) amountOfParticles * ((representation == VelocityRepresentation.CARTESIAN ? 5 : 4)
+                    + (hasVerletReferences ? 2 : 0)) + 3L * iteration) + (long) Integer.BYTES * amountOfParticles;
+            if (amountOfParticles < 0 || iteration < 0 || frames < 0 || verletBuilds < 0
+                    || buffer.limit() != expectedSize) {
+                throw new IOException("The checkpoint file is truncated");
+            }
+            buffer.position(CheckpointFileSaver.HEADER_SIZE);
+
+            final ParticleStore particles = ParticleStore.create(amountOfParticles, representation, precision);
+            getAll(buffer, particles.getXValues());
+            getAll(buffer, particles.getYValues());
+            getAll(buffer, particles.getSpeedModules());
+            if (representation == VelocityRepresentation.CARTESIAN) {
+                getAll(buffer, particles.getDirectionXValues());
+                getAll(buffer, particles.getDirectionYValues());
+            } else {
+                getAll(buffer, particles.getSpeedAngles());
+            }
+            particles.setIds(getAll(buffer, new int[amountOfParticles]));
+            final double[] verletReferenceX =
+                    hasVerletReferences ? getAll(buffer, new double[amountOfParticles]) : null;
+            final double[] verletReferenceY =
+                    hasVerletReferences ? getAll(buffer, new double[amountOfParticles]) : null;
+            final double[] orderValues = getAll(buffer, new double[iteration]);
+            final double[] meanVelocityX = getAll(buffer, new double[iteration]);
+            final double[] meanVelocityY = getAll(buffer, new double[iteration]);
+            return new Checkpoint(iteration, frames, seed, new GridSize(mx, my), spaceWidth, spaceHeight,
+                    interactionRadius, eta, neighborsMethod, subCells, verletSkin, ordering, reorderInterval, particles,
+                    verletBuilds, verletReferenceX, verletReferenceY, orderValues, meanVelocityX, meanVelocityY);
+        }
+    }
+
+    /**
+     * Fills the given {@code values} array with the next values of the given {@code buffer}.
+     *
+     * @param buffer The {@link ByteBuffer} from which values are taken.
+     * @param values The array to be filled.
+     * @return The given array.
+     */
+    private static double[] getAll(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+        return values;
+    }
+
+    /**
+     * Fills the given {@code values} array with the next values of the given {@code buffer}.
+     *
+     * @param buffer The {@link ByteBuffer} from which values are taken.
+     * @param values The array to be filled.
+     * @return The given array.
+     */
+    private static int[] getAll(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+}
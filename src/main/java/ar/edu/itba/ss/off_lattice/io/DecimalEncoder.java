@@ -0,0 +1,268 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes {@code double} values as ASCII decimal text directly into a byte array (i.e without creating strings).
+ * Values can be encoded with the shortest representation that parses back to the same value
+ * (giving the same text as {@link Double#toString(double)}), or with a fixed amount of decimals.
+ *
+ * @implNote The shortest representation is searched by scaling the value by increasing powers of ten,
+ * checking (with the exact error of the scaling product) whether the nearest integer is inside the rounding interval
+ * of the value. Only values in the {@code [10^-3, 10^7)} range are encoded this way
+ * (those that {@link Double#toString(double)} writes without exponent); the rest of them
+ * (and non finite values) are rare in a simulation, so they are encoded with {@link Double#toString(double)}.
+ */
+/* package */ final class DecimalEncoder {
+
+    /**
+     * Value used to indicate that the shortest representation must be used (instead of a fixed amount of decimals).
+     */
+    /* package */ static final int SHORTEST = -1;
+
+    /**
+     * The maximum amount of decimals that can be used.
+     */
+    /* package */ static final int MAX_DECIMALS = 15;
+
+    /**
+     * The maximum amount of bytes written for a single value.
+     */
+    /* package */ static final int MAX_LENGTH = 32;
+
+    /**
+     * The lowest value encoded by {@link Double#toString(double)} without exponent.
+     */
+    private static final double MIN_PLAIN = 1e-3;
+
+    /**
+     * The lowest value encoded by {@link Double#toString(double)} with exponent, above {@link #MIN_PLAIN}.
+     */
+    private static final double MAX_PLAIN = 1e7;
+
+    /**
+     * The maximum amount of significant digits needed to represent any {@code double} value.
+     */
+    private static final int MAX_SIGNIFICANT_DIGITS = 17;
+
+    /**
+     * The exact powers of ten that can be held by a {@code double}, indexed by exponent.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The powers of ten that can be held by a {@code long}, indexed by exponent.
+     */
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+            10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+            1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+
+    /**
+     * The factor used to split a {@code double} into two halves whose products are exact (i.e 2^27 + 1).
+     */
+    private static final double SPLITTER = 134217729.0;
+
+
+    /**
+     * Private constructor, as this is a utility class.
+     */
+    private DecimalEncoder() {
+    }
+
+    /**
+     * Encodes the given {@code value} into the given {@code buffer}.
+     *
+     * @param value    The value to be encoded.
+     * @param decimals The amount of decimals (in the {@code [1, MAX_DECIMALS]} range),
+     *                 or {@link #SHORTEST} to use the shortest representation.
+     * @param buffer   The buffer into which the value is encoded
+     *                 (it must have at least {@link #MAX_LENGTH} bytes after the offset).
+     * @param offset   The position of the buffer in which the value starts.
+     * @return The position of the buffer after the encoded value.
+     */
+    /* package */ static int encode(double value, int decimals, byte[] buffer, int offset) {
+        if (value == 0) {
+            // Negative zero keeps its sign in the shortest representation, as in Double.toString
+            int position = decimals == SHORTEST && Double.doubleToRawLongBits(value) < 0
+                    ? put(buffer, offset, '-') : offset;
+            position = put(buffer, position, '0');
+            position = put(buffer, position, '.');
+            final int zeros = decimals == SHORTEST ? 1 : decimals;
+            for (int i = 0; i < zeros; i++) {
+                position = put(buffer, position, '0');
+            }
+            return position;
+        }
+        final double absolute = Math.abs(value);
+        if (decimals == SHORTEST) {
+            if (absolute < MIN_PLAIN || absolute >= MAX_PLAIN || Double.isNaN(absolute)) {
+                return encodeAsString(value, buffer, offset);
+            }
+            return encodeShortest(value < 0, absolute, buffer, offset);
+        }
+        if (Double.isNaN(absolute) || absolute * POWERS_OF_TEN[decimals] >= LONG_POWERS_OF_TEN[17]) {
+            return encodeAsString(value, buffer, offset);
+        }
+        final long scaled = Math.round(absolute * POWERS_OF_TEN[decimals]);
+        final int position = scaled != 0 && value < 0 ? put(buffer, offset, '-') : offset;
+        return putDecimal(scaled, decimals, buffer, position);
+    }
+
+    /**
+     * Encodes the given value (in the {@code [MIN_PLAIN, MAX_PLAIN)} range) with its shortest representation.
+     *
+     * @param negative Indicates whether the value is negative.
+     * @param absolute The absolute value.
+     * @param buffer   The buffer into which the value is encoded.
+     * @param offset   The position of the buffer in which the value starts.
+     * @return The position of the buffer after the encoded value.
+     */
+    private static int encodeShortest(boolean negative, double absolute, byte[] buffer, int offset) {
+        // The rounding interval is narrower below powers of two (i.e the previous value is closer)
+        final double upperHalfUlp = Math.ulp(absolute) / 2;
+        final double lowerHalfUlp = isPowerOfTwo(absolute) ? upperHalfUlp / 2 : upperHalfUlp;
+        final int integerDigits = absolute < 1 ? 0 : digits((long) absolute);
+        final int leadingZeros = absolute < 1 ? -(int) Math.floor(Math.log10(absolute)) - 1 : 0;
+        final int maxDecimals = MAX_SIGNIFICANT_DIGITS - integerDigits + leadingZeros;
+        for (int decimals = 1; decimals <= maxDecimals; decimals++) {
+            final double power = POWERS_OF_TEN[decimals];
+            final double product = absolute * power;
+            final double error = productError(absolute, power, product);
+            long scaled = Math.round(product);
+            // The rounded product might not be the nearest integer to the exact one, so the candidate is corrected
+            double distance = (scaled - product) - error;
+            final long correction = Math.round(-distance);
+            scaled += correction;
+            distance += correction;
+            if (Math.abs(distance) == 0.5 && (scaled & 1) != 0) {
+                // Ties (e.g single precision values with many decimals) are rounded to even, as in Double.toString
+                scaled -= (long) Math.signum(distance);
+                distance -= Math.signum(distance);
+            }
+            if (decimals == maxDecimals
+                    || (distance >= 0 ? distance < upperHalfUlp * power : -distance < lowerHalfUlp * power)) {
+                final int position = negative ? put(buffer, offset, '-') : offset;
+                return putDecimal(scaled, decimals, buffer, position);
+            }
+        }
+        throw new AssertionError("Unreachable: the last amount of decimals is always accepted");
+    }
+
+    /**
+     * Calculates the rounding error of the product of the given values (i.e the exact product is
+     * {@code product + error}), using Dekker's algorithm.
+     *
+     * @param first   The first factor.
+     * @param second  The second factor.
+     * @param product The rounded product of the factors.
+     * @return The rounding error.
+     */
+    private static double productError(double first, double second, double product) {
+        final double firstAux = first * SPLITTER;
+        final double firstHigh = firstAux - (firstAux - first);
+        final double firstLow = first - firstHigh;
+        final double secondAux = second * SPLITTER;
+        final double secondHigh = secondAux - (secondAux - second);
+        final double secondLow = second - secondHigh;
+        return ((firstHigh * secondHigh - product) + firstHigh * secondLow + firstLow * secondHigh)
+                + firstLow * secondLow;
+    }
+
+    /**
+     * Writes the given {@code scaled} value as a decimal number with the given amount of {@code decimals}
+     * (i.e the value divided by ten to the amount of decimals).
+     *
+     * @param scaled   The scaled value (not negative).
+     * @param decimals The amount of decimals.
+     * @param buffer   The buffer into which the value is written.
+     * @param offset   The position of the buffer in which the value starts.
+     * @return The position of the buffer after the written value.
+     */
+    private static int putDecimal(long scaled, int decimals, byte[] buffer, int offset) {
+        // Scaled values are lower than 10^17, so there is no integer part when there are more decimals
+        final long integerPart = decimals < LONG_POWERS_OF_TEN.length ? scaled / LONG_POWERS_OF_TEN[decimals] : 0;
+        long fractionalPart = decimals < LONG_POWERS_OF_TEN.length ? scaled % LONG_POWERS_OF_TEN[decimals] : scaled;
+        int position = putLong(integerPart, buffer, offset);
+        position = put(buffer, position, '.');
+        final int end = position + decimals;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + fractionalPart % 10);
+            fractionalPart /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Writes the given (not negative) {@code value} in decimal notation.
+     *
+     * @param value  The value to be written.
+     * @param buffer The buffer into which the value is written.
+     * @param offset The position of the buffer in which the value starts.
+     * @return The position of the buffer after the written value.
+     */
+    /* package */ static int putLong(long value, byte[] buffer, int offset) {
+        final int end = offset + digits(value);
+        long remaining = value;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * Encodes the given {@code value} with {@link Double#toString(double)} (i.e allocating a string).
+     *
+     * @param value  The value to be encoded.
+     * @param buffer The buffer into which the value is encoded.
+     * @param offset The position of the buffer in which the value starts.
+     * @return The position of the buffer after the encoded value.
+     */
+    private static int encodeAsString(double value, byte[] buffer, int offset) {
+        final byte[] bytes = Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+        return offset + bytes.length;
+    }
+
+    /**
+     * Calculates the amount of decimal digits of the given (not negative) {@code value}.
+     *
+     * @param value The value.
+     * @return The amount of digits (at least 1).
+     */
+    private static int digits(long value) {
+        int digits = 1;
+        while (digits < LONG_POWERS_OF_TEN.length && value >= LONG_POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Checks whether the given (positive and finite) {@code value} is a power of two.
+     *
+     * @param value The value.
+     * @return {@code true} if the value is a power of two, or {@code false} otherwise.
+     */
+    private static boolean isPowerOfTwo(double value) {
+        return (Double.doubleToRawLongBits(value) & 0x000FFFFFFFFFFFFFL) == 0;
+    }
+
+    /**
+     * Puts the given ASCII {@code character} into the given {@code buffer}.
+     *
+     * @param buffer    The buffer.
+     * @param offset    The position in which the character is put.
+     * @param character The character.
+     * @return The position after the character.
+     */
+    private static int put(byte[] buffer, int offset, char character) {
+        buffer[offset] = (byte) character;
+        return offset + 1;
+    }
+}
@@ -1,12 +1,12 @@
 package ar.edu.itba.ss.off_lattice.io;
 
 import ar.edu.itba.ss.off_lattice.simulation.State;
+import ar.edu.itba.ss.off_lattice.simulation.StateSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Queue;
 
 /**
  * Abstract implementation of {@link OutputSaver}, implementing basic methods.
@@ -21,24 +21,48 @@ import java.util.Queue;
     private final static Logger LOGGER = LoggerFactory.getLogger(FileSaver.class);
 
     @Override
-    public void save(String path, Queue<S> simulationStates) {
-
+    public StateSink<S> open(String path) {
         try {
-            doSave(createFile(path), simulationStates);
+            return new FileStateSink<>(path, open(createFile(path)));
         } catch (IOException e) {
             LOGGER.warn("Could not save {} file", path);
+            return new FileStateSink<>(path, null);
+        }
+    }
+
+    @Override
+    public StateSink<S> resume(String path, long frames) {
+        try {
+            return new FileStateSink<>(path, resume(createFile(path), frames));
+        } catch (IOException e) {
+            LOGGER.warn("Could not resume {} file: {}", path, e.getMessage());
+            return new FileStateSink<>(path, null);
         }
-        LOGGER.info("File {} saved successfully", path);
     }
 
     /**
-     * Performs the operation of saving data.
+     * Opens a {@link StateWriter} that writes states into the given {@code file}.
      *
-     * @param file             The {@link File} to which data will be writed into.
-     * @param simulationStates The simulation results to be saved.
-     * @throws IOException In case any I/O error occurs while performing the operation.
+     * @param file The {@link File} to which data will be writed into.
+     * @return The {@link StateWriter}.
+     * @throws IOException In case any I/O error occurs while opening the file.
      */
-    abstract void doSave(File file, Queue<S> simulationStates) throws IOException;
+    abstract StateWriter<S> open(File file) throws IOException;
+
+    /**
+     * Opens a {@link StateWriter} that appends states to the given {@code file},
+     * keeping only its first {@code frames} states.
+     * By default, the file is written from scratch (i.e for outputs that receive again all the states when resuming).
+     *
+     * @param file   The {@link File} to which data will be appended.
+     * @param frames The amount of states to be kept.
+     * @return The {@link StateWriter}.
+     * @throws IOException In case any I/O error occurs while opening the file,
+     *                     or if it holds less than {@code frames} states.
+     */
+    StateWriter<S> resume(File file, long frames) throws IOException {
+        return open(file);
+    }
 
     /**
      * Creates a {@link File} in the given {@code path}.
@@ -60,4 +84,90 @@ import java.util.Queue;
         }
         return file;
     }
+
+    /**
+     * {@link StateSink} that writes states into a file using a {@link StateWriter}.
+     * In case any I/O error occurs, it is logged, and the following states are discarded
+     * (i.e an output error must not stop the simulation).
+     *
+     * @param <S> A concrete subtype of {@link State}.
+     */
+    private static final class FileStateSink<S extends State> implements StateSink<S> {
+
+        /**
+         * The path of the file.
+         */
+        private final String path;
+
+        /**
+         * The {@link StateWriter} used to write the states, or {@code null} if the file can not be written anymore.
+         */
+        private StateWriter<S> writer;
+
+        /**
+         * Constructor.
+         *
+         * @param path   The path of the file.
+         * @param writer The {@link StateWriter} used to write the states
+         *               (or {@code null} if the file could not be opened).
+         */
+        private FileStateSink(String path, StateWriter<S> writer) {
+            this.path = path;
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(S state) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(state);
+            } catch (IOException e) {
+                LOGGER.warn("Could not save {} file", path);
+                closeQuietly();
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                LOGGER.warn("Could not save {} file", path);
+                closeQuietly();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+                LOGGER.info("File {} saved successfully", path);
+            } catch (IOException e) {
+                LOGGER.warn("Could not save {} file", path);
+            } finally {
+                writer = null;
+            }
+        }
+
+        /**
+         * Closes the {@link StateWriter} after an error, ignoring any further error.
+         */
+        private void closeQuietly() {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // The error was already reported
+            } finally {
+                writer = null;
+            }
+        }
+    }
 }
@@ -1,35 +1,47 @@
 package ar.edu.itba.ss.off_lattice.io;
 
-import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.simulation.Observables;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Queue;
 
 /**
  * A {@link TextFileSaver} that saves order against iterations files.
  *
  * @implNote It generates a Matlab/Octave file with an array with the values.
+ * Values are taken from the observables recorded by the simulation engine (i.e no particle state is needed).
  */
 @Component
-public class OrderAgainstIterationsFileSaver extends TextFileSaver<Space.SpaceState> {
+public class OrderAgainstIterationsFileSaver extends TextFileSaver<Observables.ObservablesState> {
 
     @Override
-    void doSave(Writer writer, Queue<Space.SpaceState> simulationStates) throws IOException {
-        if (simulationStates.isEmpty()) {
-            throw new IllegalArgumentException("The queue must not be empty.");
-        }
-        final Queue<Double> orderValues = SpaceStateSaverHelper.orderValues(simulationStates);
-        final StringBuilder builder = new StringBuilder();
-        builder.append("result = [").append(Double.toString(orderValues.poll()));
-        while (!orderValues.isEmpty()) {
-            builder.append(", ").append(Double.toString(orderValues.poll()));
-        }
-        builder.append("];").append("\n")
-                .append("plot(result);").append("\n")
-                .append("xlabel(\"Iterations\");").append("\n")
-                .append("ylabel(\"Va\");").append("\n");
-        writer.append(builder.toString());
+    StateWriter<Observables.ObservablesState> open(Writer writer) throws IOException {
+        return new StateWriter<Observables.ObservablesState>() {
+
+            /**
+             * Indicates whether any value has been written.
+             */
+            private boolean started = false;
+
+            @Override
+            public void write(Observables.ObservablesState state) throws IOException {
+                writer.append(started ? ", " : "result = [")
+                        .append(Double.toString(state.getOrderValue()));
+                started = true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!started) {
+                    throw new IllegalStateException("No states were saved.");
+                }
+                writer.append("];").append("\n")
+                        .append("plot(result);").append("\n")
+                        .append("xlabel(\"Iterations\");").append("\n")
+                        .append("ylabel(\"Va\");").append("\n");
+                writer.flush();
+            }
+        };
     }
 }
@@ -1,50 +1,55 @@
 package ar.edu.itba.ss.off_lattice.io;
 
-import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.simulation.Observables;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Deque;
-import java.util.LinkedList;
-import java.util.Optional;
-import java.util.Queue;
 
 /**
- * A {@link TextFileSaver} of {@link ar.edu.itba.ss.off_lattice.models.Space.SpaceState} that
- * saves other other (Va and density).
+ * A {@link TextFileSaver} of {@link Observables.ObservablesState} that saves other data (Va and density).
+ *
+ * @implNote Values are taken from the last received state, and written when the output is closed.
  */
 @Component
-public class OtherSimulationDataFileSaver extends TextFileSaver<Space.SpaceState> {
+public class OtherSimulationDataFileSaver extends TextFileSaver<Observables.ObservablesState> {
+
     @Override
-    void doSave(Writer writer, Queue<Space.SpaceState> simulationStates) throws IOException {
-        final Deque<Space.SpaceState> deque = new LinkedList<>(simulationStates);
-        final Space.SpaceState state = Optional.ofNullable(deque.peekLast())
-                .orElseThrow(() -> new IllegalArgumentException("The queue must not be empty."));
-        writer
-                .append("density = ").append(Double.toString(calculateDensity(state))).append(";").append("\n")
-                .append("order = ").append(Double.toString(calculateOrderValue(state))).append(";").append("\n");
-    }
+    StateWriter<Observables.ObservablesState> open(Writer writer) throws IOException {
+        return new StateWriter<Observables.ObservablesState>() {
 
-    /**
-     * Calculates the density of the system.
-     *
-     * @param spaceState A {@link ar.edu.itba.ss.off_lattice.models.Space.SpaceState}
-     *                   used to get data from where the calculation will be made.
-     * @return The calculated density.
-     */
-    private static double calculateDensity(Space.SpaceState spaceState) {
-        return spaceState.getParticleStates().size() / Math.pow(spaceState.getSpaceSideLength(), 2);
-    }
+            /**
+             * Indicates whether any state has been received.
+             */
+            private boolean started = false;
+
+            /**
+             * The density of the last received state.
+             */
+            private double density;
+
+            /**
+             * The order value of the last received state.
+             */
+            private double order;
+
+            @Override
+            public void write(Observables.ObservablesState state) throws IOException {
+                this.density = state.getDensity();
+                this.order = state.getOrderValue();
+                this.started = true;
+            }
 
-    /**
-     * Calculates the order value from the state, using the given factor (avoids recalculating).
-     *
-     * @param spaceState A {@link ar.edu.itba.ss.off_lattice.models.Space.SpaceState}
-     *                   used to get data from where the calculation will be made.
-     * @return The order value.
-     */
-    private static double calculateOrderValue(Space.SpaceState spaceState) {
-        return SpaceStateSaverHelper.getOrderValue(spaceState);
+            @Override
+            public void close() throws IOException {
+                if (!started) {
+                    throw new IllegalStateException("No states were saved.");
+                }
+                writer
+                        .append("density = ").append(Double.toString(density)).append(";").append("\n")
+                        .append("order = ").append(Double.toString(order)).append(";").append("\n");
+                writer.flush();
+            }
+        };
     }
 }
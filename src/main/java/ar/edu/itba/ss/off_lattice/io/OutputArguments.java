@@ -0,0 +1,129 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.simulation.FrameSelection;
+import ar.edu.itba.ss.off_lattice.simulation.OutputFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bean class used for getting output related values from properties by injection.
+ */
+@Component
+public final class OutputArguments {
+
+    /**
+     * Indicates whether outputs must be written in background threads (i.e using {@link AsyncStateSink}s).
+     */
+    private final boolean async;
+
+    /**
+     * The amount of states each background writer can buffer.
+     */
+    private final int bufferSize;
+
+    /**
+     * The {@link BackpressurePolicy} applied when a background writer's buffer is full.
+     */
+    private final BackpressurePolicy backpressurePolicy;
+
+    /**
+     * One of how many states are kept when decimating.
+     */
+    private final int decimation;
+
+    /**
+     * The {@link OutputFilter} applied to the states saved in the Ovito and raw files.
+     */
+    private final OutputFilter outputFilter;
+
+
+    /**
+     * @param async              Indicates whether outputs must be written in background threads.
+     * @param bufferSize         The amount of states each background writer can buffer.
+     * @param backpressurePolicy The name of the policy applied when a background writer's buffer is full.
+     * @param decimation         One of how many states are kept when decimating.
+     * @param frames             The name of the way in which saved frames are selected.
+     * @param interval           One of how many frames is saved (only used by the 'every' selection).
+     * @param framesPerDecade    The amount of frames saved per decade of iterations
+     *                           (only used by the 'log' selection).
+     * @param window             The region of the space whose particles are saved, as 'minX,minY,maxX,maxY'
+     *                           (if empty, particles are saved regardless of their position).
+     * @param particles          The amount of particles randomly chosen to be saved (0 means all of them).
+     */
+    @Autowired
+    private OutputArguments(@Value("${custom.output.async}") boolean async,
+                            @Value("${custom.output.buffer-size}") int bufferSize,
+                            @Value("${custom.output.backpressure}") String backpressurePolicy,
+                            @Value("${custom.output.decimation}") int decimation,
+                            @Value("${custom.output.filter.frames:every}") String frames,
+                            @Value("${custom.output.filter.interval:1}") int interval,
+                            @Value("${custom.output.filter.frames-per-decade:10}") int framesPerDecade,
+                            @Value("${custom.output.filter.window:}") String window,
+                            @Value("${custom.output.filter.particles:0}") int particles) {
+        this.async = async;
+        this.bufferSize = bufferSize;
+        this.backpressurePolicy = BackpressurePolicy.fromPropertyName(backpressurePolicy);
+        this.decimation = decimation;
+        this.outputFilter = new OutputFilter(FrameSelection.fromPropertyName(frames), interval, framesPerDecade,
+                parseWindow(window), particles);
+    }
+
+    /**
+     * @return {@code true} if outputs must be written in background threads, or {@code false} otherwise.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return The amount of states each background writer can buffer.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return The {@link BackpressurePolicy} applied when a background writer's buffer is full.
+     */
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    /**
+     * @return One of how many states are kept when decimating.
+     */
+    public int getDecimation() {
+        return decimation;
+    }
+
+    /**
+     * @return The {@link OutputFilter} applied to the states saved in the Ovito and raw files.
+     */
+    public OutputFilter getOutputFilter() {
+        return outputFilter;
+    }
+
+    /**
+     * Parses the window property.
+     *
+     * @param window The property value (i.e four comma separated numbers: 'minX,minY,maxX,maxY', or empty).
+     * @return The {@link OutputFilter.Window}, or {@code null} if the value is empty.
+     * @throws IllegalArgumentException If the value is not empty, nor four numbers.
+     */
+    private static OutputFilter.Window parseWindow(String window) throws IllegalArgumentException {
+        if (window.trim().isEmpty()) {
+            return null;
+        }
+        final String[] limits = window.split(",");
+        if (limits.length != 4) {
+            throw new IllegalArgumentException("The output window must be set as 'minX,minY,maxX,maxY'");
+        }
+        try {
+            return new OutputFilter.Window(Double.parseDouble(limits[0].trim()), Double.parseDouble(limits[1].trim()),
+                    Double.parseDouble(limits[2].trim()), Double.parseDouble(limits[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The output window must be set as 'minX,minY,maxX,maxY'", e);
+        }
+    }
+}
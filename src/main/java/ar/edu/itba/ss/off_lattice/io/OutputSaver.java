@@ -1,6 +1,7 @@
 package ar.edu.itba.ss.off_lattice.io;
 
 import ar.edu.itba.ss.off_lattice.simulation.State;
+import ar.edu.itba.ss.off_lattice.simulation.StateSink;
 
 import java.util.Queue;
 
@@ -17,5 +18,37 @@ public interface OutputSaver<S extends State> {
      * @param path             The path in which the file will be saved.
      * @param simulationStates The {@link Queue} with the simulation results.
      */
-    void save(String path, Queue<S> simulationStates);
+    default void save(String path, Queue<S> simulationStates) {
+        final StateSink<S> sink = open(path);
+        try {
+            while (!simulationStates.isEmpty()) {
+                sink.accept(simulationStates.poll());
+            }
+        } finally {
+            sink.close();
+        }
+    }
+
+    /**
+     * Opens a {@link StateSink} that saves states incrementally in a file in the given {@code path}
+     * (i.e each state is written as it is received, and the file is completed when the sink is closed).
+     *
+     * @param path The path in which the file will be saved.
+     * @return The {@link StateSink} into which the simulation states must be pushed.
+     */
+    StateSink<S> open(String path);
+
+    /**
+     * Opens a {@link StateSink} that appends states to the file in the given {@code path}, saved by a simulation
+     * that is being resumed from a checkpoint (i.e only its first {@code frames} states are kept,
+     * and those saved after the checkpoint are discarded).
+     * By default, the file is saved from scratch (i.e for outputs that receive again all the states when resuming).
+     *
+     * @param path   The path in which the file was saved.
+     * @param frames The amount of states saved up to the checkpoint.
+     * @return The {@link StateSink} into which the following simulation states must be pushed.
+     */
+    default StateSink<S> resume(String path, long frames) {
+        return open(path);
+    }
 }
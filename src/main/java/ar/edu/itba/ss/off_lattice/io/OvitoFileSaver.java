@@ -2,33 +2,172 @@ package ar.edu.itba.ss.off_lattice.io;
 
 import ar.edu.itba.ss.off_lattice.simulation.State;
 
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.Writer;
-import java.util.Queue;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * An {@link OutputSaver} that saves the simulation results in an Ovito file.
  *
  * @param <S> A concrete subtype of {@link State}.
+ * @implNote The file is written through an {@link AsciiFileWriter}, which encodes values straight into a reusable
+ * buffer (i.e without creating strings). The buffer is also written into the file when a checkpoint is taken,
+ * so a resumed simulation can cut the file right after the frames saved up to the checkpoint.
  */
-/* package */ abstract class OvitoFileSaver<S extends State> extends TextFileSaver<S> {
+/* package */ abstract class OvitoFileSaver<S extends State> extends FileSaver<S> {
+
+    /**
+     * The amount of decimals with which values are saved
+     * (or {@link DecimalEncoder#SHORTEST} to save their shortest representation).
+     */
+    private final int decimals;
+
+    /**
+     * Constructor.
+     *
+     * @param decimals The amount of decimals with which values are saved
+     *                 (or {@link DecimalEncoder#SHORTEST} to save their shortest representation).
+     * @throws IllegalArgumentException If the amount of decimals is not in the {@code [1, MAX_DECIMALS]} range
+     *                                  (and it is not {@link DecimalEncoder#SHORTEST}).
+     */
+    /* package */ OvitoFileSaver(int decimals) throws IllegalArgumentException {
+        if (decimals != DecimalEncoder.SHORTEST && (decimals < 1 || decimals > DecimalEncoder.MAX_DECIMALS)) {
+            throw new IllegalArgumentException("The amount of decimals must be between 1 and "
+                    + DecimalEncoder.MAX_DECIMALS);
+        }
+        this.decimals = decimals;
+    }
 
     @Override
-    void doSave(Writer writer, Queue<S> simulationStates) throws IOException {
-        int frame = 0;
-        while (!simulationStates.isEmpty()) {
-            saveState(writer, simulationStates.poll(), frame);
-            frame++;
+    StateWriter<S> open(File file) throws IOException {
+        return open(FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                0);
+    }
+
+    @Override
+    StateWriter<S> resume(File file, long frames) throws IOException {
+        final long offset = frameOffset(file, frames);
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        try {
+            // Frames saved after the checkpoint are discarded, and the following ones are appended
+            channel.truncate(offset);
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return open(channel, frames);
+    }
+
+    /**
+     * Opens a {@link StateWriter} that writes states into the given {@code channel}, from its actual position.
+     *
+     * @param channel    The {@link FileChannel} into which states are written (closed with the writer).
+     * @param firstFrame The number of frame of the first state to be written.
+     * @return The {@link StateWriter}.
+     */
+    private StateWriter<S> open(FileChannel channel, long firstFrame) {
+        final AsciiFileWriter writer = new AsciiFileWriter(channel, decimals);
+        return new StateWriter<S>() {
+
+            /**
+             * The number of the next frame to be written.
+             */
+            private long frame = firstFrame;
+
+            @Override
+            public void write(S state) throws IOException {
+                saveState(writer, state, frame);
+                frame++;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    /**
+     * Finds the position in which the frame after the given amount of {@code frames} starts in the given file
+     * (i.e frames are walked through their first line, holding the amount of lines that follow the comment line).
+     *
+     * @param file   The Ovito {@link File}.
+     * @param frames The amount of frames to be skipped.
+     * @return The position (in bytes) after the given amount of frames.
+     * @throws IOException In case any I/O error occurs while reading, or if the file holds less frames.
+     */
+    private static long frameOffset(File file, long frames) throws IOException {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            final StringBuilder count = new StringBuilder();
+            long offset = 0;
+            for (long frame = 0; frame < frames; frame++) {
+                count.setLength(0);
+                long length = readLine(input, count);
+                if (length < 0) {
+                    throw new IOException("It holds " + frame + " of the " + frames
+                            + " frames saved up to the checkpoint");
+                }
+                offset += length;
+                final long lines;
+                try {
+                    lines = Long.parseLong(count.toString().trim()) + 1; // The comment line is not counted
+                } catch (NumberFormatException e) {
+                    throw new IOException("Not an Ovito file", e);
+                }
+                for (long line = 0; line < lines; line++) {
+                    length = readLine(input, null);
+                    if (length < 0) {
+                        throw new IOException("Frame " + frame + " is truncated");
+                    }
+                    offset += length;
+                }
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Reads a line from the given {@code input}.
+     *
+     * @param input The {@link InputStream} from which the line is read.
+     * @param line  A {@link StringBuilder} to which the line is appended
+     *              (or {@code null} if the line is just skipped).
+     * @return The amount of read bytes (including the line break), or -1 if the input ended before a line break.
+     * @throws IOException In case any I/O error occurs while reading.
+     */
+    private static long readLine(InputStream input, StringBuilder line) throws IOException {
+        long length = 0;
+        int character;
+        while ((character = input.read()) != -1) {
+            length++;
+            if (character == '\n') {
+                return length;
+            }
+            if (line != null) {
+                line.append((char) character);
+            }
         }
+        return -1;
     }
 
     /**
      * Saves the given {@code state}, appending it to the given {@code writer}.
      *
+     * @param writer The {@link AsciiFileWriter} in which the {@code state} will be saved into.
      * @param state  The state to be saved.
-     * @param writer The {@link FileWriter} in which the {@code state} will be saved into..
+     * @param frame  The number of frame of the {@code state}.
+     * @throws IOException In case any I/O error occurs while writing.
      */
     /* package */
-    abstract void saveState(Writer writer, S state, int frame) throws IOException;
+    abstract void saveState(AsciiFileWriter writer, S state, long frame) throws IOException;
 }
@@ -0,0 +1,97 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bean class used for getting precision validation related values from properties by injection.
+ */
+@Component
+public final class PrecisionValidationArguments {
+
+    /**
+     * Indicates whether the single precision must be validated instead of performing a single simulation.
+     */
+    private final boolean enabled;
+
+    /**
+     * The amount of replicas simulated with each precision.
+     */
+    private final int replicas;
+
+    /**
+     * The width of the space in which simulations are performed.
+     */
+    private final double spaceWidth;
+
+    /**
+     * The height of the space in which simulations are performed.
+     */
+    private final double spaceHeight;
+
+    /**
+     * The amount of particles.
+     */
+    private final int amountOfParticles;
+
+
+    /**
+     * @param enabled           Indicates whether the single precision must be validated.
+     * @param replicas          The amount of replicas simulated with each precision.
+     * @param spaceWidth        The system width (i.e the side length, unless it is set).
+     * @param spaceHeight       The system height (i.e the side length, unless it is set).
+     * @param amountOfParticles The system amount of particles.
+     */
+    @Autowired
+    private PrecisionValidationArguments(@Value("${custom.validation.precision.enabled:false}") boolean enabled,
+                                         @Value("${custom.validation.precision.replicas:1}") int replicas,
+                                         @Value("${custom.system.width:${custom.system.length}}") double spaceWidth,
+                                         @Value("${custom.system.height:${custom.system.length}}")
+                                                 double spaceHeight,
+                                         @Value("${custom.system.particles}") int amountOfParticles) {
+        if (replicas <= 0) {
+            throw new IllegalArgumentException("The amount of replicas must be positive");
+        }
+        this.enabled = enabled;
+        this.replicas = replicas;
+        this.spaceWidth = spaceWidth;
+        this.spaceHeight = spaceHeight;
+        this.amountOfParticles = amountOfParticles;
+    }
+
+    /**
+     * @return {@code true} if the single precision must be validated, or {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The amount of replicas simulated with each precision.
+     */
+    public int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * @return The width of the space in which simulations are performed.
+     */
+    public double getSpaceWidth() {
+        return spaceWidth;
+    }
+
+    /**
+     * @return The height of the space in which simulations are performed.
+     */
+    public double getSpaceHeight() {
+        return spaceHeight;
+    }
+
+    /**
+     * @return The amount of particles.
+     */
+    public int getAmountOfParticles() {
+        return amountOfParticles;
+    }
+}
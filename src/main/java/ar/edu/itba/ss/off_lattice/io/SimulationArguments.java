@@ -1,9 +1,19 @@
 package ar.edu.itba.ss.off_lattice.io;
 
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+import ar.edu.itba.ss.off_lattice.simulation.ConvergenceAction;
+import ar.edu.itba.ss.off_lattice.simulation.ConvergenceCriteria;
+import ar.edu.itba.ss.off_lattice.simulation.GridSize;
+import ar.edu.itba.ss.off_lattice.simulation.NeighborsMethod;
+import ar.edu.itba.ss.off_lattice.simulation.ParticleOrdering;
+import ar.edu.itba.ss.off_lattice.simulation.SimulationParameters;
+import ar.edu.itba.ss.off_lattice.simulation.StepMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Random;
+
 /**
  * Bean class used for getting values from properties by injection.
  *
@@ -13,68 +23,103 @@ import org.springframework.stereotype.Component;
 public final class SimulationArguments {
 
     /**
-     * The amount of iterations.
-     */
-    private final int iterations;
-
-    /**
-     * The 'eta' value, used for calculating noise for updating angles.
-     */
-    private final double eta;
-
-    /**
-     * The 'M' value used by cell index method.
-     */
-    private final int m;
-
-    /**
-     * The speed module used in the simulation.
+     * The {@link SimulationParameters} built from the properties.
      */
-    private final double speedModule;
+    private final SimulationParameters simulationParameters;
 
 
     /**
-     * @param iterations  The amount of iterations.
-     * @param eta         The 'eta' value, used for calculating noise for updating angles.
-     * @param m           The 'm' value used by cell index method.
-     * @param speedModule The speed module used in the simulation.
+     * @param iterations             The amount of iterations.
+     * @param eta                    The 'eta' value, used for calculating noise for updating angles.
+     * @param m                      The 'm' value used by cell index method
+     *                               ('auto' means choosing it according to the system parameters,
+     *                               and 'Mx,My' sets a different amount of cells in each axis).
+     * @param subCells               The amount of sub-cells in which the interaction radius is divided.
+     * @param autotune               Indicates whether the 'm' value must be chosen by timing a few steps.
+     * @param speedModule            The speed module used in the simulation.
+     * @param neighborsMethod        The name of the method used to compute the particles' neighbors.
+     * @param verletSkin             The skin radius used to build Verlet lists.
+     * @param parallelism            The amount of threads used to update the space
+     *                               (0 means using as many threads as available processors).
+     * @param seed                   The seed from which all random values are generated
+     *                               (if empty, a random seed is used).
+     * @param velocityRepresentation The name of the representation used to store the particles' velocities.
+     * @param convergenceAction      The name of the action taken when the steady state is detected.
+     * @param convergenceWindow      The amount of states in each of the windows compared to detect the steady state.
+     * @param meanTolerance          Up to which difference the means of the windows are considered equal.
+     * @param varianceTolerance      Up to which difference the variances of the windows are considered equal.
+     * @param sparseInterval         One of how many states is saved once the steady state is reached
+     *                               (only used by the 'sparse' action).
+     * @param reorderCurve           The name of the space-filling curve along which particles are periodically sorted
+     *                               ('none' means they are never sorted).
+     * @param reorderInterval        Every how many iterations particles are sorted.
+     * @param stepMode               The name of the mode used to perform each step.
      */
     @Autowired
     private SimulationArguments(@Value("${custom.simulation.iterations}") int iterations,
                                 @Value("${custom.simulation.eta}") double eta,
-                                @Value("${custom.simulation.M}") int m,
-                                @Value("${custom.simulation.speed-module}") double speedModule) {
-        this.iterations = iterations;
-        this.eta = eta;
-        this.m = m;
-        this.speedModule = speedModule;
-    }
-
-    /**
-     * @return The amount of iterations.
-     */
-    public int getIterations() {
-        return iterations;
-    }
-
-    /**
-     * @return The 'eta' value, used for calculating noise for updating angles.
-     */
-    public double getEta() {
-        return eta;
+                                @Value("${custom.simulation.M}") String m,
+                                @Value("${custom.simulation.sub-cells:1}") int subCells,
+                                @Value("${custom.simulation.autotune:false}") boolean autotune,
+                                @Value("${custom.simulation.speed-module}") double speedModule,
+                                @Value("${custom.simulation.neighbors-method}") String neighborsMethod,
+                                @Value("${custom.simulation.verlet-skin:0.5}") double verletSkin,
+                                @Value("${custom.simulation.parallelism}") int parallelism,
+                                @Value("${custom.simulation.seed:}") String seed,
+                                @Value("${custom.simulation.velocity-representation:angle}")
+                                        String velocityRepresentation,
+                                @Value("${custom.simulation.convergence.action:none}") String convergenceAction,
+                                @Value("${custom.simulation.convergence.window:100}") int convergenceWindow,
+                                @Value("${custom.simulation.convergence.mean-tolerance:0.01}")
+                                        double meanTolerance,
+                                @Value("${custom.simulation.convergence.variance-tolerance:0.0001}")
+                                        double varianceTolerance,
+                                @Value("${custom.simulation.convergence.sparse-interval:10}") int sparseInterval,
+                                @Value("${custom.simulation.reorder.curve:none}") String reorderCurve,
+                                @Value("${custom.simulation.reorder.interval:100}") int reorderInterval,
+                                @Value("${custom.simulation.step-mode:reference}") String stepMode) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("The parallelism must not be negative");
+        }
+        this.simulationParameters = new SimulationParameters(iterations, eta, parseM(m), subCells, autotune,
+                speedModule, NeighborsMethod.fromPropertyName(neighborsMethod), verletSkin,
+                parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism,
+                seed.trim().isEmpty() ? new Random().nextLong() : Long.parseLong(seed.trim()),
+                VelocityRepresentation.fromPropertyName(velocityRepresentation),
+                new ConvergenceCriteria(ConvergenceAction.fromPropertyName(convergenceAction), convergenceWindow,
+                        meanTolerance, varianceTolerance, sparseInterval),
+                ParticleOrdering.fromPropertyName(reorderCurve), reorderInterval,
+                StepMode.fromPropertyName(stepMode));
     }
 
     /**
-     * @return The 'M' value used by cell index method.
+     * @return The {@link SimulationParameters} built from the properties.
      */
-    public int getM() {
-        return m;
+    public SimulationParameters getSimulationParameters() {
+        return simulationParameters;
     }
 
     /**
-     * @return The speed module used in the simulation.
+     * Parses the 'M' property.
+     *
+     * @param m The property value (i.e 'auto', a positive integer for the same amount of cells in each axis,
+     *          or two positive integers separated by a comma, for the amount of cells in the 'x' and 'y' axes).
+     * @return The {@link GridSize} (or {@link GridSize#AUTOMATIC} if it must be chosen).
+     * @throws IllegalArgumentException If the value is not 'auto', nor one or two positive integers.
      */
-    public double getSpeedModule() {
-        return speedModule;
+    private static GridSize parseM(String m) throws IllegalArgumentException {
+        if ("auto".equalsIgnoreCase(m.trim())) {
+            return GridSize.AUTOMATIC;
+        }
+        final String[] values = m.split(",");
+        if (values.length > 2) {
+            throw new IllegalArgumentException("M must be 'auto', 'M' or 'Mx,My'");
+        }
+        final int mx = Integer.parseInt(values[0].trim());
+        final int my = values.length == 1 ? mx : Integer.parseInt(values[1].trim());
+        if (mx <= 0 || my <= 0) {
+            throw new IllegalArgumentException("There must be at least one grid per side");
+        }
+        return new GridSize(mx, my);
     }
 }
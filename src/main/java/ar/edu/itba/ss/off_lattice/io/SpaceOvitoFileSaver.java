@@ -1,15 +1,12 @@
 package ar.edu.itba.ss.off_lattice.io;
 
-import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
 import ar.edu.itba.ss.off_lattice.models.Space;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * An {@link OvitoFileSaver} that saves {@link ar.edu.itba.ss.off_lattice.models.Space.SpaceState}s.
@@ -17,42 +14,88 @@ import java.util.stream.Stream;
 @Component
 public class SpaceOvitoFileSaver extends OvitoFileSaver<Space.SpaceState> {
 
+    /**
+     * The precision property value used to save the shortest representation of each value.
+     */
+    private static final String SHORTEST_PRECISION = "shortest";
+
+    /**
+     * Constructor, saving the shortest representation of each value (i.e as {@link Double#toString(double)}).
+     */
+    public SpaceOvitoFileSaver() {
+        super(DecimalEncoder.SHORTEST);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param precision The precision with which values are saved: {@code shortest} to save the shortest
+     *                  representation of each value, or the amount of decimals (between 1 and 15).
+     * @throws IllegalArgumentException If the precision is not valid.
+     */
+    @Autowired
+    public SpaceOvitoFileSaver(@Value("${custom.output.ovito-precision:shortest}") String precision)
+            throws IllegalArgumentException {
+        super(toDecimals(precision));
+    }
+
     @Override
-    void saveState(Writer writer, Space.SpaceState state, int frame) throws IOException {
-
-        final List<Particle.ParticleState> finalList = Stream
-                .concat(getLimitStream(state.getSpaceSideLength()), state.getParticleStates().stream())
-                .collect(Collectors.toList());
-        final String stringRepresentation = finalList.stream()
-                .map(particle ->
-                        new StringBuilder()
-                                .append(particle.getX())
-                                .append(" ")
-                                .append(particle.getY())
-                                .append(" ")
-                                .append(particle.getSpeedModule() * Math.cos(particle.getSpeedAngle()))
-                                .append(" ")
-                                .append(particle.getSpeedModule() * Math.sin(particle.getSpeedAngle()))
-                )
-                .collect(Collectors.joining("\n"));
-        writer.append(Integer.toString(finalList.size())).append("\n")
-                .append(Integer.toString(frame)).append("\n")
-                .append(stringRepresentation).append("\n");
+    void saveState(AsciiFileWriter writer, Space.SpaceState state, long frame) throws IOException {
+        final ParticleStore particles = state.getParticles();
+        final double width = state.getSpaceWidth();
+        final double height = state.getSpaceHeight();
+        writer.append(particles.getAmountOfParticles() + 4).append('\n')
+                .append(frame).append('\n');
+        // Particles used to delimit the space (i.e the simulation cell), with no speed.
+        appendParticle(writer, 0, 0, 0, 0);
+        appendParticle(writer, width, 0, 0, 0);
+        appendParticle(writer, 0, height, 0, 0);
+        appendParticle(writer, width, height, 0, 0);
+        for (int i = 0; i < particles.getAmountOfParticles(); i++) {
+            appendParticle(writer, particles.getX(i), particles.getY(i),
+                    particles.getVelocityX(i), particles.getVelocityY(i));
+        }
     }
 
     /**
-     * Returns a {@link Stream} of {@link ar.edu.itba.ss.off_lattice.models.Particle.ParticleState}
-     * used to delimit the space (i.e the simulation cell).
+     * Appends a line representing a particle to the given {@code writer}.
      *
-     * @param spaceSideLength The length of the sides of the space.
-     * @return The created {@link Stream}.
+     * @param writer The {@link AsciiFileWriter} in which the particle will be saved into.
+     * @param x      The 'x' value of the particle's position.
+     * @param y      The 'y' value of the particle's position.
+     * @param xSpeed The 'x' component of the particle's speed.
+     * @param ySpeed The 'y' component of the particle's speed.
+     * @throws IOException In case any I/O error occurs while writing.
      */
-    private static Stream<Particle.ParticleState> getLimitStream(double spaceSideLength) {
-        final Particle lowerLeft = new Particle(0, 0, 0, 0);
-        final Particle upperLeft = new Particle(0, spaceSideLength, 0, 0);
-        final Particle lowerRight = new Particle(spaceSideLength, 0, 0, 0);
-        final Particle upperRight = new Particle(spaceSideLength, spaceSideLength, 0, 0);
+    private static void appendParticle(AsciiFileWriter writer, double x, double y, double xSpeed, double ySpeed)
+            throws IOException {
+        writer.append(x)
+                .append(' ')
+                .append(y)
+                .append(' ')
+                .append(xSpeed)
+                .append(' ')
+                .append(ySpeed)
+                .append('\n');
+    }
 
-        return Stream.of(lowerLeft, lowerRight, upperLeft, upperRight).map(Particle.ParticleState::new);
+    /**
+     * Transforms the given {@code precision} property value into an amount of decimals.
+     *
+     * @param precision The precision property value ({@code shortest}, or the amount of decimals).
+     * @return The amount of decimals (or {@link DecimalEncoder#SHORTEST}).
+     * @throws IllegalArgumentException If the precision is not valid.
+     */
+    private static int toDecimals(String precision) throws IllegalArgumentException {
+        if (SHORTEST_PRECISION.equalsIgnoreCase(precision.trim())) {
+            return DecimalEncoder.SHORTEST;
+        }
+        try {
+            return Integer.parseInt(precision.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown Ovito precision: " + precision + ". "
+                    + "Possible values are: " + SHORTEST_PRECISION + ", or an amount of decimals (between 1 and "
+                    + DecimalEncoder.MAX_DECIMALS + ").");
+        }
     }
 }
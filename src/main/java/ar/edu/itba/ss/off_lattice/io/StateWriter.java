@@ -0,0 +1,31 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.simulation.State;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Defines behaviour for an object that writes states into an output incrementally (i.e one state at a time).
+ *
+ * @param <S> A concrete subtype of {@link State}.
+ */
+/* package */ interface StateWriter<S extends State> extends Closeable {
+
+    /**
+     * Writes the given {@code state}.
+     *
+     * @param state The state to be written.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    void write(S state) throws IOException;
+
+    /**
+     * Writes everything written so far into the output (i.e into the file), so it is complete up to the last state.
+     * By default, nothing is done (i.e for writers whose output is only complete once they are closed).
+     *
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    default void flush() throws IOException {
+    }
+}
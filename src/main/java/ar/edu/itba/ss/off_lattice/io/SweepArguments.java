@@ -0,0 +1,148 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.simulation.SweepRunner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bean class used for getting sweep related values from properties by injection.
+ */
+@Component
+public final class SweepArguments {
+
+    /**
+     * Indicates whether a sweep of simulations must be performed instead of a single simulation.
+     */
+    private final boolean enabled;
+
+    /**
+     * The {@link SweepRunner.SweepPoint}s to be simulated (i.e all the combinations of the given values).
+     */
+    private final List<SweepRunner.SweepPoint> points;
+
+    /**
+     * The amount of replicas simulated for each point.
+     */
+    private final int replicas;
+
+    /**
+     * The amount of runs performed concurrently.
+     */
+    private final int threads;
+
+    /**
+     * The path of the file in which results are saved.
+     */
+    private final String outputPath;
+
+
+    /**
+     * @param enabled           Indicates whether a sweep of simulations must be performed.
+     * @param etas              Comma separated 'eta' values (if empty, the simulation 'eta' value is used).
+     * @param particles         Comma separated amounts of particles
+     *                          (if empty, the system amount of particles is used).
+     * @param lengths           Comma separated side lengths (if empty, the system side length is used).
+     * @param replicas          The amount of replicas simulated for each point.
+     * @param threads           The amount of runs performed concurrently
+     *                          (0 means using as many threads as available processors).
+     * @param outputPath        The path of the file in which results are saved.
+     * @param eta               The simulation 'eta' value.
+     * @param amountOfParticles The system amount of particles.
+     * @param length            The system side length.
+     */
+    @Autowired
+    private SweepArguments(@Value("${custom.sweep.enabled:false}") boolean enabled,
+                           @Value("${custom.sweep.eta:}") String etas,
+                           @Value("${custom.sweep.particles:}") String particles,
+                           @Value("${custom.sweep.length:}") String lengths,
+                           @Value("${custom.sweep.replicas:1}") int replicas,
+                           @Value("${custom.sweep.threads:0}") int threads,
+                           @Value("${custom.output.sweep:}") String outputPath,
+                           @Value("${custom.simulation.eta}") double eta,
+                           @Value("${custom.system.particles}") int amountOfParticles,
+                           @Value("${custom.system.length}") double length) {
+        if (replicas <= 0) {
+            throw new IllegalArgumentException("The amount of replicas must be positive");
+        }
+        if (threads < 0) {
+            throw new IllegalArgumentException("The amount of sweep threads must not be negative");
+        }
+        if (enabled && outputPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("The sweep output path must be set");
+        }
+        this.enabled = enabled;
+        this.points = new ArrayList<>();
+        for (double pointEta : parseList(etas, Double::parseDouble, eta)) {
+            for (int pointParticles : parseList(particles, Integer::parseInt, amountOfParticles)) {
+                for (double pointLength : parseList(lengths, Double::parseDouble, length)) {
+                    points.add(new SweepRunner.SweepPoint(pointEta, pointParticles, pointLength));
+                }
+            }
+        }
+        this.replicas = replicas;
+        this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.outputPath = outputPath.trim();
+    }
+
+    /**
+     * @return {@code true} if a sweep of simulations must be performed, or {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The {@link SweepRunner.SweepPoint}s to be simulated.
+     */
+    public List<SweepRunner.SweepPoint> getPoints() {
+        return Collections.unmodifiableList(points);
+    }
+
+    /**
+     * @return The amount of replicas simulated for each point.
+     */
+    public int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * @return The amount of runs performed concurrently.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return The path of the file in which results are saved.
+     */
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    /**
+     * Parses a comma separated list of values.
+     *
+     * @param values       The comma separated values.
+     * @param parser       Parses each value.
+     * @param defaultValue The value used if the list is empty.
+     * @param <T>          The type of the values.
+     * @return The parsed values.
+     */
+    private static <T> List<T> parseList(String values, Function<String, T> parser, T defaultValue) {
+        if (values.trim().isEmpty()) {
+            return Collections.singletonList(defaultValue);
+        }
+        return Arrays.stream(values.split(","))
+                .map(String::trim)
+                .map(parser)
+                .collect(Collectors.toList());
+    }
+}
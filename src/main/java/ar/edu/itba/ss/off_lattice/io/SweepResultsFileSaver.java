@@ -0,0 +1,61 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.simulation.Observables;
+import ar.edu.itba.ss.off_lattice.simulation.StopReason;
+import ar.edu.itba.ss.off_lattice.simulation.SweepRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link TextFileSaver} that saves the results of a sweep of simulations (one row per run).
+ * Each row holds the parameters of the run (eta, amount of particles, side length, density, replica and seed),
+ * the mean and standard deviation of the order value in the steady state (i.e from the state in which it was
+ * detected, or in the second half of the run if it was not), the last order value, the amount of recorded states,
+ * the state in which the steady state starts (or -1), and whether the run was stopped when reaching it (1 or 0).
+ *
+ * @implNote It generates a Matlab/Octave file with a matrix with the values (rows are in the order runs finish).
+ */
+@Component
+public class SweepResultsFileSaver extends TextFileSaver<SweepRunner.SweepResult> {
+
+    @Override
+    StateWriter<SweepRunner.SweepResult> open(Writer writer) throws IOException {
+        writer.append("% eta, particles, length, density, replica, seed, order mean, order std, last order, "
+                + "states, steady state, stopped")
+                .append("\n")
+                .append("results = [").append("\n");
+        return new StateWriter<SweepRunner.SweepResult>() {
+
+            @Override
+            public void write(SweepRunner.SweepResult result) throws IOException {
+                final SweepRunner.SweepPoint point = result.getPoint();
+                final Observables observables = result.getObservables();
+                final int states = observables.getAmountOfStates();
+                final int steadyState = observables.getSteadyState();
+                final int from = steadyState >= 0 ? steadyState : states / 2;
+                writer.append(Double.toString(point.getEta())).append(", ")
+                        .append(Integer.toString(point.getParticles())).append(", ")
+                        .append(Double.toString(point.getLength())).append(", ")
+                        .append(Double.toString(observables.getDensity())).append(", ")
+                        .append(Integer.toString(result.getReplica())).append(", ")
+                        .append(Long.toString(result.getSeed())).append(", ")
+                        .append(Double.toString(observables.getMeanOrderValue(from))).append(", ")
+                        .append(Double.toString(observables.getOrderValueStandardDeviation(from))).append(", ")
+                        .append(Double.toString(observables.getOrderValue(states - 1))).append(", ")
+                        .append(Integer.toString(states)).append(", ")
+                        .append(Integer.toString(steadyState)).append(", ")
+                        .append(result.getStopReason() == StopReason.STEADY_STATE ? "1" : "0")
+                        .append(";").append("\n");
+                writer.flush(); // Results are few, and each of them is worth a run, so they are flushed right away
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.append("];").append("\n");
+                writer.flush();
+            }
+        };
+    }
+}
@@ -3,15 +3,14 @@ package ar.edu.itba.ss.off_lattice.io;
 import ar.edu.itba.ss.off_lattice.simulation.State;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Queue;
 
 /**
- * An {@link OutputSaver} that saves the simulation results in a raw file
- * (i.e without formatting anything, just serializing as Java does).
+ * An {@link OutputSaver} that saves the simulation results in a text file.
  *
  * @param <S> A concrete subtype of {@link State}.
  */
@@ -19,18 +18,32 @@ import java.util.Queue;
 public abstract class TextFileSaver<S extends State> extends FileSaver<S> {
 
     @Override
-    void doSave(File file, Queue<S> simulationStates) throws IOException {
-        try (FileWriter writer = new FileWriter(file)) {
-            doSave(writer, simulationStates);
-        }
+    StateWriter<S> open(File file) throws IOException {
+        final Writer writer = new BufferedWriter(new FileWriter(file));
+        final StateWriter<S> stateWriter = open(writer);
+        return new StateWriter<S>() {
+            @Override
+            public void write(S state) throws IOException {
+                stateWriter.write(state);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    stateWriter.close();
+                } finally {
+                    writer.close();
+                }
+            }
+        };
     }
 
     /**
-     * Performs the operation of saving data.
+     * Opens a {@link StateWriter} that writes states as text.
      *
-     * @param writer           The {@link FileWriter} used to write a file.
-     * @param simulationStates The simulation results to be saved.
+     * @param writer The {@link Writer} used to write a file (closed after the returned {@link StateWriter}).
+     * @return The {@link StateWriter}.
      * @throws IOException In case any I/O error occurs while performing the operation.
      */
-    abstract void doSave(Writer writer, Queue<S> simulationStates) throws IOException;
+    abstract StateWriter<S> open(Writer writer) throws IOException;
 }
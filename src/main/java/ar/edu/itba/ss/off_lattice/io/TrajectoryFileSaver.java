@@ -0,0 +1,297 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An {@link OutputSaver} that saves the simulation results in a compact binary trajectory file.
+ * The file starts with a header of {@link #HEADER_SIZE} bytes holding (in this order):
+ * a magic number (int), the format version (int), the size in bytes of each value (int),
+ * the amount of particles (int), the space width (double), the speed module (double),
+ * the amount of frames (long) and the space height (double).
+ * Files of the first version of the format do not hold the height (i.e their space is squared).
+ * Then, frames follow with a fixed stride, each of them holding, for each particle,
+ * its 'x', 'y' and speed angle values. All values are little-endian.
+ * Values are saved with the {@link Precision} of this saver (i.e as doubles, or rounded to floats),
+ * and their size is the one held in the header.
+ *
+ * @implNote Frames are written through a {@link FileChannel} as they are received.
+ * The amount of frames in the header is updated when a checkpoint is taken, and when the file is closed
+ * (so the file of an interrupted simulation can be read up to its last checkpoint).
+ * See {@link TrajectoryReader} to read these files.
+ */
+@Component
+public class TrajectoryFileSaver extends FileSaver<Space.SpaceState> {
+
+    /**
+     * The magic number with which trajectory files start (i.e 'SPFT').
+     */
+    /* package */ static final int MAGIC_NUMBER = 0x53504654;
+
+    /**
+     * The version of the format.
+     */
+    /* package */ static final int VERSION = 2;
+
+    /**
+     * The size of the header, in bytes.
+     */
+    /* package */ static final int HEADER_SIZE = 64;
+
+    /**
+     * The position of the amount of frames in the header.
+     */
+    /* package */ static final int FRAMES_POSITION = 32;
+
+    /**
+     * The amount of values saved for each particle in each frame.
+     */
+    /* package */ static final int VALUES_PER_PARTICLE = 3;
+
+    /**
+     * The {@link Precision} with which values are saved.
+     */
+    private final Precision precision;
+
+    /**
+     * Constructor, saving values as doubles.
+     */
+    public TrajectoryFileSaver() {
+        this.precision = Precision.DOUBLE;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param precision The property name of the {@link Precision} with which values are saved.
+     * @throws IllegalArgumentException If there is no precision with the given name.
+     */
+    @Autowired
+    public TrajectoryFileSaver(@Value("${custom.output.raw-precision:double}") String precision)
+            throws IllegalArgumentException {
+        this.precision = Precision.fromPropertyName(precision);
+    }
+
+    @Override
+    StateWriter<Space.SpaceState> open(File file) throws IOException {
+        return new TrajectoryWriter(FileChannel.open(file.toPath(),
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), precision);
+    }
+
+    @Override
+    StateWriter<Space.SpaceState> resume(File file, long frames) throws IOException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (frames == 0) {
+                channel.truncate(0);
+                return new TrajectoryWriter(channel, precision);
+            }
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Not a trajectory file");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC_NUMBER) {
+                throw new IOException("Not a trajectory file");
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trajectory file version: " + version);
+            }
+            final int valueSize = header.getInt();
+            if (valueSize != precision.getValueSize()) {
+                throw new IOException("Its values have " + valueSize + " bytes, but they are saved with "
+                        + precision.getPropertyName() + " precision");
+            }
+            final int amountOfParticles = header.getInt();
+            final long frameSize = (long) amountOfParticles * VALUES_PER_PARTICLE * precision.getValueSize();
+            // Frames written after the last checkpoint might not be counted in the header, so the size is used
+            if (frameSize > 0 && (channel.size() - HEADER_SIZE) / frameSize < frames) {
+                throw new IOException("It holds " + (channel.size() - HEADER_SIZE) / frameSize + " of the "
+                        + frames + " frames saved up to the checkpoint");
+            }
+            // Frames saved after the checkpoint are discarded, and the following ones are appended
+            channel.truncate(HEADER_SIZE + frames * frameSize);
+            return new TrajectoryWriter(channel, amountOfParticles, precision, frames);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds the header of a trajectory file (with zero frames).
+     *
+     * @param amountOfParticles The amount of particles.
+     * @param width             The space width.
+     * @param height            The space height.
+     * @param speedModule       The speed module.
+     * @param valueSize         The size in bytes of each value.
+     * @return A {@link ByteBuffer} holding the header, ready to be written.
+     */
+    private static ByteBuffer header(int amountOfParticles, double width, double height, double speedModule,
+                                     int valueSize) {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC_NUMBER)
+                .putInt(VERSION)
+                .putInt(valueSize)
+                .putInt(amountOfParticles)
+                .putDouble(width)
+                .putDouble(speedModule)
+                .putLong(0)
+                .putDouble(height);
+        header.clear(); // Reserved bytes are left in zero
+        return header;
+    }
+
+    /**
+     * Writes all the remaining bytes of the given {@code buffer} into the given {@code channel},
+     * starting at the given {@code position}.
+     *
+     * @param channel  The {@link FileChannel} to write into.
+     * @param buffer   The {@link ByteBuffer} to be written.
+     * @param position The position of the file where the bytes will be written.
+     * @throws IOException In case any I/O error occurs while writing.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    /**
+     * {@link StateWriter} that writes frames into a trajectory file, with a fixed stride.
+     */
+    private static final class TrajectoryWriter implements StateWriter<Space.SpaceState> {
+
+        /**
+         * The {@link FileChannel} of the file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Buffer reused to write each frame (created when the first frame is received, unless resuming).
+         */
+        private ByteBuffer frameBuffer;
+
+        /**
+         * The {@link Precision} with which values are saved.
+         */
+        private final Precision precision;
+
+        /**
+         * The amount of written frames.
+         */
+        private long frames;
+
+        /**
+         * Constructor, for a new (i.e empty) file.
+         *
+         * @param channel   The {@link FileChannel} of the file (closed with this writer).
+         * @param precision The {@link Precision} with which values are saved.
+         */
+        private TrajectoryWriter(FileChannel channel, Precision precision) {
+            this.channel = channel;
+            this.frameBuffer = null;
+            this.precision = precision;
+            this.frames = 0;
+        }
+
+        /**
+         * Constructor, for a file that already holds frames (i.e whose header is already written).
+         *
+         * @param channel           The {@link FileChannel} of the file (closed with this writer).
+         * @param amountOfParticles The amount of particles of each frame.
+         * @param precision         The {@link Precision} with which values are saved.
+         * @param frames            The amount of frames held by the file.
+         */
+        private TrajectoryWriter(FileChannel channel, int amountOfParticles, Precision precision, long frames) {
+            this.channel = channel;
+            this.frameBuffer = ByteBuffer.allocateDirect(amountOfParticles * VALUES_PER_PARTICLE
+                    * precision.getValueSize())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.precision = precision;
+            this.frames = frames;
+        }
+
+        @Override
+        public void write(Space.SpaceState state) throws IOException {
+            final ParticleStore particles = state.getParticles();
+            if (frameBuffer == null) {
+                writeFully(channel, header(particles.getAmountOfParticles(), state.getSpaceWidth(),
+                        state.getSpaceHeight(),
+                        particles.getAmountOfParticles() == 0 ? 0 : particles.getSpeedModule(0),
+                        precision.getValueSize()), 0);
+                frameBuffer = ByteBuffer.allocateDirect(particles.getAmountOfParticles() * VALUES_PER_PARTICLE
+                        * precision.getValueSize())
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (particles.getAmountOfParticles() * VALUES_PER_PARTICLE * precision.getValueSize()
+                    != frameBuffer.capacity()) {
+                throw new IllegalArgumentException("All states must have the same amount of particles");
+            }
+            frameBuffer.clear();
+            if (precision == Precision.FLOAT) {
+                for (int i = 0; i < particles.getAmountOfParticles(); i++) {
+                    frameBuffer.putFloat((float) particles.getX(i))
+                            .putFloat((float) particles.getY(i))
+                            .putFloat((float) particles.getSpeedAngle(i));
+                }
+            } else {
+                for (int i = 0; i < particles.getAmountOfParticles(); i++) {
+                    frameBuffer.putDouble(particles.getX(i))
+                            .putDouble(particles.getY(i))
+                            .putDouble(particles.getSpeedAngle(i));
+                }
+            }
+            frameBuffer.flip();
+            writeFully(channel, frameBuffer, HEADER_SIZE + frames * frameBuffer.capacity());
+            frames++;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (frameBuffer != null) {
+                writeFrames();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (frameBuffer == null) {
+                    // No frames: write an empty header
+                    writeFully(channel, header(0, 0, 0, 0, precision.getValueSize()), 0);
+                }
+                writeFrames();
+            } finally {
+                channel.close();
+            }
+        }
+
+        /**
+         * Writes the amount of written frames in the header.
+         *
+         * @throws IOException In case any I/O error occurs while writing.
+         */
+        private void writeFrames() throws IOException {
+            final ByteBuffer framesBuffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            framesBuffer.putLong(frames).flip();
+            writeFully(channel, framesBuffer, FRAMES_POSITION);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package ar.edu.itba.ss.off_lattice.io;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads trajectory files written by a {@link TrajectoryFileSaver}, giving random access to any frame.
+ * Files saved with any {@link Precision} can be read (values are always given as doubles).
+ *
+ * @implNote The file is memory mapped (in several regions if it is bigger than what a single
+ * {@link MappedByteBuffer} can hold), so only the pages of the requested frames are actually read.
+ */
+public final class TrajectoryReader implements Closeable {
+
+    /**
+     * The {@link FileChannel} of the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The amount of particles in each frame.
+     */
+    private final int amountOfParticles;
+
+    /**
+     * The space width.
+     */
+    private final double width;
+
+    /**
+     * The space height.
+     */
+    private final double height;
+
+    /**
+     * The speed module of the particles.
+     */
+    private final double speedModule;
+
+    /**
+     * The amount of frames in the file.
+     */
+    private final long amountOfFrames;
+
+    /**
+     * The {@link Precision} with which values were saved.
+     */
+    private final Precision precision;
+
+    /**
+     * Indicates whether values were saved as floats.
+     */
+    private final boolean singlePrecision;
+
+    /**
+     * The size in bytes of each frame.
+     */
+    private final int frameSize;
+
+    /**
+     * The amount of frames held by each mapped region.
+     */
+    private final int framesPerRegion;
+
+    /**
+     * The mapped regions of the file (frames only).
+     */
+    private final MappedByteBuffer[] regions;
+
+
+    /**
+     * Constructor.
+     *
+     * @param channel The {@link FileChannel} of the file.
+     * @throws IOException In case any I/O error occurs, or if the file is not a valid trajectory file.
+     */
+    private TrajectoryReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TrajectoryFileSaver.HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt() != TrajectoryFileSaver.MAGIC_NUMBER) {
+            throw new IOException("Not a trajectory file");
+        }
+        final int version = header.getInt();
+        if (version != 1 && version != TrajectoryFileSaver.VERSION) {
+            throw new IOException("Unsupported trajectory file version: " + version);
+        }
+        final int valueSize = header.getInt();
+        try {
+            this.precision = Precision.fromValueSize(valueSize);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        this.singlePrecision = precision == Precision.FLOAT;
+        this.amountOfParticles = header.getInt();
+        this.width = header.getDouble();
+        this.speedModule = header.getDouble();
+        this.amountOfFrames = header.getLong();
+        this.height = version == 1 ? width : header.getDouble(); // The first version only had squared spaces
+        final long frameSize = (long) amountOfParticles * TrajectoryFileSaver.VALUES_PER_PARTICLE * valueSize;
+        if (frameSize > Integer.MAX_VALUE) {
+            throw new IOException("Frames are too big to be mapped");
+        }
+        if (channel.size() < TrajectoryFileSaver.HEADER_SIZE + frameSize * amountOfFrames) {
+            throw new IOException("The trajectory file is truncated");
+        }
+        this.frameSize = (int) frameSize;
+        this.framesPerRegion = frameSize == 0 ? 1 : (int) (Integer.MAX_VALUE / frameSize);
+        this.regions = new MappedByteBuffer[(int) ((amountOfFrames + framesPerRegion - 1) / framesPerRegion)];
+        for (int region = 0; region < regions.length; region++) {
+            final long firstFrame = (long) region * framesPerRegion;
+            final long frames = Math.min(framesPerRegion, amountOfFrames - firstFrame);
+            regions[region] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    TrajectoryFileSaver.HEADER_SIZE + firstFrame * frameSize, frames * frameSize);
+            regions[region].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Opens the trajectory file in the given {@code path}.
+     *
+     * @param path The path of the file.
+     * @return A {@link TrajectoryReader} for the file.
+     * @throws IOException In case any I/O error occurs, or if the file is not a valid trajectory file.
+     */
+    public static TrajectoryReader open(String path) throws IOException {
+        final FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            return new TrajectoryReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The amount of particles in each frame.
+     */
+    public int getAmountOfParticles() {
+        return amountOfParticles;
+    }
+
+    /**
+     * @return The space width.
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The space height.
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * @return The speed module of the particles.
+     */
+    public double getSpeedModule() {
+        return speedModule;
+    }
+
+    /**
+     * @return The amount of frames in the file.
+     */
+    public long getAmountOfFrames() {
+        return amountOfFrames;
+    }
+
+    /**
+     * @return The {@link Precision} with which values were saved.
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Gets the 'x' value of a particle's position in a given frame.
+     *
+     * @param frame    The frame.
+     * @param particle The index of the particle.
+     * @return The 'x' value.
+     */
+    public double getX(long frame, int particle) {
+        return getValue(frame, particle, 0);
+    }
+
+    /**
+     * Gets the 'y' value of a particle's position in a given frame.
+     *
+     * @param frame    The frame.
+     * @param particle The index of the particle.
+     * @return The 'y' value.
+     */
+    public double getY(long frame, int particle) {
+        return getValue(frame, particle, 1);
+    }
+
+    /**
+     * Gets the speed angle of a particle in a given frame.
+     *
+     * @param frame    The frame.
+     * @param particle The index of the particle.
+     * @return The speed angle.
+     */
+    public double getSpeedAngle(long frame, int particle) {
+        return getValue(frame, particle, 2);
+    }
+
+    /**
+     * Reads the given {@code frame} into the given {@code particles} store.
+     *
+     * @param frame     The frame to be read.
+     * @param particles The {@link ParticleStore} into which the frame will be read.
+     * @throws IllegalArgumentException If the store does not have the same amount of particles as the frames.
+     */
+    public void readFrame(long frame, ParticleStore particles) throws IllegalArgumentException {
+        if (particles.getAmountOfParticles() != amountOfParticles) {
+            throw new IllegalArgumentException("The store must have " + amountOfParticles + " particles");
+        }
+        final ByteBuffer region = regions[regionOf(frame)];
+        final int valueSize = precision.getValueSize();
+        int offset = frameOffset(frame);
+        for (int i = 0; i < amountOfParticles; i++) {
+            final double x = getValue(region, offset);
+            final double y = getValue(region, offset + valueSize);
+            // Rounding to single precision can take a coordinate up to the limit, which is the same place as zero
+            particles.set(i, x < width ? x : 0, y < height ? y : 0, speedModule,
+                    getValue(region, offset + 2 * valueSize));
+            offset += TrajectoryFileSaver.VALUES_PER_PARTICLE * valueSize;
+        }
+    }
+
+    /**
+     * Reads the given {@code frame} as a {@link Space.SpaceState}
+     * (whose particles are kept as doubles, regardless of the {@link Precision} of the file).
+     *
+     * @param frame The frame to be read.
+     * @return The read {@link Space.SpaceState}.
+     */
+    public Space.SpaceState readState(long frame) {
+        final ParticleStore particles = new ParticleStore(amountOfParticles, VelocityRepresentation.ANGLE);
+        readFrame(frame, particles);
+        return new Space(width, height, particles).saveState();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Gets a value of a particle in a given frame.
+     *
+     * @param frame    The frame.
+     * @param particle The index of the particle.
+     * @param value    The index of the value (i.e 0 for 'x', 1 for 'y' and 2 for the speed angle).
+     * @return The value.
+     */
+    private double getValue(long frame, int particle, int value) {
+        if (particle < 0 || particle >= amountOfParticles) {
+            throw new IndexOutOfBoundsException("Particle " + particle + " out of bounds");
+        }
+        final int offset = frameOffset(frame)
+                + (particle * TrajectoryFileSaver.VALUES_PER_PARTICLE + value) * precision.getValueSize();
+        return getValue(regions[regionOf(frame)], offset);
+    }
+
+    /**
+     * Gets the value in the given {@code offset} of the given {@code region}, according to the file's precision.
+     *
+     * @param region The mapped region.
+     * @param offset The offset of the value inside the region.
+     * @return The value.
+     */
+    private double getValue(ByteBuffer region, int offset) {
+        return singlePrecision ? region.getFloat(offset) : region.getDouble(offset);
+    }
+
+    /**
+     * Calculates the mapped region holding the given {@code frame}.
+     *
+     * @param frame The frame.
+     * @return The index of the region.
+     */
+    private int regionOf(long frame) {
+        if (frame < 0 || frame >= amountOfFrames) {
+            throw new IndexOutOfBoundsException("Frame " + frame + " out of bounds");
+        }
+        return (int) (frame / framesPerRegion);
+    }
+
+    /**
+     * Calculates the offset of the given {@code frame} inside its mapped region.
+     *
+     * @param frame The frame.
+     * @return The offset.
+     */
+    private int frameOffset(long frame) {
+        return (int) (frame % framesPerRegion) * frameSize;
+    }
+}
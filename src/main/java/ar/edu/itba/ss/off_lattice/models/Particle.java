@@ -7,40 +7,44 @@ import org.springframework.util.Assert;
 /**
  * Represents a particle of the simulation.
  * This is a point-alike particle (i.e it has no radius).
+ *
+ * @implNote This is a flyweight view over a {@link ParticleStore} (i.e it holds no data by itself,
+ * but the store and the index in it where its data is saved).
  */
 public class Particle implements StateSaver<Particle.ParticleState> {
 
     /**
-     * The 'x' value for this particle's position.
+     * The {@link ParticleStore} holding this particle's data.
      */
-    private double x;
+    private final ParticleStore store;
 
     /**
-     * The 'y' value for this particle's position.
+     * The index of this particle in the {@link ParticleStore}.
      */
-    private double y;
-
-    /**
-     * The module of this particle's speed.
-     */
-    private double speedModule;
-
-    /**
-     * The speed angle.
-     */
-    private double speedAngle;
+    private final int index;
 
     /**
      * Constructor.
+     * Creates a particle backed by its own {@link ParticleStore}.
      *
      * @param initialX The initial position in the x axis for this particle.
      * @param initialY The initial position in the y axis for this particle.
      */
     public Particle(double initialX, double initialY, double initialSpeedModule, double initialSpeedAngle) {
-        this.x = initialX;
-        this.y = initialY;
-        this.speedModule = initialSpeedModule;
-        this.speedAngle = initialSpeedAngle;
+        this(new ParticleStore(1), 0);
+        this.store.set(0, initialX, initialY, initialSpeedModule, initialSpeedAngle);
+    }
+
+    /**
+     * Constructor.
+     * Creates a view over the particle stored in the given {@code index} of the given {@code store}.
+     *
+     * @param store The {@link ParticleStore} holding this particle's data.
+     * @param index The index of this particle in the {@link ParticleStore}.
+     */
+    /* package */ Particle(ParticleStore store, int index) {
+        this.store = store;
+        this.index = index;
     }
 
     /**
@@ -64,10 +68,18 @@ public class Particle implements StateSaver<Particle.ParticleState> {
      *              (i.e used for periodic boundary conditions).
      */
     public void move(double limit) {
-        final double auxX = (this.x + (Math.cos(this.speedAngle) * this.speedModule)) % limit;
-        final double auxY = (this.y + (Math.sin(this.speedAngle) * this.speedModule)) % limit;
-        this.x = auxX < 0 ? auxX + limit : auxX;
-        this.y = auxY < 0 ? auxY + limit : auxY;
+        store.move(index, limit);
+    }
+
+    /**
+     * Makes the particle to move.
+     *
+     * @param width  The limit in the 'x' axis of the {@link Space} in which this {@link Particle} resides
+     *               (i.e used for periodic boundary conditions).
+     * @param height The limit in the 'y' axis of the {@link Space} in which this {@link Particle} resides.
+     */
+    public void move(double width, double height) {
+        store.move(index, width, height);
     }
 
     @Override
@@ -80,32 +92,39 @@ public class Particle implements StateSaver<Particle.ParticleState> {
     // Getters and setters
     // ========================================
 
+    /**
+     * @return The index of this particle in the {@link ParticleStore} holding its data.
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * @return The 'x' value for this particle's position.
      */
     public double getX() {
-        return x;
+        return store.getX(index);
     }
 
     /**
      * @return The 'y' value for this particle's position.
      */
     public double getY() {
-        return y;
+        return store.getY(index);
     }
 
     /**
      * @return The module of this particle's speed.
      */
     public double getSpeedModule() {
-        return speedModule;
+        return store.getSpeedModule(index);
     }
 
     /**
      * @return The speed angle.
      */
     public double getSpeedAngle() {
-        return speedAngle;
+        return store.getSpeedAngle(index);
     }
 
     /**
@@ -114,7 +133,7 @@ public class Particle implements StateSaver<Particle.ParticleState> {
      * @param x The new value for the 'x' position.
      */
     public void setX(double x) {
-        this.x = x;
+        store.setX(index, x);
     }
 
     /**
@@ -123,7 +142,7 @@ public class Particle implements StateSaver<Particle.ParticleState> {
      * @param y The new value for the 'y' position.
      */
     public void setY(double y) {
-        this.y = y;
+        store.setY(index, y);
     }
 
     /**
@@ -132,7 +151,7 @@ public class Particle implements StateSaver<Particle.ParticleState> {
      * @param speedModule The new speed module value.
      */
     public void setSpeedModule(double speedModule) {
-        this.speedModule = speedModule;
+        store.setSpeedModule(index, speedModule);
     }
 
     /**
@@ -141,7 +160,7 @@ public class Particle implements StateSaver<Particle.ParticleState> {
      * @param speedAngle The new speed angle value.
      */
     public void setSpeedAngle(double speedAngle) {
-        this.speedAngle = speedAngle;
+        store.setSpeedAngle(index, speedAngle);
     }
 
 
@@ -177,10 +196,20 @@ public class Particle implements StateSaver<Particle.ParticleState> {
          * @param particle The {@link Particle} whose state must be saved.
          */
         public ParticleState(Particle particle) {
-            this.x = particle.getX();
-            this.y = particle.getY();
-            this.speedModule = particle.getSpeedModule();
-            this.speedAngle = particle.getSpeedAngle();
+            this(particle.store, particle.index);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param store The {@link ParticleStore} holding the data of the particle whose state must be saved.
+         * @param index The index of the particle in the {@link ParticleStore}.
+         */
+        /* package */ ParticleState(ParticleStore store, int index) {
+            this.x = store.getX(index);
+            this.y = store.getY(index);
+            this.speedModule = store.getSpeedModule(index);
+            this.speedAngle = store.getSpeedAngle(index);
         }
 
         /**
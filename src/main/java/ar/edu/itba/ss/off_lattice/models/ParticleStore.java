@@ -0,0 +1,774 @@
+package ar.edu.itba.ss.off_lattice.models;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Stores the data of a set of particles in contiguous primitive arrays
+ * (i.e a structure of arrays, where the data of each particle is stored in the position given by its index).
+ * The direction of the particles' speeds is stored according to a {@link VelocityRepresentation}
+ * (i.e either as angles, or as the components of unit vectors),
+ * and values are kept with a given {@link Precision}.
+ *
+ * @implNote The arrays are exposed in order to allow iterating them in hot loops without allocating.
+ * Those that use them directly must not keep references to them once they finish their job.
+ * Stores using the {@link Precision#FLOAT} precision are instances of a private subclass that rounds values
+ * after storing them (see {@link #create(int, VelocityRepresentation, Precision)}), so the setters and moves of
+ * {@link Precision#DOUBLE} stores do not check the precision.
+ */
+public class ParticleStore implements Serializable {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The amount of particles in this store.
+     */
+    private final int amountOfParticles;
+
+    /**
+     * The {@link VelocityRepresentation} used to store the direction of the particles' speeds.
+     */
+    private final VelocityRepresentation representation;
+
+    /**
+     * The {@link Precision} with which values are kept.
+     */
+    private final Precision precision;
+
+    /**
+     * The 'x' values for the particles' positions.
+     */
+    private final double[] x;
+
+    /**
+     * The 'y' values for the particles' positions.
+     */
+    private final double[] y;
+
+    /**
+     * The modules of the particles' speeds.
+     */
+    private final double[] speedModule;
+
+    /**
+     * The angles of the particles' speeds (not final, in order to allow swapping it with a next-state buffer).
+     * Only set when using the {@link VelocityRepresentation#ANGLE} representation.
+     */
+    private double[] speedAngle;
+
+    /**
+     * The 'x' components of the particles' speed directions (i.e unit vectors).
+     * Only set when using the {@link VelocityRepresentation#CARTESIAN} representation.
+     */
+    private double[] directionX;
+
+    /**
+     * The 'y' components of the particles' speed directions (i.e unit vectors).
+     * Only set when using the {@link VelocityRepresentation#CARTESIAN} representation.
+     */
+    private double[] directionY;
+
+    /**
+     * The identifiers of the particles (i.e their index when the store was created),
+     * which stay the same when particles are reordered.
+     */
+    private final int[] ids;
+
+    /**
+     * Indicates whether particles were reordered (i.e the index of some particle is not its identifier).
+     */
+    private boolean reordered;
+
+
+    /**
+     * Constructor, using the {@link VelocityRepresentation#ANGLE} representation.
+     *
+     * @param amountOfParticles The amount of particles in this store (all values are initialized with zero).
+     * @throws IllegalArgumentException If the amount of particles is negative.
+     */
+    public ParticleStore(int amountOfParticles) throws IllegalArgumentException {
+        this(amountOfParticles, VelocityRepresentation.ANGLE);
+    }
+
+    /**
+     * Constructor, keeping values with the {@link Precision#DOUBLE} precision
+     * (see {@link #create(int, VelocityRepresentation, Precision)} for other precisions).
+     *
+     * @param amountOfParticles The amount of particles in this store
+     *                          (all values are initialized with zero, and directions point to the 'x' axis).
+     * @param representation    The {@link VelocityRepresentation} used to store the direction of the speeds.
+     * @throws IllegalArgumentException If the amount of particles is negative.
+     */
+    public ParticleStore(int amountOfParticles, VelocityRepresentation representation)
+            throws IllegalArgumentException {
+        this(amountOfParticles, representation, Precision.DOUBLE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param amountOfParticles The amount of particles in this store
+     *                          (all values are initialized with zero, and directions point to the 'x' axis).
+     * @param representation    The {@link VelocityRepresentation} used to store the direction of the speeds.
+     * @param precision         The {@link Precision} with which values are kept
+     *                          (i.e values are only rounded by the subclass of the precision).
+     * @throws IllegalArgumentException If the amount of particles is negative.
+     */
+    private ParticleStore(int amountOfParticles, VelocityRepresentation representation, Precision precision)
+            throws IllegalArgumentException {
+        if (amountOfParticles < 0) {
+            throw new IllegalArgumentException("The amount of particles must not be negative");
+        }
+        this.amountOfParticles = amountOfParticles;
+        this.representation = representation;
+        this.precision = precision;
+        this.x = new double[amountOfParticles];
+        this.y = new double[amountOfParticles];
+        this.speedModule = new double[amountOfParticles];
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            this.directionX = new double[amountOfParticles];
+            this.directionY = new double[amountOfParticles];
+            Arrays.fill(directionX, 1);
+        } else {
+            this.speedAngle = new double[amountOfParticles];
+        }
+        this.ids = new int[amountOfParticles];
+        for (int i = 0; i < amountOfParticles; i++) {
+            ids[i] = i;
+        }
+        this.reordered = false;
+    }
+
+    /**
+     * Creates a {@link ParticleStore} that keeps values with the given {@code precision}.
+     *
+     * @param amountOfParticles The amount of particles in the store
+     *                          (all values are initialized with zero, and directions point to the 'x' axis).
+     * @param representation    The {@link VelocityRepresentation} used to store the direction of the speeds.
+     * @param precision         The {@link Precision} with which values are kept.
+     * @return The created {@link ParticleStore}.
+     * @throws IllegalArgumentException If the amount of particles is negative.
+     */
+    public static ParticleStore create(int amountOfParticles, VelocityRepresentation representation,
+                                       Precision precision) throws IllegalArgumentException {
+        if (precision == Precision.FLOAT) {
+            return new RoundingParticleStore(amountOfParticles, representation);
+        }
+        return new ParticleStore(amountOfParticles, representation);
+    }
+
+    /**
+     * Sets all the values of the particle with the given {@code index}.
+     *
+     * @param index       The index of the particle.
+     * @param x           The 'x' value for the particle's position.
+     * @param y           The 'y' value for the particle's position.
+     * @param speedModule The module of the particle's speed.
+     * @param speedAngle  The angle of the particle's speed.
+     */
+    public void set(int index, double x, double y, double speedModule, double speedAngle) {
+        setX(index, x);
+        setY(index, y);
+        setSpeedModule(index, speedModule);
+        setSpeedAngle(index, speedAngle);
+    }
+
+    /**
+     * Makes the particle with the given {@code index} move, inside a squared {@link Space}.
+     *
+     * @param index The index of the particle.
+     * @param limit The limit of the {@link Space} in which the particle resides
+     *              (i.e used for periodic boundary conditions).
+     */
+    public void move(int index, double limit) {
+        move(index, limit, limit);
+    }
+
+    /**
+     * Makes the particle with the given {@code index} move.
+     *
+     * @param index  The index of the particle.
+     * @param width  The limit in the 'x' axis of the {@link Space} in which the particle resides
+     *               (i.e used for periodic boundary conditions).
+     * @param height The limit in the 'y' axis of the {@link Space} in which the particle resides.
+     */
+    public void move(int index, double width, double height) {
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            move(index, width, height, this.directionX[index], this.directionY[index]);
+        } else {
+            move(index, width, height, Math.cos(this.speedAngle[index]), Math.sin(this.speedAngle[index]));
+        }
+    }
+
+    /**
+     * Makes the particle with the given {@code index} move,
+     * using the given cosine and sine of its speed angle (i.e when they were already calculated).
+     * Each axis is wrapped with its own limit.
+     *
+     * @param index  The index of the particle.
+     * @param width  The limit in the 'x' axis of the {@link Space} in which the particle resides
+     *               (i.e used for periodic boundary conditions).
+     * @param height The limit in the 'y' axis of the {@link Space} in which the particle resides.
+     * @param cos    The cosine of the particle's speed angle.
+     * @param sin    The sine of the particle's speed angle.
+     */
+    public void move(int index, double width, double height, double cos, double sin) {
+        final double auxX = (this.x[index] + (cos * this.speedModule[index])) % width;
+        final double auxY = (this.y[index] + (sin * this.speedModule[index])) % height;
+        this.x[index] = wrap(auxX, width);
+        this.y[index] = wrap(auxY, height);
+    }
+
+    /**
+     * Takes the remainder of a coordinate divided by its limit into the {@code [0, limit)} range.
+     *
+     * @param remainder The remainder of the coordinate divided by the limit (i.e in the {@code (-limit, limit)} range).
+     * @param limit     The limit of the axis.
+     * @return The wrapped coordinate.
+     * @implNote Adding the limit to a tiny negative remainder rounds to the limit itself,
+     * which is the same place as zero.
+     */
+    private static double wrap(double remainder, double limit) {
+        final double wrapped = remainder < 0 ? remainder + limit : remainder;
+        return wrapped < limit ? wrapped : 0;
+    }
+
+    /**
+     * Calculates the distance between the particles with the given indexes
+     * (i.e without taking periodic boundary conditions into account;
+     * neighbors are checked with an {@link ar.edu.itba.ss.off_lattice.utils.InteractionKernel}).
+     *
+     * @param first  The index of one of the particles.
+     * @param second The index of the other particle.
+     * @return The calculated distance.
+     */
+    public double distance(int first, int second) {
+        final double x = this.x[first] - this.x[second];
+        final double y = this.y[first] - this.y[second];
+
+        return Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2));
+    }
+
+    /**
+     * Replaces the speed angles array with the given {@code newSpeedAngles} array
+     * (i.e double buffering: new angles are calculated into a separate buffer, which is then swapped in).
+     *
+     * @param newSpeedAngles The array holding the new speed angles.
+     * @return The replaced array (i.e the one holding the old speed angles), to be reused as the next buffer.
+     * @throws IllegalArgumentException If the given array does not have one value per particle.
+     * @throws IllegalStateException    If this store does not use the {@link VelocityRepresentation#ANGLE}
+     *                                  representation.
+     */
+    public double[] swapSpeedAngles(double[] newSpeedAngles) throws IllegalArgumentException, IllegalStateException {
+        validateRepresentation(VelocityRepresentation.ANGLE);
+        if (newSpeedAngles.length != amountOfParticles) {
+            throw new IllegalArgumentException("There must be one speed angle per particle");
+        }
+        final double[] old = this.speedAngle;
+        this.speedAngle = newSpeedAngles;
+        return old;
+    }
+
+    /**
+     * Replaces the speed directions arrays with the given arrays
+     * (i.e double buffering: new directions are calculated into separate buffers, which are then swapped in).
+     * The replaced arrays can be retrieved (in order to reuse them as the next buffers) before calling this method.
+     *
+     * @param newDirectionX The array holding the 'x' components of the new speed directions.
+     * @param newDirectionY The array holding the 'y' components of the new speed directions.
+     * @throws IllegalArgumentException If the given arrays do not have one value per particle.
+     * @throws IllegalStateException    If this store does not use the {@link VelocityRepresentation#CARTESIAN}
+     *                                  representation.
+     */
+    public void swapDirections(double[] newDirectionX, double[] newDirectionY)
+            throws IllegalArgumentException, IllegalStateException {
+        validateRepresentation(VelocityRepresentation.CARTESIAN);
+        if (newDirectionX.length != amountOfParticles || newDirectionY.length != amountOfParticles) {
+            throw new IllegalArgumentException("There must be one speed direction per particle");
+        }
+        this.directionX = newDirectionX;
+        this.directionY = newDirectionY;
+    }
+
+    /**
+     * Checks whether values can be copied between this store and the given {@code other} store
+     * (i.e they have the same amount of particles, the same representation and the same precision).
+     *
+     * @param other The other {@link ParticleStore}.
+     * @return {@code true} if they are compatible, or {@code false} otherwise.
+     */
+    public boolean isCompatibleWith(ParticleStore other) {
+        return other.amountOfParticles == this.amountOfParticles && other.representation == this.representation
+                && other.precision == this.precision;
+    }
+
+    /**
+     * Copies all the values of the given {@code source} store into this store.
+     *
+     * @param source The {@link ParticleStore} from which values will be copied.
+     * @throws IllegalArgumentException If the given store has a different amount of particles,
+     *                                  a different representation, or a different precision.
+     */
+    public void copyFrom(ParticleStore source) throws IllegalArgumentException {
+        if (source.amountOfParticles != this.amountOfParticles) {
+            throw new IllegalArgumentException("Can not copy a store with a different amount of particles");
+        }
+        if (source.representation != this.representation) {
+            throw new IllegalArgumentException("Can not copy a store with a different velocity representation");
+        }
+        if (source.precision != this.precision) {
+            throw new IllegalArgumentException("Can not copy a store with a different precision");
+        }
+        System.arraycopy(source.x, 0, this.x, 0, amountOfParticles);
+        System.arraycopy(source.y, 0, this.y, 0, amountOfParticles);
+        System.arraycopy(source.speedModule, 0, this.speedModule, 0, amountOfParticles);
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            System.arraycopy(source.directionX, 0, this.directionX, 0, amountOfParticles);
+            System.arraycopy(source.directionY, 0, this.directionY, 0, amountOfParticles);
+        } else {
+            System.arraycopy(source.speedAngle, 0, this.speedAngle, 0, amountOfParticles);
+        }
+        System.arraycopy(source.ids, 0, this.ids, 0, amountOfParticles);
+        this.reordered = source.reordered;
+    }
+
+    /**
+     * Copies all the values of the given {@code source} store into this store, placing each particle
+     * in the index given by its identifier (i.e undoing any reordering, so particles can be tracked among states).
+     *
+     * @param source The {@link ParticleStore} from which values will be copied.
+     * @throws IllegalArgumentException If the given store has a different amount of particles,
+     *                                  a different representation, or a different precision.
+     */
+    public void copyInIdOrderFrom(ParticleStore source) throws IllegalArgumentException {
+        if (!source.reordered) {
+            copyFrom(source); // Indexes are the identifiers, so arrays can be copied as they are
+            return;
+        }
+        if (source.amountOfParticles != this.amountOfParticles) {
+            throw new IllegalArgumentException("Can not copy a store with a different amount of particles");
+        }
+        if (source.representation != this.representation) {
+            throw new IllegalArgumentException("Can not copy a store with a different velocity representation");
+        }
+        if (source.precision != this.precision) {
+            throw new IllegalArgumentException("Can not copy a store with a different precision");
+        }
+        final int[] sourceIds = source.ids;
+        for (int i = 0; i < amountOfParticles; i++) {
+            final int id = sourceIds[i];
+            this.x[id] = source.x[i];
+            this.y[id] = source.y[i];
+            this.speedModule[id] = source.speedModule[i];
+            if (representation == VelocityRepresentation.CARTESIAN) {
+                this.directionX[id] = source.directionX[i];
+                this.directionY[id] = source.directionY[i];
+            } else {
+                this.speedAngle[id] = source.speedAngle[i];
+            }
+            this.ids[id] = id;
+        }
+        this.reordered = false;
+    }
+
+    /**
+     * Copies the values of the particle with the given {@code sourceIndex} in the given {@code source} store
+     * into the given {@code index} of this store, as they are stored (i.e without converting the direction).
+     * The identifier of the particle in this store is not changed.
+     *
+     * @param source      The {@link ParticleStore} from which values will be copied.
+     * @param sourceIndex The index of the particle in the source store.
+     * @param index       The index in this store into which the values will be copied.
+     * @throws IllegalArgumentException If the given store has a different representation, or a different precision.
+     */
+    public void copyParticleFrom(ParticleStore source, int sourceIndex, int index) throws IllegalArgumentException {
+        if (source.representation != this.representation) {
+            throw new IllegalArgumentException("Can not copy a store with a different velocity representation");
+        }
+        if (source.precision != this.precision) {
+            throw new IllegalArgumentException("Can not copy a store with a different precision");
+        }
+        this.x[index] = source.x[sourceIndex];
+        this.y[index] = source.y[sourceIndex];
+        this.speedModule[index] = source.speedModule[sourceIndex];
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            this.directionX[index] = source.directionX[sourceIndex];
+            this.directionY[index] = source.directionY[sourceIndex];
+        } else {
+            this.speedAngle[index] = source.speedAngle[sourceIndex];
+        }
+    }
+
+    /**
+     * Reorders the particles in this store, so the particle in index {@code order[k]} is moved to index {@code k}
+     * (i.e identifiers are moved with the particles).
+     * Arrays are permuted in place (i.e references to them taken before reordering are still valid).
+     *
+     * @param order        The permutation to be applied (one index per particle, each of them exactly once).
+     * @param scratch      A buffer used to permute the {@code double} arrays (one value per particle).
+     * @param scratchOfIds A buffer used to permute the identifiers (one value per particle).
+     * @throws IllegalArgumentException If any of the given arrays does not have one value per particle.
+     */
+    public void reorder(int[] order, double[] scratch, int[] scratchOfIds) throws IllegalArgumentException {
+        if (order.length != amountOfParticles || scratch.length != amountOfParticles
+                || scratchOfIds.length != amountOfParticles) {
+            throw new IllegalArgumentException("There must be one value per particle");
+        }
+        permute(x, order, scratch);
+        permute(y, order, scratch);
+        permute(speedModule, order, scratch);
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            permute(directionX, order, scratch);
+            permute(directionY, order, scratch);
+        } else {
+            permute(speedAngle, order, scratch);
+        }
+        boolean identity = true;
+        for (int k = 0; k < amountOfParticles; k++) {
+            scratchOfIds[k] = ids[order[k]];
+            identity &= scratchOfIds[k] == k;
+        }
+        System.arraycopy(scratchOfIds, 0, ids, 0, amountOfParticles);
+        this.reordered = !identity;
+    }
+
+    /**
+     * Replaces the identifiers of the particles (i.e used to restore a reordered store).
+     *
+     * @param ids The identifiers (one per particle, each of them in the {@code [0, amountOfParticles)} range
+     *            exactly once).
+     * @throws IllegalArgumentException If the given identifiers are not a permutation of the indexes.
+     */
+    public void setIds(int[] ids) throws IllegalArgumentException {
+        if (ids.length != amountOfParticles) {
+            throw new IllegalArgumentException("There must be one identifier per particle");
+        }
+        final boolean[] seen = new boolean[amountOfParticles];
+        boolean identity = true;
+        for (int i = 0; i < amountOfParticles; i++) {
+            if (ids[i] < 0 || ids[i] >= amountOfParticles || seen[ids[i]]) {
+                throw new IllegalArgumentException("Each identifier must be a different particle index");
+            }
+            seen[ids[i]] = true;
+            identity &= ids[i] == i;
+        }
+        System.arraycopy(ids, 0, this.ids, 0, amountOfParticles);
+        this.reordered = !identity;
+    }
+
+    /**
+     * @return A new {@link ParticleStore} with the same values (representation and precision) as this one.
+     */
+    public ParticleStore copy() {
+        final ParticleStore copy = create(amountOfParticles, representation, precision);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Permutes the given {@code values} in place, using the given {@code scratch} buffer.
+     *
+     * @param values  The values to be permuted.
+     * @param order   The permutation (i.e the value in index {@code order[k]} is moved to index {@code k}).
+     * @param scratch The buffer into which values are permuted before copying them back.
+     */
+    private static void permute(double[] values, int[] order, double[] scratch) {
+        for (int k = 0; k < values.length; k++) {
+            scratch[k] = values[order[k]];
+        }
+        System.arraycopy(scratch, 0, values, 0, values.length);
+    }
+
+    /**
+     * Checks that this store uses the given {@code expected} representation.
+     *
+     * @param expected The expected {@link VelocityRepresentation}.
+     * @throws IllegalStateException If this store uses another representation.
+     */
+    private void validateRepresentation(VelocityRepresentation expected) throws IllegalStateException {
+        if (representation != expected) {
+            throw new IllegalStateException("This operation needs the " + expected.getPropertyName()
+                    + " velocity representation, but the store uses the " + representation.getPropertyName() + " one");
+        }
+    }
+
+
+    // ========================================
+    // Getters and setters
+    // ========================================
+
+    /**
+     * @return The amount of particles in this store.
+     */
+    public int getAmountOfParticles() {
+        return amountOfParticles;
+    }
+
+    /**
+     * @return The {@link VelocityRepresentation} used to store the direction of the particles' speeds.
+     */
+    public VelocityRepresentation getRepresentation() {
+        return representation;
+    }
+
+    /**
+     * @return The {@link Precision} with which values are kept.
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return Indicates whether particles were reordered (i.e the index of some particle is not its identifier).
+     */
+    public boolean isReordered() {
+        return reordered;
+    }
+
+    /**
+     * @param index The index of the particle.
+     * @return The identifier of the particle (i.e its index when the store was created).
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index The index of the particle.
+     * @return The 'x' value for the particle's position.
+     */
+    public double getX(int index) {
+        return x[index];
+    }
+
+    /**
+     * @param index The index of the particle.
+     * @return The 'y' value for the particle's position.
+     */
+    public double getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * @param index The index of the particle.
+     * @return The module of the particle's speed.
+     */
+    public double getSpeedModule(int index) {
+        return speedModule[index];
+    }
+
+    /**
+     * @param index The index of the particle.
+     * @return The angle of the particle's speed
+     * (in the {@code [-PI, PI]} range when using the {@link VelocityRepresentation#CARTESIAN} representation).
+     */
+    public double getSpeedAngle(int index) {
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            return Math.atan2(directionY[index], directionX[index]);
+        }
+        return speedAngle[index];
+    }
+
+    /**
+     * @param index The index of the particle.
+     * @return The 'x' component of the particle's velocity.
+     */
+    public double getVelocityX(int index) {
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            return speedModule[index] * directionX[index];
+        }
+        return speedModule[index] * Math.cos(speedAngle[index]);
+    }
+
+    /**
+     * @param index The index of the particle.
+     * @return The 'y' component of the particle's velocity.
+     */
+    public double getVelocityY(int index) {
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            return speedModule[index] * directionY[index];
+        }
+        return speedModule[index] * Math.sin(speedAngle[index]);
+    }
+
+    /**
+     * Changes the 'x' position of the particle with the given {@code index}.
+     *
+     * @param index The index of the particle.
+     * @param x     The new value for the 'x' position.
+     */
+    public void setX(int index, double x) {
+        this.x[index] = x;
+    }
+
+    /**
+     * Changes the 'y' position of the particle with the given {@code index}.
+     *
+     * @param index The index of the particle.
+     * @param y     The new value for the 'y' position.
+     */
+    public void setY(int index, double y) {
+        this.y[index] = y;
+    }
+
+    /**
+     * Changes the speed's module value of the particle with the given {@code index}.
+     *
+     * @param index       The index of the particle.
+     * @param speedModule The new speed module value.
+     */
+    public void setSpeedModule(int index, double speedModule) {
+        this.speedModule[index] = speedModule;
+    }
+
+    /**
+     * Changes the speed's angle value of the particle with the given {@code index}.
+     *
+     * @param index      The index of the particle.
+     * @param speedAngle The new speed angle value.
+     */
+    public void setSpeedAngle(int index, double speedAngle) {
+        if (representation == VelocityRepresentation.CARTESIAN) {
+            this.directionX[index] = Math.cos(speedAngle);
+            this.directionY[index] = Math.sin(speedAngle);
+        } else {
+            this.speedAngle[index] = speedAngle;
+        }
+    }
+
+    /**
+     * @return The array holding the identifiers of the particles (i.e it must not be modified).
+     */
+    public int[] getIds() {
+        return ids;
+    }
+
+    /**
+     * @return The array holding the 'x' values for the particles' positions.
+     */
+    public double[] getXValues() {
+        return x;
+    }
+
+    /**
+     * @return The array holding the 'y' values for the particles' positions.
+     */
+    public double[] getYValues() {
+        return y;
+    }
+
+    /**
+     * @return The array holding the modules of the particles' speeds.
+     */
+    public double[] getSpeedModules() {
+        return speedModule;
+    }
+
+    /**
+     * @return The array holding the angles of the particles' speeds.
+     * @throws IllegalStateException If this store does not use the {@link VelocityRepresentation#ANGLE}
+     *                               representation.
+     */
+    public double[] getSpeedAngles() throws IllegalStateException {
+        validateRepresentation(VelocityRepresentation.ANGLE);
+        return speedAngle;
+    }
+
+    /**
+     * @return The array holding the 'x' components of the particles' speed directions.
+     * @throws IllegalStateException If this store does not use the {@link VelocityRepresentation#CARTESIAN}
+     *                               representation.
+     */
+    public double[] getDirectionXValues() throws IllegalStateException {
+        validateRepresentation(VelocityRepresentation.CARTESIAN);
+        return directionX;
+    }
+
+    /**
+     * @return The array holding the 'y' components of the particles' speed directions.
+     * @throws IllegalStateException If this store does not use the {@link VelocityRepresentation#CARTESIAN}
+     *                               representation.
+     */
+    public double[] getDirectionYValues() throws IllegalStateException {
+        validateRepresentation(VelocityRepresentation.CARTESIAN);
+        return directionY;
+    }
+
+    /**
+     * A {@link ParticleStore} using the {@link Precision#FLOAT} precision
+     * (i.e each value is rounded to the nearest {@code float} right after it is stored).
+     */
+    private static final class RoundingParticleStore extends ParticleStore {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor.
+         *
+         * @param amountOfParticles The amount of particles in this store.
+         * @param representation    The {@link VelocityRepresentation} used to store the direction of the speeds.
+         * @throws IllegalArgumentException If the amount of particles is negative.
+         */
+        private RoundingParticleStore(int amountOfParticles, VelocityRepresentation representation)
+                throws IllegalArgumentException {
+            super(amountOfParticles, representation, Precision.FLOAT);
+        }
+
+        @Override
+        public void move(int index, double width, double height, double cos, double sin) {
+            super.move(index, width, height, cos, sin);
+            final double[] x = getXValues();
+            final double[] y = getYValues();
+            x[index] = roundedInside(x[index], width);
+            y[index] = roundedInside(y[index], height);
+        }
+
+        @Override
+        public void setX(int index, double x) {
+            super.setX(index, (float) x);
+        }
+
+        @Override
+        public void setY(int index, double y) {
+            super.setY(index, (float) y);
+        }
+
+        @Override
+        public void setSpeedModule(int index, double speedModule) {
+            super.setSpeedModule(index, (float) speedModule);
+        }
+
+        @Override
+        public void setSpeedAngle(int index, double speedAngle) {
+            super.setSpeedAngle(index, speedAngle);
+            if (getRepresentation() == VelocityRepresentation.CARTESIAN) {
+                final double[] directionX = getDirectionXValues();
+                final double[] directionY = getDirectionYValues();
+                directionX[index] = (float) directionX[index];
+                directionY[index] = (float) directionY[index];
+            } else {
+                final double[] speedAngles = getSpeedAngles();
+                speedAngles[index] = (float) speedAngles[index];
+            }
+        }
+
+        /**
+         * Rounds the given coordinate to single precision, keeping it inside the space
+         * (i.e a coordinate that rounds up to the limit is wrapped to zero).
+         *
+         * @param coordinate The coordinate (in the {@code [0, limit)} range).
+         * @param limit      The limit of the space in the coordinate's axis.
+         * @return The rounded coordinate.
+         */
+        private static double roundedInside(double coordinate, double limit) {
+            final double rounded = (float) coordinate;
+            return rounded < limit ? rounded : 0;
+        }
+    }
+}
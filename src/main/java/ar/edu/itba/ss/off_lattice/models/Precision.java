@@ -0,0 +1,101 @@
+package ar.edu.itba.ss.off_lattice.models;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different precisions with which the particles' values can be kept.
+ * The raw (trajectory) file saves values with either of them.
+ * Simulations always keep values in {@code double} arrays, so a {@link ParticleStore} with the {@link #FLOAT}
+ * precision only emulates single precision, rounding each stored value to the nearest {@code float}
+ * (i.e it neither saves memory nor bandwidth, and it is only used to validate whether single precision changes
+ * the physics, see {@link ar.edu.itba.ss.off_lattice.simulation.PrecisionValidator}).
+ */
+public enum Precision {
+
+    /**
+     * Values are kept in double precision (i.e as they are calculated).
+     */
+    DOUBLE("double", Double.BYTES),
+
+    /**
+     * Values are kept in single precision (i.e rounded each time they are stored, when emulated by a simulation).
+     */
+    FLOAT("float", Float.BYTES);
+
+    /**
+     * The name used to select this precision from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * The size in bytes of a value with this precision (i.e used by binary outputs).
+     */
+    private final int valueSize;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this precision from properties.
+     * @param valueSize    The size in bytes of a value with this precision.
+     */
+    Precision(String propertyName, int valueSize) {
+        this.propertyName = propertyName;
+        this.valueSize = valueSize;
+    }
+
+    /**
+     * @return The name used to select this precision from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * @return The size in bytes of a value with this precision (i.e used by binary outputs).
+     */
+    public int getValueSize() {
+        return valueSize;
+    }
+
+    /**
+     * Rounds the given {@code value} to this precision.
+     *
+     * @param value The value to be rounded.
+     * @return The rounded value.
+     */
+    public double round(double value) {
+        return this == FLOAT ? (float) value : value;
+    }
+
+    /**
+     * Gets the {@link Precision} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the precision.
+     * @return The corresponding {@link Precision}.
+     * @throws IllegalArgumentException In case there is no precision with the given {@code name}.
+     */
+    public static Precision fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(precision -> precision.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown precision: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(Precision::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+
+    /**
+     * Gets the {@link Precision} whose values have the given size.
+     *
+     * @param valueSize The size in bytes of a value.
+     * @return The corresponding {@link Precision}.
+     * @throws IllegalArgumentException In case there is no precision with the given size.
+     */
+    public static Precision fromValueSize(int valueSize) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(precision -> precision.valueSize == valueSize)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported value size: " + valueSize));
+    }
+}
@@ -4,54 +4,136 @@ import ar.edu.itba.ss.off_lattice.simulation.State;
 import ar.edu.itba.ss.off_lattice.simulation.StateSaver;
 import org.springframework.util.Assert;
 
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Represents a space in which the simulation is done.
- * Note that this is a squared space.
+ * Note that this is a rectangular space (i.e its width and height can be different),
+ * with periodic boundary conditions in both axes.
+ *
+ * @implNote Particles' data is held in a {@link ParticleStore}.
+ * {@link Particle} views over it are only created if they are requested.
  */
 public class Space implements StateSaver<Space.SpaceState> {
 
     /**
-     * The length of the side of this space.
+     * The width of this space (i.e its length in the 'x' axis).
      */
-    private final double sideLength;
+    private final double width;
 
     /**
-     * The particles in this space.
+     * The height of this space (i.e its length in the 'y' axis).
      */
-    private final List<Particle> particles;
+    private final double height;
 
     /**
-     * Constructor.
+     * The {@link ParticleStore} holding the data of the particles in this space.
+     */
+    private final ParticleStore particleStore;
+
+    /**
+     * The particles in this space (i.e views over the {@link ParticleStore}), lazily created.
+     */
+    private List<Particle> particles;
+
+    /**
+     * Constructor for a squared space.
      *
      * @param sideLength The length of the side of this space.
      * @param particles  The particles in this space.
      * @throws IllegalArgumentException If the side length is not positive,
      *                                  if the {@code particles} list is {@code null},
      *                                  or if any particle in the {@code particles} list is not part of this space.
+     * @implNote The particles' data is copied into a new {@link ParticleStore}
+     * (i.e the given particles are not modified by this space).
      */
     public Space(double sideLength, List<Particle> particles) throws IllegalArgumentException {
-        validateSideLength(sideLength);
-        validateParticlesList(particles, sideLength);
-        this.sideLength = sideLength;
-        this.particles = particles;
+        this(sideLength, toParticleStore(particles));
+    }
+
+    /**
+     * Constructor for a squared space.
+     *
+     * @param sideLength    The length of the side of this space.
+     * @param particleStore The {@link ParticleStore} holding the data of the particles in this space.
+     * @throws IllegalArgumentException If the side length is not positive,
+     *                                  if the {@code particleStore} is {@code null},
+     *                                  or if any particle in the {@code particleStore} is not part of this space.
+     */
+    public Space(double sideLength, ParticleStore particleStore) throws IllegalArgumentException {
+        this(sideLength, sideLength, particleStore);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param width         The width of this space (i.e its length in the 'x' axis).
+     * @param height        The height of this space (i.e its length in the 'y' axis).
+     * @param particleStore The {@link ParticleStore} holding the data of the particles in this space.
+     * @throws IllegalArgumentException If the width or the height are not positive,
+     *                                  if the {@code particleStore} is {@code null},
+     *                                  or if any particle in the {@code particleStore} is not part of this space.
+     */
+    public Space(double width, double height, ParticleStore particleStore) throws IllegalArgumentException {
+        validateLength(width);
+        validateLength(height);
+        validateParticleStore(particleStore, width, height);
+        this.width = width;
+        this.height = height;
+        this.particleStore = particleStore;
+    }
+
+    /**
+     * @return The width of this space (i.e its length in the 'x' axis).
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The height of this space (i.e its length in the 'y' axis).
+     */
+    public double getHeight() {
+        return height;
     }
 
     /**
-     * @return The length of the side of this space.
+     * @return The {@link ParticleStore} holding the data of the particles in this space.
      */
-    public double getSideLength() {
-        return sideLength;
+    public ParticleStore getParticleStore() {
+        return particleStore;
     }
 
     /**
-     * @return The particles in this space.
+     * @return The particles in this space (an unmodifiable {@link List} of views over the {@link ParticleStore}).
      */
     public List<Particle> getParticles() {
-        return new LinkedList<>(particles);
+        if (particles == null) {
+            particles = Collections.unmodifiableList(IntStream.range(0, particleStore.getAmountOfParticles())
+                    .mapToObj(index -> new Particle(particleStore, index))
+                    .collect(Collectors.toList()));
+        }
+        return particles;
+    }
+
+    /**
+     * @return The amount of particles in this space.
+     */
+    public int getAmountOfParticles() {
+        return particleStore.getAmountOfParticles();
+    }
+
+    /**
+     * Gets the particle with the given {@code index} (i.e its position in the {@link ParticleStore}).
+     *
+     * @param index The index of the particle.
+     * @return The particle with the given {@code index}.
+     */
+    public Particle getParticle(int index) {
+        return getParticles().get(index);
     }
 
     @Override
@@ -59,37 +141,71 @@ public class Space implements StateSaver<Space.SpaceState> {
         return new SpaceState(this);
     }
 
+    /**
+     * Saves the state of this space into the given {@code state}, reusing it in order to avoid allocating
+     * (if it can not be reused, a new one is created).
+     *
+     * @param state The {@link SpaceState} to be reused (can be {@code null}).
+     * @return The actual state of this space.
+     */
+    public SpaceState saveState(SpaceState state) {
+        if (state == null || !state.particles.isCompatibleWith(particleStore)
+                || Double.compare(state.getSpaceWidth(), width) != 0
+                || Double.compare(state.getSpaceHeight(), height) != 0) {
+            return saveState();
+        }
+        state.particles.copyInIdOrderFrom(particleStore);
+        return state;
+    }
+
+
+    /**
+     * Copies the data of the given {@code particles} into a new {@link ParticleStore}.
+     *
+     * @param particles The particles to be copied.
+     * @return The created {@link ParticleStore}.
+     */
+    private static ParticleStore toParticleStore(List<Particle> particles) {
+        Assert.notNull(particles, "The particles list must not be null.");
+        final ParticleStore store = new ParticleStore(particles.size());
+        int index = 0;
+        for (Particle particle : particles) {
+            store.set(index, particle.getX(), particle.getY(), particle.getSpeedModule(), particle.getSpeedAngle());
+            index++;
+        }
+        return store;
+    }
 
     /**
-     * Checks if the given {@code sideLength} value is legal.
+     * Checks if the given {@code length} value (i.e the width or the height) is legal.
      *
-     * @param sideLength The value to be validated.
+     * @param length The value to be validated.
      * @throws IllegalArgumentException In case the value is not legal (i.e is not positive).
      */
-    private static void validateSideLength(double sideLength) throws IllegalArgumentException {
-        if (Double.compare(sideLength, 0.0) <= 0) {
-            throw new IllegalArgumentException("The side length must be positive");
+    private static void validateLength(double length) throws IllegalArgumentException {
+        if (Double.compare(length, 0.0) <= 0) {
+            throw new IllegalArgumentException("The width and the height must be positive");
         }
     }
 
     /**
-     * Checks if the given {@code particles} {@link List} is legal.
+     * Checks if the given {@code particleStore} is legal
+     * (i.e its positions are in the {@code [0, L)} range of each axis).
      *
-     * @param particles  The {@code particles} {@link List} to be validated.
-     * @param sideLength The side length, which states a limit for the particles position.
-     * @throws IllegalArgumentException In case the list is not valid.
+     * @param particleStore The {@link ParticleStore} to be validated.
+     * @param width         The width, which states a limit for the particles 'x' position.
+     * @param height        The height, which states a limit for the particles 'y' position.
+     * @throws IllegalArgumentException In case the store is not valid.
      */
-    private static void validateParticlesList(List<Particle> particles, double sideLength)
+    private static void validateParticleStore(ParticleStore particleStore, double width, double height)
             throws IllegalArgumentException {
-        Assert.notNull(particles, "The particles list must not be null.");
-        final long legalParticlesAmount = particles.stream()
-                .filter(point -> point.getX() >= 0)
-                .filter(point -> point.getX() <= sideLength)
-                .filter(point -> point.getY() >= 0)
-                .filter(point -> point.getY() <= sideLength)
-                .count();
-        if (legalParticlesAmount != particles.size()) {
-            throw new IllegalArgumentException("There are particles that are not part of this space");
+        Assert.notNull(particleStore, "The particle store must not be null.");
+        for (int i = 0; i < particleStore.getAmountOfParticles(); i++) {
+            final double x = particleStore.getX(i);
+            final double y = particleStore.getY(i);
+            if (x < 0 || x >= width || y < 0 || y >= height) {
+                throw new IllegalArgumentException("There are particles that are not part of this space");
+            }
         }
     }
 
@@ -99,18 +215,24 @@ public class Space implements StateSaver<Space.SpaceState> {
 
     /**
      * Bean class that extends {@link State},
-     * which stores the actual state of a {@link Space}.
+     * which stores the actual state of a {@link Space}
+     * (particles are stored in the order given by their identifiers, even if the space's store was reordered).
      */
     public static final class SpaceState extends State {
         /**
-         * The {@link List} with the {@link State} of the {@link Particle}s in the {@link Space}.
+         * A copy of the {@link ParticleStore} of the {@link Space}.
          */
-        private final List<Particle.ParticleState> particleStates;
+        private final ParticleStore particles;
 
         /**
-         * The length of the side of this space.
+         * The width of the space.
          */
-        private final double spaceSideLength;
+        private final double spaceWidth;
+
+        /**
+         * The height of the space.
+         */
+        private final double spaceHeight;
 
         /**
          * Constructor.
@@ -118,24 +240,79 @@ public class Space implements StateSaver<Space.SpaceState> {
          * @param space The {@link Space} whose state must be saved.
          */
         private SpaceState(Space space) {
-            this.particleStates = space.getParticles().stream()
-                    .map(Particle::saveState)
-                    .collect(Collectors.toList());
-            this.spaceSideLength = space.getSideLength();
+            this(space.getWidth(), space.getHeight(), ParticleStore.create(space.getAmountOfParticles(),
+                    space.getParticleStore().getRepresentation(), space.getParticleStore().getPrecision()));
+            this.particles.copyInIdOrderFrom(space.getParticleStore());
         }
 
         /**
-         * @return The {@link List} with the {@link State} of the {@link Particle}s in the {@link Space}.
+         * Constructor.
+         *
+         * @param spaceWidth  The width of the space.
+         * @param spaceHeight The height of the space.
+         * @param particles   The {@link ParticleStore} holding the particles' data (not copied).
+         */
+        private SpaceState(double spaceWidth, double spaceHeight, ParticleStore particles) {
+            this.particles = particles;
+            this.spaceWidth = spaceWidth;
+            this.spaceHeight = spaceHeight;
+        }
+
+        /**
+         * Copies the given {@code source} state into the given {@code target} state, reusing it
+         * (if it can not be reused because it is {@code null} or it does not match the source, a new one is created).
+         *
+         * @param source The {@link SpaceState} to be copied.
+         * @param target The {@link SpaceState} to be reused (can be {@code null}).
+         * @return The copy.
+         */
+        public static SpaceState copy(SpaceState source, SpaceState target) {
+            if (target == null || target == source
+                    || !target.particles.isCompatibleWith(source.particles)
+                    || Double.compare(target.spaceWidth, source.spaceWidth) != 0
+                    || Double.compare(target.spaceHeight, source.spaceHeight) != 0) {
+                return new SpaceState(source.spaceWidth, source.spaceHeight, source.particles.copy());
+            }
+            target.particles.copyFrom(source.particles);
+            return target;
+        }
+
+        /**
+         * @return A {@link ParticleStore} holding the saved particles' data.
+         * Note that it must not be modified.
+         */
+        public ParticleStore getParticles() {
+            return particles;
+        }
+
+        /**
+         * @return The amount of particles in the {@link Space}.
+         */
+        public int getAmountOfParticles() {
+            return particles.getAmountOfParticles();
+        }
+
+        /**
+         * @return A new {@link List} with the {@link State} of the {@link Particle}s in the {@link Space}.
          */
         public List<Particle.ParticleState> getParticleStates() {
-            return particleStates;
+            return IntStream.range(0, particles.getAmountOfParticles())
+                    .mapToObj(index -> new Particle.ParticleState(particles, index))
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * @return The width of the space.
+         */
+        public double getSpaceWidth() {
+            return spaceWidth;
         }
 
         /**
-         * @return The length of the side of this space.
+         * @return The height of the space.
          */
-        public double getSpaceSideLength() {
-            return spaceSideLength;
+        public double getSpaceHeight() {
+            return spaceHeight;
         }
     }
 }
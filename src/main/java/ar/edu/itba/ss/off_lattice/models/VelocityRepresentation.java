@@ -0,0 +1,59 @@
+package ar.edu.itba.ss.off_lattice.models;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different ways in which a {@link ParticleStore} can represent the particles' velocities.
+ * In both of them, the module of the speed is stored separately, so they only differ in how the direction is stored.
+ */
+public enum VelocityRepresentation {
+
+    /**
+     * The direction is stored as an angle (i.e cosine and sine are calculated each time the components are needed).
+     */
+    ANGLE("angle"),
+
+    /**
+     * The direction is stored as a unit vector (i.e the angle is only calculated when it is needed for output).
+     */
+    CARTESIAN("cartesian");
+
+    /**
+     * The name used to select this representation from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this representation from properties.
+     */
+    VelocityRepresentation(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return The name used to select this representation from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the {@link VelocityRepresentation} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the representation.
+     * @return The corresponding {@link VelocityRepresentation}.
+     * @throws IllegalArgumentException In case there is no representation with the given {@code name}.
+     */
+    public static VelocityRepresentation fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(representation -> representation.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown velocity representation: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(VelocityRepresentation::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+}
@@ -0,0 +1,360 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+
+/**
+ * Bean class that extends {@link State}, which stores everything needed to resume a simulation
+ * from a given iteration, producing exactly the same trajectory as if it was never interrupted
+ * (i.e the particles' data and identifiers, the seed and the iteration from which noise is generated,
+ * the grid resolution, the Verlet lists' reference positions and amount of builds, the observables recorded so far,
+ * and the amount of saved states, so outputs can be cut right after the checkpoint).
+ * The parameters that define the trajectory are also stored, in order to check that a simulation
+ * is resumed with the same ones.
+ *
+ * @implNote Checkpoints are immutable once created (i.e arrays must not be modified),
+ * so they can be handed to other threads without copying them.
+ */
+public final class Checkpoint extends State {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The iteration in which the checkpoint was taken (i.e the amount of performed updates).
+     */
+    private final int iteration;
+
+    /**
+     * The amount of states pushed into the state sinks up to the checkpoint (including the one of its iteration).
+     */
+    private final long frames;
+
+    /**
+     * The seed from which all random values are generated.
+     */
+    private final long seed;
+
+    /**
+     * The {@link GridSize} used by cell index method.
+     */
+    private final GridSize grid;
+
+    /**
+     * The width of the space.
+     */
+    private final double spaceWidth;
+
+    /**
+     * The height of the space.
+     */
+    private final double spaceHeight;
+
+    /**
+     * The interaction radius.
+     */
+    private final double interactionRadius;
+
+    /**
+     * The 'eta' value, used for calculating noise for updating angles.
+     */
+    private final double eta;
+
+    /**
+     * The {@link NeighborsMethod} used to get the particles' neighbors.
+     */
+    private final NeighborsMethod neighborsMethod;
+
+    /**
+     * The amount of sub-cells in which the interaction radius is divided.
+     */
+    private final int subCells;
+
+    /**
+     * The skin radius used to build Verlet lists.
+     */
+    private final double verletSkin;
+
+    /**
+     * The {@link ParticleOrdering} used to periodically sort the particles.
+     */
+    private final ParticleOrdering ordering;
+
+    /**
+     * Every how many iterations particles are sorted.
+     */
+    private final int reorderInterval;
+
+    /**
+     * The {@link ParticleStore} holding the particles' data.
+     */
+    private final ParticleStore particles;
+
+    /**
+     * The amount of times the Verlet lists were built (or 0 if they are not used).
+     */
+    private final long verletBuilds;
+
+    /**
+     * The 'x' components of the particles' positions when the Verlet lists were built
+     * (or {@code null} if they are not used).
+     */
+    private final double[] verletReferenceX;
+
+    /**
+     * The 'y' components of the particles' positions when the Verlet lists were built
+     * (or {@code null} if they are not used).
+     */
+    private final double[] verletReferenceY;
+
+    /**
+     * The order values recorded so far (one per state before the one in which the checkpoint was taken).
+     */
+    private final double[] orderValues;
+
+    /**
+     * The 'x' components of the mean velocity recorded so far.
+     */
+    private final double[] meanVelocityX;
+
+    /**
+     * The 'y' components of the mean velocity recorded so far.
+     */
+    private final double[] meanVelocityY;
+
+
+    /**
+     * Constructor.
+     *
+     * @param iteration         The iteration in which the checkpoint was taken (i.e the amount of performed updates).
+     * @param frames            The amount of states pushed into the state sinks up to the checkpoint
+     *                          (including the one of its iteration).
+     * @param seed              The seed from which all random values are generated.
+     * @param grid              The {@link GridSize} used by cell index method.
+     * @param spaceWidth        The width of the space.
+     * @param spaceHeight       The height of the space.
+     * @param interactionRadius The interaction radius.
+     * @param eta               The 'eta' value, used for calculating noise for updating angles.
+     * @param neighborsMethod   The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @param verletSkin        The skin radius used to build Verlet lists.
+     * @param ordering          The {@link ParticleOrdering} used to periodically sort the particles.
+     * @param reorderInterval   Every how many iterations particles are sorted.
+     * @param particles         The {@link ParticleStore} holding the particles' data, in their actual order
+     *                          (i.e with their identifiers; not copied).
+     * @param verletBuilds      The amount of times the Verlet lists were built (or 0 if they are not used).
+     * @param verletReferenceX  The 'x' components of the particles' positions when the Verlet lists were built
+     *                          (or {@code null} if they are not used).
+     * @param verletReferenceY  The 'y' components of the particles' positions when the Verlet lists were built
+     *                          (or {@code null} if they are not used).
+     * @param orderValues       The order values recorded so far (not copied).
+     * @param meanVelocityX     The 'x' components of the mean velocity recorded so far (not copied).
+     * @param meanVelocityY     The 'y' components of the mean velocity recorded so far (not copied).
+     * @throws IllegalArgumentException If the iteration, the amount of frames or the amount of Verlet lists' builds
+     *                                  are negative,
+     *                                  if the grid size is automatic,
+     *                                  if only one of the reference arrays is given,
+     *                                  or if the arrays' lengths do not match the amount of particles or the iteration.
+     */
+    public Checkpoint(int iteration, long frames, long seed, GridSize grid, double spaceWidth, double spaceHeight,
+                      double interactionRadius, double eta, NeighborsMethod neighborsMethod, int subCells,
+                      double verletSkin, ParticleOrdering ordering, int reorderInterval, ParticleStore particles,
+                      long verletBuilds, double[] verletReferenceX, double[] verletReferenceY,
+                      double[] orderValues, double[] meanVelocityX, double[] meanVelocityY)
+            throws IllegalArgumentException {
+        if (iteration < 0) {
+            throw new IllegalArgumentException("The iteration must not be negative");
+        }
+        if (frames < 0) {
+            throw new IllegalArgumentException("The amount of frames must not be negative");
+        }
+        if (verletBuilds < 0) {
+            throw new IllegalArgumentException("The amount of Verlet lists' builds must not be negative");
+        }
+        if (grid.isAutomatic()) {
+            throw new IllegalArgumentException("The grid size used by the simulation must be stored");
+        }
+        if ((verletReferenceX == null) != (verletReferenceY == null)) {
+            throw new IllegalArgumentException("Both Verlet reference arrays must be given, or none of them");
+        }
+        if (verletReferenceX != null && (verletReferenceX.length != particles.getAmountOfParticles()
+                || verletReferenceY.length != particles.getAmountOfParticles())) {
+            throw new IllegalArgumentException("There must be a Verlet reference position for each particle");
+        }
+        if (orderValues.length != iteration || meanVelocityX.length != iteration
+                || meanVelocityY.length != iteration) {
+            throw new IllegalArgumentException("There must be recorded observables for each performed iteration");
+        }
+        this.iteration = iteration;
+        this.frames = frames;
+        this.seed = seed;
+        this.grid = grid;
+        this.spaceWidth = spaceWidth;
+        this.spaceHeight = spaceHeight;
+        this.interactionRadius = interactionRadius;
+        this.eta = eta;
+        this.neighborsMethod = neighborsMethod;
+        this.subCells = subCells;
+        this.verletSkin = verletSkin;
+        this.ordering = ordering;
+        this.reorderInterval = reorderInterval;
+        this.particles = particles;
+        this.verletBuilds = verletBuilds;
+        this.verletReferenceX = verletReferenceX;
+        this.verletReferenceY = verletReferenceY;
+        this.orderValues = orderValues;
+        this.meanVelocityX = meanVelocityX;
+        this.meanVelocityY = meanVelocityY;
+    }
+
+    /**
+     * @return The iteration in which the checkpoint was taken (i.e the amount of performed updates).
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * @return The amount of states pushed into the state sinks up to the checkpoint
+     * (including the one of its iteration).
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return The seed from which all random values are generated.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The {@link GridSize} used by cell index method.
+     */
+    public GridSize getGrid() {
+        return grid;
+    }
+
+    /**
+     * @return The width of the space.
+     */
+    public double getSpaceWidth() {
+        return spaceWidth;
+    }
+
+    /**
+     * @return The height of the space.
+     */
+    public double getSpaceHeight() {
+        return spaceHeight;
+    }
+
+    /**
+     * @return The interaction radius.
+     */
+    public double getInteractionRadius() {
+        return interactionRadius;
+    }
+
+    /**
+     * @return The 'eta' value, used for calculating noise for updating angles.
+     */
+    public double getEta() {
+        return eta;
+    }
+
+    /**
+     * @return The {@link NeighborsMethod} used to get the particles' neighbors.
+     */
+    public NeighborsMethod getNeighborsMethod() {
+        return neighborsMethod;
+    }
+
+    /**
+     * @return The amount of sub-cells in which the interaction radius is divided.
+     */
+    public int getSubCells() {
+        return subCells;
+    }
+
+    /**
+     * @return The skin radius used to build Verlet lists.
+     */
+    public double getVerletSkin() {
+        return verletSkin;
+    }
+
+    /**
+     * @return The {@link ParticleOrdering} used to periodically sort the particles.
+     */
+    public ParticleOrdering getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * @return Every how many iterations particles are sorted.
+     */
+    public int getReorderInterval() {
+        return reorderInterval;
+    }
+
+    /**
+     * @return The {@link ParticleStore} holding the particles' data. Note that it must not be modified.
+     */
+    public ParticleStore getParticles() {
+        return particles;
+    }
+
+    /**
+     * @return The amount of times the Verlet lists were built (or 0 if they are not used).
+     */
+    public long getVerletBuilds() {
+        return verletBuilds;
+    }
+
+    /**
+     * @return {@code true} if the Verlet lists' reference positions are stored, or {@code false} otherwise.
+     */
+    public boolean hasVerletReferences() {
+        return verletReferenceX != null;
+    }
+
+    /**
+     * @return The 'x' components of the particles' positions when the Verlet lists were built
+     * (or {@code null} if they are not used). Note that the array must not be modified.
+     */
+    public double[] getVerletReferenceX() {
+        return verletReferenceX;
+    }
+
+    /**
+     * @return The 'y' components of the particles' positions when the Verlet lists were built
+     * (or {@code null} if they are not used). Note that the array must not be modified.
+     */
+    public double[] getVerletReferenceY() {
+        return verletReferenceY;
+    }
+
+    /**
+     * @return The order values recorded so far. Note that the array must not be modified.
+     */
+    public double[] getOrderValues() {
+        return orderValues;
+    }
+
+    /**
+     * @return The 'x' components of the mean velocity recorded so far. Note that the array must not be modified.
+     */
+    public double[] getMeanVelocityX() {
+        return meanVelocityX;
+    }
+
+    /**
+     * @return The 'y' components of the mean velocity recorded so far. Note that the array must not be modified.
+     */
+    public double[] getMeanVelocityY() {
+        return meanVelocityY;
+    }
+}
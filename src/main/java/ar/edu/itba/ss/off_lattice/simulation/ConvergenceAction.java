@@ -0,0 +1,64 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different actions that can be taken when a simulation reaches a steady state.
+ */
+public enum ConvergenceAction {
+
+    /**
+     * The steady state is only reported (i.e the simulation goes on as usual).
+     */
+    NONE("none"),
+
+    /**
+     * The simulation is stopped.
+     */
+    STOP("stop"),
+
+    /**
+     * The simulation goes on, but only one of every few states is pushed into the sinks of particle states
+     * (observables are still recorded for every state).
+     */
+    SPARSE("sparse");
+
+    /**
+     * The name used to select this action from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this action from properties.
+     */
+    ConvergenceAction(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return The name used to select this action from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the {@link ConvergenceAction} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the action.
+     * @return The corresponding {@link ConvergenceAction}.
+     * @throws IllegalArgumentException In case there is no action with the given {@code name}.
+     */
+    public static ConvergenceAction fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(action -> action.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown convergence action: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(ConvergenceAction::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+}
@@ -0,0 +1,109 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+/**
+ * Immutable bean class holding the criteria used to detect that a simulation reached a steady state
+ * (i.e the order value is stationary), and the action taken when it happens.
+ * The order value is considered stationary when the means and the variances of the last two windows of states
+ * differ less than the given tolerances, and the trend of both windows together changes the order value
+ * less than the mean tolerance.
+ */
+public final class ConvergenceCriteria {
+
+    /**
+     * Criteria that only report the steady state, using default values.
+     */
+    public static final ConvergenceCriteria DEFAULT = new ConvergenceCriteria(ConvergenceAction.NONE, 100, 0.01,
+            1e-4, 10);
+
+    /**
+     * The {@link ConvergenceAction} taken when a steady state is reached.
+     */
+    private final ConvergenceAction action;
+
+    /**
+     * The amount of states in each window.
+     */
+    private final int window;
+
+    /**
+     * Up to which difference the means of the windows are considered equal
+     * (also up to which change of the trend of both windows the order value is considered stationary).
+     */
+    private final double meanTolerance;
+
+    /**
+     * Up to which difference the variances of the windows are considered equal.
+     */
+    private final double varianceTolerance;
+
+    /**
+     * When using the {@link ConvergenceAction#SPARSE} action, one of how many states is pushed into the sinks.
+     */
+    private final int sparseInterval;
+
+
+    /**
+     * Constructor.
+     *
+     * @param action            The {@link ConvergenceAction} taken when a steady state is reached.
+     * @param window            The amount of states in each window.
+     * @param meanTolerance     Up to which difference the means of the windows are considered equal.
+     * @param varianceTolerance Up to which difference the variances of the windows are considered equal.
+     * @param sparseInterval    When using the {@link ConvergenceAction#SPARSE} action,
+     *                          one of how many states is pushed into the sinks.
+     * @throws IllegalArgumentException If the window or the sparse interval are not positive,
+     *                                  or if any tolerance is negative.
+     */
+    public ConvergenceCriteria(ConvergenceAction action, int window, double meanTolerance, double varianceTolerance,
+                               int sparseInterval) throws IllegalArgumentException {
+        if (window <= 0) {
+            throw new IllegalArgumentException("The convergence window must be positive");
+        }
+        if (Double.compare(meanTolerance, 0) < 0 || Double.compare(varianceTolerance, 0) < 0) {
+            throw new IllegalArgumentException("The convergence tolerances must not be negative");
+        }
+        if (sparseInterval <= 0) {
+            throw new IllegalArgumentException("The sparse interval must be positive");
+        }
+        this.action = action;
+        this.window = window;
+        this.meanTolerance = meanTolerance;
+        this.varianceTolerance = varianceTolerance;
+        this.sparseInterval = sparseInterval;
+    }
+
+    /**
+     * @return The {@link ConvergenceAction} taken when a steady state is reached.
+     */
+    public ConvergenceAction getAction() {
+        return action;
+    }
+
+    /**
+     * @return The amount of states in each window.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * @return Up to which difference the means of the windows are considered equal.
+     */
+    public double getMeanTolerance() {
+        return meanTolerance;
+    }
+
+    /**
+     * @return Up to which difference the variances of the windows are considered equal.
+     */
+    public double getVarianceTolerance() {
+        return varianceTolerance;
+    }
+
+    /**
+     * @return When using the {@link ConvergenceAction#SPARSE} action, one of how many states is pushed into the sinks.
+     */
+    public int getSparseInterval() {
+        return sparseInterval;
+    }
+}
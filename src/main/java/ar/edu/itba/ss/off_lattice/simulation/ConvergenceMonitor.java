@@ -0,0 +1,149 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+/**
+ * Object in charge of detecting that the order value of a simulation reached a steady state,
+ * according to some {@link ConvergenceCriteria}.
+ * It receives the order value of each state, keeping the last two windows of values in a ring buffer,
+ * and compares the mean and the variance of the older window with those of the newer one.
+ * As a slow drift can keep the means of consecutive windows close, the trend of both windows together
+ * (i.e how much their least squares line changes from their first value to their last one)
+ * must also be within the mean tolerance.
+ */
+public final class ConvergenceMonitor {
+
+    /**
+     * The {@link ConvergenceCriteria} used to detect the steady state.
+     */
+    private final ConvergenceCriteria criteria;
+
+    /**
+     * Ring buffer holding the last two windows of values.
+     */
+    private final double[] values;
+
+    /**
+     * The amount of received values.
+     */
+    private int amountOfValues;
+
+    /**
+     * The state in which the steady state starts (or -1 if it was not detected yet).
+     */
+    private int steadyState;
+
+
+    /**
+     * Constructor.
+     *
+     * @param criteria The {@link ConvergenceCriteria} used to detect the steady state.
+     */
+    public ConvergenceMonitor(ConvergenceCriteria criteria) {
+        this.criteria = criteria;
+        this.values = new double[2 * criteria.getWindow()];
+        this.amountOfValues = 0;
+        this.steadyState = -1;
+    }
+
+    /**
+     * Receives the order value of the next state, checking whether the steady state was reached.
+     * Once it is detected, values are not checked anymore.
+     *
+     * @param orderValue The order value of the next state.
+     * @return {@code true} if the steady state was detected with this value, or {@code false} otherwise.
+     */
+    public boolean accept(double orderValue) {
+        if (steadyState >= 0) {
+            return false;
+        }
+        values[amountOfValues % values.length] = orderValue;
+        amountOfValues++;
+        if (amountOfValues < values.length) {
+            return false;
+        }
+        // The oldest value is the one that will be overwritten next
+        final int window = criteria.getWindow();
+        final int oldest = amountOfValues % values.length;
+        final double olderMean = mean(oldest, window);
+        final double newerMean = mean(oldest + window, window);
+        if (Math.abs(newerMean - olderMean) > criteria.getMeanTolerance()) {
+            return false;
+        }
+        if (Math.abs(drift(oldest, values.length, (olderMean + newerMean) / 2)) > criteria.getMeanTolerance()) {
+            return false;
+        }
+        final double olderVariance = variance(oldest, window, olderMean);
+        final double newerVariance = variance(oldest + window, window, newerMean);
+        if (Math.abs(newerVariance - olderVariance) > criteria.getVarianceTolerance()) {
+            return false;
+        }
+        this.steadyState = amountOfValues - values.length;
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the steady state was detected, or {@code false} otherwise.
+     */
+    public boolean isSteady() {
+        return steadyState >= 0;
+    }
+
+    /**
+     * @return The state in which the steady state starts
+     * (i.e the first state of the windows that were found stationary), or -1 if it was not detected.
+     */
+    public int getSteadyState() {
+        return steadyState;
+    }
+
+    /**
+     * Calculates the mean of the values in a window.
+     *
+     * @param start The position of the first value in the ring buffer (might exceed its length).
+     * @param size  The amount of values.
+     * @return The mean.
+     */
+    private double mean(int start, int size) {
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += values[(start + k) % values.length];
+        }
+        return sum / size;
+    }
+
+    /**
+     * Calculates how much the least squares line of the values in a window changes
+     * from the first value to the last one (i.e its slope times the amount of values minus one).
+     *
+     * @param start The position of the first value in the ring buffer (might exceed its length).
+     * @param size  The amount of values.
+     * @param mean  The mean of the values.
+     * @return The drift (positive if the values increase).
+     */
+    private double drift(int start, int size, double mean) {
+        final double middle = (size - 1) / 2d;
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += (k - middle) * (values[(start + k) % values.length] - mean);
+        }
+        // The sum of the squared distances of the positions to the middle one is size * (size^2 - 1) / 12
+        final double slope = size > 1 ? 12 * sum / ((double) size * ((double) size * size - 1)) : 0;
+        return slope * (size - 1);
+    }
+
+    /**
+     * Calculates the variance of the values in a window.
+     *
+     * @param start The position of the first value in the ring buffer (might exceed its length).
+     * @param size  The amount of values.
+     * @param mean  The mean of the values.
+     * @return The variance.
+     */
+    private double variance(int start, int size, double mean) {
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            final double difference = values[(start + k) % values.length] - mean;
+            sum += difference * difference;
+        }
+        return sum / size;
+    }
+}
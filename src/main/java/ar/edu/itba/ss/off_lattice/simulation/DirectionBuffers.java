@@ -0,0 +1,207 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+
+/**
+ * Object in charge of holding the speed directions of the particles of a {@link ParticleStore} during a step,
+ * and the next-state buffers into which new directions are calculated,
+ * according to the store's {@link VelocityRepresentation}.
+ * When using the {@link VelocityRepresentation#ANGLE} representation, cosines and sines are calculated once per step
+ * (as angles do not change until all of them are updated), and new angles are calculated with {@code atan2}.
+ * When using the {@link VelocityRepresentation#CARTESIAN} representation, the store's unit vectors are used directly,
+ * and new directions are calculated normalizing the sums of the neighbors' directions,
+ * and rotating them by the noise angle.
+ * All calculated values are rounded to the store's {@link Precision}
+ * (i.e by a private subclass when using the {@link Precision#FLOAT} precision, see {@link #create}).
+ * Writes are performed per particle, so different particles can be handled by different threads.
+ */
+/* package */ class DirectionBuffers {
+
+    /**
+     * The {@link ParticleStore} whose directions are held.
+     */
+    private final ParticleStore particles;
+
+    /**
+     * Indicates whether the store uses the {@link VelocityRepresentation#CARTESIAN} representation.
+     */
+    private final boolean cartesian;
+
+    /**
+     * Array holding the cosine of each particle's speed angle
+     * (only used with the {@link VelocityRepresentation#ANGLE} representation).
+     */
+    private final double[] cosines;
+
+    /**
+     * Array holding the sine of each particle's speed angle
+     * (only used with the {@link VelocityRepresentation#ANGLE} representation).
+     */
+    private final double[] sines;
+
+    /**
+     * Buffer into which new angles are calculated
+     * (only used with the {@link VelocityRepresentation#ANGLE} representation).
+     */
+    private double[] newAngles;
+
+    /**
+     * Buffer into which the 'x' components of new directions are calculated
+     * (only used with the {@link VelocityRepresentation#CARTESIAN} representation).
+     */
+    private double[] newDirectionX;
+
+    /**
+     * Buffer into which the 'y' components of new directions are calculated
+     * (only used with the {@link VelocityRepresentation#CARTESIAN} representation).
+     */
+    private double[] newDirectionY;
+
+
+    /**
+     * Constructor.
+     *
+     * @param particles The {@link ParticleStore} whose directions are held.
+     */
+    private DirectionBuffers(ParticleStore particles) {
+        final int amountOfParticles = particles.getAmountOfParticles();
+        this.particles = particles;
+        this.cartesian = particles.getRepresentation() == VelocityRepresentation.CARTESIAN;
+        this.cosines = cartesian ? null : new double[amountOfParticles];
+        this.sines = cartesian ? null : new double[amountOfParticles];
+        this.newAngles = cartesian ? null : new double[amountOfParticles];
+        this.newDirectionX = cartesian ? new double[amountOfParticles] : null;
+        this.newDirectionY = cartesian ? new double[amountOfParticles] : null;
+    }
+
+    /**
+     * Creates the {@link DirectionBuffers} of the given {@code particles}, according to their {@link Precision}.
+     *
+     * @param particles The {@link ParticleStore} whose directions are held.
+     * @return The created {@link DirectionBuffers}.
+     */
+    /* package */ static DirectionBuffers create(ParticleStore particles) {
+        if (particles.getPrecision() == Precision.FLOAT) {
+            return new RoundingDirectionBuffers(particles);
+        }
+        return new DirectionBuffers(particles);
+    }
+
+    /**
+     * Prepares the direction of the particle with the given {@code index} for this step
+     * (i.e calculates the cosine and sine of its speed angle, if needed).
+     * Must be called for each particle before using the arrays returned by {@link #getDirectionX()}
+     * and {@link #getDirectionY()}.
+     *
+     * @param index The index of the particle.
+     */
+    /* package */ void prepare(int index) {
+        if (!cartesian) {
+            final double angle = particles.getSpeedAngle(index);
+            cosines[index] = Math.cos(angle);
+            sines[index] = Math.sin(angle);
+        }
+    }
+
+    /**
+     * @return The array holding the 'x' components of the particles' speed directions for this step.
+     */
+    /* package */ double[] getDirectionX() {
+        return cartesian ? particles.getDirectionXValues() : cosines;
+    }
+
+    /**
+     * @return The array holding the 'y' components of the particles' speed directions for this step.
+     */
+    /* package */ double[] getDirectionY() {
+        return cartesian ? particles.getDirectionYValues() : sines;
+    }
+
+    /**
+     * Calculates the next direction of the particle with the given {@code index},
+     * storing it in the next-state buffers.
+     *
+     * @param index       The index of the particle.
+     * @param cosinesSum  The sum of the 'x' components of the directions of the particle and its neighbors.
+     * @param sinesSum    The sum of the 'y' components of the directions of the particle and its neighbors.
+     * @param noiseAngle  The noise angle to be added.
+     */
+    /* package */ void setNext(int index, double cosinesSum, double sinesSum, double noiseAngle) {
+        // Averages are not needed, as dividing both sums by the same amount does not change the direction.
+        if (!cartesian) {
+            newAngles[index] = Math.atan2(sinesSum, cosinesSum) + noiseAngle;
+            return;
+        }
+        final double norm = Math.sqrt(cosinesSum * cosinesSum + sinesSum * sinesSum);
+        // A null sum has no direction, so the 'x' axis is used (as atan2(0, 0) is 0)
+        final double directionX = norm == 0 ? 1 : cosinesSum / norm;
+        final double directionY = norm == 0 ? 0 : sinesSum / norm;
+        final double noiseCosine = Math.cos(noiseAngle);
+        final double noiseSine = Math.sin(noiseAngle);
+        newDirectionX[index] = directionX * noiseCosine - directionY * noiseSine;
+        newDirectionY[index] = directionX * noiseSine + directionY * noiseCosine;
+    }
+
+    /**
+     * Swaps the next-state buffers into the {@link ParticleStore} (i.e the replaced arrays become the next buffers).
+     */
+    /* package */ void swap() {
+        if (!cartesian) {
+            this.newAngles = particles.swapSpeedAngles(newAngles);
+            return;
+        }
+        final double[] oldDirectionX = particles.getDirectionXValues();
+        final double[] oldDirectionY = particles.getDirectionYValues();
+        particles.swapDirections(newDirectionX, newDirectionY);
+        this.newDirectionX = oldDirectionX;
+        this.newDirectionY = oldDirectionY;
+    }
+
+    /**
+     * {@link DirectionBuffers} of a store using the {@link Precision#FLOAT} precision
+     * (i.e each calculated value is rounded to the nearest {@code float} right after it is stored).
+     */
+    private static final class RoundingDirectionBuffers extends DirectionBuffers {
+
+        /**
+         * Constructor.
+         *
+         * @param particles The {@link ParticleStore} whose directions are held.
+         */
+        private RoundingDirectionBuffers(ParticleStore particles) {
+            super(particles);
+        }
+
+        @Override
+        /* package */ void prepare(int index) {
+            super.prepare(index);
+            if (!super.cartesian) {
+                round(super.cosines, super.sines, index);
+            }
+        }
+
+        @Override
+        /* package */ void setNext(int index, double cosinesSum, double sinesSum, double noiseAngle) {
+            super.setNext(index, cosinesSum, sinesSum, noiseAngle);
+            if (super.cartesian) {
+                round(super.newDirectionX, super.newDirectionY, index);
+            } else {
+                super.newAngles[index] = (float) super.newAngles[index];
+            }
+        }
+
+        /**
+         * Rounds the values with the given {@code index} of the given arrays to single precision.
+         *
+         * @param first  One of the arrays.
+         * @param second The other array.
+         * @param index  The index of the values to be rounded.
+         */
+        private static void round(double[] first, double[] second, int index) {
+            first[index] = (float) first[index];
+            second[index] = (float) second[index];
+        }
+    }
+}
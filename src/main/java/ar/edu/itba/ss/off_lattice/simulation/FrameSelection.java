@@ -0,0 +1,60 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different ways in which an {@link OutputFilter} selects the frames pushed into the state sinks
+ * (a frame is the state of the space after a given iteration, being 0 the initial state).
+ */
+public enum FrameSelection {
+
+    /**
+     * Selects one of every few frames (i.e those whose number is a multiple of the interval).
+     */
+    EVERY("every"),
+
+    /**
+     * Selects frames logarithmically spaced (i.e a fixed amount of frames per decade of iterations,
+     * so early dynamics are saved in detail, and the rest of the run sparsely).
+     */
+    LOG("log");
+
+    /**
+     * The name used to select this frame selection from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this frame selection from properties.
+     */
+    FrameSelection(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return The name used to select this frame selection from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the {@link FrameSelection} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the frame selection.
+     * @return The corresponding {@link FrameSelection}.
+     * @throws IllegalArgumentException In case there is no frame selection with the given {@code name}.
+     */
+    public static FrameSelection fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(selection -> selection.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown frame selection: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(FrameSelection::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+}
@@ -0,0 +1,191 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.utils.CellList;
+import ar.edu.itba.ss.off_lattice.utils.InteractionKernel;
+import ar.edu.itba.ss.off_lattice.utils.NeighborhoodsCalculator;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+
+/**
+ * Object in charge of updating a {@link Space} performing as few passes over the particles as possible.
+ * Each step is performed in two sweeps (plus the scatter of the counting sort):
+ * <ol>
+ * <li>Particles are moved (preparing their directions and summing their velocities),
+ * and counted in the cell of their new position.</li>
+ * <li>Cells are traversed in order, and the directions of the neighbors of each of their particles are summed
+ * and turned into its new direction right away (i.e neighbors are not stored in lists).</li>
+ * </ol>
+ * New directions are written into the next-state buffers of a {@link DirectionBuffers},
+ * which are swapped in when all particles are done, so each angle is calculated using those of the previous step.
+ * Neighbors of each particle are visited in the same order as the
+ * {@link ar.edu.itba.ss.off_lattice.utils.CellListNeighborsCalculator} stores them, and noise values depend on the
+ * step and the particle's identifier, so results are exactly the same as those of the
+ * {@link NeighborsMethod#CELL_LIST} method (the order in which particles are visited does not change any sum).
+ */
+/* package */ class FusedUpdater {
+
+    /**
+     * The {@link Space} to which the updated will be performed.
+     */
+    private final Space space;
+
+    /**
+     * The {@link InteractionKernel} used to check whether two particles are neighbors.
+     */
+    private final InteractionKernel kernel;
+
+    /**
+     * The eta value used for noise when updating the angle.
+     */
+    private final double eta;
+
+    /**
+     * The {@link RandomSource} used to generate noise (one stream per step, one value per particle identifier).
+     */
+    private final RandomSource noise;
+
+    /**
+     * The {@link CellList} into which particles are binned.
+     */
+    private final CellList cellList;
+
+    /**
+     * The {@link DirectionBuffers} holding the speed directions of the particles during a step
+     * (prepared when moving them), and into which new directions are calculated.
+     */
+    private final DirectionBuffers directions;
+
+    /**
+     * The sum of the 'x' components of the particles' velocities before the last update.
+     */
+    private double velocitySumX;
+
+    /**
+     * The sum of the 'y' components of the particles' velocities before the last update.
+     */
+    private double velocitySumY;
+
+
+    /**
+     * Constructor.
+     *
+     * @param space             The {@link Space} to which the updated will be performed.
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a particle is consider a neighbor of another).
+     * @param eta               The eta value used for noise when updating the angle.
+     * @param mx                The amount of grids the {@link Space} is divided into, in the 'x' axis.
+     * @param my                The amount of grids the {@link Space} is divided into, in the 'y' axis.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @param noise             The {@link RandomSource} used to generate noise
+     *                          (one stream per step, one value per particle identifier).
+     */
+    /* package */ FusedUpdater(Space space, double interactionRadius, double eta, int mx, int my, int subCells,
+                               RandomSource noise) {
+        NeighborhoodsCalculator.validateParams(space, interactionRadius, mx, my, subCells);
+        this.space = space;
+        this.kernel = InteractionKernel.create(space.getWidth(), space.getHeight(), interactionRadius,
+                space.getParticleStore().getPrecision());
+        this.eta = eta;
+        this.noise = noise;
+        this.cellList = new CellList(space, mx, my, subCells, interactionRadius);
+        this.directions = DirectionBuffers.create(space.getParticleStore());
+    }
+
+    /**
+     * Updates the {@link Space}: moves and bins particles, and then updates their angles.
+     *
+     * @param step The number of step being performed (i.e used to take noise values).
+     */
+    /* package */ void update(long step) {
+        moveAndBin();
+        updateAngles(step);
+        directions.swap();
+    }
+
+    /**
+     * @return The sum of the 'x' components of the particles' velocities before the last update.
+     */
+    /* package */ double getVelocitySumX() {
+        return velocitySumX;
+    }
+
+    /**
+     * @return The sum of the 'y' components of the particles' velocities before the last update.
+     */
+    /* package */ double getVelocitySumY() {
+        return velocitySumY;
+    }
+
+    /**
+     * Moves the particles, preparing their speed directions and summing their velocities,
+     * and bins them according to their new positions.
+     */
+    private void moveAndBin() {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final double[] speedModules = particles.getSpeedModules();
+        final double[] directionX = directions.getDirectionX();
+        final double[] directionY = directions.getDirectionY();
+        final double width = space.getWidth();
+        final double height = space.getHeight();
+        double sumX = 0;
+        double sumY = 0;
+        cellList.startBinning();
+        for (int i = 0; i < particles.getAmountOfParticles(); i++) {
+            directions.prepare(i);
+            sumX += speedModules[i] * directionX[i];
+            sumY += speedModules[i] * directionY[i];
+            particles.move(i, width, height, directionX[i], directionY[i]);
+            cellList.bin(i, x[i], y[i]);
+        }
+        cellList.finishBinning();
+        this.velocitySumX = sumX;
+        this.velocitySumY = sumY;
+    }
+
+    /**
+     * Calculates the new directions of the particles, cell by cell, storing them in the next-state buffers.
+     *
+     * @param step The number of step being performed (i.e used to take noise values).
+     */
+    private void updateAngles(long step) {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final int[] ids = particles.getIds();
+        final int[] cellStart = cellList.getCellStart();
+        final int[] particleIndex = cellList.getParticleIndex();
+        final int[] stencils = cellList.getStencils();
+        final int[] stencilSizes = cellList.getStencilSizes();
+        final int stencilCapacity = cellList.getStencilCapacity();
+        final double[] cosines = directions.getDirectionX();
+        final double[] sines = directions.getDirectionY();
+        final double upper = this.eta / 2;
+        final double lower = -1 * upper;
+        for (int cell = 0; cell < stencilSizes.length; cell++) {
+            final int stencilStart = cell * stencilCapacity;
+            final int stencilEnd = stencilStart + stencilSizes[cell];
+            for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                final int i = particleIndex[k];
+                final double xi = x[i];
+                final double yi = y[i];
+                double sinSum = sines[i];
+                double cosSum = cosines[i];
+                for (int s = stencilStart; s < stencilEnd; s++) {
+                    final int related = stencils[s];
+                    for (int l = cellStart[related]; l < cellStart[related + 1]; l++) {
+                        final int j = particleIndex[l];
+                        if (j != i && kernel.interact(xi, yi, x[j], y[j])) {
+                            sinSum += sines[j];
+                            cosSum += cosines[j];
+                        }
+                    }
+                }
+                final double noise = lower + (this.noise.nextDouble(step, ids[i]) * (upper - lower));
+                directions.setNext(i, cosSum, sinSum, noise);
+            }
+        }
+    }
+}
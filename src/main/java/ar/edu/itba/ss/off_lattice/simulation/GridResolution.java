@@ -0,0 +1,177 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.utils.CellListNeighborsCalculator;
+import ar.edu.itba.ss.off_lattice.utils.Neighborhoods;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Helper class used to choose the grid resolution (i.e the {@link GridSize}) used by the Cell Index Method.
+ * <p>
+ * The cost of a step is modeled as {@code C} (i.e building a grid of {@code C = Mx * My} cells),
+ * plus {@code N * S} (i.e scanning the {@code S} cells related to each particle),
+ * plus {@code N^2 * S / C} (i.e checking candidate pairs), which is minimized when {@code C = sqrt(S) * N}.
+ * Cells are kept as square as possible, so each axis gets an amount of cells proportional to its length
+ * (i.e {@code M = S^(1/4) * sqrt(N)} for squared spaces).
+ * As the grid can not be finer than the interaction radius allows, each axis is limited by its maximum valid value.
+ */
+public final class GridResolution {
+
+    /**
+     * The {@link Logger} instance.
+     */
+    private final static Logger LOGGER = LoggerFactory.getLogger(GridResolution.class);
+
+    /**
+     * The amount of steps performed with each candidate before measuring.
+     */
+    private static final int AUTOTUNE_WARM_UP_STEPS = 5;
+
+    /**
+     * The amount of steps measured with each candidate.
+     */
+    private static final int AUTOTUNE_STEPS = 10;
+
+    /**
+     * The fractions of the optimal amounts of cells tried when autotuning.
+     */
+    private static final double[] AUTOTUNE_FRACTIONS = {1, 0.75, 0.5, 0.25};
+
+
+    /**
+     * Private constructor to avoid instantiation.
+     */
+    private GridResolution() {
+    }
+
+    /**
+     * Calculates the maximum amount of cells allowed in an axis (i.e the finest grid).
+     *
+     * @param sideLength        The length of the space in the axis.
+     * @param interactionRadius The interaction radius.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @return The maximum amount of cells.
+     */
+    public static int maximum(double sideLength, double interactionRadius, int subCells) {
+        if (Double.compare(interactionRadius, 0) <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        // The side length of each cell, times the amount of sub-cells, must be greater than the interaction radius
+        final double maximum = Math.ceil(subCells * sideLength / interactionRadius) - 1;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, maximum));
+    }
+
+    /**
+     * Calculates the optimal {@link GridSize}, according to the cost model.
+     *
+     * @param width             The width of the space.
+     * @param height            The height of the space.
+     * @param interactionRadius The interaction radius.
+     * @param amountOfParticles The amount of particles.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @return The optimal {@link GridSize}.
+     */
+    public static GridSize optimal(double width, double height, double interactionRadius, int amountOfParticles,
+                                   int subCells) {
+        final double stencilSize = (2 * subCells + 1) * (2 * subCells + 1);
+        // Cells per unit of length, so that the total amount of cells is sqrt(S) * N
+        final double cellsPerLength = Math.pow(stencilSize, 0.25) * Math.sqrt(amountOfParticles / (width * height));
+        return new GridSize(optimalInAxis(width, cellsPerLength, interactionRadius, subCells),
+                optimalInAxis(height, cellsPerLength, interactionRadius, subCells));
+    }
+
+    /**
+     * Calculates the optimal amount of cells in an axis.
+     *
+     * @param length            The length of the space in the axis.
+     * @param cellsPerLength    The optimal amount of cells per unit of length.
+     * @param interactionRadius The interaction radius.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @return The optimal amount of cells, limited by the maximum one.
+     */
+    private static int optimalInAxis(double length, double cellsPerLength, double interactionRadius, int subCells) {
+        final long optimal = Math.max(1, Math.round(length * cellsPerLength));
+        return (int) Math.min(optimal, maximum(length, interactionRadius, subCells));
+    }
+
+    /**
+     * Chooses the {@link GridSize} by timing a few steps with several candidates, starting from the optimal one.
+     * Steps are performed over copies of the given {@link Space}, so it is not modified.
+     *
+     * @param space             The {@link Space} to be simulated.
+     * @param interactionRadius The interaction radius.
+     * @param parameters        The {@link SimulationParameters} with which steps are performed
+     *                          (i.e the candidates are timed with the simulation's neighbors method and step mode).
+     * @param random            The {@link RandomSource} from which noise is taken.
+     * @param pool              The {@link ForkJoinPool} used to perform updates in parallel,
+     *                          or {@code null} to update serially.
+     * @return The {@link GridSize} with which steps were performed faster.
+     */
+    /* package */ static GridSize autotune(Space space, double interactionRadius, SimulationParameters parameters,
+                                           RandomSource random, ForkJoinPool pool) {
+        final GridSize optimal = optimal(space.getWidth(), space.getHeight(),
+                searchRadius(interactionRadius, parameters.getVerletSkin(), parameters.getNeighborsMethod()),
+                space.getAmountOfParticles(), parameters.getSubCells());
+        final Set<GridSize> candidates = new LinkedHashSet<>();
+        for (double fraction : AUTOTUNE_FRACTIONS) {
+            candidates.add(optimal.scale(fraction));
+        }
+        GridSize best = optimal;
+        long bestTime = Long.MAX_VALUE;
+        for (GridSize candidate : candidates) {
+            final Space copy = new Space(space.getWidth(), space.getHeight(), space.getParticleStore().copy());
+            final Updater updater = new Updater(copy, interactionRadius, parameters, candidate, random, pool);
+            for (int step = 0; step < AUTOTUNE_WARM_UP_STEPS; step++) {
+                updater.update();
+            }
+            final long start = System.nanoTime();
+            for (int step = 0; step < AUTOTUNE_STEPS; step++) {
+                updater.update();
+            }
+            final long time = (System.nanoTime() - start) / AUTOTUNE_STEPS;
+            LOGGER.debug("Autotuning: M = {} took {} us per step", candidate, time / 1000);
+            if (time < bestTime) {
+                best = candidate;
+                bestTime = time;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Calculates the radius up to which neighbors are searched using the grid
+     * (i.e the radius for which the grid size must be valid).
+     *
+     * @param interactionRadius The interaction radius.
+     * @param skin              The skin radius used to build Verlet lists.
+     * @param neighborsMethod   The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @return The interaction radius, plus the skin when using the {@link NeighborsMethod#VERLET} method.
+     */
+    public static double searchRadius(double interactionRadius, double skin, NeighborsMethod neighborsMethod) {
+        return neighborsMethod == NeighborsMethod.VERLET ? interactionRadius + skin : interactionRadius;
+    }
+
+    /**
+     * Calculates the ratio between the amount of neighbor pairs and the amount of candidate pairs
+     * that the Cell Index Method checks in the given {@link Space} (i.e how many of the checked pairs are useful).
+     *
+     * @param space             The {@link Space}.
+     * @param interactionRadius The interaction radius.
+     * @param grid              The {@link GridSize} of the grid the {@link Space} is divided into.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @return The ratio (or 1 if there are no candidates).
+     */
+    public static double candidatesRatio(Space space, double interactionRadius, GridSize grid, int subCells) {
+        final CellListNeighborsCalculator calculator =
+                new CellListNeighborsCalculator(space, interactionRadius, grid.getMx(), grid.getMy(), subCells);
+        final Neighborhoods neighborhoods = calculator.computeNeighborhoods();
+        final long candidates = calculator.getAmountOfCandidates();
+        return candidates == 0 ? 1 : (double) neighborhoods.getOffsets()[space.getAmountOfParticles()] / candidates;
+    }
+}
@@ -0,0 +1,120 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+/**
+ * Immutable bean class holding the resolution of the grid used by the Cell Index Method
+ * (i.e the amount of cells in each axis, which can be different in order to divide rectangular spaces
+ * into cells whose sides are close to each other).
+ */
+public final class GridSize {
+
+    /**
+     * The {@link GridSize} indicating that the resolution must be chosen automatically.
+     */
+    public static final GridSize AUTOMATIC = new GridSize();
+
+    /**
+     * The amount of cells in the 'x' axis (i.e columns).
+     */
+    private final int mx;
+
+    /**
+     * The amount of cells in the 'y' axis (i.e rows).
+     */
+    private final int my;
+
+
+    /**
+     * Constructor.
+     *
+     * @param mx The amount of cells in the 'x' axis (i.e columns).
+     * @param my The amount of cells in the 'y' axis (i.e rows).
+     * @throws IllegalArgumentException If any of the amounts is not positive.
+     */
+    public GridSize(int mx, int my) throws IllegalArgumentException {
+        if (mx <= 0 || my <= 0) {
+            throw new IllegalArgumentException("The amount of cells in each axis must be positive");
+        }
+        this.mx = mx;
+        this.my = my;
+    }
+
+    /**
+     * Private constructor, used to create the {@link #AUTOMATIC} instance.
+     */
+    private GridSize() {
+        this.mx = 0;
+        this.my = 0;
+    }
+
+    /**
+     * Creates a {@link GridSize} with the same amount of cells in each axis.
+     *
+     * @param m The amount of cells per side.
+     * @return The created {@link GridSize}.
+     * @throws IllegalArgumentException If the amount is not positive.
+     */
+    public static GridSize square(int m) throws IllegalArgumentException {
+        return new GridSize(m, m);
+    }
+
+    /**
+     * @return The amount of cells in the 'x' axis (i.e columns), or 0 if it must be chosen automatically.
+     */
+    public int getMx() {
+        return mx;
+    }
+
+    /**
+     * @return The amount of cells in the 'y' axis (i.e rows), or 0 if it must be chosen automatically.
+     */
+    public int getMy() {
+        return my;
+    }
+
+    /**
+     * @return {@code true} if the resolution must be chosen automatically, or {@code false} otherwise.
+     */
+    public boolean isAutomatic() {
+        return mx == 0;
+    }
+
+    /**
+     * Creates a {@link GridSize} whose amounts of cells are those of this one, scaled by the given {@code fraction}
+     * (i.e used to try coarser grids).
+     *
+     * @param fraction The fraction.
+     * @return The created {@link GridSize} (having at least one cell in each axis).
+     * @throws IllegalStateException If this is the {@link #AUTOMATIC} instance.
+     */
+    public GridSize scale(double fraction) throws IllegalStateException {
+        if (isAutomatic()) {
+            throw new IllegalStateException("An automatic grid size can not be scaled");
+        }
+        return new GridSize((int) Math.max(1, Math.round(mx * fraction)),
+                (int) Math.max(1, Math.round(my * fraction)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GridSize)) {
+            return false;
+        }
+
+        final GridSize gridSize = (GridSize) o;
+
+        return mx == gridSize.mx && my == gridSize.my;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mx + my;
+    }
+
+    @Override
+    public String toString() {
+        return isAutomatic() ? "auto" : mx == my ? Integer.toString(mx) : mx + "x" + my;
+    }
+}
@@ -1,13 +1,12 @@
 package ar.edu.itba.ss.off_lattice.simulation;
 
 import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Precision;
 import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
 import ar.edu.itba.ss.off_lattice.utils.AngleUtils;
-
-import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
 
 /**
  * Class implementing simulation initialization methods.
@@ -15,21 +14,38 @@ import java.util.stream.IntStream;
 public class Initializer {
 
     /**
-     * Generates an initial {@link Space} for the simulation.
+     * The key used to split the {@link RandomSource} used to generate the initial space.
+     */
+    private static final long INITIAL_SPACE_KEY = 0;
+
+    /**
+     * Generates an initial rectangular {@link Space} for the simulation.
      *
-     * @param spaceSideLength   The length of the side of the {@link Space} to be generated..
+     * @param spaceWidth        The width of the {@link Space} to be generated.
+     * @param spaceHeight       The height of the {@link Space} to be generated.
      * @param amountOfParticles The amount of {@link Particle}s to be held in the {@link Space}.
      * @param speedModule       The speed module used in the simulation.
+     * @param random            The {@link RandomSource} from which positions and angles are taken
+     *                          (i.e the same source generates the same space, regardless of the representation
+     *                          and the precision, except for rounding).
+     * @param representation    The {@link VelocityRepresentation} used to store the particles' velocities.
+     * @param precision         The {@link Precision} with which the particles' values are kept.
      * @return The created {@link Space}.
      */
-    public static Space generateInitialSpace(double spaceSideLength, int amountOfParticles, double speedModule) {
-        final List<Particle> particles = IntStream.range(0, amountOfParticles)
-                .mapToObj(idx ->
-                        new Particle(new Random().nextDouble() * spaceSideLength,
-                                new Random().nextDouble() * spaceSideLength,
-                                speedModule, AngleUtils.randomAngle()))
-                .collect(Collectors.toList());
+    public static Space generateInitialSpace(double spaceWidth, double spaceHeight, int amountOfParticles,
+                                             double speedModule, RandomSource random,
+                                             VelocityRepresentation representation, Precision precision) {
+        final RandomSource initialSpaceRandom = random.split(INITIAL_SPACE_KEY);
+        final ParticleStore particles = ParticleStore.create(amountOfParticles, representation, precision);
+        for (int index = 0; index < amountOfParticles; index++) {
+            // Each particle takes its values from its own stream
+            final double x = precision.round(initialSpaceRandom.nextDouble(index, 0) * spaceWidth);
+            final double y = precision.round(initialSpaceRandom.nextDouble(index, 1) * spaceHeight);
+            // Rounding can take a coordinate up to the limit, which is the same place as zero
+            particles.set(index, x < spaceWidth ? x : 0, y < spaceHeight ? y : 0,
+                    speedModule, AngleUtils.toAngle(initialSpaceRandom.nextDouble(index, 2)));
+        }
 
-        return new Space(spaceSideLength, particles);
+        return new Space(spaceWidth, spaceHeight, particles);
     }
 }
@@ -0,0 +1,73 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different methods that can be used to compute the neighbors of each particle.
+ */
+public enum NeighborsMethod {
+
+    /**
+     * Computes neighborhoods using the {@link ar.edu.itba.ss.off_lattice.utils.NeighborhoodsCalculator}
+     * (i.e grid cells grouped into maps of lists).
+     */
+    MAP("map"),
+
+    /**
+     * Computes neighborhoods using the {@link ar.edu.itba.ss.off_lattice.utils.CellListNeighborsCalculator}
+     * (i.e counting sort into flat arrays, producing compressed neighbor lists).
+     */
+    CELL_LIST("cell-list"),
+
+    /**
+     * Computes neighborhoods using the {@link ar.edu.itba.ss.off_lattice.utils.VerletListNeighborsCalculator}
+     * (i.e cell lists built with an extended radius, which are reused until particles move too much).
+     */
+    VERLET("verlet"),
+
+    /**
+     * Sums neighbors' directions using the {@link ar.edu.itba.ss.off_lattice.utils.HalfShellPairCalculator}
+     * (i.e each pair of neighbors is visited once, adding each direction into the other particle's sums,
+     * without building neighbor lists).
+     */
+    HALF_SHELL("half-shell");
+
+    /**
+     * The name used to select this method from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this method from properties.
+     */
+    NeighborsMethod(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return The name used to select this method from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the {@link NeighborsMethod} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the method.
+     * @return The corresponding {@link NeighborsMethod}.
+     * @throws IllegalArgumentException In case there is no method with the given {@code name}.
+     */
+    public static NeighborsMethod fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(method -> method.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown neighbors method: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(NeighborsMethod::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+}
@@ -0,0 +1,365 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+
+import java.util.Arrays;
+
+/**
+ * Accumulator of the observables of a simulation (i.e the order value (Va), the density,
+ * and the mean velocity), recorded as a time series with one value per simulation state.
+ * Values are recorded from the velocity sums calculated by the {@link Updater} while moving the particles
+ * (i.e no extra pass over the particles is performed, and no particle state must be kept).
+ */
+public final class Observables implements StateSaver<Observables.ObservablesState> {
+
+    /**
+     * The amount of particles in the {@link Space}.
+     */
+    private final int amountOfParticles;
+
+    /**
+     * The density of the {@link Space} (i.e amount of particles per unit of area).
+     */
+    private final double density;
+
+    /**
+     * The factor used to get the order value (i.e amount of particles multiplied by speed module).
+     */
+    private final double orderValueFactor;
+
+    /**
+     * The recorded order values (only the first {@code amountOfStates} are valid).
+     */
+    private double[] orderValues;
+
+    /**
+     * The recorded 'x' components of the mean velocity (only the first {@code amountOfStates} are valid).
+     */
+    private double[] meanVelocityX;
+
+    /**
+     * The recorded 'y' components of the mean velocity (only the first {@code amountOfStates} are valid).
+     */
+    private double[] meanVelocityY;
+
+    /**
+     * The amount of recorded states.
+     */
+    private int amountOfStates;
+
+    /**
+     * The state in which the steady state starts (or -1 if it was not detected).
+     */
+    private int steadyState;
+
+
+    /**
+     * Constructor.
+     *
+     * @param space    The {@link Space} whose observables will be recorded.
+     * @param capacity The amount of states for which room is reserved
+     *                 (i.e more states can be recorded, but recording them might allocate).
+     */
+    public Observables(Space space, int capacity) {
+        final ParticleStore particles = space.getParticleStore();
+        this.amountOfParticles = particles.getAmountOfParticles();
+        this.density = amountOfParticles / (space.getWidth() * space.getHeight());
+        this.orderValueFactor = amountOfParticles == 0 ? 0 : particles.getSpeedModule(0) * amountOfParticles;
+        this.orderValues = new double[Math.max(1, capacity)];
+        this.meanVelocityX = new double[orderValues.length];
+        this.meanVelocityY = new double[orderValues.length];
+        this.amountOfStates = 0;
+        this.steadyState = -1;
+    }
+
+    /**
+     * Records the observables of a new state, from the sums of the particles' velocities.
+     *
+     * @param velocitySumX The sum of the 'x' components of the particles' velocities.
+     * @param velocitySumY The sum of the 'y' components of the particles' velocities.
+     */
+    public void record(double velocitySumX, double velocitySumY) {
+        restore(amountOfParticles == 0 ? 0 :
+                        Math.sqrt(Math.pow(velocitySumX, 2) + Math.pow(velocitySumY, 2)) / orderValueFactor,
+                amountOfParticles == 0 ? 0 : velocitySumX / amountOfParticles,
+                amountOfParticles == 0 ? 0 : velocitySumY / amountOfParticles);
+    }
+
+    /**
+     * Records the given observables of a new state, as they were recorded before (i.e used to resume a simulation).
+     *
+     * @param orderValue    The order value.
+     * @param meanVelocityX The 'x' component of the mean velocity.
+     * @param meanVelocityY The 'y' component of the mean velocity.
+     */
+    /* package */ void restore(double orderValue, double meanVelocityX, double meanVelocityY) {
+        if (amountOfStates == orderValues.length) {
+            final int capacity = 2 * orderValues.length;
+            this.orderValues = Arrays.copyOf(orderValues, capacity);
+            this.meanVelocityX = Arrays.copyOf(this.meanVelocityX, capacity);
+            this.meanVelocityY = Arrays.copyOf(this.meanVelocityY, capacity);
+        }
+        this.orderValues[amountOfStates] = orderValue;
+        this.meanVelocityX[amountOfStates] = meanVelocityX;
+        this.meanVelocityY[amountOfStates] = meanVelocityY;
+        amountOfStates++;
+    }
+
+    /**
+     * Records the observables of the given {@code particles} actual state
+     * (i.e sums their velocities, so it must only be used when the sums were not calculated while updating).
+     *
+     * @param particles The {@link ParticleStore} holding the particles.
+     */
+    public void record(ParticleStore particles) {
+        double velocitySumX = 0;
+        double velocitySumY = 0;
+        for (int i = 0; i < particles.getAmountOfParticles(); i++) {
+            velocitySumX += particles.getVelocityX(i);
+            velocitySumY += particles.getVelocityY(i);
+        }
+        record(velocitySumX, velocitySumY);
+    }
+
+    /**
+     * @return The amount of recorded states.
+     */
+    public int getAmountOfStates() {
+        return amountOfStates;
+    }
+
+    /**
+     * @return The state in which the steady state starts (or -1 if it was not detected).
+     */
+    public int getSteadyState() {
+        return steadyState;
+    }
+
+    /**
+     * @param steadyState The state in which the steady state starts.
+     */
+    /* package */ void setSteadyState(int steadyState) {
+        this.steadyState = steadyState;
+    }
+
+    /**
+     * @return The density of the {@link Space} (i.e amount of particles per unit of area).
+     */
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * @param state The number of state (0 is the initial state).
+     * @return The order value of the given {@code state}.
+     * @throws IndexOutOfBoundsException If the given state was not recorded.
+     */
+    public double getOrderValue(int state) throws IndexOutOfBoundsException {
+        validateState(state);
+        return orderValues[state];
+    }
+
+    /**
+     * @return A new array with the order value of each recorded state.
+     */
+    public double[] getOrderValues() {
+        return Arrays.copyOf(orderValues, amountOfStates);
+    }
+
+    /**
+     * Calculates the mean of the order values of the recorded states starting from the given {@code from} state
+     * (e.g in order to discard the transient).
+     *
+     * @param from The first state taken into account.
+     * @return The mean of the order values.
+     * @throws IndexOutOfBoundsException If the given state was not recorded.
+     */
+    public double getMeanOrderValue(int from) throws IndexOutOfBoundsException {
+        validateState(from);
+        double sum = 0;
+        for (int state = from; state < amountOfStates; state++) {
+            sum += orderValues[state];
+        }
+        return sum / (amountOfStates - from);
+    }
+
+    /**
+     * Calculates the standard deviation of the order values of the recorded states
+     * starting from the given {@code from} state.
+     *
+     * @param from The first state taken into account.
+     * @return The standard deviation of the order values.
+     * @throws IndexOutOfBoundsException If the given state was not recorded.
+     */
+    public double getOrderValueStandardDeviation(int from) throws IndexOutOfBoundsException {
+        final double mean = getMeanOrderValue(from);
+        double sum = 0;
+        for (int state = from; state < amountOfStates; state++) {
+            sum += Math.pow(orderValues[state] - mean, 2);
+        }
+        return Math.sqrt(sum / (amountOfStates - from));
+    }
+
+    /**
+     * @return A new array with the 'x' component of the mean velocity of each recorded state.
+     */
+    public double[] getMeanVelocityXValues() {
+        return Arrays.copyOf(meanVelocityX, amountOfStates);
+    }
+
+    /**
+     * @return A new array with the 'y' component of the mean velocity of each recorded state.
+     */
+    public double[] getMeanVelocityYValues() {
+        return Arrays.copyOf(meanVelocityY, amountOfStates);
+    }
+
+    @Override
+    public ObservablesState saveState() {
+        return saveState(null);
+    }
+
+    /**
+     * Saves the observables of the last recorded state into the given {@code state},
+     * reusing it in order to avoid allocating (if it is {@code null}, a new one is created).
+     *
+     * @param state The {@link ObservablesState} to be reused (can be {@code null}).
+     * @return The observables of the last recorded state.
+     * @throws IllegalStateException If no state was recorded yet.
+     */
+    public ObservablesState saveState(ObservablesState state) throws IllegalStateException {
+        if (amountOfStates == 0) {
+            throw new IllegalStateException("No states were recorded yet");
+        }
+        final int last = amountOfStates - 1;
+        final ObservablesState target = state == null ? new ObservablesState() : state;
+        target.set(last, density, orderValues[last], meanVelocityX[last], meanVelocityY[last]);
+        return target;
+    }
+
+    /**
+     * Checks that the given {@code state} was recorded.
+     *
+     * @param state The number of state.
+     * @throws IndexOutOfBoundsException If the given state was not recorded.
+     */
+    private void validateState(int state) throws IndexOutOfBoundsException {
+        if (state < 0 || state >= amountOfStates) {
+            throw new IndexOutOfBoundsException("State " + state + " was not recorded");
+        }
+    }
+
+    // ========================================
+    // State
+    // ========================================
+
+    /**
+     * Bean class that extends {@link State}, which stores the observables of a simulation state.
+     */
+    public static final class ObservablesState extends State {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The number of state (0 is the initial state).
+         */
+        private int number;
+
+        /**
+         * The density of the space.
+         */
+        private double density;
+
+        /**
+         * The order value.
+         */
+        private double orderValue;
+
+        /**
+         * The 'x' component of the mean velocity.
+         */
+        private double meanVelocityX;
+
+        /**
+         * The 'y' component of the mean velocity.
+         */
+        private double meanVelocityY;
+
+        /**
+         * Private constructor (states are created by {@link Observables}).
+         */
+        private ObservablesState() {
+        }
+
+        /**
+         * Sets the values of this state.
+         *
+         * @param number        The number of state.
+         * @param density       The density of the space.
+         * @param orderValue    The order value.
+         * @param meanVelocityX The 'x' component of the mean velocity.
+         * @param meanVelocityY The 'y' component of the mean velocity.
+         */
+        private void set(int number, double density, double orderValue, double meanVelocityX,
+                         double meanVelocityY) {
+            this.number = number;
+            this.density = density;
+            this.orderValue = orderValue;
+            this.meanVelocityX = meanVelocityX;
+            this.meanVelocityY = meanVelocityY;
+        }
+
+        /**
+         * Copies the given {@code source} state into the given {@code target} state, reusing it
+         * (if it is {@code null}, or it is the source, a new one is created).
+         *
+         * @param source The {@link ObservablesState} to be copied.
+         * @param target The {@link ObservablesState} to be reused (can be {@code null}).
+         * @return The copy.
+         */
+        public static ObservablesState copy(ObservablesState source, ObservablesState target) {
+            final ObservablesState copy = target == null || target == source ? new ObservablesState() : target;
+            copy.set(source.number, source.density, source.orderValue, source.meanVelocityX, source.meanVelocityY);
+            return copy;
+        }
+
+        /**
+         * @return The number of state (0 is the initial state).
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        /**
+         * @return The density of the space.
+         */
+        public double getDensity() {
+            return density;
+        }
+
+        /**
+         * @return The order value.
+         */
+        public double getOrderValue() {
+            return orderValue;
+        }
+
+        /**
+         * @return The 'x' component of the mean velocity.
+         */
+        public double getMeanVelocityX() {
+            return meanVelocityX;
+        }
+
+        /**
+         * @return The 'y' component of the mean velocity.
+         */
+        public double getMeanVelocityY() {
+            return meanVelocityY;
+        }
+    }
+}
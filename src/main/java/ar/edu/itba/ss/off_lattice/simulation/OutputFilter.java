@@ -0,0 +1,353 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+
+import java.util.Arrays;
+
+/**
+ * Filter applied by the {@link SimulationEngine} before pushing states into the state sinks,
+ * selecting which frames are saved (according to a {@link FrameSelection}), and which particles of each frame
+ * (those inside a spatial {@link Window}, and/or a random subset of them).
+ * Frames that are not selected are never saved as states (i.e they cost nothing but the check).
+ * <p>
+ * The random subset is chosen once per simulation, by identifier, from a {@link RandomSource} derived from
+ * the simulation's seed (i.e the same particles are kept in all frames, and in resumed simulations).
+ * Kept particles are saved sorted by identifier, so each of them is always in the same position of a frame
+ * (unless a window is used, in which case the amount of particles changes between frames).
+ */
+public final class OutputFilter {
+
+    /**
+     * An {@link OutputFilter} that keeps all frames and all particles.
+     */
+    public static final OutputFilter NONE = new OutputFilter(FrameSelection.EVERY, 1, 1, null, 0);
+
+    /**
+     * The key used to derive the {@link RandomSource} from which the particles' subset is chosen.
+     */
+    private static final long SUBSET_KEY = 2;
+
+    /**
+     * The {@link FrameSelection} used to select the saved frames.
+     */
+    private final FrameSelection frames;
+
+    /**
+     * One of how many frames is saved (only used by the {@link FrameSelection#EVERY} selection).
+     */
+    private final int interval;
+
+    /**
+     * The amount of frames saved per decade of iterations (only used by the {@link FrameSelection#LOG} selection).
+     */
+    private final int framesPerDecade;
+
+    /**
+     * The {@link Window} out of which particles are not saved (or {@code null} if all positions are saved).
+     */
+    private final Window window;
+
+    /**
+     * The amount of particles randomly chosen to be saved (0 means all of them).
+     */
+    private final int subset;
+
+
+    /**
+     * Constructor.
+     *
+     * @param frames          The {@link FrameSelection} used to select the saved frames.
+     * @param interval        One of how many frames is saved
+     *                        (only used by the {@link FrameSelection#EVERY} selection).
+     * @param framesPerDecade The amount of frames saved per decade of iterations
+     *                        (only used by the {@link FrameSelection#LOG} selection).
+     * @param window          The {@link Window} out of which particles are not saved
+     *                        (or {@code null} to save all positions).
+     * @param subset          The amount of particles randomly chosen to be saved (0 means all of them).
+     * @throws IllegalArgumentException If the frame selection is {@code null},
+     *                                  the interval or the frames per decade are not positive,
+     *                                  or the subset size is negative.
+     */
+    public OutputFilter(FrameSelection frames, int interval, int framesPerDecade, Window window, int subset)
+            throws IllegalArgumentException {
+        if (frames == null) {
+            throw new IllegalArgumentException("The frame selection must not be null");
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The frames interval must be positive");
+        }
+        if (framesPerDecade <= 0) {
+            throw new IllegalArgumentException("The amount of frames per decade must be positive");
+        }
+        if (subset < 0) {
+            throw new IllegalArgumentException("The amount of particles of the subset must not be negative");
+        }
+        this.frames = frames;
+        this.interval = interval;
+        this.framesPerDecade = framesPerDecade;
+        this.window = window;
+        this.subset = subset;
+    }
+
+    /**
+     * @return {@code true} if this filter might save a different amount of particles in each frame
+     * (i.e it uses a {@link Window}), or {@code false} otherwise.
+     */
+    public boolean hasVariableAmountOfParticles() {
+        return window != null;
+    }
+
+    /**
+     * @return {@code true} if this filter keeps all frames and all particles, or {@code false} otherwise.
+     */
+    public boolean isNone() {
+        return frames == FrameSelection.EVERY && interval == 1 && window == null && subset == 0;
+    }
+
+    /**
+     * @return A description of this filter (i.e used for logging).
+     */
+    @Override
+    public String toString() {
+        return (frames == FrameSelection.EVERY ? "one of every " + interval + " frames"
+                : framesPerDecade + " frames per decade")
+                + (window == null ? "" : ", inside " + window)
+                + (subset == 0 ? "" : ", " + subset + " random particles");
+    }
+
+    /**
+     * Creates a {@link Selector} applying this filter to the given {@code space} in a simulation.
+     *
+     * @param space  The simulated {@link Space}.
+     * @param random The {@link RandomSource} of the simulation (from which the particles' subset is chosen).
+     * @return The created {@link Selector}.
+     * @throws IllegalArgumentException If the subset has more particles than the space.
+     */
+    /* package */ Selector open(Space space, RandomSource random) throws IllegalArgumentException {
+        if (subset > space.getAmountOfParticles()) {
+            throw new IllegalArgumentException("The subset can not have more particles than the space");
+        }
+        return new Selector(space, random);
+    }
+
+    /**
+     * Object in charge of applying the filter in a simulation, reusing its buffers in each frame.
+     */
+    /* package */ final class Selector {
+
+        /**
+         * The simulated {@link Space}.
+         */
+        private final Space space;
+
+        /**
+         * The position in a saved frame of each particle of the subset, by identifier
+         * (or -1 for particles out of it), or {@code null} if there is no subset.
+         */
+        private final int[] ranks;
+
+        /**
+         * Buffer holding the index in the simulated space of each particle kept in the actual frame, by identifier
+         * (or -1 for particles that are not kept), or {@code null} if there is no window.
+         */
+        private final int[] indexes;
+
+        /**
+         * The {@link Space} holding the kept particles of the last selected frame
+         * (or {@code null} if all particles are kept, or no frame was selected).
+         */
+        private Space filtered;
+
+        /**
+         * The next frame selected by the {@link FrameSelection#LOG} selection, not counting the initial one.
+         */
+        private long nextLogFrame;
+
+        /**
+         * The amount of decade fractions the next frame of the {@link FrameSelection#LOG} selection is away from 1.
+         */
+        private int logStep;
+
+        /**
+         * Constructor.
+         *
+         * @param space  The simulated {@link Space}.
+         * @param random The {@link RandomSource} of the simulation.
+         */
+        private Selector(Space space, RandomSource random) {
+            final int amountOfParticles = space.getAmountOfParticles();
+            this.space = space;
+            this.ranks = subset == 0 ? null : chooseSubset(amountOfParticles, random.split(SUBSET_KEY));
+            this.indexes = window == null ? null : new int[amountOfParticles];
+            this.filtered = subset == 0 || window != null ? null : new Space(space.getWidth(), space.getHeight(),
+                    ParticleStore.create(subset, space.getParticleStore().getRepresentation(),
+                            space.getParticleStore().getPrecision()));
+            this.nextLogFrame = 1;
+            this.logStep = 0;
+        }
+
+        /**
+         * Checks whether the given {@code frame} must be saved.
+         * Frames must be checked in increasing order (e.g a resumed simulation checks from its first frame on).
+         *
+         * @param frame The number of frame (i.e the iteration after which it was taken, 0 being the initial state).
+         * @return {@code true} if the frame must be saved, or {@code false} otherwise.
+         */
+        /* package */ boolean accepts(int frame) {
+            if (frames == FrameSelection.EVERY) {
+                return frame % interval == 0;
+            }
+            if (frame == 0) {
+                return true;
+            }
+            while (nextLogFrame < frame) {
+                logStep++;
+                // Frames are rounded down to integers, so the first decades would repeat frames
+                nextLogFrame = Math.max(nextLogFrame + 1,
+                        (long) Math.floor(Math.pow(10, (double) logStep / framesPerDecade)));
+            }
+            return nextLogFrame == frame;
+        }
+
+        /**
+         * Selects the particles of the actual state of the simulated space that must be saved.
+         *
+         * @return A {@link Space} holding the kept particles, sorted by identifier
+         * (i.e the simulated space if all particles are kept). Note that it is reused.
+         */
+        /* package */ Space select() {
+            if (ranks == null && indexes == null) {
+                return space;
+            }
+            final ParticleStore particles = space.getParticleStore();
+            final int[] ids = particles.getIds();
+            final int amountOfParticles = particles.getAmountOfParticles();
+            if (indexes == null) {
+                final ParticleStore target = filtered.getParticleStore();
+                for (int i = 0; i < amountOfParticles; i++) {
+                    final int rank = ranks[ids[i]];
+                    if (rank >= 0) {
+                        target.copyParticleFrom(particles, i, rank);
+                    }
+                }
+                return filtered;
+            }
+            int kept = 0;
+            for (int i = 0; i < amountOfParticles; i++) {
+                final int id = ids[i];
+                final boolean keep = (ranks == null || ranks[id] >= 0)
+                        && window.contains(particles.getX(i), particles.getY(i));
+                indexes[id] = keep ? i : -1;
+                kept += keep ? 1 : 0;
+            }
+            // A new space is only needed when the amount of kept particles changes
+            if (filtered == null || filtered.getAmountOfParticles() != kept) {
+                filtered = new Space(space.getWidth(), space.getHeight(), ParticleStore.create(kept,
+                        particles.getRepresentation(), particles.getPrecision()));
+            }
+            final ParticleStore target = filtered.getParticleStore();
+            int position = 0;
+            for (int id = 0; id < amountOfParticles; id++) {
+                if (indexes[id] >= 0) {
+                    target.copyParticleFrom(particles, indexes[id], position++);
+                }
+            }
+            return filtered;
+        }
+
+        /**
+         * Randomly chooses the particles of the subset (i.e a partial Fisher-Yates shuffle of the identifiers).
+         *
+         * @param amountOfParticles The amount of particles in the space.
+         * @param random            The {@link RandomSource} from which the subset is chosen.
+         * @return The position in a saved frame of each particle, by identifier (or -1 for those out of the subset).
+         */
+        private int[] chooseSubset(int amountOfParticles, RandomSource random) {
+            final int[] shuffled = new int[amountOfParticles];
+            for (int id = 0; id < amountOfParticles; id++) {
+                shuffled[id] = id;
+            }
+            final boolean[] chosen = new boolean[amountOfParticles];
+            for (int k = 0; k < subset; k++) {
+                final int other = k + (int) (random.nextDouble(0, k) * (amountOfParticles - k));
+                final int aux = shuffled[k];
+                shuffled[k] = shuffled[other];
+                shuffled[other] = aux;
+                chosen[shuffled[k]] = true;
+            }
+            final int[] ranks = new int[amountOfParticles];
+            Arrays.fill(ranks, -1);
+            int rank = 0;
+            for (int id = 0; id < amountOfParticles; id++) {
+                if (chosen[id]) {
+                    ranks[id] = rank++;
+                }
+            }
+            return ranks;
+        }
+    }
+
+    /**
+     * Bean class holding a rectangular region of the space (i.e those positions whose 'x' and 'y' components
+     * are in the {@code [min, max)} range of each axis).
+     */
+    public static final class Window {
+
+        /**
+         * The lower limit of the 'x' axis (inclusive).
+         */
+        private final double minX;
+
+        /**
+         * The lower limit of the 'y' axis (inclusive).
+         */
+        private final double minY;
+
+        /**
+         * The upper limit of the 'x' axis (exclusive).
+         */
+        private final double maxX;
+
+        /**
+         * The upper limit of the 'y' axis (exclusive).
+         */
+        private final double maxY;
+
+        /**
+         * Constructor.
+         *
+         * @param minX The lower limit of the 'x' axis (inclusive).
+         * @param minY The lower limit of the 'y' axis (inclusive).
+         * @param maxX The upper limit of the 'x' axis (exclusive).
+         * @param maxY The upper limit of the 'y' axis (exclusive).
+         * @throws IllegalArgumentException If any lower limit is not lower than its upper limit.
+         */
+        public Window(double minX, double minY, double maxX, double maxY) throws IllegalArgumentException {
+            if (!(minX < maxX) || !(minY < maxY)) {
+                throw new IllegalArgumentException("The lower limits of the window must be lower than the upper ones");
+            }
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        /**
+         * Checks whether the given position is inside this window.
+         *
+         * @param x The 'x' component of the position.
+         * @param y The 'y' component of the position.
+         * @return {@code true} if the position is inside this window, or {@code false} otherwise.
+         */
+        public boolean contains(double x, double y) {
+            return x >= minX && x < maxX && y >= minY && y < maxY;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + minX + ", " + maxX + ") x [" + minY + ", " + maxY + ")";
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different orders in which particles can be periodically stored
+ * (i.e sorting them along a space-filling curve, so particles that are close in space are close in memory).
+ */
+public enum ParticleOrdering {
+
+    /**
+     * Particles are never reordered.
+     */
+    NONE("none"),
+
+    /**
+     * Particles are sorted by the Morton code (i.e Z-order) of the cell in which they are.
+     */
+    MORTON("morton"),
+
+    /**
+     * Particles are sorted by the distance along the Hilbert curve of the cell in which they are
+     * (i.e better locality than the Morton order, as consecutive cells are always adjacent).
+     */
+    HILBERT("hilbert");
+
+    /**
+     * The name used to select this ordering from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this ordering from properties.
+     */
+    ParticleOrdering(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return {@code true} if particles are sorted with this ordering, or {@code false} if they are never reordered.
+     */
+    public boolean isSorted() {
+        return this != NONE;
+    }
+
+    /**
+     * Calculates the sort key of the cell in the given {@code column} and {@code row}.
+     *
+     * @param column The column of the cell (in the {@code [0, order)} range).
+     * @param row    The row of the cell (in the {@code [0, order)} range).
+     * @param order  The amount of cells per side of the curve (a power of two, up to {@code 2^15}).
+     * @return The key of the cell (in the {@code [0, order^2)} range).
+     * @implNote Every cell has the same key with the {@link #NONE} ordering, so a stable sort keeps the particles'
+     * order (i.e particles are only sorted with orderings for which {@link #isSorted()} is {@code true}).
+     */
+    /* package */ long key(int column, int row, int order) {
+        switch (this) {
+            case MORTON:
+                return mortonKey(column, row);
+            case HILBERT:
+                return hilbertKey(column, row, order);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return The name used to select this ordering from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the {@link ParticleOrdering} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the ordering.
+     * @return The corresponding {@link ParticleOrdering}.
+     * @throws IllegalArgumentException In case there is no ordering with the given {@code name}.
+     */
+    public static ParticleOrdering fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(ordering -> ordering.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown particle ordering: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(ParticleOrdering::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+
+    /**
+     * Calculates the Morton code of the cell in the given {@code column} and {@code row}
+     * (i.e the bits of the column and the row interleaved).
+     *
+     * @param column The column of the cell.
+     * @param row    The row of the cell.
+     * @return The Morton code of the cell.
+     */
+    private static long mortonKey(int column, int row) {
+        return spread(column) | (spread(row) << 1);
+    }
+
+    /**
+     * Calculates the distance along the Hilbert curve of the cell in the given {@code column} and {@code row}.
+     *
+     * @param column The column of the cell.
+     * @param row    The row of the cell.
+     * @param order  The amount of cells per side of the curve (a power of two).
+     * @return The distance along the curve.
+     */
+    private static long hilbertKey(int column, int row, int order) {
+        int x = column;
+        int y = row;
+        long distance = 0;
+        for (int s = order >>> 1; s > 0; s >>>= 1) {
+            final int rx = (x & s) > 0 ? 1 : 0;
+            final int ry = (y & s) > 0 ? 1 : 0;
+            distance += (long) s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant, so the curve is continuous
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                final int aux = x;
+                x = y;
+                y = aux;
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Spreads the lower 16 bits of the given {@code value}, so there is a zero bit between each of them
+     * (i.e used to interleave the bits of two values).
+     *
+     * @param value The value to be spread.
+     * @return The spread value.
+     */
+    private static long spread(int value) {
+        long bits = value & 0xFFFFL;
+        bits = (bits | (bits << 8)) & 0x00FF00FFL;
+        bits = (bits | (bits << 4)) & 0x0F0F0F0FL;
+        bits = (bits | (bits << 2)) & 0x33333333L;
+        bits = (bits | (bits << 1)) & 0x55555555L;
+        return bits;
+    }
+}
@@ -0,0 +1,198 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+
+import java.util.Arrays;
+
+/**
+ * Object in charge of sorting the particles of a {@link Space} along a space-filling curve
+ * (i.e particles are binned into cells of about the interaction radius, and sorted by the key of their cells
+ * according to a {@link ParticleOrdering}), so particles that interact are close in memory.
+ * Particles in the same cell keep their relative order, so sorting is deterministic.
+ *
+ * @implNote Keys are sorted with a least significant digit radix sort (i.e linear, and stable).
+ * Arrays are allocated when this object is created and reused each time particles are sorted,
+ * so sorting allocates nothing.
+ */
+/* package */ final class ParticleReorderer {
+
+    /**
+     * The maximum amount of cells per axis (i.e keys must fit in a non negative {@code int}).
+     */
+    private static final int MAXIMUM_CELLS = 1 << 15;
+
+    /**
+     * The amount of bits of the keys sorted in each pass of the radix sort.
+     */
+    private static final int RADIX_BITS = 8;
+
+    /**
+     * The {@link Space} whose particles are sorted.
+     */
+    private final Space space;
+
+    /**
+     * The {@link ParticleOrdering} used to sort the particles.
+     */
+    private final ParticleOrdering ordering;
+
+    /**
+     * The amount of cells in the 'x' axis.
+     */
+    private final int columns;
+
+    /**
+     * The amount of cells in the 'y' axis.
+     */
+    private final int rows;
+
+    /**
+     * The amount of cells per side of the curve (i.e the smallest power of two that holds all the cells).
+     */
+    private final int curveOrder;
+
+    /**
+     * The amount of bits of the keys (i.e those that must be sorted).
+     */
+    private final int keyBits;
+
+    /**
+     * Array holding the key of the cell of each particle.
+     */
+    private final int[] keys;
+
+    /**
+     * Array holding the permutation applied to the particles.
+     */
+    private final int[] order;
+
+    /**
+     * Buffer into which keys are moved in each pass of the radix sort.
+     */
+    private final int[] auxiliaryKeys;
+
+    /**
+     * Buffer into which indexes are moved in each pass of the radix sort.
+     */
+    private final int[] auxiliaryOrder;
+
+    /**
+     * Array holding where the keys with each digit start in a pass of the radix sort.
+     */
+    private final int[] digitStart;
+
+    /**
+     * Buffer used to permute the particles' values.
+     */
+    private final double[] scratch;
+
+    /**
+     * Buffer used to permute the particles' identifiers.
+     */
+    private final int[] scratchOfIds;
+
+
+    /**
+     * Constructor.
+     *
+     * @param space    The {@link Space} whose particles are sorted.
+     * @param cellSide The desired side of the cells into which particles are binned (i.e the interaction radius).
+     * @param ordering The {@link ParticleOrdering} used to sort the particles.
+     * @throws IllegalArgumentException If the ordering is {@link ParticleOrdering#NONE},
+     *                                  or if the cell side is not positive.
+     */
+    /* package */ ParticleReorderer(Space space, double cellSide, ParticleOrdering ordering)
+            throws IllegalArgumentException {
+        if (!ordering.isSorted()) {
+            throw new IllegalArgumentException("A particle ordering must be given in order to sort particles");
+        }
+        if (Double.compare(cellSide, 0) <= 0) {
+            throw new IllegalArgumentException("The side of the cells must be positive");
+        }
+        this.space = space;
+        this.ordering = ordering;
+        this.columns = cells(space.getWidth(), cellSide);
+        this.rows = cells(space.getHeight(), cellSide);
+        this.curveOrder = Integer.highestOneBit(Math.max(columns, rows) * 2 - 1);
+        this.keyBits = 2 * Integer.numberOfTrailingZeros(curveOrder);
+        final int amountOfParticles = space.getAmountOfParticles();
+        this.keys = new int[amountOfParticles];
+        this.order = new int[amountOfParticles];
+        this.auxiliaryKeys = new int[amountOfParticles];
+        this.auxiliaryOrder = new int[amountOfParticles];
+        this.digitStart = new int[(1 << RADIX_BITS) + 1];
+        this.scratch = new double[amountOfParticles];
+        this.scratchOfIds = new int[amountOfParticles];
+    }
+
+    /**
+     * Calculates how many cells of the given {@code cellSide} fit in the given {@code length}.
+     *
+     * @param length   The length of the axis.
+     * @param cellSide The desired side of the cells.
+     * @return The amount of cells in the axis (at least one, and at most {@link #MAXIMUM_CELLS}).
+     */
+    private static int cells(double length, double cellSide) {
+        return (int) Math.max(1, Math.min(MAXIMUM_CELLS, Math.floor(length / cellSide)));
+    }
+
+    /**
+     * Sorts the particles of the {@link Space}.
+     *
+     * @return The permutation applied to the particles
+     * (i.e the particle that was in index {@code order[k]} is now in index {@code k}).
+     * Note that the returned array is reused, so it will be overwritten the next time particles are sorted.
+     */
+    /* package */ int[] reorder() {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final double columnsPerLength = columns / space.getWidth();
+        final double rowsPerLength = rows / space.getHeight();
+        for (int i = 0; i < keys.length; i++) {
+            final int column = Math.min(columns - 1, (int) (x[i] * columnsPerLength));
+            final int row = Math.min(rows - 1, (int) (y[i] * rowsPerLength));
+            keys[i] = (int) ordering.key(column, row, curveOrder);
+            order[i] = i;
+        }
+        sort();
+        particles.reorder(order, scratch, scratchOfIds);
+        return order;
+    }
+
+    /**
+     * Sorts the {@link #order} array by the {@link #keys} of the particles, keeping the relative order of those
+     * with the same key (i.e each pass of the radix sort is a stable counting sort of a digit).
+     */
+    private void sort() {
+        int[] actualKeys = keys;
+        int[] actualOrder = order;
+        int[] nextKeys = auxiliaryKeys;
+        int[] nextOrder = auxiliaryOrder;
+        final int mask = (1 << RADIX_BITS) - 1;
+        for (int shift = 0; shift < keyBits; shift += RADIX_BITS) {
+            Arrays.fill(digitStart, 0);
+            for (int key : actualKeys) {
+                digitStart[((key >>> shift) & mask) + 1]++;
+            }
+            for (int digit = 1; digit < digitStart.length; digit++) {
+                digitStart[digit] += digitStart[digit - 1];
+            }
+            for (int i = 0; i < actualKeys.length; i++) {
+                final int position = digitStart[(actualKeys[i] >>> shift) & mask]++;
+                nextKeys[position] = actualKeys[i];
+                nextOrder[position] = actualOrder[i];
+            }
+            final int[] auxKeys = actualKeys;
+            final int[] auxOrder = actualOrder;
+            actualKeys = nextKeys;
+            actualOrder = nextOrder;
+            nextKeys = auxKeys;
+            nextOrder = auxOrder;
+        }
+        if (actualOrder != order) {
+            System.arraycopy(actualOrder, 0, order, 0, order.length);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.utils.CounterBasedRandomSource;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Object in charge of validating the {@link Precision#FLOAT} precision
+ * against the {@link Precision#DOUBLE} one
+ * (i.e checking that keeping the particles' values in single precision does not change the physics).
+ * For each replica, the same simulation (i.e with the same seed) is performed with both precisions,
+ * and the order value time series are compared, reporting the maximum and the root mean square of the differences,
+ * and the difference between the means of the second half of each series (i.e the steady state, if it was reached).
+ *
+ * @implNote Trajectories of both precisions diverge after a while (as any rounding difference is amplified
+ * by the dynamics), so only statistical agreement (i.e of the steady state means) is expected for long runs.
+ */
+public final class PrecisionValidator {
+
+    /**
+     * The {@link Logger} instance.
+     */
+    private final static Logger LOGGER = LoggerFactory.getLogger(PrecisionValidator.class);
+
+    /**
+     * The width of the space in which simulations are performed.
+     */
+    private final double spaceWidth;
+
+    /**
+     * The height of the space in which simulations are performed.
+     */
+    private final double spaceHeight;
+
+    /**
+     * The amount of particles.
+     */
+    private final int amountOfParticles;
+
+    /**
+     * The interaction radius (i.e up to which radius a particle is consider a neighbor of another).
+     */
+    private final double interactionRadius;
+
+    /**
+     * The {@link SimulationParameters} shared by all runs (precision and seed are set for each run).
+     */
+    private final SimulationParameters parameters;
+
+
+    /**
+     * Constructor.
+     *
+     * @param spaceWidth        The width of the space in which simulations are performed.
+     * @param spaceHeight       The height of the space in which simulations are performed.
+     * @param amountOfParticles The amount of particles.
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a particle is consider a neighbor of another).
+     * @param parameters        The {@link SimulationParameters} shared by all runs
+     *                          (their seed is used to generate the seed of each replica).
+     */
+    public PrecisionValidator(double spaceWidth, double spaceHeight, int amountOfParticles, double interactionRadius,
+                              SimulationParameters parameters) {
+        this.spaceWidth = spaceWidth;
+        this.spaceHeight = spaceHeight;
+        this.amountOfParticles = amountOfParticles;
+        this.interactionRadius = interactionRadius;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Performs the given amount of {@code replicas} of the simulation with each precision, comparing their results.
+     * The comparison of each replica, and the overall one, are logged.
+     *
+     * @param replicas The amount of replicas.
+     * @return The {@link Comparison} of each replica.
+     * @throws IllegalArgumentException If the amount of replicas is not positive.
+     */
+    public List<Comparison> validate(int replicas) throws IllegalArgumentException {
+        if (replicas <= 0) {
+            throw new IllegalArgumentException("The amount of replicas must be positive");
+        }
+        final RandomSource random = new CounterBasedRandomSource(parameters.getSeed());
+        final List<Comparison> comparisons = new ArrayList<>(replicas);
+        double maxError = 0;
+        double squaredErrorsSum = 0;
+        long amountOfErrors = 0;
+        double meanDifferencesSum = 0;
+        for (int replica = 0; replica < replicas; replica++) {
+            final long seed = random.split(replica).getSeed();
+            final double[] doubleValues = simulate(Precision.DOUBLE, seed);
+            final double[] floatValues = simulate(Precision.FLOAT, seed);
+            final Comparison comparison = compare(replica, seed, doubleValues, floatValues);
+            comparisons.add(comparison);
+            LOGGER.info("Replica {} (seed: {}): max error {}, RMS error {}, steady state means {} (double) "
+                            + "and {} (float)", replica, seed, comparison.getMaxError(), comparison.getRmsError(),
+                    comparison.getDoubleMean(), comparison.getFloatMean());
+            final int states = Math.min(doubleValues.length, floatValues.length);
+            maxError = Math.max(maxError, comparison.getMaxError());
+            squaredErrorsSum += comparison.getRmsError() * comparison.getRmsError() * states;
+            amountOfErrors += states;
+            meanDifferencesSum += Math.abs(comparison.getDoubleMean() - comparison.getFloatMean());
+        }
+        LOGGER.info("Precision validation ({} replicas): max error {}, RMS error {}, "
+                        + "mean steady state difference {}", replicas, maxError,
+                amountOfErrors == 0 ? 0 : Math.sqrt(squaredErrorsSum / amountOfErrors), meanDifferencesSum / replicas);
+        return comparisons;
+    }
+
+    /**
+     * Performs the simulation with the given {@code precision} and {@code seed}.
+     *
+     * @param precision The {@link Precision} with which the particles' values are kept.
+     * @param seed      The seed of the simulation.
+     * @return The order value of each recorded state.
+     */
+    private double[] simulate(Precision precision, long seed) {
+        final SimulationEngine engine =
+                new SimulationEngine(spaceWidth, spaceHeight, amountOfParticles, interactionRadius);
+        engine.simulate(parameters.withPrecision(precision).withSeed(seed));
+        return engine.getObservables().getOrderValues();
+    }
+
+    /**
+     * Compares the given order value time series.
+     *
+     * @param replica      The number of replica.
+     * @param seed         The seed of the simulations.
+     * @param doubleValues The order values of the {@link Precision#DOUBLE} simulation.
+     * @param floatValues  The order values of the {@link Precision#FLOAT} simulation.
+     * @return The {@link Comparison} of the series (only the states recorded by both simulations are compared).
+     */
+    private static Comparison compare(int replica, long seed, double[] doubleValues, double[] floatValues) {
+        final int states = Math.min(doubleValues.length, floatValues.length);
+        double maxError = 0;
+        double squaredErrorsSum = 0;
+        for (int state = 0; state < states; state++) {
+            final double error = Math.abs(doubleValues[state] - floatValues[state]);
+            maxError = Math.max(maxError, error);
+            squaredErrorsSum += error * error;
+        }
+        return new Comparison(replica, seed, maxError, states == 0 ? 0 : Math.sqrt(squaredErrorsSum / states),
+                secondHalfMean(doubleValues, states), secondHalfMean(floatValues, states));
+    }
+
+    /**
+     * Calculates the mean of the second half of the first {@code states} values of the given array.
+     *
+     * @param values The values.
+     * @param states The amount of values taken into account.
+     * @return The mean (or zero if there are no values).
+     */
+    private static double secondHalfMean(double[] values, int states) {
+        final int from = states / 2;
+        double sum = 0;
+        for (int state = from; state < states; state++) {
+            sum += values[state];
+        }
+        return states == from ? 0 : sum / (states - from);
+    }
+
+    /**
+     * Bean class holding the comparison of the order values of a replica simulated with both precisions.
+     */
+    public static final class Comparison {
+
+        /**
+         * The number of replica.
+         */
+        private final int replica;
+
+        /**
+         * The seed of the simulations.
+         */
+        private final long seed;
+
+        /**
+         * The maximum absolute difference between the order values of the same state.
+         */
+        private final double maxError;
+
+        /**
+         * The root mean square of the differences between the order values of the same state.
+         */
+        private final double rmsError;
+
+        /**
+         * The mean of the second half of the order values of the {@link Precision#DOUBLE} simulation.
+         */
+        private final double doubleMean;
+
+        /**
+         * The mean of the second half of the order values of the {@link Precision#FLOAT} simulation.
+         */
+        private final double floatMean;
+
+        /**
+         * Constructor.
+         *
+         * @param replica    The number of replica.
+         * @param seed       The seed of the simulations.
+         * @param maxError   The maximum absolute difference between the order values of the same state.
+         * @param rmsError   The root mean square of the differences between the order values of the same state.
+         * @param doubleMean The mean of the second half of the order values of the double precision simulation.
+         * @param floatMean  The mean of the second half of the order values of the single precision simulation.
+         */
+        private Comparison(int replica, long seed, double maxError, double rmsError,
+                           double doubleMean, double floatMean) {
+            this.replica = replica;
+            this.seed = seed;
+            this.maxError = maxError;
+            this.rmsError = rmsError;
+            this.doubleMean = doubleMean;
+            this.floatMean = floatMean;
+        }
+
+        /**
+         * @return The number of replica.
+         */
+        public int getReplica() {
+            return replica;
+        }
+
+        /**
+         * @return The seed of the simulations.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return The maximum absolute difference between the order values of the same state.
+         */
+        public double getMaxError() {
+            return maxError;
+        }
+
+        /**
+         * @return The root mean square of the differences between the order values of the same state.
+         */
+        public double getRmsError() {
+            return rmsError;
+        }
+
+        /**
+         * @return The mean of the second half of the order values of the {@link Precision#DOUBLE} simulation.
+         */
+        public double getDoubleMean() {
+            return doubleMean;
+        }
+
+        /**
+         * @return The mean of the second half of the order values of the {@link Precision#FLOAT} simulation.
+         */
+        public double getFloatMean() {
+            return floatMean;
+        }
+    }
+}
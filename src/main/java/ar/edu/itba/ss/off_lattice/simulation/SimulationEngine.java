@@ -1,13 +1,21 @@
 package ar.edu.itba.ss.off_lattice.simulation;
 
 import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Precision;
 import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.utils.AllocationCounter;
+import ar.edu.itba.ss.off_lattice.utils.CounterBasedRandomSource;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The main class of the simulation (i.e the simulation performer).
@@ -15,14 +23,24 @@ import java.util.Queue;
 @Component
 public class SimulationEngine {
 
+    /**
+     * The {@link Logger} instance.
+     */
+    private final static Logger LOGGER = LoggerFactory.getLogger(SimulationEngine.class);
+
     // ========================================
     // System stuff
     // ========================================
 
     /**
-     * The side length of the {@link Space} in which the simulation is done.
+     * The width of the {@link Space} in which the simulation is done.
+     */
+    private final double spaceWidth;
+
+    /**
+     * The height of the {@link Space} in which the simulation is done.
      */
-    private final double spaceSideLength;
+    private final double spaceHeight;
 
     /**
      * The amount of {@link Particle}s to be used in the simulation.
@@ -40,9 +58,61 @@ public class SimulationEngine {
     // ========================================
 
     /**
-     * The states generated in each simulation step.
+     * The {@link StateSink}s to which the states generated in each simulation step are pushed.
+     */
+    private final List<StateSink<Space.SpaceState>> sinks;
+
+    /**
+     * The {@link Space.SpaceState} reused each time a state is pushed into the sinks
+     * (they must not retain it, so there is no need to create a new one each time).
+     */
+    private Space.SpaceState reusableState;
+
+    /**
+     * The {@link StateSink}s to which the observables of each simulation state are pushed.
+     */
+    private final List<StateSink<Observables.ObservablesState>> observablesSinks;
+
+    /**
+     * The {@link Observables.ObservablesState} reused each time observables are pushed into the sinks.
      */
-    private final Queue<Space.SpaceState> states;
+    private Observables.ObservablesState reusableObservablesState;
+
+    /**
+     * The {@link StateSink}s to which checkpoints are pushed.
+     */
+    private final List<StateSink<Checkpoint>> checkpointSinks;
+
+    /**
+     * Every how many iterations a checkpoint is taken (0 means checkpoints are not taken).
+     */
+    private int checkpointInterval;
+
+    /**
+     * The {@link OutputFilter} applied to the states pushed into the sinks.
+     */
+    private OutputFilter outputFilter;
+
+    /**
+     * Indicates whether the bytes allocated by each step are counted and reported.
+     */
+    private boolean allocationReport;
+
+    /**
+     * The bytes allocated by the steps of the last simulation after the warm up
+     * (or -1 if they were not counted).
+     */
+    private long steadyStateAllocatedBytes;
+
+    /**
+     * The {@link Observables} recorded in the last simulation (or {@code null} if no simulation was performed).
+     */
+    private Observables observables;
+
+    /**
+     * The {@link StopReason} of the last simulation (or {@code null} if no simulation was performed).
+     */
+    private StopReason stopReason;
 
     /**
      * A flag indicating that this engine is now simulating
@@ -51,67 +121,525 @@ public class SimulationEngine {
     private boolean simulating;
 
     /**
-     * Constructor.
+     * Constructor for a squared {@link Space}.
      *
      * @param spaceSideLength   The side length of the {@link Space} in which the simulation is done.
      * @param amountOfParticles The amount of {@link ar.edu.itba.ss.off_lattice.models.Particle}s
      * @param interactionRadius The interaction radius
      *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
      */
+    public SimulationEngine(double spaceSideLength, int amountOfParticles, double interactionRadius) {
+        this(spaceSideLength, spaceSideLength, amountOfParticles, interactionRadius);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param spaceWidth        The width of the {@link Space} in which the simulation is done
+     *                          (i.e the side length, unless it is set).
+     * @param spaceHeight       The height of the {@link Space} in which the simulation is done
+     *                          (i.e the side length, unless it is set).
+     * @param amountOfParticles The amount of {@link ar.edu.itba.ss.off_lattice.models.Particle}s
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
+     */
     @Autowired
-    public SimulationEngine(@Value("${custom.system.length}") double spaceSideLength,
+    public SimulationEngine(@Value("${custom.system.width:${custom.system.length}}") double spaceWidth,
+                            @Value("${custom.system.height:${custom.system.length}}") double spaceHeight,
                             @Value("${custom.system.particles}") int amountOfParticles,
                             @Value("${custom.system.interaction-radius}") double interactionRadius) {
-        this.spaceSideLength = spaceSideLength;
+        this.spaceWidth = spaceWidth;
+        this.spaceHeight = spaceHeight;
         this.amountOfParticles = amountOfParticles;
         this.interactionRadius = interactionRadius;
-        this.states = new LinkedList<>();
+        this.sinks = new LinkedList<>();
+        this.observablesSinks = new LinkedList<>();
+        this.checkpointSinks = new LinkedList<>();
+        this.checkpointInterval = 0;
+        this.outputFilter = OutputFilter.NONE;
+        this.allocationReport = false;
+        this.steadyStateAllocatedBytes = -1;
         this.simulating = false;
     }
 
     /**
      * Starts the simulation.
      *
-     * @param iterations  The amount of iterations to be performed in the simulation.
-     * @param eta         The 'eta' value, used for calculating noise for updating angles.
-     * @param m           The 'm' value used by cell index method.
-     * @param speedModule The speed module used in the simulation.
+     * @param parameters The {@link SimulationParameters} of the simulation.
      * @throws IllegalStateException In case this engine is now simulating.
      */
-    public void simulate(final int iterations, double eta, int m, double speedModule) throws IllegalStateException {
+    public void simulate(SimulationParameters parameters) throws IllegalStateException {
         validateState();
+        simulate(parameters, null);
+    }
+
+    /**
+     * Resumes a simulation from the given {@link Checkpoint}, producing exactly the same trajectory
+     * that would have been produced if it was not interrupted
+     * (i.e the seed and the grid size of the checkpoint are used, and the parallelism can be changed).
+     * The observables recorded before the checkpoint are pushed again into the observables sinks
+     * (so they receive the whole time series), while the states sinks receive states after the checkpoint
+     * (i.e the state of its iteration was pushed before it was taken).
+     *
+     * @param parameters The {@link SimulationParameters} of the simulation
+     *                   (the amount of iterations is the total, including those performed before the checkpoint).
+     * @param checkpoint The {@link Checkpoint} from which the simulation is resumed.
+     * @throws IllegalArgumentException If the checkpoint was taken in a simulation with other system parameters,
+     *                                  or with other parameters that change the trajectory,
+     *                                  or if it was taken after the last iteration.
+     * @throws IllegalStateException    In case this engine is now simulating.
+     */
+    public void resume(SimulationParameters parameters, Checkpoint checkpoint)
+            throws IllegalArgumentException, IllegalStateException {
+        validateState();
+        validateCheckpoint(parameters, checkpoint);
+        simulate(parameters, checkpoint);
+    }
+
+    /**
+     * Checks whether a simulation can be resumed from the given {@link Checkpoint} with the given parameters
+     * (i.e used to choose the checkpoint to resume from).
+     *
+     * @param parameters The {@link SimulationParameters} of the simulation.
+     * @param checkpoint The {@link Checkpoint} to be checked.
+     * @return {@code true} if {@link #resume(SimulationParameters, Checkpoint)} accepts the checkpoint,
+     * or {@code false} otherwise.
+     */
+    public boolean canResume(SimulationParameters parameters, Checkpoint checkpoint) {
+        return checkpointProblem(parameters, checkpoint) == null;
+    }
+
+    /**
+     * Performs a simulation, starting from scratch or from the given {@link Checkpoint}.
+     *
+     * @param parameters The {@link SimulationParameters} of the simulation.
+     * @param checkpoint The {@link Checkpoint} from which the simulation is resumed
+     *                   (or {@code null} to start from scratch).
+     */
+    private void simulate(SimulationParameters parameters, Checkpoint checkpoint) {
         this.simulating = true;
-        final Space space = Initializer
-                .generateInitialSpace(this.spaceSideLength, this.amountOfParticles, speedModule);
-        final Updater updater = new Updater(space, interactionRadius, eta, m);
-        this.states.offer(space.saveState());
-        for (int iteration = 0; iteration < iterations; iteration++) {
-            updater.update();
-            states.offer(space.saveState());
+        this.steadyStateAllocatedBytes = -1;
+        final int iterations = parameters.getIterations();
+        final int subCells = parameters.getSubCells();
+        final NeighborsMethod neighborsMethod = parameters.getNeighborsMethod();
+        final int parallelism = parameters.getParallelism();
+        final long seed = checkpoint == null ? parameters.getSeed() : checkpoint.getSeed();
+        final RandomSource random = new CounterBasedRandomSource(seed);
+        final Space space = checkpoint == null ?
+                Initializer.generateInitialSpace(this.spaceWidth, this.spaceHeight, this.amountOfParticles,
+                        parameters.getSpeedModule(), random, parameters.getVelocityRepresentation(),
+                        parameters.getPrecision()) :
+                new Space(this.spaceWidth, this.spaceHeight, checkpoint.getParticles().copy());
+        final ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            final GridSize grid = checkpoint == null ?
+                    chooseGrid(space, parameters, random, pool) : checkpoint.getGrid();
+            final Updater updater = new Updater(space, interactionRadius, parameters, grid, random, pool);
+            LOGGER.info("Using M = {} ({} sub-cells), candidate pairs ratio: {}", grid, subCells,
+                    GridResolution.candidatesRatio(space, interactionRadius, grid, subCells));
+            if (parameters.getOrdering().isSorted() && parameters.getReorderInterval() > 0) {
+                LOGGER.info("Sorting particles along the {} curve every {} iterations",
+                        parameters.getOrdering().getPropertyName(), parameters.getReorderInterval());
+            }
+            if (parameters.getStepMode() != StepMode.REFERENCE) {
+                LOGGER.info("Performing steps in {} mode", parameters.getStepMode().getPropertyName());
+            }
+            if (parameters.getPrecision() != Precision.DOUBLE) {
+                LOGGER.info("Rounding particles' values to {} precision", parameters.getPrecision().getPropertyName());
+            }
+            if (!sinks.isEmpty() && !outputFilter.isNone()) {
+                LOGGER.info("Saving {}", outputFilter);
+            }
+            final Observables observables = new Observables(space, iterations + 1);
+            final ConvergenceCriteria criteria = parameters.getConvergenceCriteria();
+            final ConvergenceMonitor monitor = new ConvergenceMonitor(criteria);
+            this.observables = observables;
+            this.stopReason = StopReason.ITERATIONS;
+            int iteration = 0;
+            long frames = 0;
+            if (checkpoint != null) {
+                iteration = checkpoint.getIteration();
+                frames = checkpoint.getFrames();
+                updater.restore(iteration, checkpoint.getVerletBuilds(), checkpoint.getVerletReferenceX(),
+                        checkpoint.getVerletReferenceY());
+                // Observables are replayed, so sinks get the whole series, and the monitor gets to the same state
+                for (int state = 0; state < iteration; state++) {
+                    observables.restore(checkpoint.getOrderValues()[state], checkpoint.getMeanVelocityX()[state],
+                            checkpoint.getMeanVelocityY()[state]);
+                    emit(observables);
+                    checkSteadyState(monitor, observables, criteria);
+                }
+                LOGGER.info("Resuming simulation from iteration {}", iteration);
+            }
+            final StepAllocations allocations = allocationReport ? new StepAllocations() : null;
+            final OutputFilter.Selector selector = outputFilter.open(space, random);
+            // The state of the iteration of a checkpoint was already pushed before taking it
+            if (checkpoint == null && emit(selector, iteration)) {
+                frames++;
+            }
+            while (iteration < iterations && stopReason != StopReason.STEADY_STATE) {
+                if (allocations != null) {
+                    allocations.start();
+                    updater.update();
+                    allocations.stop();
+                } else {
+                    updater.update();
+                }
+                iteration++;
+                // The updater summed velocities while moving particles (i.e those of the previous state)
+                observables.record(updater.getVelocitySumX(), updater.getVelocitySumY());
+                emit(observables);
+                checkSteadyState(monitor, observables, criteria);
+                // Once steady, the sparse action only pushes one of every few states (and the last one)
+                if (!monitor.isSteady() || criteria.getAction() != ConvergenceAction.SPARSE
+                        || iteration % criteria.getSparseInterval() == 0 || iteration == iterations) {
+                    if (emit(selector, iteration)) {
+                        frames++;
+                    }
+                }
+                if (!checkpointSinks.isEmpty() && checkpointInterval > 0 && iteration % checkpointInterval == 0
+                        && iteration < iterations && stopReason != StopReason.STEADY_STATE) {
+                    // The saved states must be complete before the checkpoint is, so outputs can be cut after them
+                    flushSinks();
+                    emit(checkpoint(parameters, seed, frames, grid, space, updater, observables));
+                }
+            }
+            observables.record(space.getParticleStore()); // The last state is not moved, so a pass is needed
+            emit(observables);
+            LOGGER.info("Simulation stopped after {} iterations, as {}", iteration, stopReason.getDescription());
+            if (allocations != null) {
+                allocations.report();
+                this.steadyStateAllocatedBytes = allocations.getTotalBytes();
+            }
+            if (neighborsMethod == NeighborsMethod.VERLET) {
+                // The amount of builds is restored when resuming, so it covers every iteration up to the last one
+                LOGGER.info("Verlet lists were built {} times in {} iterations",
+                        updater.getAmountOfVerletListBuilds(), iteration);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            this.reusableState = null;
+            this.reusableObservablesState = null;
+            this.simulating = false;
         }
-        this.simulating = false;
     }
 
     /**
-     * Clears this engine
-     * (i.e removes all {@link State}s from the {@link Queue}).
+     * Registers a {@link StateSink} to which the states generated by the following simulations will be pushed.
+     * Note that closing it is responsibility of the caller.
      *
+     * @param sink The {@link StateSink} to be registered.
      * @throws IllegalStateException In case this engine is now simulating.
      */
-    public void clearEngine() throws IllegalStateException {
+    public void registerSink(StateSink<Space.SpaceState> sink) throws IllegalStateException {
+        validateState();
+        this.sinks.add(sink);
+    }
+
+    /**
+     * Registers a {@link StateSink} to which the observables of each state of the following simulations
+     * will be pushed (i.e particles' states are not needed to receive them).
+     * Note that closing it is responsibility of the caller.
+     *
+     * @param sink The {@link StateSink} to be registered.
+     * @throws IllegalStateException In case this engine is now simulating.
+     */
+    public void registerObservablesSink(StateSink<Observables.ObservablesState> sink) throws IllegalStateException {
+        validateState();
+        this.observablesSinks.add(sink);
+    }
+
+    /**
+     * Registers a {@link StateSink} to which the checkpoints taken in the following simulations will be pushed.
+     * Note that closing it is responsibility of the caller.
+     *
+     * @param sink The {@link StateSink} to be registered.
+     * @throws IllegalStateException In case this engine is now simulating.
+     * @see #setCheckpointInterval(int)
+     */
+    public void registerCheckpointSink(StateSink<Checkpoint> sink) throws IllegalStateException {
+        validateState();
+        this.checkpointSinks.add(sink);
+    }
+
+    /**
+     * Sets every how many iterations a {@link Checkpoint} is taken in the following simulations
+     * (they are only taken if there are checkpoint sinks).
+     *
+     * @param checkpointInterval Every how many iterations a checkpoint is taken
+     *                           (0 means checkpoints are not taken).
+     * @throws IllegalArgumentException If the interval is negative.
+     * @throws IllegalStateException    In case this engine is now simulating.
+     */
+    public void setCheckpointInterval(int checkpointInterval) throws IllegalArgumentException, IllegalStateException {
+        validateState();
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("The checkpoint interval must not be negative");
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Sets the {@link OutputFilter} applied to the states pushed into the sinks in the following simulations
+     * (observables and checkpoints are not filtered).
+     *
+     * @param outputFilter The {@link OutputFilter} to be applied ({@link OutputFilter#NONE} to push all states).
+     * @throws IllegalArgumentException If the filter is {@code null}.
+     * @throws IllegalStateException    In case this engine is now simulating.
+     */
+    public void setOutputFilter(OutputFilter outputFilter) throws IllegalArgumentException, IllegalStateException {
+        validateState();
+        if (outputFilter == null) {
+            throw new IllegalArgumentException("The output filter must not be null");
+        }
+        this.outputFilter = outputFilter;
+    }
+
+    /**
+     * Sets whether the bytes allocated by each step of the following simulations are counted and reported
+     * (i.e those allocated by the thread performing the simulation while updating the space;
+     * allocations of the threads of a parallel update are not counted).
+     *
+     * @param allocationReport {@code true} to count allocations, or {@code false} otherwise.
+     * @throws IllegalStateException In case this engine is now simulating,
+     *                               or if allocations can not be counted in this JVM.
+     */
+    public void setAllocationReport(boolean allocationReport) throws IllegalStateException {
         validateState();
-        this.states.clear();
+        if (allocationReport && !new AllocationCounter().isSupported()) {
+            throw new IllegalStateException("Counting allocated bytes is not supported by this JVM");
+        }
+        this.allocationReport = allocationReport;
+    }
+
+    /**
+     * @return The bytes allocated by the steps of the last simulation, after the first
+     * {@value StepAllocations#WARM_UP_STEPS} (i.e once buffers reached their final size),
+     * or -1 if allocations were not counted.
+     */
+    public long getSteadyStateAllocatedBytes() {
+        return steadyStateAllocatedBytes;
     }
 
     /**
-     * Gets the states gotten from a simulation.
+     * Removes all the registered {@link StateSink}s.
      *
-     * @return A {@link Queue} with the states gotten in the simulation.
      * @throws IllegalStateException In case this engine is now simulating.
      */
-    public Queue<Space.SpaceState> getStates() throws IllegalStateException {
+    public void clearSinks() throws IllegalStateException {
+        validateState();
+        this.sinks.clear();
+        this.observablesSinks.clear();
+        this.checkpointSinks.clear();
+    }
+
+    /**
+     * @return The {@link Observables} recorded in the last simulation
+     * (i.e the time series of the order value and other observables),
+     * or {@code null} if no simulation was performed.
+     * @throws IllegalStateException In case this engine is now simulating.
+     */
+    public Observables getObservables() throws IllegalStateException {
         validateState();
-        return new LinkedList<>(states);
+        return observables;
+    }
+
+    /**
+     * @return The {@link StopReason} of the last simulation, or {@code null} if no simulation was performed.
+     * @throws IllegalStateException In case this engine is now simulating.
+     */
+    public StopReason getStopReason() throws IllegalStateException {
+        validateState();
+        return stopReason;
+    }
+
+    /**
+     * Chooses the {@link GridSize} to be used by the cell index method.
+     *
+     * @param space      The {@link Space} to be simulated.
+     * @param parameters The {@link SimulationParameters} of the simulation (i.e holding the {@link GridSize}
+     *                   given by the user, or {@link GridSize#AUTOMATIC}, and whether it must be autotuned).
+     * @param random     The {@link RandomSource} from which noise is taken.
+     * @param pool       The {@link ForkJoinPool} used to perform updates in parallel, or {@code null}.
+     * @return The {@link GridSize} to be used.
+     */
+    private GridSize chooseGrid(Space space, SimulationParameters parameters, RandomSource random,
+                                ForkJoinPool pool) {
+        final GridSize grid = parameters.getGrid();
+        final boolean autotune = parameters.isAutotune();
+        if (!grid.isAutomatic()) {
+            if (autotune) {
+                LOGGER.warn("Autotuning is ignored, as M was set to {}", grid);
+            }
+            return grid;
+        }
+        if (autotune) {
+            LOGGER.info("Autotuning M...");
+            return GridResolution.autotune(space, interactionRadius, parameters, random, pool);
+        }
+        return GridResolution.optimal(spaceWidth, spaceHeight, GridResolution.searchRadius(interactionRadius,
+                parameters.getVerletSkin(), parameters.getNeighborsMethod()), amountOfParticles,
+                parameters.getSubCells());
+    }
+
+    /**
+     * Feeds the last recorded order value into the given {@link ConvergenceMonitor},
+     * marking the steady state when it is detected (and setting the stop reason if the simulation must stop).
+     *
+     * @param monitor     The {@link ConvergenceMonitor}.
+     * @param observables The {@link Observables} holding the order values.
+     * @param criteria    The {@link ConvergenceCriteria} used by the monitor.
+     */
+    private void checkSteadyState(ConvergenceMonitor monitor, Observables observables,
+                                  ConvergenceCriteria criteria) {
+        final int state = observables.getAmountOfStates() - 1;
+        if (monitor.accept(observables.getOrderValue(state))) {
+            observables.setSteadyState(monitor.getSteadyState());
+            LOGGER.info("Steady state detected in iteration {} (it starts in state {})",
+                    state + 1, monitor.getSteadyState());
+            if (criteria.getAction() == ConvergenceAction.STOP) {
+                this.stopReason = StopReason.STEADY_STATE;
+            }
+        }
+    }
+
+    /**
+     * Takes a {@link Checkpoint} of the actual state of the simulation.
+     *
+     * @param parameters  The {@link SimulationParameters} of the simulation.
+     * @param seed        The seed from which all random values are generated.
+     * @param frames      The amount of states pushed into the state sinks so far.
+     * @param grid        The {@link GridSize} used by cell index method.
+     * @param space       The simulated {@link Space}.
+     * @param updater     The {@link Updater} updating the space.
+     * @param observables The {@link Observables} recorded so far.
+     * @return The checkpoint.
+     */
+    private Checkpoint checkpoint(SimulationParameters parameters, long seed, long frames, GridSize grid,
+                                  Space space, Updater updater, Observables observables) {
+        double[] referenceX = new double[space.getAmountOfParticles()];
+        double[] referenceY = new double[space.getAmountOfParticles()];
+        if (!updater.copyVerletReferences(referenceX, referenceY)) {
+            referenceX = null;
+            referenceY = null;
+        }
+        return new Checkpoint((int) updater.getStep(), frames, seed, grid, spaceWidth, spaceHeight, interactionRadius,
+                parameters.getEta(), parameters.getNeighborsMethod(), parameters.getSubCells(),
+                parameters.getVerletSkin(), parameters.getOrdering(), parameters.getReorderInterval(),
+                space.getParticleStore().copy(), updater.getAmountOfVerletListBuilds(), referenceX, referenceY,
+                observables.getOrderValues(), observables.getMeanVelocityXValues(),
+                observables.getMeanVelocityYValues());
+    }
+
+    /**
+     * Checks that a simulation can be resumed from the given {@link Checkpoint} with the given parameters
+     * (i.e it was taken in a simulation of the same system, with the same parameters that define the trajectory).
+     *
+     * @param parameters The {@link SimulationParameters} of the simulation.
+     * @param checkpoint The {@link Checkpoint} to be validated.
+     * @throws IllegalArgumentException If the simulation can not be resumed from the checkpoint.
+     */
+    private void validateCheckpoint(SimulationParameters parameters, Checkpoint checkpoint)
+            throws IllegalArgumentException {
+        final String problem = checkpointProblem(parameters, checkpoint);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    /**
+     * Describes why a simulation can not be resumed from the given {@link Checkpoint} with the given parameters.
+     *
+     * @param parameters The {@link SimulationParameters} of the simulation.
+     * @param checkpoint The {@link Checkpoint} to be checked.
+     * @return The description of the problem, or {@code null} if the simulation can be resumed from the checkpoint.
+     */
+    private String checkpointProblem(SimulationParameters parameters, Checkpoint checkpoint) {
+        final ParticleStore particles = checkpoint.getParticles();
+        if (particles.getAmountOfParticles() != amountOfParticles
+                || Double.compare(checkpoint.getSpaceWidth(), spaceWidth) != 0
+                || Double.compare(checkpoint.getSpaceHeight(), spaceHeight) != 0
+                || Double.compare(checkpoint.getInteractionRadius(), interactionRadius) != 0) {
+            return "The checkpoint was taken in a simulation of another system";
+        }
+        if (Double.compare(checkpoint.getEta(), parameters.getEta()) != 0
+                || checkpoint.getNeighborsMethod() != parameters.getNeighborsMethod()
+                || checkpoint.getSubCells() != parameters.getSubCells()
+                || Double.compare(checkpoint.getVerletSkin(), parameters.getVerletSkin()) != 0
+                || checkpoint.getOrdering() != parameters.getOrdering()
+                || (parameters.getOrdering().isSorted()
+                && checkpoint.getReorderInterval() != parameters.getReorderInterval())
+                || particles.getRepresentation() != parameters.getVelocityRepresentation()
+                || particles.getPrecision() != parameters.getPrecision()
+                || (amountOfParticles > 0 && Double.compare(particles.getSpeedModule(0),
+                parameters.getPrecision().round(parameters.getSpeedModule())) != 0)) {
+            return "The checkpoint was taken in a simulation with other parameters";
+        }
+        if (checkpoint.getIteration() > parameters.getIterations()) {
+            return "The checkpoint was taken after the last iteration";
+        }
+        return null;
+    }
+
+    /**
+     * Pushes the given {@link Checkpoint} into all the registered checkpoint {@link StateSink}s.
+     *
+     * @param checkpoint The {@link Checkpoint} to be pushed.
+     */
+    private void emit(Checkpoint checkpoint) {
+        LOGGER.debug("Taking checkpoint in iteration {}", checkpoint.getIteration());
+        for (StateSink<Checkpoint> sink : checkpointSinks) {
+            sink.accept(checkpoint);
+        }
+    }
+
+    /**
+     * Pushes the actual state of the simulated space into all the registered {@link StateSink}s,
+     * if the given {@code frame} is selected by the {@link OutputFilter} (keeping only its selected particles).
+     * The state is only saved if there are sinks, reusing the same {@link Space.SpaceState} each time.
+     *
+     * @param selector The {@link OutputFilter.Selector} applying the output filter to the simulated space.
+     * @param frame    The number of frame (i.e the actual iteration).
+     * @return {@code true} if the state was pushed, or {@code false} otherwise.
+     */
+    private boolean emit(OutputFilter.Selector selector, int frame) {
+        if (sinks.isEmpty() || !selector.accepts(frame)) {
+            return false;
+        }
+        final Space.SpaceState state = selector.select().saveState(reusableState);
+        this.reusableState = state;
+        for (StateSink<Space.SpaceState> sink : sinks) {
+            sink.accept(state);
+        }
+        return true;
+    }
+
+    /**
+     * Flushes all the registered state {@link StateSink}s (i.e before taking a checkpoint).
+     */
+    private void flushSinks() {
+        for (StateSink<Space.SpaceState> sink : sinks) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Pushes the observables of the last state recorded by the given {@link Observables}
+     * into all the registered {@link StateSink}s, reusing the same {@link Observables.ObservablesState} each time.
+     *
+     * @param observables The {@link Observables} whose last state must be pushed.
+     */
+    private void emit(Observables observables) {
+        if (observablesSinks.isEmpty()) {
+            return;
+        }
+        final Observables.ObservablesState state = observables.saveState(reusableObservablesState);
+        this.reusableObservablesState = state;
+        for (StateSink<Observables.ObservablesState> sink : observablesSinks) {
+            sink.accept(state);
+        }
     }
 
     /**
@@ -0,0 +1,477 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+
+/**
+ * Immutable bean class holding the parameters of a simulation performed by a {@link SimulationEngine}
+ * (i.e those that are not part of the system, as the engine is created for a given system).
+ * Copies with some parameters changed can be created with the {@code with} methods
+ * (e.g used to perform a sweep of simulations).
+ */
+public final class SimulationParameters {
+
+    /**
+     * The amount of iterations to be performed in the simulation.
+     */
+    private final int iterations;
+
+    /**
+     * The 'eta' value, used for calculating noise for updating angles.
+     */
+    private final double eta;
+
+    /**
+     * The {@link GridSize} used by cell index method (or {@link GridSize#AUTOMATIC} to choose it automatically).
+     */
+    private final GridSize grid;
+
+    /**
+     * The amount of sub-cells in which the interaction radius is divided.
+     */
+    private final int subCells;
+
+    /**
+     * Indicates whether the grid size must be chosen by timing a few steps.
+     */
+    private final boolean autotune;
+
+    /**
+     * The speed module used in the simulation.
+     */
+    private final double speedModule;
+
+    /**
+     * The {@link NeighborsMethod} used to get the particles' neighbors.
+     */
+    private final NeighborsMethod neighborsMethod;
+
+    /**
+     * The skin radius used to build Verlet lists.
+     */
+    private final double verletSkin;
+
+    /**
+     * The amount of threads used to update the space.
+     */
+    private final int parallelism;
+
+    /**
+     * The seed from which all random values are generated.
+     */
+    private final long seed;
+
+    /**
+     * The {@link VelocityRepresentation} used to store the particles' velocities.
+     */
+    private final VelocityRepresentation velocityRepresentation;
+
+    /**
+     * The {@link ConvergenceCriteria} used to detect the steady state.
+     */
+    private final ConvergenceCriteria convergenceCriteria;
+
+    /**
+     * The {@link ParticleOrdering} used to periodically sort the particles.
+     */
+    private final ParticleOrdering ordering;
+
+    /**
+     * Every how many iterations particles are sorted (0 means they are never sorted).
+     */
+    private final int reorderInterval;
+
+    /**
+     * The {@link StepMode} used to perform each step.
+     */
+    private final StepMode stepMode;
+
+    /**
+     * The {@link Precision} with which the particles' values are kept
+     * (i.e {@link Precision#FLOAT} is only emulated, in order to validate it).
+     */
+    private final Precision precision;
+
+
+    /**
+     * Constructor, using the {@link ConvergenceCriteria#DEFAULT} criteria (i.e the steady state is only reported).
+     *
+     * @param iterations             The amount of iterations to be performed in the simulation.
+     * @param eta                    The 'eta' value, used for calculating noise for updating angles.
+     * @param grid                   The {@link GridSize} used by cell index method
+     *                               (or {@link GridSize#AUTOMATIC} to choose it automatically).
+     * @param subCells               The amount of sub-cells in which the interaction radius is divided
+     *                               (i.e 1 for the classic Cell Index Method).
+     * @param autotune               Indicates whether the grid size must be chosen by timing a few steps
+     *                               (only used when it is chosen automatically).
+     * @param speedModule            The speed module used in the simulation.
+     * @param neighborsMethod        The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @param verletSkin             The skin radius used to build Verlet lists
+     *                               (i.e only used by the {@link NeighborsMethod#VERLET} method).
+     * @param parallelism            The amount of threads used to update the space (1 means updating serially).
+     * @param seed                   The seed from which all random values are generated
+     *                               (i.e the same seed gives the same trajectory, regardless of the parallelism).
+     * @param velocityRepresentation The {@link VelocityRepresentation} used to store the particles' velocities.
+     * @throws IllegalArgumentException If the grid size is {@code null}, the amount of iterations is negative,
+     *                                  the amount of sub-cells or the parallelism are not positive,
+     *                                  or the Verlet skin radius is negative.
+     */
+    public SimulationParameters(int iterations, double eta, GridSize grid, int subCells, boolean autotune,
+                                double speedModule, NeighborsMethod neighborsMethod, double verletSkin,
+                                int parallelism, long seed, VelocityRepresentation velocityRepresentation)
+            throws IllegalArgumentException {
+        this(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod, verletSkin, parallelism, seed,
+                velocityRepresentation, ConvergenceCriteria.DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param iterations             The amount of iterations to be performed in the simulation.
+     * @param eta                    The 'eta' value, used for calculating noise for updating angles.
+     * @param grid                   The {@link GridSize} used by cell index method
+     *                               (or {@link GridSize#AUTOMATIC} to choose it automatically).
+     * @param subCells               The amount of sub-cells in which the interaction radius is divided
+     *                               (i.e 1 for the classic Cell Index Method).
+     * @param autotune               Indicates whether the grid size must be chosen by timing a few steps
+     *                               (only used when it is chosen automatically).
+     * @param speedModule            The speed module used in the simulation.
+     * @param neighborsMethod        The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @param verletSkin             The skin radius used to build Verlet lists
+     *                               (i.e only used by the {@link NeighborsMethod#VERLET} method).
+     * @param parallelism            The amount of threads used to update the space (1 means updating serially).
+     * @param seed                   The seed from which all random values are generated
+     *                               (i.e the same seed gives the same trajectory, regardless of the parallelism).
+     * @param velocityRepresentation The {@link VelocityRepresentation} used to store the particles' velocities.
+     * @param convergenceCriteria    The {@link ConvergenceCriteria} used to detect the steady state.
+     * @throws IllegalArgumentException If the grid size is {@code null}, the amount of iterations is negative,
+     *                                  the amount of sub-cells or the parallelism are not positive,
+     *                                  or the Verlet skin radius is negative.
+     */
+    public SimulationParameters(int iterations, double eta, GridSize grid, int subCells, boolean autotune,
+                                double speedModule, NeighborsMethod neighborsMethod, double verletSkin,
+                                int parallelism, long seed, VelocityRepresentation velocityRepresentation,
+                                ConvergenceCriteria convergenceCriteria)
+            throws IllegalArgumentException {
+        this(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod, verletSkin, parallelism, seed,
+                velocityRepresentation, convergenceCriteria, ParticleOrdering.NONE, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param iterations             The amount of iterations to be performed in the simulation.
+     * @param eta                    The 'eta' value, used for calculating noise for updating angles.
+     * @param grid                   The {@link GridSize} used by cell index method
+     *                               (or {@link GridSize#AUTOMATIC} to choose it automatically).
+     * @param subCells               The amount of sub-cells in which the interaction radius is divided
+     *                               (i.e 1 for the classic Cell Index Method).
+     * @param autotune               Indicates whether the grid size must be chosen by timing a few steps
+     *                               (only used when it is chosen automatically).
+     * @param speedModule            The speed module used in the simulation.
+     * @param neighborsMethod        The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @param verletSkin             The skin radius used to build Verlet lists
+     *                               (i.e only used by the {@link NeighborsMethod#VERLET} method).
+     * @param parallelism            The amount of threads used to update the space (1 means updating serially).
+     * @param seed                   The seed from which all random values are generated
+     *                               (i.e the same seed gives the same trajectory, regardless of the parallelism).
+     * @param velocityRepresentation The {@link VelocityRepresentation} used to store the particles' velocities.
+     * @param convergenceCriteria    The {@link ConvergenceCriteria} used to detect the steady state.
+     * @param ordering               The {@link ParticleOrdering} used to periodically sort the particles.
+     * @param reorderInterval        Every how many iterations particles are sorted (0 means they are never sorted).
+     * @throws IllegalArgumentException If the grid size or the ordering are {@code null},
+     *                                  the amount of iterations or the reorder interval are negative,
+     *                                  the amount of sub-cells or the parallelism are not positive,
+     *                                  or the Verlet skin radius is negative.
+     */
+    public SimulationParameters(int iterations, double eta, GridSize grid, int subCells, boolean autotune,
+                                double speedModule, NeighborsMethod neighborsMethod, double verletSkin,
+                                int parallelism, long seed, VelocityRepresentation velocityRepresentation,
+                                ConvergenceCriteria convergenceCriteria, ParticleOrdering ordering,
+                                int reorderInterval)
+            throws IllegalArgumentException {
+        this(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod, verletSkin, parallelism, seed,
+                velocityRepresentation, convergenceCriteria, ordering, reorderInterval, StepMode.REFERENCE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param iterations             The amount of iterations to be performed in the simulation.
+     * @param eta                    The 'eta' value, used for calculating noise for updating angles.
+     * @param grid                   The {@link GridSize} used by cell index method
+     *                               (or {@link GridSize#AUTOMATIC} to choose it automatically).
+     * @param subCells               The amount of sub-cells in which the interaction radius is divided
+     *                               (i.e 1 for the classic Cell Index Method).
+     * @param autotune               Indicates whether the grid size must be chosen by timing a few steps
+     *                               (only used when it is chosen automatically).
+     * @param speedModule            The speed module used in the simulation.
+     * @param neighborsMethod        The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @param verletSkin             The skin radius used to build Verlet lists
+     *                               (i.e only used by the {@link NeighborsMethod#VERLET} method).
+     * @param parallelism            The amount of threads used to update the space (1 means updating serially).
+     * @param seed                   The seed from which all random values are generated
+     *                               (i.e the same seed gives the same trajectory, regardless of the parallelism).
+     * @param velocityRepresentation The {@link VelocityRepresentation} used to store the particles' velocities.
+     * @param convergenceCriteria    The {@link ConvergenceCriteria} used to detect the steady state.
+     * @param ordering               The {@link ParticleOrdering} used to periodically sort the particles.
+     * @param reorderInterval        Every how many iterations particles are sorted (0 means they are never sorted).
+     * @param stepMode               The {@link StepMode} used to perform each step.
+     * @throws IllegalArgumentException If the grid size, the ordering or the step mode are {@code null},
+     *                                  the amount of iterations or the reorder interval are negative,
+     *                                  the amount of sub-cells or the parallelism are not positive,
+     *                                  or the Verlet skin radius is negative.
+     */
+    public SimulationParameters(int iterations, double eta, GridSize grid, int subCells, boolean autotune,
+                                double speedModule, NeighborsMethod neighborsMethod, double verletSkin,
+                                int parallelism, long seed, VelocityRepresentation velocityRepresentation,
+                                ConvergenceCriteria convergenceCriteria, ParticleOrdering ordering,
+                                int reorderInterval, StepMode stepMode)
+            throws IllegalArgumentException {
+        this(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod, verletSkin, parallelism, seed,
+                velocityRepresentation, convergenceCriteria, ordering, reorderInterval, stepMode, Precision.DOUBLE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param iterations             The amount of iterations to be performed in the simulation.
+     * @param eta                    The 'eta' value, used for calculating noise for updating angles.
+     * @param grid                   The {@link GridSize} used by cell index method
+     *                               (or {@link GridSize#AUTOMATIC} to choose it automatically).
+     * @param subCells               The amount of sub-cells in which the interaction radius is divided
+     *                               (i.e 1 for the classic Cell Index Method).
+     * @param autotune               Indicates whether the grid size must be chosen by timing a few steps
+     *                               (only used when it is chosen automatically).
+     * @param speedModule            The speed module used in the simulation.
+     * @param neighborsMethod        The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @param verletSkin             The skin radius used to build Verlet lists
+     *                               (i.e only used by the {@link NeighborsMethod#VERLET} method).
+     * @param parallelism            The amount of threads used to update the space (1 means updating serially).
+     * @param seed                   The seed from which all random values are generated
+     *                               (i.e the same seed gives the same trajectory, regardless of the parallelism).
+     * @param velocityRepresentation The {@link VelocityRepresentation} used to store the particles' velocities.
+     * @param convergenceCriteria    The {@link ConvergenceCriteria} used to detect the steady state.
+     * @param ordering               The {@link ParticleOrdering} used to periodically sort the particles.
+     * @param reorderInterval        Every how many iterations particles are sorted (0 means they are never sorted).
+     * @param stepMode               The {@link StepMode} used to perform each step.
+     * @param precision              The {@link Precision} with which the particles' values are kept
+     *                               (i.e {@link Precision#FLOAT} is only emulated, in order to validate it).
+     * @throws IllegalArgumentException If the grid size, the ordering, the step mode or the precision are
+     *                                  {@code null}, the amount of iterations or the reorder interval are negative,
+     *                                  the amount of sub-cells or the parallelism are not positive,
+     *                                  or the Verlet skin radius is negative.
+     */
+    public SimulationParameters(int iterations, double eta, GridSize grid, int subCells, boolean autotune,
+                                double speedModule, NeighborsMethod neighborsMethod, double verletSkin,
+                                int parallelism, long seed, VelocityRepresentation velocityRepresentation,
+                                ConvergenceCriteria convergenceCriteria, ParticleOrdering ordering,
+                                int reorderInterval, StepMode stepMode, Precision precision)
+            throws IllegalArgumentException {
+        if (precision == null) {
+            throw new IllegalArgumentException("The precision must not be null");
+        }
+        if (stepMode == null) {
+            throw new IllegalArgumentException("The step mode must not be null");
+        }
+        if (ordering == null) {
+            throw new IllegalArgumentException("The particle ordering must not be null");
+        }
+        if (reorderInterval < 0) {
+            throw new IllegalArgumentException("The reorder interval must not be negative");
+        }
+        if (grid == null) {
+            throw new IllegalArgumentException("The grid size must not be null");
+        }
+        if (iterations < 0) {
+            throw new IllegalArgumentException("The amount of iterations must not be negative");
+        }
+        if (subCells <= 0) {
+            throw new IllegalArgumentException("The amount of sub-cells must be positive");
+        }
+        if (Double.compare(verletSkin, 0) < 0) {
+            throw new IllegalArgumentException("The Verlet skin radius must not be negative");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism must be positive");
+        }
+        this.iterations = iterations;
+        this.eta = eta;
+        this.grid = grid;
+        this.subCells = subCells;
+        this.autotune = autotune;
+        this.speedModule = speedModule;
+        this.neighborsMethod = neighborsMethod;
+        this.verletSkin = verletSkin;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.velocityRepresentation = velocityRepresentation;
+        this.convergenceCriteria = convergenceCriteria;
+        this.ordering = ordering;
+        this.reorderInterval = reorderInterval;
+        this.stepMode = stepMode;
+        this.precision = precision;
+    }
+
+    /**
+     * @param eta The new 'eta' value.
+     * @return A copy of these parameters, with the given {@code eta} value.
+     */
+    public SimulationParameters withEta(double eta) {
+        return new SimulationParameters(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod,
+                verletSkin, parallelism, seed, velocityRepresentation, convergenceCriteria, ordering, reorderInterval,
+                stepMode, precision);
+    }
+
+    /**
+     * @param parallelism The new amount of threads used to update the space.
+     * @return A copy of these parameters, with the given {@code parallelism}.
+     */
+    public SimulationParameters withParallelism(int parallelism) {
+        return new SimulationParameters(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod,
+                verletSkin, parallelism, seed, velocityRepresentation, convergenceCriteria, ordering, reorderInterval,
+                stepMode, precision);
+    }
+
+    /**
+     * @param seed The new seed.
+     * @return A copy of these parameters, with the given {@code seed}.
+     */
+    public SimulationParameters withSeed(long seed) {
+        return new SimulationParameters(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod,
+                verletSkin, parallelism, seed, velocityRepresentation, convergenceCriteria, ordering, reorderInterval,
+                stepMode, precision);
+    }
+
+    /**
+     * @param convergenceCriteria The new {@link ConvergenceCriteria}.
+     * @return A copy of these parameters, with the given {@code convergenceCriteria}.
+     */
+    public SimulationParameters withConvergenceCriteria(ConvergenceCriteria convergenceCriteria) {
+        return new SimulationParameters(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod,
+                verletSkin, parallelism, seed, velocityRepresentation, convergenceCriteria, ordering, reorderInterval,
+                stepMode, precision);
+    }
+
+    /**
+     * @param precision The new {@link Precision}.
+     * @return A copy of these parameters, with the given {@code precision}.
+     */
+    public SimulationParameters withPrecision(Precision precision) {
+        return new SimulationParameters(iterations, eta, grid, subCells, autotune, speedModule, neighborsMethod,
+                verletSkin, parallelism, seed, velocityRepresentation, convergenceCriteria, ordering, reorderInterval,
+                stepMode, precision);
+    }
+
+    /**
+     * @return The amount of iterations to be performed in the simulation.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return The 'eta' value, used for calculating noise for updating angles.
+     */
+    public double getEta() {
+        return eta;
+    }
+
+    /**
+     * @return The {@link GridSize} used by cell index method (or {@link GridSize#AUTOMATIC}).
+     */
+    public GridSize getGrid() {
+        return grid;
+    }
+
+    /**
+     * @return The amount of sub-cells in which the interaction radius is divided.
+     */
+    public int getSubCells() {
+        return subCells;
+    }
+
+    /**
+     * @return Indicates whether the grid size must be chosen by timing a few steps.
+     */
+    public boolean isAutotune() {
+        return autotune;
+    }
+
+    /**
+     * @return The speed module used in the simulation.
+     */
+    public double getSpeedModule() {
+        return speedModule;
+    }
+
+    /**
+     * @return The {@link NeighborsMethod} used to get the particles' neighbors.
+     */
+    public NeighborsMethod getNeighborsMethod() {
+        return neighborsMethod;
+    }
+
+    /**
+     * @return The skin radius used to build Verlet lists.
+     */
+    public double getVerletSkin() {
+        return verletSkin;
+    }
+
+    /**
+     * @return The amount of threads used to update the space.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return The seed from which all random values are generated.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The {@link VelocityRepresentation} used to store the particles' velocities.
+     */
+    public VelocityRepresentation getVelocityRepresentation() {
+        return velocityRepresentation;
+    }
+
+    /**
+     * @return The {@link ConvergenceCriteria} used to detect the steady state.
+     */
+    public ConvergenceCriteria getConvergenceCriteria() {
+        return convergenceCriteria;
+    }
+
+    /**
+     * @return The {@link ParticleOrdering} used to periodically sort the particles.
+     */
+    public ParticleOrdering getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * @return Every how many iterations particles are sorted (0 means they are never sorted).
+     */
+    public int getReorderInterval() {
+        return reorderInterval;
+    }
+
+    /**
+     * @return The {@link StepMode} used to perform each step.
+     */
+    public StepMode getStepMode() {
+        return stepMode;
+    }
+
+    /**
+     * @return The {@link Precision} with which the particles' values are kept.
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+}
@@ -0,0 +1,32 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+/**
+ * Defines behaviour for an object that receives the states of a simulation as they are generated
+ * (i.e states are pushed into it one by one, instead of being buffered until the simulation ends).
+ *
+ * @param <S> A concrete subtype of {@link State}.
+ */
+public interface StateSink<S extends State> {
+
+    /**
+     * Receives a new state.
+     *
+     * @param state The new state.
+     * @implNote The given state must not be retained once this method returns,
+     * as it might be reused by the producer in order to avoid allocating a new one each time.
+     */
+    void accept(S state);
+
+    /**
+     * Makes sure that the states received so far are completely saved (i.e they would survive the process),
+     * as the producer is taking a checkpoint from which it might be resumed.
+     * By default, nothing is done (i.e for sinks that do not buffer states).
+     */
+    default void flush() {
+    }
+
+    /**
+     * Notifies this sink that no more states will be received, releasing any resource it holds.
+     */
+    void close();
+}
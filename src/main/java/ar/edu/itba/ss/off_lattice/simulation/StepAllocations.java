@@ -0,0 +1,103 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.utils.AllocationCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Object in charge of counting the bytes allocated by each step of a simulation
+ * (i.e by the thread performing it, using an {@link AllocationCounter}).
+ * The first {@link #WARM_UP_STEPS} steps are not taken into account in the totals,
+ * as they lazily fill caches and grow buffers to their final size.
+ */
+/* package */ final class StepAllocations {
+
+    /**
+     * The {@link Logger} object.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(StepAllocations.class);
+
+    /**
+     * The amount of steps that are not taken into account (i.e until buffers reach their final size).
+     */
+    /* package */ static final int WARM_UP_STEPS = 10;
+
+    /**
+     * The {@link AllocationCounter} used to count the allocated bytes.
+     */
+    private final AllocationCounter counter;
+
+    /**
+     * The amount of measured steps (including those of the warm up).
+     */
+    private long steps;
+
+    /**
+     * The bytes allocated by the steps after the warm up.
+     */
+    private long totalBytes;
+
+    /**
+     * The maximum amount of bytes allocated by a single step after the warm up.
+     */
+    private long maximumBytes;
+
+    /**
+     * The amount of steps after the warm up that allocated any byte.
+     */
+    private long allocatingSteps;
+
+
+    /**
+     * Constructor, counting the allocations of the current thread.
+     *
+     * @throws IllegalStateException If allocations can not be counted in this JVM.
+     */
+    /* package */ StepAllocations() throws IllegalStateException {
+        this.counter = new AllocationCounter();
+        if (!counter.isSupported()) {
+            throw new IllegalStateException("Counting allocated bytes is not supported by this JVM");
+        }
+    }
+
+    /**
+     * Starts measuring a step (must be called by the thread that created this object).
+     */
+    /* package */ void start() {
+        counter.start();
+    }
+
+    /**
+     * Finishes measuring a step (must be called by the thread that created this object).
+     */
+    /* package */ void stop() {
+        final long bytes = counter.stop();
+        steps++;
+        LOGGER.debug("Step {} allocated {} bytes", steps, bytes);
+        if (steps <= WARM_UP_STEPS) {
+            return;
+        }
+        totalBytes += bytes;
+        maximumBytes = Math.max(maximumBytes, bytes);
+        if (bytes > 0) {
+            allocatingSteps++;
+        }
+    }
+
+    /**
+     * Logs the counted allocations.
+     */
+    /* package */ void report() {
+        final long measured = Math.max(0, steps - WARM_UP_STEPS);
+        LOGGER.info("Steps allocated {} bytes on average after the first {} ({} of {} steps allocated, "
+                        + "at most {} bytes)", measured == 0 ? 0 : totalBytes / measured, WARM_UP_STEPS,
+                allocatingSteps, measured, maximumBytes);
+    }
+
+    /**
+     * @return The bytes allocated by the steps after the warm up.
+     */
+    /* package */ long getTotalBytes() {
+        return totalBytes;
+    }
+}
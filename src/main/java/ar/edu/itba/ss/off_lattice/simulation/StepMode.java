@@ -0,0 +1,62 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum holding the different ways in which the {@link Updater} can perform a step.
+ * All of them give exactly the same results for the same seed.
+ */
+public enum StepMode {
+
+    /**
+     * Performs each phase of a step in its own pass (i.e moves the particles, bins them,
+     * computes their neighborhoods, and then updates their angles).
+     */
+    REFERENCE("reference"),
+
+    /**
+     * Performs a step with the {@link FusedUpdater} (i.e particles are binned in the same pass in which they are moved,
+     * and their angles are updated in the same pass in which their neighbors are found, without building lists).
+     * Only supported by the {@link NeighborsMethod#CELL_LIST} method.
+     */
+    FUSED("fused");
+
+    /**
+     * The name used to select this mode from properties.
+     */
+    private final String propertyName;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name used to select this mode from properties.
+     */
+    StepMode(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return The name used to select this mode from properties.
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the {@link StepMode} whose property name is the given {@code name}.
+     *
+     * @param name The property name of the mode.
+     * @return The corresponding {@link StepMode}.
+     * @throws IllegalArgumentException In case there is no mode with the given {@code name}.
+     */
+    public static StepMode fromPropertyName(String name) throws IllegalArgumentException {
+        return Arrays.stream(values())
+                .filter(mode -> mode.propertyName.equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown step mode: " + name + ". " +
+                        "Possible values are: " + Arrays.stream(values())
+                        .map(StepMode::getPropertyName)
+                        .collect(Collectors.joining(", ")) + "."));
+    }
+}
@@ -0,0 +1,38 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+/**
+ * Enum holding the reasons why a simulation can stop.
+ */
+public enum StopReason {
+
+    /**
+     * All the iterations were performed.
+     */
+    ITERATIONS("all iterations were performed"),
+
+    /**
+     * A steady state was detected, and the {@link ConvergenceAction#STOP} action was set.
+     */
+    STEADY_STATE("a steady state was reached");
+
+    /**
+     * A description of the reason.
+     */
+    private final String description;
+
+    /**
+     * Constructor.
+     *
+     * @param description A description of the reason.
+     */
+    StopReason(String description) {
+        this.description = description;
+    }
+
+    /**
+     * @return A description of the reason.
+     */
+    public String getDescription() {
+        return description;
+    }
+}
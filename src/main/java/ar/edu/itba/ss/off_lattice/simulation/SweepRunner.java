@@ -0,0 +1,305 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.utils.CounterBasedRandomSource;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Object in charge of performing a sweep of simulations (i.e several replicas of a simulation for each point
+ * of a grid of parameters) in a single process.
+ * Each run is performed by its own {@link SimulationEngine}, and runs are executed concurrently in a pool of threads
+ * (each run is serial, as running several of them at once scales better than parallelizing each of them).
+ * Results are pushed into a {@link StateSink} by the calling thread, as runs finish.
+ */
+public final class SweepRunner {
+
+    /**
+     * The {@link Logger} instance.
+     */
+    private final static Logger LOGGER = LoggerFactory.getLogger(SweepRunner.class);
+
+    /**
+     * The interaction radius (i.e up to which radius a particle is consider a neighbor of another).
+     */
+    private final double interactionRadius;
+
+    /**
+     * The {@link SimulationParameters} shared by all runs (eta, seed and parallelism are set for each run).
+     */
+    private final SimulationParameters parameters;
+
+    /**
+     * The amount of runs performed concurrently.
+     */
+    private final int threads;
+
+
+    /**
+     * Constructor.
+     *
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a particle is consider a neighbor of another).
+     * @param parameters        The {@link SimulationParameters} shared by all runs
+     *                          (their seed is used to generate the seed of each replica).
+     * @param threads           The amount of runs performed concurrently.
+     * @throws IllegalArgumentException If the amount of threads is not positive.
+     */
+    public SweepRunner(double interactionRadius, SimulationParameters parameters, int threads)
+            throws IllegalArgumentException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The amount of threads must be positive");
+        }
+        this.interactionRadius = interactionRadius;
+        this.parameters = parameters;
+        this.threads = threads;
+    }
+
+    /**
+     * Performs the given amount of {@code replicas} of a simulation for each of the given {@code points}.
+     * The same replica uses the same seed for all points (i.e common random numbers, so curves are smoother),
+     * and runs that fail (e.g because the parameters are not valid for a given point) are logged and skipped.
+     *
+     * @param points   The {@link SweepPoint}s to be simulated.
+     * @param replicas The amount of replicas simulated for each point.
+     * @param sink     The {@link StateSink} into which a {@link SweepResult} is pushed when each run finishes
+     *                 (in the calling thread, in the order in which runs finish).
+     *                 Note that closing it is responsibility of the caller.
+     * @throws IllegalArgumentException If the amount of replicas is not positive.
+     * @throws InterruptedException     If the calling thread is interrupted while waiting for the runs.
+     */
+    public void run(List<SweepPoint> points, int replicas, StateSink<SweepResult> sink)
+            throws IllegalArgumentException, InterruptedException {
+        if (replicas <= 0) {
+            throw new IllegalArgumentException("The amount of replicas must be positive");
+        }
+        final RandomSource random = new CounterBasedRandomSource(parameters.getSeed());
+        final List<Run> runs = new ArrayList<>(points.size() * replicas);
+        for (SweepPoint point : points) {
+            for (int replica = 0; replica < replicas; replica++) {
+                runs.add(new Run(point, replica, random.split(replica).getSeed()));
+            }
+        }
+        // The biggest runs are started first, so the last ones to finish are small (i.e better load balance)
+        runs.sort(Comparator.comparingInt((Run run) -> run.point.getParticles()).reversed());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CompletionService<SweepResult> completionService = new ExecutorCompletionService<>(executor);
+            runs.forEach(run -> completionService.submit(() -> simulate(run)));
+            LOGGER.info("Submitted {} runs ({} points, {} replicas each) to {} threads",
+                    runs.size(), points.size(), replicas, threads);
+            for (int finished = 1; finished <= runs.size(); finished++) {
+                try {
+                    sink.accept(completionService.take().get());
+                } catch (ExecutionException e) {
+                    LOGGER.error("A run failed, so it is skipped", e.getCause());
+                }
+                LOGGER.debug("Finished {} of {} runs", finished, runs.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Performs the given {@code run}.
+     *
+     * @param run The {@link Run} to be performed.
+     * @return The {@link SweepResult} of the run.
+     */
+    private SweepResult simulate(Run run) {
+        final SweepPoint point = run.point;
+        final SimulationEngine engine =
+                new SimulationEngine(point.getLength(), point.getParticles(), interactionRadius);
+        engine.simulate(parameters.withEta(point.getEta()).withSeed(run.seed).withParallelism(1));
+        return new SweepResult(point, run.replica, run.seed, engine.getObservables(), engine.getStopReason());
+    }
+
+    /**
+     * Bean class holding a run to be performed (i.e a point, and a replica of it).
+     */
+    private static final class Run {
+
+        /**
+         * The {@link SweepPoint} to be simulated.
+         */
+        private final SweepPoint point;
+
+        /**
+         * The number of replica.
+         */
+        private final int replica;
+
+        /**
+         * The seed of the run.
+         */
+        private final long seed;
+
+        /**
+         * Constructor.
+         *
+         * @param point   The {@link SweepPoint} to be simulated.
+         * @param replica The number of replica.
+         * @param seed    The seed of the run.
+         */
+        private Run(SweepPoint point, int replica, long seed) {
+            this.point = point;
+            this.replica = replica;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Bean class holding a point of the grid of parameters of a sweep.
+     */
+    public static final class SweepPoint {
+
+        /**
+         * The 'eta' value, used for calculating noise for updating angles.
+         */
+        private final double eta;
+
+        /**
+         * The amount of particles.
+         */
+        private final int particles;
+
+        /**
+         * The side length of the space.
+         */
+        private final double length;
+
+        /**
+         * Constructor.
+         *
+         * @param eta       The 'eta' value, used for calculating noise for updating angles.
+         * @param particles The amount of particles.
+         * @param length    The side length of the space.
+         */
+        public SweepPoint(double eta, int particles, double length) {
+            this.eta = eta;
+            this.particles = particles;
+            this.length = length;
+        }
+
+        /**
+         * @return The 'eta' value, used for calculating noise for updating angles.
+         */
+        public double getEta() {
+            return eta;
+        }
+
+        /**
+         * @return The amount of particles.
+         */
+        public int getParticles() {
+            return particles;
+        }
+
+        /**
+         * @return The side length of the space.
+         */
+        public double getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * Bean class that extends {@link State}, which stores the result of a run of a sweep.
+     */
+    public static final class SweepResult extends State {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The simulated {@link SweepPoint}.
+         */
+        private final SweepPoint point;
+
+        /**
+         * The number of replica.
+         */
+        private final int replica;
+
+        /**
+         * The seed of the run.
+         */
+        private final long seed;
+
+        /**
+         * The {@link Observables} recorded in the run.
+         */
+        private final Observables observables;
+
+        /**
+         * The {@link StopReason} of the run.
+         */
+        private final StopReason stopReason;
+
+        /**
+         * Constructor.
+         *
+         * @param point       The simulated {@link SweepPoint}.
+         * @param replica     The number of replica.
+         * @param seed        The seed of the run.
+         * @param observables The {@link Observables} recorded in the run.
+         * @param stopReason  The {@link StopReason} of the run.
+         */
+        private SweepResult(SweepPoint point, int replica, long seed, Observables observables,
+                            StopReason stopReason) {
+            this.point = point;
+            this.replica = replica;
+            this.seed = seed;
+            this.observables = observables;
+            this.stopReason = stopReason;
+        }
+
+        /**
+         * @return The simulated {@link SweepPoint}.
+         */
+        public SweepPoint getPoint() {
+            return point;
+        }
+
+        /**
+         * @return The number of replica.
+         */
+        public int getReplica() {
+            return replica;
+        }
+
+        /**
+         * @return The seed of the run.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return The {@link Observables} recorded in the run.
+         */
+        public Observables getObservables() {
+            return observables;
+        }
+
+        /**
+         * @return The {@link StopReason} of the run.
+         */
+        public StopReason getStopReason() {
+            return stopReason;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.utils.CellList;
+import ar.edu.itba.ss.off_lattice.utils.InteractionKernel;
+import ar.edu.itba.ss.off_lattice.utils.NeighborhoodsCalculator;
+import ar.edu.itba.ss.off_lattice.utils.PoolInvoker;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Object in charge of updating a {@link Space} in parallel.
+ * The {@code Mx x My} grid of the Cell Index Method is partitioned into rectangular tiles of cells
+ * (having about the same amount of tiles per cell in each axis),
+ * which are processed as independent tasks in a {@link ForkJoinPool}.
+ * Each task only writes data of the particles in its own tile
+ * (new directions are written into separate next-state buffers, which are swapped in when all tiles are done),
+ * so tasks share no mutable state.
+ */
+/* package */ class TiledUpdater {
+
+    /**
+     * How many tiles are created per thread, in order to balance load among them.
+     */
+    private static final int TILES_PER_THREAD = 4;
+
+    /**
+     * The {@link Space} to which the updated will be performed.
+     */
+    private final Space space;
+
+    /**
+     * The {@link InteractionKernel} used to check whether two particles are neighbors.
+     */
+    private final InteractionKernel kernel;
+
+    /**
+     * The eta value used for noise when updating the angle.
+     */
+    private final double eta;
+
+    /**
+     * The {@link RandomSource} used to generate noise (one stream per step, one value per particle).
+     */
+    private final RandomSource noise;
+
+    /**
+     * The {@link CellList} into which particles are binned.
+     */
+    private final CellList cellList;
+
+    /**
+     * The {@link ForkJoinPool} in which tiles are processed.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The {@link PoolInvoker} used to run the tiles in the {@link #pool}.
+     */
+    private final PoolInvoker invoker;
+
+    /**
+     * Array holding, for each tile, the position in the {@code tileCells} array where its cells start.
+     */
+    private final int[] tileStart;
+
+    /**
+     * Array holding the cells of each tile.
+     */
+    private final int[] tileCells;
+
+    /**
+     * The {@link DirectionBuffers} holding the speed directions of the particles during a step
+     * (prepared when moving them), and into which new directions are calculated.
+     */
+    private final DirectionBuffers directions;
+
+    /**
+     * Array holding, for each tile, the sum of the 'x' components of its particles' velocities
+     * (calculated while moving them).
+     */
+    private final double[] tileVelocitySumX;
+
+    /**
+     * Array holding, for each tile, the sum of the 'y' components of its particles' velocities
+     * (calculated while moving them).
+     */
+    private final double[] tileVelocitySumY;
+
+    /**
+     * The sum of the 'x' components of the particles' velocities before the last update.
+     */
+    private double velocitySumX;
+
+    /**
+     * The sum of the 'y' components of the particles' velocities before the last update.
+     */
+    private double velocitySumY;
+
+    /**
+     * Indicates whether the particles are binned according to their actual positions.
+     */
+    private boolean binned;
+
+    /**
+     * The root of the tree of {@link TilesAction}s that processes all the tiles
+     * (i.e tasks are created once, and reinitialized each time tiles are processed, in order to avoid allocating).
+     */
+    private final TilesAction tilesAction;
+
+    /**
+     * Performs the job of the actual phase for a given tile (i.e read by the {@link TilesAction}s).
+     */
+    private IntConsumer phase;
+
+    /**
+     * Moves the particles of a given tile (i.e created once, in order to avoid allocating).
+     */
+    private final IntConsumer positionsPhase;
+
+    /**
+     * Calculates the new directions of the particles of a given tile, using the actual {@link #step}
+     * (i.e created once, in order to avoid allocating).
+     */
+    private final IntConsumer anglesPhase;
+
+    /**
+     * The number of step being performed (i.e used to take noise values).
+     */
+    private long step;
+
+
+    /**
+     * Constructor.
+     *
+     * @param space             The {@link Space} to which the updated will be performed.
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a particle is consider a neighbor of another).
+     * @param eta               The eta value used for noise when updating the angle.
+     * @param mx                The amount of grids the {@link Space} is divided into, in the 'x' axis.
+     * @param my                The amount of grids the {@link Space} is divided into, in the 'y' axis.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @param noise             The {@link RandomSource} used to generate noise
+     *                          (one stream per step, one value per particle identifier).
+     * @param pool              The {@link ForkJoinPool} in which tiles are processed.
+     */
+    /* package */ TiledUpdater(Space space, double interactionRadius, double eta, int mx, int my, int subCells,
+                               RandomSource noise, ForkJoinPool pool) {
+        NeighborhoodsCalculator.validateParams(space, interactionRadius, mx, my, subCells);
+        this.space = space;
+        this.kernel = InteractionKernel.create(space.getWidth(), space.getHeight(), interactionRadius,
+                space.getParticleStore().getPrecision());
+        this.eta = eta;
+        this.noise = noise;
+        this.cellList = new CellList(space, mx, my, subCells, interactionRadius);
+        this.pool = pool;
+        this.invoker = new PoolInvoker(pool);
+        this.directions = DirectionBuffers.create(space.getParticleStore());
+        this.binned = false;
+
+        // Partition the grid into tiles, splitting each axis proportionally to its amount of cells
+        final double tiles = pool.getParallelism() * TILES_PER_THREAD;
+        final int cellsPerTileColumn = cellsPerTile(mx, Math.sqrt(tiles * mx / my));
+        final int cellsPerTileRow = cellsPerTile(my, Math.sqrt(tiles * my / mx));
+        final int tileColumns = (mx + cellsPerTileColumn - 1) / cellsPerTileColumn;
+        final int tileRows = (my + cellsPerTileRow - 1) / cellsPerTileRow;
+        this.tileStart = new int[tileColumns * tileRows + 1];
+        this.tileCells = new int[mx * my];
+        int position = 0;
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            for (int tileColumn = 0; tileColumn < tileColumns; tileColumn++) {
+                tileStart[tileRow * tileColumns + tileColumn] = position;
+                for (int row = tileRow * cellsPerTileRow; row < Math.min(my, (tileRow + 1) * cellsPerTileRow); row++) {
+                    for (int column = tileColumn * cellsPerTileColumn;
+                         column < Math.min(mx, (tileColumn + 1) * cellsPerTileColumn); column++) {
+                        tileCells[position++] = cellList.cellIndex(row, column);
+                    }
+                }
+            }
+        }
+        tileStart[tileColumns * tileRows] = position;
+        this.tileVelocitySumX = new double[tileColumns * tileRows];
+        this.tileVelocitySumY = new double[tileColumns * tileRows];
+        this.tilesAction = new TilesAction(this, 0, tileColumns * tileRows);
+        this.positionsPhase = this::updatePositions;
+        this.anglesPhase = tile -> updateAngles(tile, this.step);
+    }
+
+    /**
+     * Calculates how many cells of an axis each tile holds.
+     *
+     * @param cells        The amount of cells in the axis.
+     * @param desiredTiles The desired amount of tiles in the axis.
+     * @return The amount of cells per tile in the axis.
+     */
+    private static int cellsPerTile(int cells, double desiredTiles) {
+        final int tiles = (int) Math.max(1, Math.min(cells, Math.ceil(desiredTiles)));
+        return (cells + tiles - 1) / tiles;
+    }
+
+    /**
+     * Updates the {@link Space}: moves particles, bins them, and updates their angles.
+     *
+     * @param step The number of step being performed (i.e used to take noise values).
+     */
+    /* package */ void update(long step) {
+        if (!binned) {
+            cellList.build();
+        }
+        this.step = step;
+        processTiles(positionsPhase);
+        // Partial sums are reduced in tile order, so results do not depend on how tiles were scheduled
+        double sumX = 0;
+        double sumY = 0;
+        for (int tile = 0; tile < tileVelocitySumX.length; tile++) {
+            sumX += tileVelocitySumX[tile];
+            sumY += tileVelocitySumY[tile];
+        }
+        this.velocitySumX = sumX;
+        this.velocitySumY = sumY;
+        cellList.build(); // Counting sort is linear, so it is performed by this thread.
+        binned = true;
+        processTiles(anglesPhase);
+        directions.swap();
+    }
+
+    /**
+     * Indicates that particles were reordered, so they must be binned again before the next update.
+     */
+    /* package */ void invalidateBins() {
+        this.binned = false;
+    }
+
+    /**
+     * @return The sum of the 'x' components of the particles' velocities before the last update.
+     */
+    /* package */ double getVelocitySumX() {
+        return velocitySumX;
+    }
+
+    /**
+     * @return The sum of the 'y' components of the particles' velocities before the last update.
+     */
+    /* package */ double getVelocitySumY() {
+        return velocitySumY;
+    }
+
+    /**
+     * Processes all the tiles in the {@link ForkJoinPool}, waiting until all of them are done.
+     *
+     * @param tileProcessor Performs the job for a given tile.
+     */
+    private void processTiles(IntConsumer tileProcessor) {
+        this.phase = tileProcessor; // Forking the tasks makes this write visible to the pool's threads
+        tilesAction.reinitialize();
+        invoker.invoke(tilesAction);
+    }
+
+    /**
+     * Moves the particles in the given {@code tile}, preparing their speed directions, and summing their velocities.
+     *
+     * @param tile The tile.
+     */
+    private void updatePositions(int tile) {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] speedModules = particles.getSpeedModules();
+        final double[] directionX = directions.getDirectionX();
+        final double[] directionY = directions.getDirectionY();
+        final double width = space.getWidth();
+        final double height = space.getHeight();
+        final int[] cellStart = cellList.getCellStart();
+        final int[] particleIndex = cellList.getParticleIndex();
+        double sumX = 0;
+        double sumY = 0;
+        for (int t = tileStart[tile]; t < tileStart[tile + 1]; t++) {
+            final int cell = tileCells[t];
+            for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                final int i = particleIndex[k];
+                directions.prepare(i);
+                sumX += speedModules[i] * directionX[i];
+                sumY += speedModules[i] * directionY[i];
+                particles.move(i, width, height, directionX[i], directionY[i]);
+            }
+        }
+        tileVelocitySumX[tile] = sumX;
+        tileVelocitySumY[tile] = sumY;
+    }
+
+    /**
+     * Calculates the new directions of the particles in the given {@code tile},
+     * storing them in the next-state buffers.
+     *
+     * @param tile The tile.
+     * @param step The number of step being performed (i.e used to take noise values).
+     */
+    private void updateAngles(int tile, long step) {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final int[] cellStart = cellList.getCellStart();
+        final int[] particleIndex = cellList.getParticleIndex();
+        final int[] stencils = cellList.getStencils();
+        final int[] stencilSizes = cellList.getStencilSizes();
+        final int[] ids = particles.getIds();
+        final double[] cosines = directions.getDirectionX();
+        final double[] sines = directions.getDirectionY();
+        final double upper = this.eta / 2;
+        final double lower = -1 * upper;
+        for (int t = tileStart[tile]; t < tileStart[tile + 1]; t++) {
+            final int cell = tileCells[t];
+            final int stencilStart = cell * cellList.getStencilCapacity();
+            final int stencilEnd = stencilStart + stencilSizes[cell];
+            for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                final int i = particleIndex[k];
+                final double xi = x[i];
+                final double yi = y[i];
+                double sinSum = sines[i];
+                double cosSum = cosines[i];
+                for (int s = stencilStart; s < stencilEnd; s++) {
+                    final int related = stencils[s];
+                    for (int l = cellStart[related]; l < cellStart[related + 1]; l++) {
+                        final int j = particleIndex[l];
+                        if (j != i && kernel.interact(xi, yi, x[j], y[j])) {
+                            sinSum += sines[j];
+                            cosSum += cosines[j];
+                        }
+                    }
+                }
+                final double noise = lower + (this.noise.nextDouble(step, ids[i]) * (upper - lower));
+                directions.setNext(i, cosSum, sinSum, noise);
+            }
+        }
+    }
+
+    /**
+     * {@link RecursiveAction} that processes a range of tiles, splitting it until each task has a single tile.
+     * The tree of tasks is created once, and each task reinitializes its subtasks before forking them
+     * (i.e processing the tiles allocates no tasks).
+     */
+    private static final class TilesAction extends RecursiveAction {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The {@link TiledUpdater} whose actual phase is performed for each tile.
+         */
+        private final TiledUpdater updater;
+
+        /**
+         * The first tile of the range (inclusive).
+         */
+        private final int from;
+
+        /**
+         * The subtask that processes the first half of the range (or {@code null} if the range has a single tile).
+         */
+        private final TilesAction left;
+
+        /**
+         * The subtask that processes the second half of the range (or {@code null} if the range has a single tile).
+         */
+        private final TilesAction right;
+
+        /**
+         * Constructor (creating the subtasks).
+         *
+         * @param updater The {@link TiledUpdater} whose actual phase is performed for each tile.
+         * @param from    The first tile of the range (inclusive).
+         * @param to      The last tile of the range (exclusive).
+         */
+        private TilesAction(TiledUpdater updater, int from, int to) {
+            this.updater = updater;
+            this.from = from;
+            if (to - from == 1) {
+                this.left = null;
+                this.right = null;
+            } else {
+                final int middle = (from + to) >>> 1;
+                this.left = new TilesAction(updater, from, middle);
+                this.right = new TilesAction(updater, middle, to);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            if (left == null) {
+                updater.phase.accept(from);
+                return;
+            }
+            left.reinitialize();
+            right.reinitialize();
+            invokeAll(left, right);
+        }
+    }
+}
@@ -1,45 +1,196 @@
 package ar.edu.itba.ss.off_lattice.simulation;
 
 import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
 import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.utils.CellListNeighborsCalculator;
+import ar.edu.itba.ss.off_lattice.utils.HalfShellPairCalculator;
+import ar.edu.itba.ss.off_lattice.utils.Neighborhoods;
 import ar.edu.itba.ss.off_lattice.utils.NeighborhoodsCalculator;
+import ar.edu.itba.ss.off_lattice.utils.RandomSource;
+import ar.edu.itba.ss.off_lattice.utils.VerletListNeighborsCalculator;
 
 import java.util.List;
-import java.util.Random;
-import java.util.stream.DoubleStream;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Object in charge of updating a {@link Space}.
  */
 public class Updater {
 
+    /**
+     * The key used to split the {@link RandomSource} used to generate noise.
+     */
+    private static final long NOISE_KEY = 1;
+
     /**
      * The {@link Space} to which the updated will be performed.
      */
     private final Space space;
 
+    /**
+     * The {@link NeighborsMethod} used to get a {@link Particle}s neighbors.
+     */
+    private final NeighborsMethod neighborsMethod;
+
     /**
      * The {@link NeighborhoodsCalculator} used to get a {@link Particle}s neighbors (i.e used for angle updates).
+     * Only set when using the {@link NeighborsMethod#MAP} method.
      */
     private final NeighborhoodsCalculator neighborhoodsCalculator;
 
+    /**
+     * The {@link CellListNeighborsCalculator} used to get a {@link Particle}s neighbors (i.e used for angle updates).
+     * Only set when using the {@link NeighborsMethod#CELL_LIST} method.
+     */
+    private final CellListNeighborsCalculator cellListNeighborsCalculator;
+
+    /**
+     * The {@link VerletListNeighborsCalculator} used to get a {@link Particle}s neighbors
+     * (i.e used for angle updates). Only set when using the {@link NeighborsMethod#VERLET} method.
+     */
+    private final VerletListNeighborsCalculator verletListNeighborsCalculator;
+
+    /**
+     * The {@link HalfShellPairCalculator} used to sum the directions of a {@link Particle}s neighbors
+     * (i.e used for angle updates). Only set when using the {@link NeighborsMethod#HALF_SHELL} method.
+     */
+    private final HalfShellPairCalculator halfShellPairCalculator;
+
+    /**
+     * The {@link DirectionBuffers} holding the speed directions of the {@link Particle}s during a step,
+     * and into which new directions are calculated before updating the {@link Particle}s.
+     */
+    private final DirectionBuffers directions;
+
+    /**
+     * The {@link TiledUpdater} used to perform updates in parallel (or {@code null} when updating serially).
+     */
+    private final TiledUpdater tiledUpdater;
+
+    /**
+     * The {@link FusedUpdater} used to perform updates in as few passes as possible
+     * (or {@code null} when using the {@link StepMode#REFERENCE} mode, or when updating in parallel).
+     */
+    private final FusedUpdater fusedUpdater;
+
+    /**
+     * The {@link ParticleReorderer} used to periodically sort the particles (or {@code null} if they are not sorted).
+     */
+    private final ParticleReorderer reorderer;
+
+    /**
+     * Every how many steps particles are sorted (only used if they are sorted).
+     */
+    private final int reorderInterval;
+
     /**
      * The eta value used for noise when updating the angle.
      */
     private final double eta;
 
+    /**
+     * The {@link RandomSource} used to generate noise (one stream per step, one value per particle identifier).
+     */
+    private final RandomSource noise;
+
+    /**
+     * The amount of performed updates (i.e the number of the next step).
+     */
+    private long step;
+
+    /**
+     * The sum of the 'x' components of the particles' velocities before the last update
+     * (calculated while moving them).
+     */
+    private double velocitySumX;
+
+    /**
+     * The sum of the 'y' components of the particles' velocities before the last update
+     * (calculated while moving them).
+     */
+    private double velocitySumY;
+
     /**
      * Constructor.
      *
      * @param space             The {@link Space} to which the updated will be performed.
      * @param interactionRadius The interaction radius
      *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
-     * @param eta               The eta value used for noise when updating the angle.
-     * @param m                 The amount of grids the {@link Space} is divided into.
+     * @param parameters        The {@link SimulationParameters} holding how each step is performed
+     *                          (i.e the eta value, the amount of sub-cells, the Verlet skin radius,
+     *                          the {@link NeighborsMethod}, the {@link ParticleOrdering} and its reorder interval,
+     *                          and the {@link StepMode}, which is only used when updating serially,
+     *                          as tiles are already processed in two sweeps).
+     * @param grid              The {@link GridSize} into which the {@link Space} is divided (i.e not automatic;
+     *                          when using the {@link NeighborsMethod#VERLET} method, it must be valid for the
+     *                          interaction radius plus the skin).
+     * @param random            The {@link RandomSource} from which noise is taken
+     *                          (noise values depend on the step and the particle's identifier,
+     *                          and not on the update order or the particle's index,
+     *                          so serial, parallel and sorted updates give the same noise).
+     * @param pool              The {@link ForkJoinPool} used to perform updates in parallel,
+     *                          or {@code null} to update serially (with the {@link NeighborsMethod#HALF_SHELL}
+     *                          method, only neighbor pairs are visited in parallel).
+     * @throws IllegalArgumentException If the grid size is automatic,
+     *                                  if a pool is given, but the neighbors method is neither
+     *                                  {@link NeighborsMethod#CELL_LIST} nor {@link NeighborsMethod#HALF_SHELL},
+     *                                  if sub-cells are given for the {@link NeighborsMethod#MAP} method,
+     *                                  or if the {@link StepMode#FUSED} mode is used with a neighbors method
+     *                                  other than {@link NeighborsMethod#CELL_LIST}.
      */
-    public Updater(Space space, double interactionRadius, double eta, int m) {
+    public Updater(Space space, double interactionRadius, SimulationParameters parameters, GridSize grid,
+                   RandomSource random, ForkJoinPool pool) throws IllegalArgumentException {
+        if (grid.isAutomatic()) {
+            throw new IllegalArgumentException("The grid size must not be automatic");
+        }
+        final double eta = parameters.getEta();
+        final int subCells = parameters.getSubCells();
+        final double skin = parameters.getVerletSkin();
+        final NeighborsMethod neighborsMethod = parameters.getNeighborsMethod();
+        final ParticleOrdering ordering = parameters.getOrdering();
+        final int reorderInterval = parameters.getReorderInterval();
+        final StepMode stepMode = parameters.getStepMode();
+        final int mx = grid.getMx();
+        final int my = grid.getMy();
+        if (pool != null && neighborsMethod != NeighborsMethod.CELL_LIST
+                && neighborsMethod != NeighborsMethod.HALF_SHELL) {
+            throw new IllegalArgumentException("Parallel updates are only supported by the "
+                    + NeighborsMethod.CELL_LIST.getPropertyName() + " and "
+                    + NeighborsMethod.HALF_SHELL.getPropertyName() + " neighbors methods");
+        }
+        if (stepMode == StepMode.FUSED && neighborsMethod != NeighborsMethod.CELL_LIST) {
+            throw new IllegalArgumentException("The " + StepMode.FUSED.getPropertyName()
+                    + " step mode is only supported by the " + NeighborsMethod.CELL_LIST.getPropertyName()
+                    + " neighbors method");
+        }
+        if (subCells != 1 && neighborsMethod == NeighborsMethod.MAP) {
+            throw new IllegalArgumentException("Sub-cells are not supported by the "
+                    + NeighborsMethod.MAP.getPropertyName() + " neighbors method");
+        }
         this.space = space;
-        this.neighborhoodsCalculator = new NeighborhoodsCalculator(space, interactionRadius, m);
+        this.neighborsMethod = neighborsMethod;
+        this.noise = random.split(NOISE_KEY);
+        this.step = 0;
+        this.tiledUpdater = pool == null || neighborsMethod != NeighborsMethod.CELL_LIST ? null :
+                new TiledUpdater(space, interactionRadius, eta, mx, my, subCells, noise, pool);
+        this.neighborhoodsCalculator = neighborsMethod == NeighborsMethod.MAP ?
+                new NeighborhoodsCalculator(space, interactionRadius, mx, my) : null;
+        this.fusedUpdater = stepMode == StepMode.FUSED && tiledUpdater == null ?
+                new FusedUpdater(space, interactionRadius, eta, mx, my, subCells, noise) : null;
+        this.cellListNeighborsCalculator = neighborsMethod == NeighborsMethod.CELL_LIST && pool == null
+                && fusedUpdater == null ?
+                new CellListNeighborsCalculator(space, interactionRadius, mx, my, subCells) : null;
+        this.verletListNeighborsCalculator = neighborsMethod == NeighborsMethod.VERLET ?
+                new VerletListNeighborsCalculator(space, interactionRadius, skin, mx, my, subCells) : null;
+        this.halfShellPairCalculator = neighborsMethod == NeighborsMethod.HALF_SHELL ?
+                new HalfShellPairCalculator(space, interactionRadius, mx, my, subCells, pool) : null;
+        this.directions = tiledUpdater == null && fusedUpdater == null ?
+                DirectionBuffers.create(space.getParticleStore()) : null;
+        this.reorderer = !ordering.isSorted() || reorderInterval == 0 ? null :
+                new ParticleReorderer(space, interactionRadius, ordering);
+        this.reorderInterval = reorderInterval;
         this.eta = eta;
     }
 
@@ -47,50 +198,230 @@ public class Updater {
      * Updates the {@link Space}.
      */
     public void update() {
-        updatePositions(); // Update positions (using the initial positions and the speed).
-        updateAngles(); // Update angles (using the computed neighborhoods).
+        // Sorting only depends on the step, so a resumed simulation sorts particles in the same steps
+        if (reorderer != null && step > 0 && step % reorderInterval == 0) {
+            reorderParticles();
+        }
+        if (tiledUpdater != null) {
+            tiledUpdater.update(step); // Performs the same steps, in parallel
+            this.velocitySumX = tiledUpdater.getVelocitySumX();
+            this.velocitySumY = tiledUpdater.getVelocitySumY();
+        } else if (fusedUpdater != null) {
+            fusedUpdater.update(step); // Performs the same steps, in fewer passes
+            this.velocitySumX = fusedUpdater.getVelocitySumX();
+            this.velocitySumY = fusedUpdater.getVelocitySumY();
+        } else {
+            updatePositions(); // Update positions (using the initial positions and the speed).
+            updateAngles(); // Update angles (using the computed neighborhoods).
+        }
+        step++;
     }
 
     /**
-     * Makes all {@link Particle}s in the {@link Space} update their positions.
+     * @return The sum of the 'x' components of the particles' velocities before the last update
+     * (i.e in the state from which the actual one was calculated).
+     */
+    public double getVelocitySumX() {
+        return velocitySumX;
+    }
+
+    /**
+     * @return The sum of the 'y' components of the particles' velocities before the last update
+     * (i.e in the state from which the actual one was calculated).
+     */
+    public double getVelocitySumY() {
+        return velocitySumY;
+    }
+
+    /**
+     * @return The amount of performed updates (i.e the number of the next step).
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * Copies the positions of the particles when the Verlet lists were built into the given arrays.
+     *
+     * @param x The array into which the 'x' components are copied (one per particle).
+     * @param y The array into which the 'y' components are copied (one per particle).
+     * @return {@code true} if the positions were copied,
+     * or {@code false} if Verlet lists are not used, or they were not built yet.
+     */
+    /* package */ boolean copyVerletReferences(double[] x, double[] y) {
+        return verletListNeighborsCalculator != null && verletListNeighborsCalculator.copyReferences(x, y);
+    }
+
+    /**
+     * Restores the state of this updater, in order to resume a simulation
+     * (i.e noise is generated from the given step on, and Verlet lists are rebuilt as they were,
+     * keeping the amount of times they were built).
+     *
+     * @param step             The amount of performed updates.
+     * @param verletBuilds     The amount of times the Verlet lists were built (or 0 if they were not used).
+     * @param verletReferenceX The 'x' components of the particles' positions when the Verlet lists were built
+     *                         (or {@code null} if they were not built).
+     * @param verletReferenceY The 'y' components of the particles' positions when the Verlet lists were built
+     *                         (or {@code null} if they were not built).
+     * @throws IllegalArgumentException If the step is negative, or if Verlet lists are used,
+     *                                  but they were built and the reference positions are not given.
+     */
+    /* package */ void restore(long step, long verletBuilds, double[] verletReferenceX, double[] verletReferenceY)
+            throws IllegalArgumentException {
+        if (step < 0) {
+            throw new IllegalArgumentException("The step must not be negative");
+        }
+        if (verletListNeighborsCalculator != null) {
+            if (verletReferenceX != null && verletReferenceY != null) {
+                verletListNeighborsCalculator.restoreLists(verletReferenceX, verletReferenceY, verletBuilds);
+            } else if (step > 0) {
+                throw new IllegalArgumentException("The Verlet lists' reference positions are needed to resume");
+            }
+        }
+        this.step = step;
+    }
+
+    /**
+     * @return The amount of times the Verlet lists were built (or 0 if they are not used).
+     */
+    public long getAmountOfVerletListBuilds() {
+        return verletListNeighborsCalculator == null ? 0 : verletListNeighborsCalculator.getAmountOfBuilds();
+    }
+
+    /**
+     * Sorts the {@link Particle}s in the {@link Space},
+     * adapting the neighbors calculators to the new indexes.
+     */
+    private void reorderParticles() {
+        final int[] order = reorderer.reorder();
+        if (tiledUpdater != null) {
+            tiledUpdater.invalidateBins();
+        }
+        if (verletListNeighborsCalculator != null) {
+            verletListNeighborsCalculator.reorder(order);
+        }
+    }
+
+    /**
+     * Makes all {@link Particle}s in the {@link Space} update their positions,
+     * preparing their speed directions (i.e they are prepared once per step,
+     * as directions do not change until all of them are updated), and summing their velocities.
      */
     private void updatePositions() {
-        space.getParticles().forEach(particle -> particle.move(space.getSideLength()));
+        final ParticleStore particles = space.getParticleStore();
+        final double[] speedModules = particles.getSpeedModules();
+        final double[] directionX = directions.getDirectionX();
+        final double[] directionY = directions.getDirectionY();
+        final double width = space.getWidth();
+        final double height = space.getHeight();
+        double sumX = 0;
+        double sumY = 0;
+        for (int i = 0; i < particles.getAmountOfParticles(); i++) {
+            directions.prepare(i);
+            sumX += speedModules[i] * directionX[i];
+            sumY += speedModules[i] * directionY[i];
+            particles.move(i, width, height, directionX[i], directionY[i]);
+        }
+        this.velocitySumX = sumX;
+        this.velocitySumY = sumY;
     }
 
     /**
      * Updates the angles in the neighborhoods of the {@link Space}.
      */
     private void updateAngles() {
+        switch (neighborsMethod) {
+            case MAP:
+                updateAnglesWithMap();
+                break;
+            case CELL_LIST:
+                updateAnglesWithNeighborhoods(cellListNeighborsCalculator.computeNeighborhoods());
+                break;
+            case VERLET:
+                updateAnglesWithNeighborhoods(verletListNeighborsCalculator.computeNeighborhoods());
+                break;
+            case HALF_SHELL:
+                updateAnglesWithPairSums();
+                break;
+            default:
+                throw new IllegalStateException("Unsupported neighbors method: " + neighborsMethod);
+        }
+    }
+
+    /**
+     * Updates the angles in the neighborhoods of the {@link Space},
+     * using the {@link Map} computed by the {@link NeighborhoodsCalculator}.
+     * All new angles are calculated before updating any {@link Particle}
+     * (i.e each angle is calculated using the angles of the previous step, regardless of the map's order).
+     */
+    private void updateAnglesWithMap() {
+        final double[] cosines = directions.getDirectionX();
+        final double[] sines = directions.getDirectionY();
+        final int[] ids = space.getParticleStore().getIds();
         final double upper = this.eta / 2;
         final double lower = -1 * upper;
-        neighborhoodsCalculator.computeNeighborhoods()
-                .forEach((particle, neighbors) -> {
-                    final double noise = lower + (new Random().nextDouble() * (upper - lower));
-                    particle.setSpeedAngle(average(particle, neighbors) + noise);
-                });
+        for (Map.Entry<Particle, List<Particle>> neighborhood : neighborhoodsCalculator.computeNeighborhoods()
+                .entrySet()) {
+            final int i = neighborhood.getKey().getIndex();
+            double sinSum = sines[i];
+            double cosSum = cosines[i];
+            for (Particle neighbor : neighborhood.getValue()) {
+                sinSum += sines[neighbor.getIndex()];
+                cosSum += cosines[neighbor.getIndex()];
+            }
+            final double noise = lower + (this.noise.nextDouble(step, ids[i]) * (upper - lower));
+            directions.setNext(i, cosSum, sinSum, noise);
+        }
+        directions.swap();
     }
 
     /**
-     * Calculates the average angle of the given neighborhood (represented as a {@link Particle} and its neighbors).
+     * Updates the angles in the neighborhoods of the {@link Space}, using the given {@link Neighborhoods}.
+     * All new angles are calculated before updating any {@link Particle}
+     * (i.e each angle is calculated using the angles of the previous step).
      *
-     * @param particle  The {@link Particle}.
-     * @param neighbors The neighbors.
-     * @return The calculated average angle.
-     */
-    private static double average(Particle particle, List<Particle> neighbors) {
-        final DoubleStream particleAngleSinStream = DoubleStream.of(particle.getSpeedAngle()).map(Math::sin);
-        final DoubleStream neighborsSinStream = neighbors.stream().mapToDouble(Particle::getSpeedAngle).map(Math::sin);
-        final double sinAvg = DoubleStream.concat(particleAngleSinStream, neighborsSinStream)
-                .average()
-                .orElseThrow(() -> new RuntimeException("This should not happen."));
-
-        final DoubleStream particleAngleCosStream = DoubleStream.of(particle.getSpeedAngle()).map(Math::cos);
-        final DoubleStream neighborsCosStream = neighbors.stream().mapToDouble(Particle::getSpeedAngle).map(Math::cos);
-        final double cosAvg = DoubleStream.concat(particleAngleCosStream, neighborsCosStream)
-                .average()
-                .orElseThrow(() -> new RuntimeException("This should not happen."));
-
-        return Math.atan2(sinAvg, cosAvg);
+     * @param neighborhoods The {@link Neighborhoods} of the {@link Space}.
+     */
+    private void updateAnglesWithNeighborhoods(Neighborhoods neighborhoods) {
+        final double[] cosines = directions.getDirectionX();
+        final double[] sines = directions.getDirectionY();
+        final int[] ids = space.getParticleStore().getIds();
+        final double upper = this.eta / 2;
+        final double lower = -1 * upper;
+        final int[] offsets = neighborhoods.getOffsets();
+        final int[] neighbors = neighborhoods.getNeighbors();
+        final int amountOfParticles = neighborhoods.getAmountOfParticles();
+        for (int i = 0; i < amountOfParticles; i++) {
+            double sinSum = sines[i];
+            double cosSum = cosines[i];
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                sinSum += sines[neighbors[k]];
+                cosSum += cosines[neighbors[k]];
+            }
+            final double noise = lower + (this.noise.nextDouble(step, ids[i]) * (upper - lower));
+            directions.setNext(i, cosSum, sinSum, noise);
+        }
+        directions.swap();
+    }
+
+    /**
+     * Updates the angles in the neighborhoods of the {@link Space},
+     * using the sums computed by the {@link HalfShellPairCalculator}
+     * (i.e each pair of neighbors is visited once, and no neighbor lists are built).
+     * All new angles are calculated before updating any {@link Particle}
+     * (i.e each angle is calculated using the angles of the previous step).
+     */
+    private void updateAnglesWithPairSums() {
+        halfShellPairCalculator.computeSums(directions.getDirectionX(), directions.getDirectionY());
+        final double[] cosSums = halfShellPairCalculator.getCosSums();
+        final double[] sinSums = halfShellPairCalculator.getSinSums();
+        final int[] ids = space.getParticleStore().getIds();
+        final double upper = this.eta / 2;
+        final double lower = -1 * upper;
+        for (int i = 0; i < cosSums.length; i++) {
+            final double noise = lower + (this.noise.nextDouble(step, ids[i]) * (upper - lower));
+            directions.setNext(i, cosSums[i], sinSums[i], noise);
+        }
+        directions.swap();
     }
 }
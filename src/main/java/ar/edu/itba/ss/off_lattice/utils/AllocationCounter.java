@@ -0,0 +1,83 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Object in charge of counting the bytes allocated in the heap by the thread that created it
+ * (i.e used to check that the hot path of a simulation does not put pressure on the garbage collector).
+ * Bytes are taken from the {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} method,
+ * so counting is only supported if the JVM provides it.
+ *
+ * @implNote Reading the counter does not allocate, so it can be read as often as needed.
+ * Note that allocations performed by other threads (e.g those of a pool) are not counted.
+ */
+public final class AllocationCounter {
+
+    /**
+     * The {@link com.sun.management.ThreadMXBean} from which bytes are read
+     * (or {@code null} if counting is not supported).
+     */
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * The id of the thread whose allocations are counted.
+     */
+    private final long threadId;
+
+    /**
+     * The bytes allocated by the thread when the last measurement started.
+     */
+    private long start;
+
+
+    /**
+     * Constructor, counting the allocations of the current thread.
+     */
+    public AllocationCounter() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadBean = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported() ?
+                (com.sun.management.ThreadMXBean) bean : null;
+        if (threadBean != null && !threadBean.isThreadAllocatedMemoryEnabled()) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.threadId = Thread.currentThread().getId();
+        this.start = 0;
+    }
+
+    /**
+     * @return {@code true} if allocations can be counted, or {@code false} otherwise.
+     */
+    public boolean isSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * Starts a measurement.
+     *
+     * @throws IllegalStateException If allocations can not be counted.
+     */
+    public void start() throws IllegalStateException {
+        this.start = allocatedBytes();
+    }
+
+    /**
+     * @return The bytes allocated by the thread since the last measurement started.
+     * @throws IllegalStateException If allocations can not be counted.
+     */
+    public long stop() throws IllegalStateException {
+        return allocatedBytes() - start;
+    }
+
+    /**
+     * @return The total bytes allocated by the thread.
+     * @throws IllegalStateException If allocations can not be counted.
+     */
+    private long allocatedBytes() throws IllegalStateException {
+        if (threadBean == null) {
+            throw new IllegalStateException("Counting allocated bytes is not supported by this JVM");
+        }
+        return threadBean.getThreadAllocatedBytes(threadId);
+    }
+}
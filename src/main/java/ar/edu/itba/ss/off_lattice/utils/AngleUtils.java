@@ -1,6 +1,6 @@
 package ar.edu.itba.ss.off_lattice.utils;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Class implementing some algorithms for angles.
@@ -11,6 +11,16 @@ public class AngleUtils {
      * @return A random angle value, specified in radians.
      */
     public static double randomAngle() {
-        return Math.toRadians(new Random().nextDouble() * 360);
+        return toAngle(ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Transforms a uniformly distributed value in {@code [0, 1)} into an angle.
+     *
+     * @param uniform The uniformly distributed value.
+     * @return The angle value, specified in radians.
+     */
+    public static double toAngle(double uniform) {
+        return Math.toRadians(uniform * 360);
     }
 }
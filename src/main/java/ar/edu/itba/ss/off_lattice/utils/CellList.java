@@ -0,0 +1,325 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+
+import java.util.Arrays;
+
+/**
+ * Flat representation of the grid used by the Cell Index Method.
+ * Particles are binned into cells using a counting sort, so the particles of the cell {@code c}
+ * are those whose indexes are stored in {@code particleIndex}, from position {@code cellStart[c]} (inclusive)
+ * to position {@code cellStart[c + 1]} (exclusive).
+ *
+ * <p>
+ * The grid can be made of sub-cells (i.e cells whose side is the interaction radius divided by the
+ * amount of sub-cells), in which case each cell is related to those up to that amount of cells away from it,
+ * excluding those that can not contain any neighbor (i.e the stencil approximates a circle,
+ * reducing the amount of candidates that must be checked).
+ *
+ * <p>
+ * The grid has {@code Mx} columns and {@code My} rows, so a rectangular space can be divided into cells
+ * whose sides are close to each other (i.e the amount of cells in each axis is sized according to its length).
+ *
+ * @implNote Cells are numbered row by row, being the origin of the grid the lower left corner
+ * (i.e cell {@code c} is in row {@code c / Mx} and column {@code c % Mx}).
+ * All arrays are allocated once, and reused each time the grid is built.
+ */
+public final class CellList {
+
+    /**
+     * The space whose particles will be binned.
+     */
+    private final Space space;
+
+    /**
+     * The amount of cells in the 'x' axis (i.e columns).
+     */
+    private final int mx;
+
+    /**
+     * The amount of cells in the 'y' axis (i.e rows).
+     */
+    private final int my;
+
+    /**
+     * The maximum amount of cells related to a given cell (i.e the capacity of each stencil).
+     */
+    private final int stencilCapacity;
+
+    /**
+     * Array holding, for each cell, the position in the {@code particleIndex} array where its particles start.
+     */
+    private final int[] cellStart;
+
+    /**
+     * Array holding the indexes of the particles, sorted by cell.
+     */
+    private final int[] particleIndex;
+
+    /**
+     * Array holding, for each particle, the cell to which it belongs.
+     */
+    private final int[] cellOf;
+
+    /**
+     * Array holding, for each cell, the indexes of the cells related to it
+     * (i.e {@link #stencilCapacity} positions per cell).
+     */
+    private final int[] stencils;
+
+    /**
+     * Array holding, for each cell, how many different related cells it has
+     * (i.e less than {@link #stencilCapacity} when some cells are repeated or can not contain neighbors).
+     */
+    private final int[] stencilSizes;
+
+    /**
+     * The amount of cells in the 'x' axis divided by the width of the {@link Space}.
+     */
+    private final double factorX;
+
+    /**
+     * The amount of cells in the 'y' axis divided by the height of the {@link Space}.
+     */
+    private final double factorY;
+
+
+    /**
+     * Constructor.
+     *
+     * @param space             The space whose particles will be binned.
+     * @param mx                The amount of cells in the 'x' axis (i.e columns).
+     * @param my                The amount of cells in the 'y' axis (i.e rows).
+     * @param subCells          The amount of cells (in each direction) up to which a cell is related to others
+     *                          (i.e the amount of sub-cells in which the interaction radius is divided).
+     * @param interactionRadius The interaction radius (i.e used to exclude cells that can not contain neighbors).
+     */
+    public CellList(Space space, int mx, int my, int subCells, double interactionRadius) {
+        if (subCells <= 0) {
+            throw new IllegalArgumentException("The amount of sub-cells must be positive");
+        }
+        if (mx <= 0 || my <= 0) {
+            throw new IllegalArgumentException("The amount of cells in each axis must be positive");
+        }
+        this.space = space;
+        this.mx = mx;
+        this.my = my;
+        this.stencilCapacity = (2 * subCells + 1) * (2 * subCells + 1);
+        this.cellStart = new int[mx * my + 1];
+        this.particleIndex = new int[space.getAmountOfParticles()];
+        this.cellOf = new int[space.getAmountOfParticles()];
+        this.stencils = new int[mx * my * stencilCapacity];
+        this.stencilSizes = new int[mx * my];
+        this.factorX = mx / space.getWidth();
+        this.factorY = my / space.getHeight();
+        initializeStencils(subCells, interactionRadius);
+    }
+
+    /**
+     * Bins the particles of the {@link Space} into the grid, using their actual positions.
+     */
+    public void build() {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final int amountOfParticles = particles.getAmountOfParticles();
+        startBinning();
+        for (int i = 0; i < amountOfParticles; i++) {
+            bin(i, x[i], y[i]);
+        }
+        finishBinning();
+    }
+
+    /**
+     * Starts binning the particles (i.e {@link #bin(int, double, double)} must be called for each particle,
+     * and then {@link #finishBinning()}). Allows binning particles in the same loop in which they are moved.
+     */
+    public void startBinning() {
+        Arrays.fill(cellStart, 0);
+    }
+
+    /**
+     * Counts the particle with the given {@code index} in the cell containing the given position
+     * (i.e its position, which must not change until the grid is built again).
+     *
+     * @param index The index of the particle.
+     * @param x     The 'x' component of the particle's position.
+     * @param y     The 'y' component of the particle's position.
+     */
+    public void bin(int index, double x, double y) {
+        // Counts are stored shifted by one position
+        final int cell = toCellCoordinate(y, factorY, my) * mx + toCellCoordinate(x, factorX, mx);
+        cellOf[index] = cell;
+        cellStart[cell + 1]++;
+    }
+
+    /**
+     * Finishes binning the particles, once all of them were counted with {@link #bin(int, double, double)}
+     * (i.e places the particles' indexes into their cells' positions).
+     */
+    public void finishBinning() {
+        final int amountOfParticles = particleIndex.length;
+        final int cells = mx * my;
+        // First, accumulate counts in order to get where each cell starts.
+        for (int cell = 0; cell < cells; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        // Then, scatter particles into their cells' positions (using the last positions as cursors).
+        for (int i = amountOfParticles - 1; i >= 0; i--) {
+            particleIndex[--cellStart[cellOf[i] + 1]] = i;
+        }
+        // Cursors ended up shifted by one position (i.e each one points to the start of the previous cell).
+        System.arraycopy(cellStart, 1, cellStart, 0, cells);
+        cellStart[cells] = amountOfParticles;
+    }
+
+    /**
+     * Calculates the index of the cell in the given {@code row} and {@code column},
+     * taking into account periodic boundary conditions.
+     *
+     * @param row    The row of the cell (can be out of the grid).
+     * @param column The column of the cell (can be out of the grid).
+     * @return The index of the cell.
+     */
+    public int cellIndex(int row, int column) {
+        return Math.floorMod(row, my) * mx + Math.floorMod(column, mx);
+    }
+
+    /**
+     * @return The amount of cells in the 'x' axis (i.e columns).
+     */
+    public int getMx() {
+        return mx;
+    }
+
+    /**
+     * @return The amount of cells in the 'y' axis (i.e rows).
+     */
+    public int getMy() {
+        return my;
+    }
+
+    /**
+     * @return The maximum amount of cells related to a given cell (i.e the capacity of each stencil).
+     */
+    public int getStencilCapacity() {
+        return stencilCapacity;
+    }
+
+    /**
+     * @return Array holding, for each cell, the position in the {@code particleIndex} array where its particles start.
+     */
+    public int[] getCellStart() {
+        return cellStart;
+    }
+
+    /**
+     * @return Array holding the indexes of the particles, sorted by cell.
+     */
+    public int[] getParticleIndex() {
+        return particleIndex;
+    }
+
+    /**
+     * @return Array holding, for each particle, the cell to which it belongs.
+     */
+    public int[] getCellOf() {
+        return cellOf;
+    }
+
+    /**
+     * @return Array holding, for each cell, the indexes of the cells related to it
+     * (i.e the cell itself and its surrounding ones, stored from position {@code cell * stencilCapacity}).
+     */
+    public int[] getStencils() {
+        return stencils;
+    }
+
+    /**
+     * @return Array holding, for each cell, how many different related cells it has.
+     */
+    public int[] getStencilSizes() {
+        return stencilSizes;
+    }
+
+    /**
+     * Fills the stencils arrays, calculating for each cell which cells are related to it,
+     * taking into account periodic boundary conditions.
+     * Repeated cells (i.e those appearing when the grid has less cells in an axis than the stencil)
+     * are stored once. When the stencil fits in the grid, cells whose closest points are farther
+     * than the interaction radius are excluded (each axis having its own cell side).
+     *
+     * @param subCells          The amount of cells (in each direction) up to which a cell is related to others.
+     * @param interactionRadius The interaction radius.
+     */
+    private void initializeStencils(int subCells, double interactionRadius) {
+        final boolean prune = mx > 2 * subCells + 1 && my > 2 * subCells + 1;
+        final double cellWidth = space.getWidth() / mx;
+        final double cellHeight = space.getHeight() / my;
+        for (int row = 0; row < my; row++) {
+            for (int column = 0; column < mx; column++) {
+                final int cell = cellIndex(row, column);
+                final int start = cell * stencilCapacity;
+                int size = 0;
+                for (int rowDelta = -subCells; rowDelta <= subCells; rowDelta++) {
+                    for (int columnDelta = -subCells; columnDelta <= subCells; columnDelta++) {
+                        if (prune && Double.compare(Math.hypot(gap(rowDelta, cellHeight), gap(columnDelta, cellWidth)),
+                                interactionRadius) > 0) {
+                            continue;
+                        }
+                        final int related = cellIndex(row + rowDelta, column + columnDelta);
+                        if (!contains(stencils, start, start + size, related)) {
+                            stencils[start + size] = related;
+                            size++;
+                        }
+                    }
+                }
+                stencilSizes[cell] = size;
+            }
+        }
+    }
+
+    /**
+     * Calculates the minimum distance, in one axis, between points of two cells.
+     *
+     * @param delta    The difference between the cells' coordinates in that axis.
+     * @param cellSide The side length of the cells in that axis.
+     * @return The minimum distance.
+     */
+    private static double gap(int delta, double cellSide) {
+        return Math.max(0, Math.abs(delta) - 1) * cellSide;
+    }
+
+    /**
+     * Checks whether the given {@code value} is in the given {@code array}, between {@code from} (inclusive)
+     * and {@code to} (exclusive).
+     *
+     * @param array The array to check.
+     * @param from  The initial position (inclusive).
+     * @param to    The final position (exclusive).
+     * @param value The value to look for.
+     * @return {@code true} if the value is in the given range of the array, or {@code false} otherwise.
+     */
+    private static boolean contains(int[] array, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Transforms a position in one axis into a cell coordinate (i.e row or column).
+     *
+     * @param position The position.
+     * @param factor   The amount of cells in the axis divided by the space length in that axis.
+     * @param cells    The amount of cells in the axis.
+     * @return The cell coordinate.
+     * @implNote Positions in the upper limit of the space are placed in the last cell.
+     */
+    private static int toCellCoordinate(double position, double factor, int cells) {
+        return Math.min((int) (position * factor), cells - 1);
+    }
+}
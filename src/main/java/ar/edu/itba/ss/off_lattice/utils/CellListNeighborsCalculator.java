@@ -0,0 +1,148 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Object in charge of obtaining the neighborhoods in a {@link Space}, using flat primitive arrays.
+ *
+ * @implNote This object computes the neighborhoods using Cell Index Method, binning particles with a counting sort
+ * (see {@link CellList}) and storing the result in a {@link Neighborhoods} object.
+ * Arrays are allocated when this object is created and reused in each computation.
+ */
+public class CellListNeighborsCalculator {
+
+    /**
+     * The {@link Logger} object.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CellListNeighborsCalculator.class);
+
+    /**
+     * The space in which the neighborhood will be computed.
+     */
+    private final Space space;
+
+    /**
+     * The {@link InteractionKernel} used to check whether two particles are neighbors.
+     */
+    private final InteractionKernel kernel;
+
+    /**
+     * The {@link CellList} into which particles are binned.
+     */
+    private final CellList cellList;
+
+    /**
+     * The {@link Neighborhoods} object in which results are stored.
+     */
+    private final Neighborhoods neighborhoods;
+
+    /**
+     * The amount of candidate pairs checked in the last computation
+     * (i.e pairs of different particles in related cells).
+     */
+    private long amountOfCandidates;
+
+
+    /**
+     * Constructor.
+     *
+     * @param space             The space in which the neighborhood will be computed.
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
+     * @param mx                The amount of grids the {@link Space} is divided into, in the 'x' axis.
+     * @param my                The amount of grids the {@link Space} is divided into, in the 'y' axis.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided
+     *                          (i.e each cell is related to those up to this amount of cells away from it).
+     */
+    public CellListNeighborsCalculator(Space space, double interactionRadius, int mx, int my, int subCells) {
+        NeighborhoodsCalculator.validateParams(space, interactionRadius, mx, my, subCells);
+        this.space = space;
+        this.kernel = InteractionKernel.create(space.getWidth(), space.getHeight(), interactionRadius,
+                space.getParticleStore().getPrecision());
+        this.cellList = new CellList(space, mx, my, subCells, interactionRadius);
+        this.neighborhoods = new Neighborhoods(space.getAmountOfParticles());
+        this.amountOfCandidates = 0;
+    }
+
+    /**
+     * Computes the neighborhoods in the {@link Space}.
+     *
+     * @return The {@link Neighborhoods} object holding the neighbors of each {@link Particle}
+     * (indexed by their position in the {@link Space}).
+     * Note that the returned object is reused, so it will be overwritten by the next computation.
+     */
+    public Neighborhoods computeNeighborhoods() {
+        LOGGER.debug("Binning particles into cells...");
+        cellList.build();
+        LOGGER.debug("Finished binning particles.");
+
+        LOGGER.debug("Calculating neighbors...");
+        final int[] cellStart = cellList.getCellStart();
+        final int[] particleIndex = cellList.getParticleIndex();
+        final int[] cellOf = cellList.getCellOf();
+        final int[] stencils = cellList.getStencils();
+        final int[] stencilSizes = cellList.getStencilSizes();
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final int[] offsets = neighborhoods.getOffsets();
+        final int amountOfParticles = neighborhoods.getAmountOfParticles();
+        final int stencilCapacity = cellList.getStencilCapacity();
+        long totalCandidates = 0;
+        int count = 0;
+        offsets[0] = 0;
+        for (int i = 0; i < amountOfParticles; i++) {
+            final int stencilStart = cellOf[i] * stencilCapacity;
+            final int stencilEnd = stencilStart + stencilSizes[cellOf[i]];
+            // Make sure all candidates fit in the neighbors array before scanning them.
+            int candidates = 0;
+            for (int s = stencilStart; s < stencilEnd; s++) {
+                candidates += cellStart[stencils[s] + 1] - cellStart[stencils[s]];
+            }
+            totalCandidates += candidates - 1; // The particle itself is not a candidate
+            neighborhoods.ensureCapacity(count + candidates);
+            final int[] neighbors = neighborhoods.getNeighbors();
+            final double xi = x[i];
+            final double yi = y[i];
+            for (int s = stencilStart; s < stencilEnd; s++) {
+                final int cell = stencils[s];
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    final int j = particleIndex[k];
+                    if (j != i && kernel.interact(xi, yi, x[j], y[j])) {
+                        neighbors[count++] = j;
+                    }
+                }
+            }
+            offsets[i + 1] = count;
+        }
+        this.amountOfCandidates = totalCandidates;
+        LOGGER.debug("Finished calculating neighbors.");
+        return neighborhoods;
+    }
+
+    /**
+     * @return The amount of candidate pairs checked in the last computation
+     * (i.e ordered pairs of different particles in related cells).
+     */
+    public long getAmountOfCandidates() {
+        return amountOfCandidates;
+    }
+
+    /**
+     * @return The amount of cells in the 'x' axis.
+     */
+    public int getMx() {
+        return cellList.getMx();
+    }
+
+    /**
+     * @return The amount of cells in the 'y' axis.
+     */
+    public int getMy() {
+        return cellList.getMy();
+    }
+}
@@ -0,0 +1,62 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+/**
+ * A counter-based {@link RandomSource}: each value is obtained by hashing the seed, the stream and the counter
+ * with the SplitMix64 mixing function, so it holds no mutable state (i.e it can be shared among threads
+ * without contention) and it allocates nothing.
+ */
+public final class CounterBasedRandomSource implements RandomSource {
+
+    /**
+     * The golden ratio gamma used by SplitMix64 to separate consecutive inputs.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Used to transform the 53 upper bits of a long into a double in {@code [0, 1)}.
+     */
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /**
+     * The seed of this source.
+     */
+    private final long seed;
+
+    /**
+     * Constructor.
+     *
+     * @param seed The seed of this source.
+     */
+    public CounterBasedRandomSource(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double nextDouble(long stream, long counter) {
+        final long key = mix64(seed + (stream + 1) * GOLDEN_GAMMA);
+        return (mix64(key + (counter + 1) * GOLDEN_GAMMA) >>> 11) * DOUBLE_UNIT;
+    }
+
+    @Override
+    public RandomSource split(long key) {
+        return new CounterBasedRandomSource(mix64(seed ^ mix64(key + GOLDEN_GAMMA)));
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * SplitMix64 mixing function (i.e a bijection that scatters the bits of the input).
+     *
+     * @param value The value to be mixed.
+     * @return The mixed value.
+     */
+    private static long mix64(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
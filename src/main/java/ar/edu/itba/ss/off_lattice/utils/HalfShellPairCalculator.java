@@ -0,0 +1,431 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Object in charge of summing, for each particle, the speed directions of its neighbors (and its own one),
+ * visiting each unordered pair of neighbors exactly once (i.e without building neighbor lists).
+ * When a pair is found, each particle's direction is added into the other one's accumulator,
+ * so half the pairs of the Cell Index Method are checked.
+ *
+ * <p>
+ * Pairs are taken from a half-shell: each cell is paired with itself (taking each pair of its particles once),
+ * and with those cells of its stencil (see {@link CellList}) whose index is greater than its own one.
+ * As stencils are symmetric (even when the grid is so small that periodic images repeat cells),
+ * each pair of related cells is visited from exactly one of them.
+ *
+ * <p>
+ * In order to process cells in parallel, the grid is split into stripes of rows, as tall as the stencil reach
+ * (i.e the amount of sub-cells). As a cell's half-shell only reaches rows above it (and, through the periodic
+ * boundary, the bottom stripe reaches the top one), a stripe only writes accumulators of its own particles,
+ * of those in the next stripe, and (for the bottom stripe) of those in the top stripe.
+ * Stripes are thus processed in three phases (the bottom stripe, the other even stripes, and the odd stripes),
+ * and stripes of the same phase write disjoint accumulators. The same phases are followed when summing serially,
+ * so sums are added in the same order (i.e results do not depend on the parallelism).
+ *
+ * @implNote Arrays are allocated when this object is created and reused in each computation.
+ */
+public final class HalfShellPairCalculator {
+
+    /**
+     * The {@link Logger} object.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(HalfShellPairCalculator.class);
+
+    /**
+     * The amount of phases in which stripes are processed.
+     */
+    private static final int PHASES = 3;
+
+    /**
+     * The space whose particles are paired.
+     */
+    private final Space space;
+
+    /**
+     * The {@link InteractionKernel} used to check whether two particles are neighbors.
+     */
+    private final InteractionKernel kernel;
+
+    /**
+     * The {@link CellList} into which particles are binned.
+     */
+    private final CellList cellList;
+
+    /**
+     * Array holding, for each cell, the indexes of the cells of its half-shell
+     * (i.e {@link CellList#getStencilCapacity()} positions per cell).
+     */
+    private final int[] halfShells;
+
+    /**
+     * Array holding, for each cell, how many cells its half-shell has.
+     */
+    private final int[] halfShellSizes;
+
+    /**
+     * Array holding, for each stripe, its first cell (the last position holds the amount of cells).
+     */
+    private final int[] stripeCellStart;
+
+    /**
+     * Array holding, for each stripe, the amount of candidate pairs checked in the last computation.
+     */
+    private final long[] stripeCandidates;
+
+    /**
+     * The {@link StripesAction}s processing the stripes of each phase
+     * (or {@code null} for phases without stripes, or when summing serially).
+     */
+    private final StripesAction[] phaseActions;
+
+    /**
+     * Array holding the stripes of each phase (i.e those of phase {@code p} are stored
+     * from position {@code phaseStart[p]} to position {@code phaseStart[p + 1]}).
+     */
+    private final int[] phaseStripes;
+
+    /**
+     * Array holding, for each phase, the position in the {@link #phaseStripes} array where its stripes start.
+     */
+    private final int[] phaseStart;
+
+    /**
+     * The {@link ForkJoinPool} in which stripes are processed (or {@code null} when summing serially).
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The {@link PoolInvoker} used to run the stripes in the {@link #pool} (or {@code null} when summing serially).
+     */
+    private final PoolInvoker invoker;
+
+    /**
+     * The sums of the 'x' components of the directions (i.e cosines), one per particle.
+     */
+    private final double[] cosSums;
+
+    /**
+     * The sums of the 'y' components of the directions (i.e sines), one per particle.
+     */
+    private final double[] sinSums;
+
+    /**
+     * The 'x' components of the directions being summed (i.e set during a computation).
+     */
+    private double[] cosines;
+
+    /**
+     * The 'y' components of the directions being summed (i.e set during a computation).
+     */
+    private double[] sines;
+
+    /**
+     * The amount of candidate pairs checked in the last computation.
+     */
+    private long amountOfCandidates;
+
+
+    /**
+     * Constructor for serial computations.
+     *
+     * @param space             The space whose particles are paired.
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
+     * @param mx                The amount of grids the {@link Space} is divided into, in the 'x' axis.
+     * @param my                The amount of grids the {@link Space} is divided into, in the 'y' axis.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided
+     *                          (i.e each cell is related to those up to this amount of cells away from it).
+     */
+    public HalfShellPairCalculator(Space space, double interactionRadius, int mx, int my, int subCells) {
+        this(space, interactionRadius, mx, my, subCells, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param space             The space whose particles are paired.
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
+     * @param mx                The amount of grids the {@link Space} is divided into, in the 'x' axis.
+     * @param my                The amount of grids the {@link Space} is divided into, in the 'y' axis.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided
+     *                          (i.e each cell is related to those up to this amount of cells away from it).
+     * @param pool              The {@link ForkJoinPool} in which stripes are processed,
+     *                          or {@code null} to process them serially.
+     */
+    public HalfShellPairCalculator(Space space, double interactionRadius, int mx, int my, int subCells,
+                                   ForkJoinPool pool) {
+        NeighborhoodsCalculator.validateParams(space, interactionRadius, mx, my, subCells);
+        this.space = space;
+        this.kernel = InteractionKernel.create(space.getWidth(), space.getHeight(), interactionRadius,
+                space.getParticleStore().getPrecision());
+        this.cellList = new CellList(space, mx, my, subCells, interactionRadius);
+        this.pool = pool;
+        this.invoker = pool == null ? null : new PoolInvoker(pool);
+        this.cosSums = new double[space.getAmountOfParticles()];
+        this.sinSums = new double[space.getAmountOfParticles()];
+
+        // Keep, for each cell, the related cells with greater indexes
+        final int cells = mx * my;
+        final int stencilCapacity = cellList.getStencilCapacity();
+        final int[] stencils = cellList.getStencils();
+        final int[] stencilSizes = cellList.getStencilSizes();
+        this.halfShells = new int[cells * stencilCapacity];
+        this.halfShellSizes = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            final int start = cell * stencilCapacity;
+            int size = 0;
+            for (int s = start; s < start + stencilSizes[cell]; s++) {
+                if (stencils[s] > cell) {
+                    halfShells[start + size] = stencils[s];
+                    size++;
+                }
+            }
+            halfShellSizes[cell] = size;
+        }
+
+        // Split rows into stripes as tall as the stencil reach (the last one takes the remaining rows)
+        final int stripes = Math.max(1, my / subCells);
+        this.stripeCellStart = new int[stripes + 1];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            stripeCellStart[stripe] = stripe * subCells * mx;
+        }
+        stripeCellStart[stripes] = cells;
+        this.stripeCandidates = new long[stripes];
+
+        // The bottom stripe goes first, then the other even stripes, and finally the odd ones
+        this.phaseStripes = new int[stripes];
+        this.phaseStart = new int[PHASES + 1];
+        int position = 0;
+        for (int phase = 0; phase < PHASES; phase++) {
+            phaseStart[phase] = position;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (phaseOf(stripe) == phase) {
+                    phaseStripes[position++] = stripe;
+                }
+            }
+        }
+        phaseStart[PHASES] = position;
+        this.phaseActions = new StripesAction[PHASES];
+        if (pool != null) {
+            for (int phase = 0; phase < PHASES; phase++) {
+                if (phaseStart[phase + 1] > phaseStart[phase]) {
+                    phaseActions[phase] = new StripesAction(this, phaseStart[phase], phaseStart[phase + 1]);
+                }
+            }
+        }
+        this.amountOfCandidates = 0;
+    }
+
+    /**
+     * Calculates in which phase the given {@code stripe} is processed.
+     *
+     * @param stripe The stripe.
+     * @return The phase.
+     */
+    private static int phaseOf(int stripe) {
+        return stripe == 0 ? 0 : stripe % 2 == 0 ? 1 : 2;
+    }
+
+    /**
+     * Sums, for each particle, its own direction and the directions of its neighbors.
+     * Particles are binned using their actual positions.
+     *
+     * @param cosines The 'x' components of the particles' directions (i.e the cosines of their angles).
+     * @param sines   The 'y' components of the particles' directions (i.e the sines of their angles).
+     * @throws IllegalArgumentException If there is not a direction for each particle.
+     */
+    public void computeSums(double[] cosines, double[] sines) throws IllegalArgumentException {
+        if (cosines.length != cosSums.length || sines.length != sinSums.length) {
+            throw new IllegalArgumentException("There must be a direction for each particle");
+        }
+        LOGGER.debug("Binning particles into cells...");
+        cellList.build();
+        LOGGER.debug("Finished binning particles.");
+
+        LOGGER.debug("Summing directions of neighbor pairs...");
+        this.cosines = cosines;
+        this.sines = sines;
+        System.arraycopy(cosines, 0, cosSums, 0, cosSums.length);
+        System.arraycopy(sines, 0, sinSums, 0, sinSums.length);
+        try {
+            for (int phase = 0; phase < PHASES; phase++) {
+                if (pool == null) {
+                    for (int p = phaseStart[phase]; p < phaseStart[phase + 1]; p++) {
+                        sumStripe(phaseStripes[p]);
+                    }
+                } else if (phaseActions[phase] != null) {
+                    // Forking the tasks makes the directions visible to the pool's threads
+                    phaseActions[phase].reinitialize();
+                    invoker.invoke(phaseActions[phase]);
+                }
+            }
+        } finally {
+            this.cosines = null;
+            this.sines = null;
+        }
+        long candidates = 0;
+        for (long stripeAmount : stripeCandidates) {
+            candidates += stripeAmount;
+        }
+        this.amountOfCandidates = candidates;
+        LOGGER.debug("Finished summing directions.");
+    }
+
+    /**
+     * @return The sums of the 'x' components of the directions (i.e cosines), one per particle,
+     * as computed by the last computation (note that the returned array is reused).
+     */
+    public double[] getCosSums() {
+        return cosSums;
+    }
+
+    /**
+     * @return The sums of the 'y' components of the directions (i.e sines), one per particle,
+     * as computed by the last computation (note that the returned array is reused).
+     */
+    public double[] getSinSums() {
+        return sinSums;
+    }
+
+    /**
+     * @return The amount of candidate pairs checked in the last computation
+     * (i.e unordered pairs of different particles in related cells).
+     */
+    public long getAmountOfCandidates() {
+        return amountOfCandidates;
+    }
+
+    /**
+     * Visits the pairs of the cells of the given {@code stripe},
+     * adding the direction of each particle into the accumulators of its neighbor.
+     *
+     * @param stripe The stripe.
+     */
+    private void sumStripe(int stripe) {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final int[] cellStart = cellList.getCellStart();
+        final int[] particleIndex = cellList.getParticleIndex();
+        final int stencilCapacity = cellList.getStencilCapacity();
+        long candidates = 0;
+        for (int cell = stripeCellStart[stripe]; cell < stripeCellStart[stripe + 1]; cell++) {
+            final int cellEnd = cellStart[cell + 1];
+            final int shellStart = cell * stencilCapacity;
+            final int shellEnd = shellStart + halfShellSizes[cell];
+            for (int k = cellStart[cell]; k < cellEnd; k++) {
+                final int i = particleIndex[k];
+                final double xi = x[i];
+                final double yi = y[i];
+                // Pairs in the same cell are taken once (i.e with the particles after this one)
+                for (int l = k + 1; l < cellEnd; l++) {
+                    addIfNeighbors(i, xi, yi, particleIndex[l], x, y);
+                }
+                candidates += cellEnd - k - 1;
+                for (int s = shellStart; s < shellEnd; s++) {
+                    final int related = halfShells[s];
+                    for (int l = cellStart[related]; l < cellStart[related + 1]; l++) {
+                        addIfNeighbors(i, xi, yi, particleIndex[l], x, y);
+                    }
+                    candidates += cellStart[related + 1] - cellStart[related];
+                }
+            }
+        }
+        stripeCandidates[stripe] = candidates;
+    }
+
+    /**
+     * Adds the direction of each of the given particles into the accumulators of the other one,
+     * if they are neighbors.
+     *
+     * @param i  The index of the first particle.
+     * @param xi The 'x' component of the first particle's position.
+     * @param yi The 'y' component of the first particle's position.
+     * @param j  The index of the second particle.
+     * @param x  The 'x' components of the particles' positions.
+     * @param y  The 'y' components of the particles' positions.
+     */
+    private void addIfNeighbors(int i, double xi, double yi, int j, double[] x, double[] y) {
+        if (kernel.interact(xi, yi, x[j], y[j])) {
+            cosSums[i] += cosines[j];
+            sinSums[i] += sines[j];
+            cosSums[j] += cosines[i];
+            sinSums[j] += sines[i];
+        }
+    }
+
+    /**
+     * {@link RecursiveAction} that processes a range of the stripes of a phase,
+     * splitting it until each task has a single stripe.
+     * The tree of tasks is created once, and each task reinitializes its subtasks before forking them
+     * (i.e processing the stripes allocates no tasks).
+     */
+    private static final class StripesAction extends RecursiveAction {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The {@link HalfShellPairCalculator} whose stripes are processed.
+         */
+        private final HalfShellPairCalculator calculator;
+
+        /**
+         * The first position of the range in the {@code phaseStripes} array (inclusive).
+         */
+        private final int from;
+
+        /**
+         * The subtask that processes the first half of the range (or {@code null} if the range has a single stripe).
+         */
+        private final StripesAction left;
+
+        /**
+         * The subtask that processes the second half of the range
+         * (or {@code null} if the range has a single stripe).
+         */
+        private final StripesAction right;
+
+        /**
+         * Constructor (creating the subtasks).
+         *
+         * @param calculator The {@link HalfShellPairCalculator} whose stripes are processed.
+         * @param from       The first position of the range in the {@code phaseStripes} array (inclusive).
+         * @param to         The last position of the range in the {@code phaseStripes} array (exclusive).
+         */
+        private StripesAction(HalfShellPairCalculator calculator, int from, int to) {
+            this.calculator = calculator;
+            this.from = from;
+            if (to - from == 1) {
+                this.left = null;
+                this.right = null;
+            } else {
+                final int middle = (from + to) >>> 1;
+                this.left = new StripesAction(calculator, from, middle);
+                this.right = new StripesAction(calculator, middle, to);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            if (left == null) {
+                calculator.sumStripe(calculator.phaseStripes[from]);
+                return;
+            }
+            left.reinitialize();
+            right.reinitialize();
+            invokeAll(left, right);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import ar.edu.itba.ss.off_lattice.models.Precision;
+
+/**
+ * Kernel used to check whether two particles interact (i.e whether they are neighbors),
+ * working on primitive coordinates, and taking into account periodic boundary conditions
+ * (i.e distances are measured between the nearest images of the particles).
+ * Distances are compared squared, so no square root is calculated.
+ *
+ * Each axis has its own length (i.e the space can be rectangular).
+ * When using the {@link Precision#FLOAT} precision, distances are calculated with single precision
+ * arithmetic.
+ *
+ * @implNote Coordinates must be in the {@code [0, L)} range of their axis (as particles are kept by
+ * {@link ar.edu.itba.ss.off_lattice.models.ParticleStore#move(int, double, double)}), so differences between them
+ * are always in the {@code (-L, L)} range, and at most one length must be subtracted or added to them.
+ * Kernels using the {@link Precision#FLOAT} precision are instances of a private subclass
+ * (see {@link #create(double, double, double, Precision)}), so the distances of {@link Precision#DOUBLE} kernels
+ * do not check the precision.
+ */
+public class InteractionKernel {
+
+    /**
+     * The width of the space (i.e its length in the 'x' axis).
+     */
+    private final double width;
+
+    /**
+     * The height of the space (i.e its length in the 'y' axis).
+     */
+    private final double height;
+
+    /**
+     * Two divided by the width of the space (i.e used to know if a difference exceeds half the width).
+     */
+    private final double twiceInverseWidth;
+
+    /**
+     * Two divided by the height of the space (i.e used to know if a difference exceeds half the height).
+     */
+    private final double twiceInverseHeight;
+
+    /**
+     * The squared interaction radius.
+     */
+    private final double squaredInteractionRadius;
+
+
+    /**
+     * Constructor (i.e distances are calculated with double precision).
+     *
+     * @param width             The width of the space (i.e its length in the 'x' axis).
+     * @param height            The height of the space (i.e its length in the 'y' axis).
+     * @param interactionRadius The interaction radius (i.e up to which distance two particles interact).
+     */
+    private InteractionKernel(double width, double height, double interactionRadius) {
+        this(width, height, interactionRadius, Precision.DOUBLE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param width             The width of the space (i.e its length in the 'x' axis).
+     * @param height            The height of the space (i.e its length in the 'y' axis).
+     * @param interactionRadius The interaction radius (i.e up to which distance two particles interact).
+     * @param precision         The {@link Precision} to which the squared interaction radius is rounded.
+     */
+    private InteractionKernel(double width, double height, double interactionRadius, Precision precision) {
+        this.width = width;
+        this.height = height;
+        this.twiceInverseWidth = 2 / width;
+        this.twiceInverseHeight = 2 / height;
+        this.squaredInteractionRadius = precision.round(interactionRadius * interactionRadius);
+    }
+
+    /**
+     * Creates an {@link InteractionKernel} that calculates distances with the given {@code precision}.
+     *
+     * @param width             The width of the space (i.e its length in the 'x' axis).
+     * @param height            The height of the space (i.e its length in the 'y' axis).
+     * @param interactionRadius The interaction radius (i.e up to which distance two particles interact).
+     * @param precision         The {@link Precision} with which distances are calculated.
+     * @return The created {@link InteractionKernel}.
+     */
+    public static InteractionKernel create(double width, double height, double interactionRadius,
+                                           Precision precision) {
+        if (precision == Precision.FLOAT) {
+            return new SinglePrecisionInteractionKernel(width, height, interactionRadius);
+        }
+        return new InteractionKernel(width, height, interactionRadius);
+    }
+
+    /**
+     * Checks whether the particles in the given positions interact.
+     *
+     * @param firstX  The 'x' component of the position of one of the particles.
+     * @param firstY  The 'y' component of the position of one of the particles.
+     * @param secondX The 'x' component of the position of the other particle.
+     * @param secondY The 'y' component of the position of the other particle.
+     * @return {@code true} if the distance between the particles is lower or equal than the interaction radius,
+     * or {@code false} otherwise.
+     */
+    public boolean interact(double firstX, double firstY, double secondX, double secondY) {
+        return squaredDistance(firstX, firstY, secondX, secondY) <= squaredInteractionRadius;
+    }
+
+    /**
+     * Calculates the squared distance between the nearest images of the particles in the given positions.
+     *
+     * @param firstX  The 'x' component of the position of one of the particles.
+     * @param firstY  The 'y' component of the position of one of the particles.
+     * @param secondX The 'x' component of the position of the other particle.
+     * @param secondY The 'y' component of the position of the other particle.
+     * @return The squared distance.
+     */
+    public double squaredDistance(double firstX, double firstY, double secondX, double secondY) {
+        final double x = minimumImageX(firstX - secondX);
+        final double y = minimumImageY(firstY - secondY);
+        return x * x + y * y;
+    }
+
+    /**
+     * Transforms the given difference between two 'x' coordinates into the difference between the nearest images.
+     *
+     * @param difference The difference (must be in the {@code (-Lx, Lx)} range).
+     * @return The difference between the nearest images (i.e in the {@code [-Lx/2, Lx/2]} range).
+     */
+    public double minimumImageX(double difference) {
+        // Truncation gives 1 or -1 only if the difference exceeds half the width (no branches needed)
+        return difference - width * (int) (difference * twiceInverseWidth);
+    }
+
+    /**
+     * Transforms the given difference between two 'y' coordinates into the difference between the nearest images.
+     *
+     * @param difference The difference (must be in the {@code (-Ly, Ly)} range).
+     * @return The difference between the nearest images (i.e in the {@code [-Ly/2, Ly/2]} range).
+     */
+    public double minimumImageY(double difference) {
+        return difference - height * (int) (difference * twiceInverseHeight);
+    }
+
+    /**
+     * @return The squared interaction radius.
+     */
+    public double getSquaredInteractionRadius() {
+        return squaredInteractionRadius;
+    }
+
+    /**
+     * An {@link InteractionKernel} using the {@link Precision#FLOAT} precision
+     * (i.e distances are calculated with single precision arithmetic).
+     */
+    private static final class SinglePrecisionInteractionKernel extends InteractionKernel {
+
+        /**
+         * The width of the space, in single precision.
+         */
+        private final float width;
+
+        /**
+         * The height of the space, in single precision.
+         */
+        private final float height;
+
+        /**
+         * Two divided by the width of the space, in single precision.
+         */
+        private final float twiceInverseWidth;
+
+        /**
+         * Two divided by the height of the space, in single precision.
+         */
+        private final float twiceInverseHeight;
+
+        /**
+         * Constructor.
+         *
+         * @param width             The width of the space (i.e its length in the 'x' axis).
+         * @param height            The height of the space (i.e its length in the 'y' axis).
+         * @param interactionRadius The interaction radius (i.e up to which distance two particles interact).
+         */
+        private SinglePrecisionInteractionKernel(double width, double height, double interactionRadius) {
+            super(width, height, interactionRadius, Precision.FLOAT);
+            this.width = (float) width;
+            this.height = (float) height;
+            this.twiceInverseWidth = (float) (2 / width);
+            this.twiceInverseHeight = (float) (2 / height);
+        }
+
+        @Override
+        public double squaredDistance(double firstX, double firstY, double secondX, double secondY) {
+            final float differenceX = (float) firstX - (float) secondX;
+            final float differenceY = (float) firstY - (float) secondY;
+            final float x = differenceX - width * (int) (differenceX * twiceInverseWidth);
+            final float y = differenceY - height * (int) (differenceY * twiceInverseHeight);
+            return x * x + y * y;
+        }
+    }
+}
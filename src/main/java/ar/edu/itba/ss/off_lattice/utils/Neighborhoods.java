@@ -0,0 +1,84 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+/**
+ * Holds the neighbors of each particle of a space in a compressed sparse row layout
+ * (i.e the neighbors of the particle with index {@code i} are stored in the {@code neighbors} array,
+ * from position {@code offsets[i]} (inclusive) to position {@code offsets[i + 1]} (exclusive)).
+ *
+ * @implNote The arrays are owned by the object that computed the neighborhoods, and are reused between computations,
+ * so their content is only valid until the next computation is performed.
+ */
+public final class Neighborhoods {
+
+    /**
+     * The amount of particles whose neighborhoods are held by this object.
+     */
+    private final int amountOfParticles;
+
+    /**
+     * Array holding, for each particle, the position in the {@code neighbors} array where its neighbors start.
+     * It has {@code amountOfParticles + 1} meaningful values.
+     */
+    private final int[] offsets;
+
+    /**
+     * Array holding the indexes of the neighbors of all the particles.
+     */
+    private int[] neighbors;
+
+    /**
+     * Constructor.
+     *
+     * @param amountOfParticles The amount of particles whose neighborhoods will be held by this object.
+     */
+    /* package */ Neighborhoods(int amountOfParticles) {
+        this.amountOfParticles = amountOfParticles;
+        this.offsets = new int[amountOfParticles + 1];
+        this.neighbors = new int[Math.max(16, amountOfParticles * 4)];
+    }
+
+    /**
+     * @return The amount of particles whose neighborhoods are held by this object.
+     */
+    public int getAmountOfParticles() {
+        return amountOfParticles;
+    }
+
+    /**
+     * @return Array holding, for each particle, the position in the {@code neighbors} array where its neighbors start.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * @return Array holding the indexes of the neighbors of all the particles.
+     */
+    public int[] getNeighbors() {
+        return neighbors;
+    }
+
+    /**
+     * Returns the amount of neighbors of the particle with the given {@code index}.
+     *
+     * @param index The index of the particle.
+     * @return The amount of neighbors.
+     */
+    public int amountOfNeighbors(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Makes sure that the {@code neighbors} array can hold at least {@code capacity} values,
+     * growing it (and keeping its content) if needed.
+     *
+     * @param capacity The needed capacity.
+     */
+    /* package */ void ensureCapacity(int capacity) {
+        if (capacity > neighbors.length) {
+            final int[] aux = new int[Math.max(capacity, neighbors.length * 2)];
+            System.arraycopy(neighbors, 0, aux, 0, neighbors.length);
+            this.neighbors = aux;
+        }
+    }
+}
@@ -28,13 +28,19 @@ public class NeighborhoodsCalculator {
      */
     private final Space space;
     /**
-     * The interaction radius (i.e up to which radius a {@link Particle} is consider a neighbor of another).
+     * The {@link InteractionKernel} used to check whether two particles are neighbors
+     * (i.e up to which radius a {@link Particle} is consider a neighbor of another).
      */
-    private final double interactionRadius;
+    private final InteractionKernel kernel;
     /**
-     * The amount of grids the {@link Space} is divided into.
+     * The amount of grids the {@link Space} is divided into, in the 'x' axis (i.e columns).
      */
-    private final int M;
+    private final int mx;
+
+    /**
+     * The amount of grids the {@link Space} is divided into, in the 'y' axis (i.e rows).
+     */
+    private final int my;
 
     /**
      * A {@link GridCellFactory} used to get {@link GridCell}s (i.e used in the Cell Index Method).
@@ -48,38 +54,70 @@ public class NeighborhoodsCalculator {
      * @param space             The space in which the neighborhood will be computed.
      * @param interactionRadius The interaction radius
      *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
-     * @param M                 The amount of grids the {@link Space} is divided into.
+     * @param mx                The amount of grids the {@link Space} is divided into, in the 'x' axis.
+     * @param my                The amount of grids the {@link Space} is divided into, in the 'y' axis.
      */
-    public NeighborhoodsCalculator(Space space, double interactionRadius, int M) {
-        validateParams(space, interactionRadius, M);
+    public NeighborhoodsCalculator(Space space, double interactionRadius, int mx, int my) {
+        validateParams(space, interactionRadius, mx, my, 1);
         this.space = space;
-        this.interactionRadius = interactionRadius;
-        this.M = M;
-        this.gridCellFactory = GridCellFactory.getFactory(M);
+        this.kernel = InteractionKernel.create(space.getWidth(), space.getHeight(), interactionRadius,
+                space.getParticleStore().getPrecision());
+        this.mx = mx;
+        this.my = my;
+        this.gridCellFactory = GridCellFactory.getFactory(mx, my);
 
     }
 
     /**
-     * Validates the given parameters.
+     * Validates the given parameters, for a grid of sub-cells with a different amount of cells in each axis
+     * (i.e the interaction radius must fit in the cells of each axis).
      *
      * @param space             The space to be validated.
      * @param interactionRadius The interaction radius to be validated.
-     * @param M                 The 'M' value to be validated.
+     * @param mx                The amount of grids in the 'x' axis to be validated.
+     * @param my                The amount of grids in the 'y' axis to be validated.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
      * @throws IllegalArgumentException In case any of the parameters in not valid.
      */
-    private static void validateParams(Space space, double interactionRadius, int M) throws IllegalArgumentException {
+    public static void validateParams(Space space, double interactionRadius, int mx, int my, int subCells)
+            throws IllegalArgumentException {
         Assert.notNull(space, "The space must not be null");
         if (Double.compare(interactionRadius, 0) < 0) {
             // TODO: check interaction radius == 0 (particles in the exact same position)
             throw new IllegalArgumentException("The interaction radius must be positive");
         }
-        if (M <= 0) {
+        if (mx <= 0 || my <= 0) {
             throw new IllegalArgumentException("There must be at least one grid per side");
         }
-        if (M != 1 && Double.compare((space.getSideLength() / M), interactionRadius) <= 0) {
+        if (subCells <= 0) {
+            throw new IllegalArgumentException("The amount of sub-cells must be positive");
+        }
+        validateAxis("width", "Lx", "Mx", space.getWidth(), mx, interactionRadius, subCells);
+        validateAxis("height", "Ly", "My", space.getHeight(), my, interactionRadius, subCells);
+    }
+
+    /**
+     * Validates that the interaction radius fits in the cells of one axis
+     * (i.e a grid with only one cell in the axis is always valid).
+     *
+     * @param lengthName        The name of the length of the axis (used in the error message).
+     * @param lengthSymbol      The symbol of the length of the axis (used in the error message).
+     * @param cellsSymbol       The symbol of the amount of cells in the axis (used in the error message).
+     * @param length            The length of the space in the axis.
+     * @param cells             The amount of grids in the axis.
+     * @param interactionRadius The interaction radius.
+     * @param subCells          The amount of sub-cells in which the interaction radius is divided.
+     * @throws IllegalArgumentException In case the interaction radius does not fit in the cells.
+     */
+    private static void validateAxis(String lengthName, String lengthSymbol, String cellsSymbol,
+                                     double length, int cells, double interactionRadius, int subCells)
+            throws IllegalArgumentException {
+        if (cells != 1 && Double.compare((subCells * length / cells), interactionRadius) <= 0) {
             throw new IllegalArgumentException("The interaction radius must be lower than " +
-                    "the space side length divided by the amount of grids per side. " +
-                    "Values were: L = " + space.getSideLength() + ", M = " + M + ", r = " + interactionRadius + ".");
+                    "the space " + lengthName + " divided by the amount of grids in that axis" +
+                    (subCells == 1 ? "" : ", times the amount of sub-cells") + ". " +
+                    "Values were: " + lengthSymbol + " = " + length + ", " + cellsSymbol + " = " + cells +
+                    ", r = " + interactionRadius + (subCells == 1 ? "" : ", sub-cells = " + subCells) + ".");
         }
     }
 
@@ -92,9 +130,10 @@ public class NeighborhoodsCalculator {
 
         LOGGER.debug("Splitting space into a grid....");
         // Split space particles into a grid
-        final double factor = M / space.getSideLength();
+        final double factorX = mx / space.getWidth();
+        final double factorY = my / space.getHeight();
         final Map<GridCell, List<Particle>> grid = space.getParticles().stream()
-                .collect(Collectors.groupingBy(p -> getGridPosition(p, factor)));
+                .collect(Collectors.groupingBy(p -> getGridPosition(p, factorX, factorY)));
         LOGGER.debug("Finished splitting space.");
 
         LOGGER.debug("Calculating related particles...");
@@ -102,7 +141,7 @@ public class NeighborhoodsCalculator {
         // mapped to the List of Particles in the nearby cells
         final Map<List<Particle>, List<Particle>> relatedParticles = grid.entrySet()
                 .stream()
-                .collect(Collectors.toMap(Map.Entry::getValue, e -> nearParticles(e.getKey(), grid, M)));
+                .collect(Collectors.toMap(Map.Entry::getValue, e -> nearParticles(e.getKey(), grid)));
         LOGGER.debug("Finished calculating related particles.");
 
         LOGGER.debug("Calculating neighbors...");
@@ -120,16 +159,16 @@ public class NeighborhoodsCalculator {
                 // and filtering only those whose distance is lower or equal to the interaction radius.
                 final List<Particle> newNeighbors = related.getValue()
                         .stream()
-                        .parallel() // Perform this operation using parallelism to increase performance
-                        .filter(another -> Double.compare(particle.distanceTo(another), interactionRadius) <= 0)
+                        .filter(another -> kernel.interact(particle.getX(), particle.getY(),
+                                another.getX(), another.getY()))
                         .collect(Collectors.toList());
                 // Calculate distances to the same grid's particles
                 final List<Particle> sameGridNewNeighbors = related.getKey()
                         .stream()
-                        .parallel() // Perform this operation using parallelism to increase performance
                         .filter(another -> !particle.equals(another))
                         .filter(another -> !alreadyCalculated.contains(another))
-                        .filter(another -> Double.compare(particle.distanceTo(another), interactionRadius) <= 0)
+                        .filter(another -> kernel.interact(particle.getX(), particle.getY(),
+                                another.getX(), another.getY()))
                         .collect(Collectors.toList());
                 alreadyCalculated.add(particle); // Save this particle in the already calculated set
 
@@ -137,8 +176,9 @@ public class NeighborhoodsCalculator {
                 neighbors.addAll(newNeighbors);
                 neighbors.addAll(sameGridNewNeighbors);
 
-                // For each new Neighbor, add the Particle to their list of neighbors
-                for (Particle another : newNeighbors) {
+                // For each new Neighbor (including those in the same grid), add the Particle to their list of neighbors
+                for (Particle another : Stream.concat(newNeighbors.stream(), sameGridNewNeighbors.stream())
+                        .collect(Collectors.toList())) {
                     final List<Particle> anotherNeighbors = result.getOrDefault(another, new LinkedList<>());
                     anotherNeighbors.add(particle);
                     result.put(another, anotherNeighbors);
@@ -157,14 +197,16 @@ public class NeighborhoodsCalculator {
      * Method that calculates to which cell a particle belongs to.
      *
      * @param particle The particle to which the calculation must be done.
-     * @param factor   A factor used to calculate the position
-     *                 (i.e space side length / amount of grids per side).
+     * @param factorX  A factor used to calculate the column
+     *                 (i.e amount of grids in the 'x' axis / space width).
+     * @param factorY  A factor used to calculate the row
+     *                 (i.e amount of grids in the 'y' axis / space height).
      * @return The {@link GridCell} to which the particle belongs to.
      * @implNote The origin of the grid is the lower left corner.
      */
-    private GridCell getGridPosition(Particle particle, double factor) {
-        final int row = (int) (particle.getY() * factor);
-        final int column = (int) (particle.getX() * factor);
+    private GridCell getGridPosition(Particle particle, double factorX, double factorY) {
+        final int row = (int) (particle.getY() * factorY);
+        final int column = (int) (particle.getX() * factorX);
 
         return this.gridCellFactory.getGridCell(row, column);
     }
@@ -176,12 +218,10 @@ public class NeighborhoodsCalculator {
      * @param grid             The {@link GridCell} to which the related {@link Particle}s will be calculated.
      * @param particlesPerCell A {@link Map} holding, for each {@link GridCell},
      *                         a {@link List} of {@link Particle} that belongs to the said {@link GridCell}.
-     * @param M                Amount of {@link GridCell}s in a space side
-     *                         (used to know how to take into account periodic boundary conditions).
      * @return A {@link List} holding those {@link Particle}s related to the given {@code grid}.
      */
-    private List<Particle> nearParticles(GridCell grid, Map<GridCell, List<Particle>> particlesPerCell, int M) {
-        final Set<GridCell> neighborCells = neighborGridCell(grid, M);
+    private List<Particle> nearParticles(GridCell grid, Map<GridCell, List<Particle>> particlesPerCell) {
+        final Set<GridCell> neighborCells = neighborGridCell(grid);
         return particlesPerCell.entrySet().stream()
                 .filter(entry -> neighborCells.contains(entry.getKey()))
                 .map(Map.Entry::getValue)
@@ -191,35 +231,28 @@ public class NeighborhoodsCalculator {
 
     /**
      * Calculates which {@link GridCell}s are related (are neighbors) with the given {@code gridCell}.
+     * Only cells that come after the given one (row by row) are included, so each pair of related cells
+     * is visited once (i.e particles in the same cell are handled separately).
      *
-     * @param gridCell The {@link GridCell} to which the neighbor cells will be calculated.
-     * @param M        Amount of {@link GridCell}s in a space side
-     *                 (used to know how to take into account periodic boundary conditions).
+     * @param gridCell The {@link GridCell} to which the neighbor cells will be calculated
+     *                 (periodic boundary conditions are taken into account with the amount of grids of each axis).
      * @return A {@link Set} holding the neighbor {@link GridCell}s of the given {@code gridCell}.
+     * @implNote The surrounding cells are wrapped and stored in a {@link Set}, so cells repeated when the grid
+     * has less than three cells in an axis are visited once, and the cell itself is never included.
      */
-    private Set<GridCell> neighborGridCell(GridCell gridCell, int M) {
-        // Upper grid cell
-        final int upperRow = Math.floorMod(gridCell.getRow() + 1, M);
-        final int upperColumn = Math.floorMod(gridCell.getColumn(), M);
-
-        // Upper-right grid cell coordinates
-        final int upperRightRow = Math.floorMod(gridCell.getRow() + 1, M);
-        final int upperRightColumn = Math.floorMod(gridCell.getColumn() + 1, M);
-
-        // Right grid cell coordinates
-        final int rightRow = Math.floorMod(gridCell.getRow(), M);
-        final int rightColumn = Math.floorMod(gridCell.getColumn() + 1, M);
-
-        // Lower-right grid cell coordinates
-        final int lowerRightRow = Math.floorMod(gridCell.getColumn() - 1, M);
-        final int lowerRightColumn = Math.floorMod(gridCell.getColumn() + 1, M);
-
-        return Stream.of(
-                this.gridCellFactory.getGridCell(upperRow, upperColumn),
-                this.gridCellFactory.getGridCell(upperRightRow, upperRightColumn),
-                this.gridCellFactory.getGridCell(rightRow, rightColumn),
-                this.gridCellFactory.getGridCell(lowerRightRow, lowerRightColumn)
-        ).collect(Collectors.toSet());
+    private Set<GridCell> neighborGridCell(GridCell gridCell) {
+        final int index = gridCell.getRow() * mx + gridCell.getColumn();
+        final Set<GridCell> neighborCells = new HashSet<>();
+        for (int rowDelta = -1; rowDelta <= 1; rowDelta++) {
+            for (int columnDelta = -1; columnDelta <= 1; columnDelta++) {
+                final int row = Math.floorMod(gridCell.getRow() + rowDelta, my);
+                final int column = Math.floorMod(gridCell.getColumn() + columnDelta, mx);
+                if (row * mx + column > index) {
+                    neighborCells.add(this.gridCellFactory.getGridCell(row, column));
+                }
+            }
+        }
+        return neighborCells;
     }
 
 
@@ -292,9 +325,10 @@ public class NeighborhoodsCalculator {
     private static final class GridCellFactory {
 
         /**
-         * {@link Map} holding, for each value of {@code M}, the corresponding {@link GridCellFactory}.
+         * {@link Map} holding, for each pair of {@code Mx} and {@code My} values
+         * (packed into a {@code long}, see {@link #key(int, int)}), the corresponding {@link GridCellFactory}.
          */
-        private final static Map<Integer, GridCellFactory> factories = new HashMap<>();
+        private final static Map<Long, GridCellFactory> factories = new HashMap<>();
 
         /**
          * An 2-D array holding each grid cell,
@@ -303,22 +337,29 @@ public class NeighborhoodsCalculator {
         private final GridCell[][] grid;
 
         /**
-         * The amount of cells per side.
+         * The amount of cells in the 'x' axis (i.e columns).
+         */
+        private final int mx;
+
+        /**
+         * The amount of cells in the 'y' axis (i.e rows).
          */
-        private final int M;
+        private final int my;
 
 
         /**
          * Constructor.
          *
-         * @param M The amount of cells per side.
+         * @param mx The amount of cells in the 'x' axis (i.e columns).
+         * @param my The amount of cells in the 'y' axis (i.e rows).
          */
-        private GridCellFactory(int M) {
-            this.M = M;
+        private GridCellFactory(int mx, int my) {
+            this.mx = mx;
+            this.my = my;
             // Create all GridCells when this factory is created.
-            this.grid = IntStream.range(0, M)
+            this.grid = IntStream.range(0, my)
                     .mapToObj(row ->
-                            IntStream.range(0, M)
+                            IntStream.range(0, mx)
                                     .mapToObj(column -> new GridCell(row, column))
                                     .toArray(GridCell[]::new))
                     .toArray(GridCell[][]::new);
@@ -332,28 +373,42 @@ public class NeighborhoodsCalculator {
          * @return The {@link GridCell} with the given {@code row} and {@code column.}.
          */
         private GridCell getGridCell(int row, int column) {
-            if (row < 0 || row >= M || column < 0 || column >= M) {
-                throw new IllegalArgumentException("Row and Column must be values between 0 and " + M + ".");
+            if (row < 0 || row >= my || column < 0 || column >= mx) {
+                throw new IllegalArgumentException("Row must be a value between 0 and " + my
+                        + ", and Column between 0 and " + mx + ".");
             }
             return grid[row][column];
         }
 
         /**
-         * Gets a {@link GridCellFactory} for the given {@code M}.
+         * Gets a {@link GridCellFactory} for the given {@code mx} and {@code my}.
          *
-         * @param M The amount of cells per side.
+         * @param mx The amount of cells in the 'x' axis (i.e columns).
+         * @param my The amount of cells in the 'y' axis (i.e rows).
          * @return The {@link GridCellFactory}.
          * @implNote This is not synchronized but it does not matter because,
          * in case there are write interferences at most we will have instantiated twice the same factory,
          * which is not a problem, as the Map will override with the same value for a given key.
          */
-        private static GridCellFactory getFactory(int M) {
-            GridCellFactory factory = factories.get(M);
+        private static GridCellFactory getFactory(int mx, int my) {
+            final long key = key(mx, my);
+            GridCellFactory factory = factories.get(key);
             if (factory == null) {
-                factory = new GridCellFactory(M);
-                factories.put(M, factory);
+                factory = new GridCellFactory(mx, my);
+                factories.put(key, factory);
             }
             return factory;
         }
+
+        /**
+         * Packs the given {@code mx} and {@code my} values into the key of the {@code factories} {@link Map}.
+         *
+         * @param mx The amount of cells in the 'x' axis (i.e columns).
+         * @param my The amount of cells in the 'y' axis (i.e rows).
+         * @return The key.
+         */
+        private static long key(int mx, int my) {
+            return ((long) mx << Integer.SIZE) | my;
+        }
     }
 }
@@ -0,0 +1,124 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Object in charge of running reusable {@link ForkJoinTask}s in a {@link ForkJoinPool} from a thread outside it,
+ * waiting until they are done without allocating.
+ *
+ * @implNote {@link ForkJoinPool#invoke(ForkJoinTask)} may allocate a wait node each time the calling thread blocks,
+ * which happens in almost every step. Instead, tasks are run by a wrapper task (created only once)
+ * that is pushed into the pool, and which unparks the calling thread when the task is done.
+ * Tasks must be invoked by one thread at a time.
+ */
+public final class PoolInvoker {
+
+    /**
+     * The {@link ForkJoinPool} in which tasks are run.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The {@link InvokerAction} that runs the tasks inside the pool.
+     */
+    private final InvokerAction action;
+
+
+    /**
+     * Constructor.
+     *
+     * @param pool The {@link ForkJoinPool} in which tasks are run.
+     * @throws IllegalArgumentException If the pool is {@code null}.
+     */
+    public PoolInvoker(ForkJoinPool pool) throws IllegalArgumentException {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool must not be null");
+        }
+        this.pool = pool;
+        this.action = new InvokerAction();
+    }
+
+    /**
+     * Runs the given {@code task} in the {@link ForkJoinPool}, waiting until it is done.
+     * The task must be ready to be run (i.e it must be reinitialized if it was already run).
+     *
+     * @param task The {@link ForkJoinTask} to be run.
+     * @throws IllegalStateException If the task failed with a checked exception
+     *                               (unchecked exceptions and errors are rethrown as they are).
+     */
+    public void invoke(ForkJoinTask<?> task) throws IllegalStateException {
+        action.reinitialize();
+        action.task = task;
+        action.waiter = Thread.currentThread();
+        action.failure = null;
+        action.finished = false;
+        pool.execute(action); // Pushing the action makes the writes above visible to the pool's threads
+        while (!action.finished) {
+            LockSupport.park(this);
+        }
+        // The action is flagged as finished right before completing, so the wait is short
+        while (!action.isDone()) {
+            Thread.yield();
+        }
+        final Throwable failure = action.failure;
+        action.task = null;
+        action.waiter = null;
+        action.failure = null;
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("The task failed", failure);
+        }
+    }
+
+    /**
+     * {@link RecursiveAction} that runs a task inside the pool, unparking the waiting thread when it is done.
+     */
+    private static final class InvokerAction extends RecursiveAction {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The {@link ForkJoinTask} to be run.
+         */
+        private ForkJoinTask<?> task;
+
+        /**
+         * The thread waiting for the task to be done.
+         */
+        private Thread waiter;
+
+        /**
+         * The exception thrown by the task (or {@code null} if it did not fail).
+         */
+        private Throwable failure;
+
+        /**
+         * Whether the task is done (written last, so the other fields can be read after reading it).
+         */
+        private volatile boolean finished;
+
+        @Override
+        protected void compute() {
+            try {
+                task.invoke();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                final Thread thread = waiter;
+                finished = true;
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+/**
+ * Defines behaviour for a source of random numbers that can be split into independent streams,
+ * and that gives random access to the values of each stream
+ * (i.e the value for a given stream and counter does not depend on which values were taken before,
+ * so any thread can take the values it needs, in any order, and results are always the same).
+ */
+public interface RandomSource {
+
+    /**
+     * Returns the uniformly distributed value in {@code [0, 1)} for the given {@code stream} and {@code counter}.
+     *
+     * @param stream  The stream (e.g the simulation step).
+     * @param counter The position in the stream (e.g the particle index).
+     * @return The random value.
+     */
+    double nextDouble(long stream, long counter);
+
+    /**
+     * Creates a new {@link RandomSource}, independent from this one, derived from the given {@code key}.
+     *
+     * @param key The key from which the new source is derived (e.g an identifier of what it will be used for).
+     * @return The new {@link RandomSource}.
+     */
+    RandomSource split(long key);
+
+    /**
+     * @return The seed of this source (i.e what makes results reproducible).
+     */
+    long getSeed();
+}
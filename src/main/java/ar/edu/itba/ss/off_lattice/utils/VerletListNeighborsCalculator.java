@@ -0,0 +1,281 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.ParticleStore;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Object in charge of computing neighborhoods using Verlet lists.
+ * Lists are built with the Cell Index Method, using the interaction radius plus a skin radius,
+ * and are only rebuilt when a particle moved more than half the skin since the last build
+ * (i.e until then, each list contains all the particles that can be within the interaction radius).
+ * In each computation, the neighbors of each particle are taken from its list.
+ * Displacements are measured between nearest images, so particles wrapped by periodic boundary conditions
+ * do not trigger a rebuild.
+ */
+public final class VerletListNeighborsCalculator {
+
+    /**
+     * The {@link Logger} instance.
+     */
+    private final static Logger LOGGER = LoggerFactory.getLogger(VerletListNeighborsCalculator.class);
+
+    /**
+     * The space in which the neighborhood will be computed.
+     */
+    private final Space space;
+
+    /**
+     * The {@link InteractionKernel} used to check whether two particles are neighbors.
+     */
+    private final InteractionKernel kernel;
+
+    /**
+     * Half the skin radius (i.e up to which displacement lists are valid).
+     */
+    private final double halfSkin;
+
+    /**
+     * The {@link CellListNeighborsCalculator} used to build the lists (i.e with the extended radius).
+     */
+    private final CellListNeighborsCalculator listsCalculator;
+
+    /**
+     * The {@link Neighborhoods} object in which results are stored.
+     */
+    private final Neighborhoods neighborhoods;
+
+    /**
+     * The 'x' components of the particles' positions when the lists were built.
+     */
+    private final double[] referenceX;
+
+    /**
+     * The 'y' components of the particles' positions when the lists were built.
+     */
+    private final double[] referenceY;
+
+    /**
+     * Buffer into which the 'x' components of the reference positions are permuted when particles are reordered.
+     */
+    private final double[] auxiliaryX;
+
+    /**
+     * Buffer into which the 'y' components of the reference positions are permuted when particles are reordered.
+     */
+    private final double[] auxiliaryY;
+
+    /**
+     * The actual Verlet lists (i.e the {@link Neighborhoods} computed with the extended radius).
+     */
+    private Neighborhoods lists;
+
+    /**
+     * The amount of times the lists were built.
+     */
+    private long amountOfBuilds;
+
+
+    /**
+     * Constructor.
+     *
+     * @param space             The space in which the neighborhood will be computed.
+     * @param interactionRadius The interaction radius
+     *                          (i.e up to which radius a {@link Particle} is consider a neighbor of another).
+     * @param skin              The skin radius (i.e how much the interaction radius is extended to build lists).
+     * @param mx                The amount of grids the {@link Space} is divided into, in the 'x' axis
+     *                          (must be valid for the extended radius).
+     * @param my                The amount of grids the {@link Space} is divided into, in the 'y' axis
+     *                          (must be valid for the extended radius).
+     * @param subCells          The amount of sub-cells in which the extended radius is divided.
+     */
+    public VerletListNeighborsCalculator(Space space, double interactionRadius, double skin, int mx, int my,
+                                         int subCells) {
+        if (Double.compare(skin, 0) < 0) {
+            throw new IllegalArgumentException("The skin radius must not be negative");
+        }
+        this.space = space;
+        this.kernel = InteractionKernel.create(space.getWidth(), space.getHeight(), interactionRadius,
+                space.getParticleStore().getPrecision());
+        this.halfSkin = skin / 2;
+        this.listsCalculator = new CellListNeighborsCalculator(space, interactionRadius + skin, mx, my, subCells);
+        this.neighborhoods = new Neighborhoods(space.getAmountOfParticles());
+        this.referenceX = new double[space.getAmountOfParticles()];
+        this.referenceY = new double[space.getAmountOfParticles()];
+        this.auxiliaryX = new double[space.getAmountOfParticles()];
+        this.auxiliaryY = new double[space.getAmountOfParticles()];
+        this.lists = null;
+        this.amountOfBuilds = 0;
+    }
+
+    /**
+     * Computes the neighborhoods in the {@link Space}, rebuilding the lists if needed.
+     *
+     * @return The {@link Neighborhoods} object holding the neighbors of each {@link Particle}
+     * (indexed by their position in the {@link Space}).
+     * Note that the returned object is reused, so it will be overwritten by the next computation.
+     */
+    public Neighborhoods computeNeighborhoods() {
+        if (lists == null || mustRebuild()) {
+            buildLists();
+        }
+        LOGGER.debug("Calculating neighbors from lists...");
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final int[] listOffsets = lists.getOffsets();
+        final int[] listNeighbors = lists.getNeighbors();
+        final int amountOfParticles = neighborhoods.getAmountOfParticles();
+        neighborhoods.ensureCapacity(listOffsets[amountOfParticles]);
+        final int[] offsets = neighborhoods.getOffsets();
+        final int[] neighbors = neighborhoods.getNeighbors();
+        int count = 0;
+        offsets[0] = 0;
+        for (int i = 0; i < amountOfParticles; i++) {
+            final double xi = x[i];
+            final double yi = y[i];
+            for (int k = listOffsets[i]; k < listOffsets[i + 1]; k++) {
+                final int j = listNeighbors[k];
+                if (kernel.interact(xi, yi, x[j], y[j])) {
+                    neighbors[count++] = j;
+                }
+            }
+            offsets[i + 1] = count;
+        }
+        LOGGER.debug("Finished calculating neighbors.");
+        return neighborhoods;
+    }
+
+    /**
+     * @return The amount of times the lists were built.
+     */
+    public long getAmountOfBuilds() {
+        return amountOfBuilds;
+    }
+
+    /**
+     * Copies the positions of the particles when the lists were built into the given arrays.
+     *
+     * @param x The array into which the 'x' components are copied (one per particle).
+     * @param y The array into which the 'y' components are copied (one per particle).
+     * @return {@code true} if the positions were copied, or {@code false} if the lists were not built yet.
+     */
+    public boolean copyReferences(double[] x, double[] y) {
+        if (lists == null) {
+            return false;
+        }
+        System.arraycopy(referenceX, 0, x, 0, referenceX.length);
+        System.arraycopy(referenceY, 0, y, 0, referenceY.length);
+        return true;
+    }
+
+    /**
+     * Rebuilds the lists as they were built when particles were in the given reference positions
+     * (i.e used to resume a simulation, as neighbors are taken in the order of the lists,
+     * so the same lists must be used in order to get exactly the same results).
+     * This is not counted as a build, as the amount of builds is restored too.
+     *
+     * @param x              The 'x' components of the particles' positions when the lists were built.
+     * @param y              The 'y' components of the particles' positions when the lists were built.
+     * @param amountOfBuilds The amount of times the lists were built before they were saved.
+     * @throws IllegalArgumentException If there is not a position for each particle,
+     *                                  or if the amount of builds is negative.
+     */
+    public void restoreLists(double[] x, double[] y, long amountOfBuilds) throws IllegalArgumentException {
+        if (x.length != referenceX.length || y.length != referenceY.length) {
+            throw new IllegalArgumentException("There must be a reference position for each particle");
+        }
+        if (amountOfBuilds < 0) {
+            throw new IllegalArgumentException("The amount of builds must not be negative");
+        }
+        buildListsAt(x, y);
+        this.amountOfBuilds = amountOfBuilds;
+    }
+
+    /**
+     * Adapts the lists to a reordering of the particles (i.e lists are indexed by position in the store).
+     * Reference positions are permuted together with the particles and lists are rebuilt from them,
+     * so lists are still rebuilt when a particle moves more than half the skin since the last build.
+     *
+     * @param order The permutation applied to the particles
+     *              (i.e the particle that was in index {@code order[k]} is now in index {@code k}).
+     * @throws IllegalArgumentException If there is not an index for each particle.
+     */
+    public void reorder(int[] order) throws IllegalArgumentException {
+        if (order.length != referenceX.length) {
+            throw new IllegalArgumentException("There must be an index for each particle");
+        }
+        if (lists == null) {
+            return; // Nothing was built yet
+        }
+        for (int k = 0; k < order.length; k++) {
+            auxiliaryX[k] = referenceX[order[k]];
+            auxiliaryY[k] = referenceY[order[k]];
+        }
+        buildListsAt(auxiliaryX, auxiliaryY); // Not a rebuild caused by displacements, so it is not counted
+    }
+
+    /**
+     * Builds the Verlet lists, saving the actual positions as reference.
+     */
+    private void buildLists() {
+        LOGGER.debug("Building Verlet lists...");
+        final ParticleStore particles = space.getParticleStore();
+        this.lists = listsCalculator.computeNeighborhoods();
+        System.arraycopy(particles.getXValues(), 0, referenceX, 0, referenceX.length);
+        System.arraycopy(particles.getYValues(), 0, referenceY, 0, referenceY.length);
+        this.amountOfBuilds++;
+    }
+
+    /**
+     * Builds the Verlet lists as if particles were in the given positions, saving them as reference
+     * (i.e particles are moved there while building, and moved back once lists are built).
+     * Actual positions are kept in the reference arrays meanwhile, so nothing is allocated.
+     *
+     * @param x The 'x' components of the positions from which lists are built (can not be the reference array).
+     * @param y The 'y' components of the positions from which lists are built (can not be the reference array).
+     */
+    private void buildListsAt(double[] x, double[] y) {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] actualX = particles.getXValues();
+        final double[] actualY = particles.getYValues();
+        System.arraycopy(actualX, 0, referenceX, 0, referenceX.length);
+        System.arraycopy(actualY, 0, referenceY, 0, referenceY.length);
+        System.arraycopy(x, 0, actualX, 0, actualX.length);
+        System.arraycopy(y, 0, actualY, 0, actualY.length);
+        try {
+            this.lists = listsCalculator.computeNeighborhoods();
+        } finally {
+            // Positions are swapped, so particles get back to the actual ones, and the others become the reference
+            for (int i = 0; i < referenceX.length; i++) {
+                final double auxX = actualX[i];
+                final double auxY = actualY[i];
+                actualX[i] = referenceX[i];
+                actualY[i] = referenceY[i];
+                referenceX[i] = auxX;
+                referenceY[i] = auxY;
+            }
+        }
+    }
+
+    /**
+     * Checks whether lists must be rebuilt
+     * (i.e a particle moved more than half the skin radius since the last build).
+     *
+     * @return {@code true} if lists must be rebuilt, or {@code false} otherwise.
+     */
+    private boolean mustRebuild() {
+        final ParticleStore particles = space.getParticleStore();
+        final double[] x = particles.getXValues();
+        final double[] y = particles.getYValues();
+        final double squaredHalfSkin = halfSkin * halfSkin;
+        for (int i = 0; i < referenceX.length; i++) {
+            if (kernel.squaredDistance(x[i], y[i], referenceX[i], referenceY[i]) > squaredHalfSkin) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
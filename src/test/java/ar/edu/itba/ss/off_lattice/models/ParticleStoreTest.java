@@ -0,0 +1,52 @@
+package ar.edu.itba.ss.off_lattice.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that moving particles keeps their positions in the {@code [0, L)} range of each axis.
+ */
+public class ParticleStoreTest {
+
+    /**
+     * The width of the space.
+     */
+    private static final double WIDTH = 20;
+
+    /**
+     * The height of the space.
+     */
+    private static final double HEIGHT = 10;
+
+
+    /**
+     * Checks that a particle leaving the space through the origin by a tiny amount
+     * (i.e less than the spacing of doubles near the limit) is placed at zero, instead of at the limit.
+     */
+    @Test
+    public void tinyNegativeDisplacementWrapsToZero() {
+        final ParticleStore particles = new ParticleStore(1);
+        particles.set(0, 0, 0, 1e-17, 0);
+        particles.move(0, WIDTH, HEIGHT, -1, -1);
+        assertEquals(0, particles.getX(0), 0);
+        assertEquals(0, particles.getY(0), 0);
+        new Space(WIDTH, HEIGHT, particles); // Positions must be accepted by the space
+    }
+
+    /**
+     * Checks that particles leaving the space through any side come back through the opposite one.
+     */
+    @Test
+    public void displacementsWrapAround() {
+        final ParticleStore particles = new ParticleStore(2);
+        particles.set(0, 19.5, 9.5, 1, 0);
+        particles.set(1, 0.5, 0.5, 1, 0);
+        particles.move(0, WIDTH, HEIGHT, 1, 1);
+        particles.move(1, WIDTH, HEIGHT, -1, -1);
+        assertEquals(0.5, particles.getX(0), 1e-12);
+        assertEquals(0.5, particles.getY(0), 1e-12);
+        assertEquals(19.5, particles.getX(1), 1e-12);
+        assertEquals(9.5, particles.getY(1), 1e-12);
+    }
+}
@@ -0,0 +1,51 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the {@link ConvergenceMonitor} detects stationary order values, but not slow drifts.
+ */
+public class ConvergenceMonitorTest {
+
+    /**
+     * The criteria used by the tests (i.e the default windows and tolerances).
+     */
+    private static final ConvergenceCriteria CRITERIA = ConvergenceCriteria.DEFAULT;
+
+    /**
+     * The amount of values received by the monitor in each test.
+     */
+    private static final int AMOUNT_OF_VALUES = 1000;
+
+
+    /**
+     * Checks that values oscillating around a constant are detected as soon as both windows are full.
+     */
+    @Test
+    public void detectsStationaryValues() {
+        final ConvergenceMonitor monitor = new ConvergenceMonitor(CRITERIA);
+        for (int k = 0; k < AMOUNT_OF_VALUES; k++) {
+            monitor.accept(0.5 + (k % 2 == 0 ? 0.01 : -0.01));
+        }
+        assertTrue(monitor.isSteady());
+        assertEquals(0, monitor.getSteadyState());
+    }
+
+    /**
+     * Checks that values increasing slowly are not detected, even if the means of consecutive windows
+     * differ less than the tolerance (i.e the trend of both windows exceeds it).
+     */
+    @Test
+    public void ignoresSlowDrift() {
+        final double slope = 0.8 * CRITERIA.getMeanTolerance() / CRITERIA.getWindow();
+        final ConvergenceMonitor monitor = new ConvergenceMonitor(CRITERIA);
+        for (int k = 0; k < AMOUNT_OF_VALUES; k++) {
+            monitor.accept(k * slope);
+        }
+        assertFalse(monitor.isSteady());
+    }
+}
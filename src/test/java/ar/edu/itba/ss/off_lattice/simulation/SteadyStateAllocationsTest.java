@@ -0,0 +1,154 @@
+package ar.edu.itba.ss.off_lattice.simulation;
+
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+import ar.edu.itba.ss.off_lattice.utils.AllocationCounter;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the steps of a simulation allocate nothing once buffers reached their final size
+ * (i.e after the warm up steps of the allocation report), for each neighbors method and step mode,
+ * both serially and in parallel (in which case only the allocations of the calling thread are counted).
+ * <p>
+ * Simulations are performed in the disordered phase (i.e with high noise), with a low density,
+ * so neighbor buffers never need to grow after the first steps (they grow if particles cluster more than ever before).
+ * <p>
+ * The same simulation is performed a few times, expecting every run to allocate nothing
+ * (i.e code compiled by the JIT compiler in between runs must not allocate either).
+ * Note that the optimizing (C2) compiler allocates in the thread that triggered a compilation,
+ * so tests are run with the C1 compiler only (see the surefire configuration).
+ */
+public class SteadyStateAllocationsTest {
+
+    /**
+     * The side length of the simulated space.
+     */
+    private static final double SPACE_SIDE_LENGTH = 20;
+
+    /**
+     * The amount of particles.
+     */
+    private static final int AMOUNT_OF_PARTICLES = 200;
+
+    /**
+     * The interaction radius.
+     */
+    private static final double INTERACTION_RADIUS = 1;
+
+    /**
+     * The amount of iterations performed by each simulation (enough for Verlet lists to be rebuilt a few times).
+     */
+    private static final int ITERATIONS = 200;
+
+    /**
+     * The 'eta' value (high enough for the system to stay disordered).
+     */
+    private static final double ETA = 4;
+
+    /**
+     * The speed module (high enough for particles to leave the Verlet skin often).
+     */
+    private static final double SPEED_MODULE = 0.1;
+
+    /**
+     * The skin radius used to build Verlet lists.
+     */
+    private static final double VERLET_SKIN = 0.3;
+
+    /**
+     * The seed of the simulations.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * The amount of times each simulation is performed.
+     */
+    private static final int RUNS = 5;
+
+    /**
+     * The amount of threads used by parallel simulations.
+     */
+    private static final int PARALLELISM = 2;
+
+
+    /**
+     * Skips the tests in JVMs that can not count allocated bytes.
+     */
+    @Before
+    public void checkSupport() {
+        Assume.assumeTrue("Counting allocated bytes is not supported by this JVM",
+                new AllocationCounter().isSupported());
+    }
+
+    /**
+     * Checks the reference step with the cell list method.
+     */
+    @Test
+    public void cellListStepDoesNotAllocate() {
+        checkSimulation(NeighborsMethod.CELL_LIST, StepMode.REFERENCE, 1);
+    }
+
+    /**
+     * Checks the reference step with the Verlet list method (including the steps rebuilding the lists).
+     */
+    @Test
+    public void verletStepDoesNotAllocate() {
+        checkSimulation(NeighborsMethod.VERLET, StepMode.REFERENCE, 1);
+    }
+
+    /**
+     * Checks the fused step.
+     */
+    @Test
+    public void fusedStepDoesNotAllocate() {
+        checkSimulation(NeighborsMethod.CELL_LIST, StepMode.FUSED, 1);
+    }
+
+    /**
+     * Checks the reference step with the half-shell method.
+     */
+    @Test
+    public void halfShellStepDoesNotAllocate() {
+        checkSimulation(NeighborsMethod.HALF_SHELL, StepMode.REFERENCE, 1);
+    }
+
+    /**
+     * Checks the tiled step (i.e the cell list method in parallel).
+     */
+    @Test
+    public void tiledStepDoesNotAllocate() {
+        checkSimulation(NeighborsMethod.CELL_LIST, StepMode.REFERENCE, PARALLELISM);
+    }
+
+    /**
+     * Checks the reference step with the half-shell method in parallel.
+     */
+    @Test
+    public void parallelHalfShellStepDoesNotAllocate() {
+        checkSimulation(NeighborsMethod.HALF_SHELL, StepMode.REFERENCE, PARALLELISM);
+    }
+
+    /**
+     * Performs a simulation {@link #RUNS} times, checking that its steps allocate nothing after the warm up.
+     *
+     * @param neighborsMethod The {@link NeighborsMethod} used to get the particles' neighbors.
+     * @param stepMode        The {@link StepMode} used to perform each step.
+     * @param parallelism     The amount of threads used to perform each step.
+     */
+    private static void checkSimulation(NeighborsMethod neighborsMethod, StepMode stepMode, int parallelism) {
+        final SimulationEngine engine =
+                new SimulationEngine(SPACE_SIDE_LENGTH, AMOUNT_OF_PARTICLES, INTERACTION_RADIUS);
+        engine.setAllocationReport(true);
+        final SimulationParameters parameters = new SimulationParameters(ITERATIONS, ETA, GridSize.AUTOMATIC, 1,
+                false, SPEED_MODULE, neighborsMethod, VERLET_SKIN, parallelism, SEED, VelocityRepresentation.ANGLE,
+                ConvergenceCriteria.DEFAULT, ParticleOrdering.NONE, 0, stepMode, Precision.DOUBLE);
+        for (int run = 0; run < RUNS; run++) {
+            engine.simulate(parameters);
+            assertEquals("Bytes allocated by the steps of run " + run, 0, engine.getSteadyStateAllocatedBytes());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ar.edu.itba.ss.off_lattice.utils;
+
+import ar.edu.itba.ss.off_lattice.models.Particle;
+import ar.edu.itba.ss.off_lattice.models.Precision;
+import ar.edu.itba.ss.off_lattice.models.Space;
+import ar.edu.itba.ss.off_lattice.models.VelocityRepresentation;
+import ar.edu.itba.ss.off_lattice.simulation.Initializer;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Checks that the map method gets the same neighbors than the cell list method,
+ * including grids with less than three cells per axis (i.e in which the surrounding cells of a cell repeat).
+ */
+public class NeighborhoodsCalculatorTest {
+
+    /**
+     * The side length of the space.
+     */
+    private static final double SPACE_SIDE_LENGTH = 4;
+
+    /**
+     * The amount of particles (enough for the space to have many pairs of neighbors).
+     */
+    private static final int AMOUNT_OF_PARTICLES = 60;
+
+    /**
+     * The interaction radius.
+     */
+    private static final double INTERACTION_RADIUS = 1;
+
+    /**
+     * The seed used to generate the space.
+     */
+    private static final long SEED = 42;
+
+
+    /**
+     * Checks a grid with one cell (i.e the cell is its only surrounding cell).
+     */
+    @Test
+    public void oneCellPerAxis() {
+        assertSameNeighbors(1);
+    }
+
+    /**
+     * Checks a grid with two cells per axis (i.e the cells at both sides of a cell are the same).
+     */
+    @Test
+    public void twoCellsPerAxis() {
+        assertSameNeighbors(2);
+    }
+
+    /**
+     * Checks a grid with three cells per axis (i.e the surrounding cells of a cell are all different).
+     */
+    @Test
+    public void threeCellsPerAxis() {
+        assertSameNeighbors(3);
+    }
+
+    /**
+     * Computes the neighborhoods with both methods, using a grid with {@code M} cells per axis,
+     * and checks that each particle has the same neighbors, listed once.
+     *
+     * @param M The amount of cells per axis.
+     */
+    private static void assertSameNeighbors(int M) {
+        final Space space = Initializer.generateInitialSpace(SPACE_SIDE_LENGTH, SPACE_SIDE_LENGTH,
+                AMOUNT_OF_PARTICLES, 0.03, new CounterBasedRandomSource(SEED), VelocityRepresentation.ANGLE,
+                Precision.DOUBLE);
+        final Map<Particle, List<Particle>> map =
+                new NeighborhoodsCalculator(space, INTERACTION_RADIUS, M, M).computeNeighborhoods();
+        final Neighborhoods cellList =
+                new CellListNeighborsCalculator(space, INTERACTION_RADIUS, M, M, 1).computeNeighborhoods();
+        for (Particle particle : space.getParticles()) {
+            final int index = particle.getIndex();
+            final int[] expected = Arrays.copyOfRange(cellList.getNeighbors(),
+                    cellList.getOffsets()[index], cellList.getOffsets()[index + 1]);
+            final int[] actual = map.getOrDefault(particle, Collections.emptyList()).stream()
+                    .mapToInt(Particle::getIndex)
+                    .toArray();
+            Arrays.sort(expected);
+            Arrays.sort(actual);
+            assertArrayEquals("Neighbors of particle " + index + " with M = " + M, expected, actual);
+        }
+    }
+}